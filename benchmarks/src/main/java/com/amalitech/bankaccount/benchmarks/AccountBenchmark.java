@@ -0,0 +1,153 @@
+package com.amalitech.bankaccount.benchmarks;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.SavingsAccount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account.deposit / withdrawal throughput, on one account shared by 1, 4 and all available
+ * threads (every call takes the account's monitor) and on an account per thread, and balance
+ * reads under a 90/10 read/write mix: lock-free seqlock reads against reads under the monitor
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedAccount {
+        Account account;
+
+        @Setup
+        public void setUp() {
+            account = new SavingsAccount(BenchmarkData.customer(1));
+            account.setAccountBalance(10_000);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OwnAccount {
+        Account account;
+
+        @Setup
+        public void setUp() {
+            account = new SavingsAccount(BenchmarkData.customer(1));
+            account.setAccountBalance(10_000);
+        }
+    }
+
+    // ==================== DEPOSIT ====================
+
+    @Benchmark
+    @Threads(1)
+    public Account deposit_1Thread(SharedAccount state) throws Exception {
+        return state.account.deposit(1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Account deposit_4Threads(SharedAccount state) throws Exception {
+        return state.account.deposit(1);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Account deposit_maxThreads(SharedAccount state) throws Exception {
+        return state.account.deposit(1);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Account deposit_maxThreadsOwnAccount(OwnAccount state) throws Exception {
+        return state.account.deposit(1);
+    }
+
+    // ==================== DEPOSIT + WITHDRAWAL ====================
+
+    // Each call deposits and withdraws the same amount, so the balance never reaches the minimum
+
+    @Benchmark
+    @Threads(1)
+    public Account depositWithdrawal_1Thread(SharedAccount state) throws Exception {
+        state.account.deposit(100).withdrawal(100);
+        return state.account;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Account depositWithdrawal_4Threads(SharedAccount state) throws Exception {
+        state.account.deposit(100).withdrawal(100);
+        return state.account;
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Account depositWithdrawal_maxThreads(SharedAccount state) throws Exception {
+        state.account.deposit(100).withdrawal(100);
+        return state.account;
+    }
+
+    // ==================== 90/10 READ / WRITE MIX ====================
+
+    // Nine reader threads per depositing thread on one account, reads either retry on the seqlock or take the monitor
+
+    @Benchmark
+    @Group("seqlockReads")
+    @GroupThreads(9)
+    public double seqlockReads_read(SharedAccount state) {
+        return state.account.getAccountBalance();
+    }
+
+    @Benchmark
+    @Group("seqlockReads")
+    @GroupThreads(1)
+    public Account seqlockReads_write(SharedAccount state) throws Exception {
+        return state.account.deposit(1);
+    }
+
+    @Benchmark
+    @Group("seqlockViewReads")
+    @GroupThreads(9)
+    public Account.BalanceView seqlockViewReads_read(SharedAccount state) {
+        return state.account.getBalanceView();
+    }
+
+    @Benchmark
+    @Group("seqlockViewReads")
+    @GroupThreads(1)
+    public Account seqlockViewReads_write(SharedAccount state) throws Exception {
+        return state.account.deposit(1);
+    }
+
+    @Benchmark
+    @Group("lockedReads")
+    @GroupThreads(9)
+    public double lockedReads_read(SharedAccount state) {
+        synchronized (state.account) {
+            return state.account.getAccountBalance();
+        }
+    }
+
+    @Benchmark
+    @Group("lockedReads")
+    @GroupThreads(1)
+    public Account lockedReads_write(SharedAccount state) throws Exception {
+        return state.account.deposit(1);
+    }
+}
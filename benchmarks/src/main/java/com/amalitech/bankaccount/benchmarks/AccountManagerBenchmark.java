@@ -0,0 +1,81 @@
+package com.amalitech.bankaccount.benchmarks;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.AccountManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account lookups: the AccountManager hash lookup against the list scan used by the Menu
+ * (AccountManager.getAccountForTransaction)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountManagerBenchmark {
+
+    @Param({"1000", "100000"})
+    int accountCount;
+
+    private List<Account> accounts;
+    private String[] accountNumbers;
+    private AccountManager accountManager;
+    private PrintStream console;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        accounts = BenchmarkData.accounts(accountCount);
+        accountManager = new AccountManager(accounts.toArray(new Account[0]));
+        accountNumbers = accounts.stream().map(Account::getAccountNumber).toArray(String[]::new);
+        // The list scan prints an error on a miss
+        console = BenchmarkData.silenceConsole();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    private String nextAccountNumber() {
+        next = next + 1 == accountNumbers.length ? 0 : next + 1;
+        return accountNumbers[next];
+    }
+
+    @Benchmark
+    public Account findAccount() {
+        return accountManager.findAccount(nextAccountNumber());
+    }
+
+    @Benchmark
+    public Account findAccountMiss() {
+        return accountManager.findAccount("ACC00MISSING");
+    }
+
+    @Benchmark
+    public Account getAccountForTransaction() {
+        return AccountManager.getAccountForTransaction(accounts, nextAccountNumber());
+    }
+
+    @Benchmark
+    public Account getAccountForTransactionMiss() {
+        return AccountManager.getAccountForTransaction(accounts, "ACC00MISSING");
+    }
+}
@@ -0,0 +1,74 @@
+package com.amalitech.bankaccount.benchmarks;
+
+import com.amalitech.bankaccount.interfaces.BalanceKernels;
+import com.amalitech.bankaccount.utils.ScalarBalanceKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar against Vector API kernels over a balance column of 1M to 50M accounts.
+ * Compare with FunctionalUtilsBenchmark.calculateTotalBalance for the same aggregation
+ * walking Account objects
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class BalanceKernelBenchmark {
+
+    @Param({"1000000", "10000000", "50000000"})
+    int accounts;
+
+    @Param({"scalar", "vector"})
+    String kernels;
+
+    private BalanceKernels kernel;
+    private double[] balances;
+
+    @Setup
+    public void setUp() {
+        kernel = kernels.equals("vector") ? BalanceKernels.vectorized() : ScalarBalanceKernels.INSTANCE;
+        if (kernel == null) {
+            throw new IllegalStateException("jdk.incubator.vector is not enabled");
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        balances = new double[accounts];
+        for (int i = 0; i < accounts; i++) {
+            balances[i] = random.nextInt(-100_000, 5_000_000) / 100.0;
+        }
+    }
+
+    @Benchmark
+    public double sum() {
+        return kernel.sum(balances, accounts);
+    }
+
+    @Benchmark
+    public double min() {
+        return kernel.min(balances, accounts);
+    }
+
+    @Benchmark
+    public double max() {
+        return kernel.max(balances, accounts);
+    }
+
+    @Benchmark
+    public int countAtLeast() {
+        return kernel.countAtLeast(balances, accounts, 10_000);
+    }
+}
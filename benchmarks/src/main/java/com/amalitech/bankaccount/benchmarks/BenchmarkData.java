@@ -0,0 +1,76 @@
+package com.amalitech.bankaccount.benchmarks;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.CheckingAccount;
+import com.amalitech.bankaccount.account.SavingsAccount;
+import com.amalitech.bankaccount.customer.Customer;
+import com.amalitech.bankaccount.customer.PremiumCustomer;
+import com.amalitech.bankaccount.customer.RegularCustomer;
+import com.amalitech.bankaccount.enums.TransactionType;
+import com.amalitech.bankaccount.exceptions.InputMismatchException;
+import com.amalitech.bankaccount.transaction.Transaction;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic accounts and transactions shared by the benchmarks
+ */
+final class BenchmarkData {
+
+    private static final String[] NAMES = {"Kofi Mensah", "Ama Owusu", "Mary Jane Smith", "Abraham Van Helsing", "Esi Asante"};
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private BenchmarkData() {}
+
+    static Customer customer(int i) {
+        try {
+            return i % 5 == 0
+                ? new PremiumCustomer(NAMES[i % NAMES.length], 18 + i % 60, "+233-559-123456", "12 Main Street", "customer" + i + "@example.com")
+                : new RegularCustomer(NAMES[i % NAMES.length], 18 + i % 60, "+233-559-123456", "12 Main Street", "customer" + i + "@example.com");
+        } catch (InputMismatchException e) {
+            throw new IllegalStateException("Generated customer is invalid", e);
+        }
+    }
+
+    /**
+     * @return Savings and checking accounts (alternating) opened with a 10,000 balance
+     */
+    static List<Account> accounts(int count) {
+        List<Account> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Account account = i % 2 == 0 ? new SavingsAccount(customer(i)) : new CheckingAccount(customer(i));
+            account.setAccountBalance(10_000);
+            accounts.add(account);
+        }
+        return accounts;
+    }
+
+    /**
+     * @return Transactions spread over the given accounts with a mix of every transaction type
+     */
+    static List<Transaction> transactions(int count, List<Account> accounts) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Account account = accounts.get(random.nextInt(accounts.size()));
+            Transaction transaction = new Transaction(account.getAccountNumber(), 1 + random.nextInt(5_000), 10_000);
+            transaction.setType(TYPES[random.nextInt(TYPES.length)].getDescription());
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    /**
+     * Replaces System.out with a sink so progress messages (IO.println) do not end up in the measurements
+     * @return The original stream, to restore in the tear-down
+     */
+    static PrintStream silenceConsole() {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+}
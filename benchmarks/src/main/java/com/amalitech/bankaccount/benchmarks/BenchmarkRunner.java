@@ -0,0 +1,63 @@
+package com.amalitech.bankaccount.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH command line (benchmark regex, -f, -wi,
+ * -i, -t, -p ...) and, unless -rf/-rff are given, writes JSON results to
+ * results/jmh-&lt;commit&gt;.json so runs on different commits can be compared side by side
+ */
+public final class BenchmarkRunner {
+
+    private static final String RESULTS_DIRECTORY = "results";
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        if (commandLine.getResult().hasValue()) {
+            if (!commandLine.getResultFormat().hasValue()) {
+                options.resultFormat(ResultFormatType.JSON);
+            }
+        } else {
+            Path results = Path.of(RESULTS_DIRECTORY);
+            Files.createDirectories(results);
+            Path target = results.resolve("jmh-" + runLabel() + ".json");
+            options.resultFormat(ResultFormatType.JSON).result(target.toString());
+            System.out.println("Results will be written to " + target.toAbsolutePath());
+        }
+
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * @return Short commit id of the working tree, or a timestamp outside a git checkout
+     */
+    private static String runLabel() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String commit = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            if (git.waitFor() == 0 && commit.matches("[0-9a-f]+")) {
+                return commit;
+            }
+        } catch (IOException e) {
+            // git is not installed, fall back to a timestamp
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.amalitech.bankaccount.benchmarks;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionSummary;
+import com.amalitech.bankaccount.utils.FunctionalUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream aggregations behind the statistics screen, over rows transactions and rows / 10 accounts
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FunctionalUtilsBenchmark {
+
+    @Param({"10000", "1000000"})
+    int rows;
+
+    private List<Account> accounts;
+    private List<Transaction> transactions;
+    private String accountNumber;
+
+    @Setup
+    public void setUp() {
+        accounts = BenchmarkData.accounts(rows / 10);
+        transactions = BenchmarkData.transactions(rows, accounts);
+        accountNumber = accounts.get(0).getAccountNumber();
+    }
+
+    // ==================== ACCOUNTS ====================
+
+    @Benchmark
+    public double calculateTotalBalance() {
+        return FunctionalUtils.calculateTotalBalance(accounts);
+    }
+
+    @Benchmark
+    public DoubleSummaryStatistics getBalanceStatistics() {
+        return FunctionalUtils.getBalanceStatistics(accounts);
+    }
+
+    @Benchmark
+    public Map<AccountType, List<Account>> groupByAccountType() {
+        return FunctionalUtils.groupByAccountType(accounts);
+    }
+
+    // ==================== TRANSACTIONS ====================
+
+    @Benchmark
+    public double calculateTotalDeposits() {
+        return FunctionalUtils.calculateTotalDeposits(transactions);
+    }
+
+    @Benchmark
+    public Map<String, Long> countByTransactionType() {
+        return FunctionalUtils.countByTransactionType(transactions);
+    }
+
+    @Benchmark
+    public DoubleSummaryStatistics getTransactionStatistics() {
+        return FunctionalUtils.getTransactionStatistics(transactions);
+    }
+
+    /**
+     * The figures printTransactionSummary used to gather in five passes, against summarizeTransactions
+     */
+    @Benchmark
+    public void transactionSummaryMultiPass(Blackhole blackhole) {
+        blackhole.consume(FunctionalUtils.getTransactionStatistics(transactions));
+        blackhole.consume(FunctionalUtils.countByTransactionType(transactions));
+        blackhole.consume(FunctionalUtils.calculateTotalDeposits(transactions));
+        blackhole.consume(FunctionalUtils.calculateTotalWithdrawals(transactions));
+        blackhole.consume(FunctionalUtils.calculateTotalTransfers(transactions));
+    }
+
+    @Benchmark
+    public TransactionSummary summarizeTransactions() {
+        return FunctionalUtils.summarizeTransactions(transactions);
+    }
+
+    @Benchmark
+    public List<Transaction> filterByAccountNumber() {
+        return FunctionalUtils.filterByAccountNumber(transactions, accountNumber);
+    }
+}
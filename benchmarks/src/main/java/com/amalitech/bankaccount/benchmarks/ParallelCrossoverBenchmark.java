@@ -0,0 +1,102 @@
+package com.amalitech.bankaccount.benchmarks;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.utils.FunctionalUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential FunctionalUtils operations against their *Parallel variants across list sizes.
+ * The fork sets the parallel threshold to 0 so the variants always go parallel; the size at
+ * which they start winning is the value for FunctionalUtils.PARALLEL_THRESHOLD on that machine
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dbank.parallelThreshold=0"})
+@State(Scope.Benchmark)
+public class ParallelCrossoverBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    private List<Account> accounts;
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setUp() {
+        accounts = BenchmarkData.accounts(size);
+        transactions = BenchmarkData.transactions(size, accounts);
+    }
+
+    // ==================== ACCOUNTS ====================
+
+    @Benchmark
+    public double totalBalanceSequential() {
+        return FunctionalUtils.calculateTotalBalance(accounts);
+    }
+
+    @Benchmark
+    public double totalBalanceParallel() {
+        return FunctionalUtils.calculateTotalBalanceParallel(accounts);
+    }
+
+    @Benchmark
+    public DoubleSummaryStatistics balanceStatisticsSequential() {
+        return FunctionalUtils.getBalanceStatistics(accounts);
+    }
+
+    @Benchmark
+    public DoubleSummaryStatistics balanceStatisticsParallel() {
+        return FunctionalUtils.getBalanceStatisticsParallel(accounts);
+    }
+
+    @Benchmark
+    public Map<AccountType, List<Account>> groupByAccountTypeSequential() {
+        return FunctionalUtils.groupByAccountType(accounts);
+    }
+
+    @Benchmark
+    public Map<AccountType, List<Account>> groupByAccountTypeParallel() {
+        return FunctionalUtils.groupByAccountTypeParallel(accounts);
+    }
+
+    // ==================== TRANSACTIONS ====================
+
+    @Benchmark
+    public Map<String, Long> countByTransactionTypeSequential() {
+        return FunctionalUtils.countByTransactionType(transactions);
+    }
+
+    @Benchmark
+    public Map<String, Long> countByTransactionTypeParallel() {
+        return FunctionalUtils.countByTransactionTypeParallel(transactions);
+    }
+
+    @Benchmark
+    public double totalDepositsSequential() {
+        return FunctionalUtils.calculateTotalDeposits(transactions);
+    }
+
+    @Benchmark
+    public double totalDepositsParallel() {
+        return FunctionalUtils.calculateTotalDepositsParallel(transactions);
+    }
+}
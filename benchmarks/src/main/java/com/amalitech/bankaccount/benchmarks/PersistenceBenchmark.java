@@ -0,0 +1,129 @@
+package com.amalitech.bankaccount.benchmarks;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.CheckingAccount;
+import com.amalitech.bankaccount.account.SavingsAccount;
+import com.amalitech.bankaccount.customer.Customer;
+import com.amalitech.bankaccount.customer.PremiumCustomer;
+import com.amalitech.bankaccount.customer.RegularCustomer;
+import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.enums.CustomerType;
+import com.amalitech.bankaccount.exceptions.InputMismatchException;
+import com.amalitech.bankaccount.services.FilePersistenceService;
+import com.amalitech.bankaccount.transaction.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * FilePersistenceService save and load of rows transactions and rows / 10 accounts.
+ * Every call uses a fresh service, so saveTransactions rewrites the whole journal and
+ * the loads start from cold bookkeeping (the OS page cache stays warm).
+ * loadAccountsValidated is the restore path from before the trusted factories (validating
+ * constructors, fresh ids) over the same accounts file, the baseline for loadAccounts
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+    @Param({"10000", "1000000"})
+    int rows;
+
+    private List<Account> accounts;
+    private List<Transaction> transactions;
+    private Path saveDirectory;
+    private Path loadDirectory;
+    private PrintStream console;
+
+    @Setup
+    public void setUp() throws IOException {
+        console = BenchmarkData.silenceConsole();
+        accounts = BenchmarkData.accounts(rows / 10);
+        transactions = BenchmarkData.transactions(rows, accounts);
+
+        saveDirectory = Files.createTempDirectory("persistence-benchmark-save");
+        loadDirectory = Files.createTempDirectory("persistence-benchmark-load");
+        FilePersistenceService persistence = new FilePersistenceService(loadDirectory);
+        persistence.saveAccounts(accounts);
+        persistence.saveTransactions(transactions);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(console);
+        for (Path directory : List.of(saveDirectory, loadDirectory)) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean saveAccounts() {
+        return new FilePersistenceService(saveDirectory).saveAccounts(accounts);
+    }
+
+    @Benchmark
+    public boolean saveTransactions() {
+        return new FilePersistenceService(saveDirectory).saveTransactions(transactions);
+    }
+
+    @Benchmark
+    public int loadAccounts() {
+        return new FilePersistenceService(loadDirectory).loadAccounts().size();
+    }
+
+    @Benchmark
+    public int loadTransactions() {
+        return new FilePersistenceService(loadDirectory).loadTransactions().size();
+    }
+
+    @Benchmark
+    public int loadAccountsValidated() throws IOException {
+        List<Account> loaded = new ArrayList<>();
+        try (Stream<String> lines = Files.lines(new FilePersistenceService(loadDirectory).getAccountsPath())) {
+            lines.forEach(line -> {
+                String[] parts = line.split("\\|");
+                try {
+                    Customer customer = CustomerType.valueOf(parts[1]) == CustomerType.PREMIUM
+                        ? new PremiumCustomer(parts[2], Integer.parseInt(parts[3]), parts[4], parts[5], parts[9])
+                        : new RegularCustomer(parts[2], Integer.parseInt(parts[3]), parts[4], parts[5], parts[9]);
+                    Account account = AccountType.valueOf(parts[6]) == AccountType.SAVINGS
+                        ? new SavingsAccount(customer)
+                        : new CheckingAccount(customer);
+                    account.setAccountBalance(Double.parseDouble(parts[7]));
+                    account.setAccountStatus(parts[8]);
+                    loaded.add(account);
+                } catch (InputMismatchException e) {
+                    // Generated data is valid
+                }
+            });
+        }
+        return loaded.size();
+    }
+}
@@ -0,0 +1,128 @@
+package com.amalitech.bankaccount.benchmarks;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.services.FilePersistenceService;
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * TransactionManager with 10k and 1M transactions: recording a transaction, and reading
+ * every transaction back both from memory and through the persisted journal history
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TransactionManagerBenchmark {
+
+    @Param({"10000", "1000000"})
+    int rows;
+
+    private List<Transaction> transactions;
+    private TransactionManager inMemory;
+    private TransactionManager withHistory;
+    private Path dataDirectory;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        console = BenchmarkData.silenceConsole();
+        List<Account> accounts = BenchmarkData.accounts(1_000);
+        transactions = BenchmarkData.transactions(rows, accounts);
+
+        inMemory = new TransactionManager();
+        inMemory.addTransactions(transactions);
+
+        dataDirectory = Files.createTempDirectory("transaction-benchmark");
+        FilePersistenceService persistence = new FilePersistenceService(dataDirectory);
+        persistence.saveTransactions(transactions);
+        withHistory = new TransactionManager();
+        withHistory.attachHistory(persistence.openTransactionHistory());
+    }
+
+    /**
+     * Fresh manager holding the preloaded rows, so addTransaction always appends to a list of
+     * the benchmarked size instead of one that keeps growing across iterations
+     */
+    @State(Scope.Benchmark)
+    public static class Recording {
+        TransactionManager manager;
+        Transaction[] pool;
+        int next;
+
+        @Setup(Level.Iteration)
+        public void setUp(TransactionManagerBenchmark benchmark) {
+            manager = new TransactionManager();
+            manager.addTransactions(benchmark.transactions);
+            pool = benchmark.transactions.subList(0, 1024).toArray(new Transaction[0]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(console);
+        try (Stream<Path> files = Files.walk(dataDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int addTransaction(Recording state) {
+        state.next = (state.next + 1) & (state.pool.length - 1);
+        state.manager.addTransaction(state.pool[state.next]);
+        return state.manager.getTransactionCount();
+    }
+
+    /**
+     * Appends from four threads at once: slots are claimed atomically, no manager lock
+     */
+    @Benchmark
+    @Threads(4)
+    public int addTransactionContended(Recording state) {
+        state.manager.addTransaction(state.pool[ThreadLocalRandom.current().nextInt(state.pool.length)]);
+        return state.manager.getTransactions().size();
+    }
+
+    @Benchmark
+    public int getAllTransactionsInMemory() {
+        return inMemory.getAllTransactions().size();
+    }
+
+    @Benchmark
+    public int getAllTransactionsFromHistory() {
+        return withHistory.getAllTransactions().size();
+    }
+
+    @Benchmark
+    public int getTransactionsForAccount() {
+        return inMemory.getTransactionsForAccount(transactions.get(0).getAccountNumber()).size();
+    }
+}
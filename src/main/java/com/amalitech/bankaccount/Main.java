@@ -4,12 +4,20 @@ import com.amalitech.bankaccount.utils.IO;
 
 import com.amalitech.bankaccount.account.*;
 import com.amalitech.bankaccount.customer.*;
+import com.amalitech.bankaccount.enums.AccountSkew;
 import com.amalitech.bankaccount.enums.AccountType;
 import com.amalitech.bankaccount.enums.CustomerType;
+import com.amalitech.bankaccount.enums.FileFormat;
 import com.amalitech.bankaccount.enums.TransactionType;
 import com.amalitech.bankaccount.exceptions.InputMismatchException;
 import com.amalitech.bankaccount.exceptions.InvalidAmountException;
+import com.amalitech.bankaccount.metrics.FlightRecording;
+import com.amalitech.bankaccount.metrics.MetricsRegistry;
+import com.amalitech.bankaccount.services.BulkImportService;
+import com.amalitech.bankaccount.services.ExportService;
 import com.amalitech.bankaccount.services.FilePersistenceService;
+import com.amalitech.bankaccount.services.SnapshotService;
+import com.amalitech.bankaccount.services.WriteBehindPersistence;
 import com.amalitech.bankaccount.transaction.Transaction;
 import com.amalitech.bankaccount.utils.ConcurrencyUtils;
 import com.amalitech.bankaccount.utils.FunctionalUtils;
@@ -18,7 +26,14 @@ import com.amalitech.bankaccount.utils.Menu;
 import com.amalitech.bankaccount.records.CustomerRecords;
 import com.amalitech.bankaccount.transaction.TransactionManager;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 
 public class Main {
@@ -27,26 +42,28 @@ public class Main {
     private static final double PREMIUM_CUSTOMER_MINIMUM_BALANCE = 10000;
     private static final String INITIAL_DEPOSIT_MSG = "Enter initial deposit amount: $";
     private static final String INITIAL_DEPOSIT_ERR_MSG = "Please provide a valid amount!";
+    private static final int SEARCH_RESULT_LIMIT = 10;
 
     static FilePersistenceService persistenceService = new FilePersistenceService();
+    static SnapshotService snapshotService = new SnapshotService(persistenceService);
+    static WriteBehindPersistence writeBehind = new WriteBehindPersistence(persistenceService, WriteBehindPersistence.DEFAULT_BATCH_SIZE);
     static TransactionManager transactionManager = new TransactionManager();
     static AccountManager accountManager;
     static Menu menu = new Menu();
-
-    static {
-        // Try to load data from files first, otherwise use mock data
-        initializeData();
-    }
+    static FlightRecording flightRecording;
 
     private static void initializeData() {
+        if (snapshotService.snapshotExists() && restoreFromSnapshot()) {
+            return;
+        }
+
         if (persistenceService.dataFilesExist()) {
             IO.println("\n--- Loading data from files ---");
             List<Account> loadedAccounts = persistenceService.loadAccounts();
-            List<Transaction> loadedTransactions = persistenceService.loadTransactions();
             
             if (!loadedAccounts.isEmpty()) {
                 accountManager = new AccountManager(loadedAccounts.toArray(new Account[0]));
-                loadedTransactions.forEach(transactionManager::addTransaction);
+                transactionManager.attachHistory(persistenceService.openTransactionHistory());
                 IO.println("✓ Data loaded successfully from files.\n");
             } else {
                 IO.println("ℹ No valid accounts found in files. Using mock data.\n");
@@ -58,6 +75,23 @@ public class Main {
         }
     }
 
+    private static boolean restoreFromSnapshot() {
+        IO.println("\n--- Restoring data from snapshot ---");
+        // Attach the history first so the restored high-water marks are applied on top of it
+        transactionManager.attachHistory(persistenceService.openTransactionHistory());
+        List<Account> restoredAccounts = snapshotService.restore();
+
+        if (restoredAccounts.isEmpty()) {
+            IO.println("ℹ Snapshot could not be used. Falling back to data files.\n");
+            transactionManager = new TransactionManager();
+            return false;
+        }
+
+        accountManager = new AccountManager(restoredAccounts.toArray(new Account[0]));
+        IO.println("✓ Data restored successfully from snapshot.\n");
+        return true;
+    }
+
     private static void initializeMockData() {
         Account[] mockAccounts = populateWithCustomAccount(transactionManager);
         accountManager = new AccountManager(mockAccounts);
@@ -65,15 +99,31 @@ public class Main {
 
 
     public static void main(String[] args) {
+        // Started before the data is loaded so the recording also covers the startup loads
+        startFlightRecording(args);
+
+        // Try to load data from files first, otherwise use mock data
+        initializeData();
+
+        writeBehind.attach(transactionManager);
+        snapshotService.startPeriodicSnapshots(accountManager, transactionManager, SnapshotService.DEFAULT_SNAPSHOT_INTERVAL_MINUTES);
+        registerGauges();
+        MetricsRegistry.global().startPeriodicDump(metricsPath(), MetricsRegistry.DEFAULT_DUMP_INTERVAL_SECONDS);
+
         while (true) {
 
             menu.intro();
 
             int input = menu.getChoice();
 
-            if (input == 8) {
-                // Save data before exiting
+            if (input == 9) {
+                // Save data before exiting (waits for the write-behind writer to catch up)
                 saveDataToFiles();
+                writeBehind.close();
+                snapshotService.stopPeriodicSnapshots();
+                MetricsRegistry.global().stopPeriodicDump();
+                dumpMetrics();
+                stopFlightRecording();
                 IO.println("""
                         
                         Thank you for using the Bank Management System!
@@ -93,6 +143,7 @@ public class Main {
                 case 5 -> saveDataToFiles();
                 case 6 -> displayStatistics();
                 case 7 -> CustomTestRunner.runAllTestsInPackage();
+                case 8 -> viewMetrics();
                 default -> IO.println("Oops! Incorrect choice,please try again.");
             }
 
@@ -100,6 +151,71 @@ public class Main {
         }
     }
 
+    /**
+     * Starts a Java Flight Recorder recording when run with --record or --record=&lt;file&gt;,
+     * so profiler samples can be correlated with the banking operation events
+     */
+    private static void startFlightRecording(String[] args) {
+        for (String arg : args) {
+            if (!arg.equals("--record") && !arg.startsWith("--record=")) {
+                continue;
+            }
+            Path destination = arg.startsWith("--record=")
+                ? Path.of(arg.substring("--record=".length()))
+                : persistenceService.getDataDirectory().resolve(FlightRecording.RECORDING_FILE);
+            try {
+                flightRecording = FlightRecording.start(destination);
+                IO.println("ℹ Flight recording started, it will be written to " + destination + " on exit");
+            } catch (IOException | ParseException | IllegalStateException e) {
+                IO.println("⚠ Could not start flight recording: " + e.getMessage());
+            }
+            return;
+        }
+    }
+
+    private static void stopFlightRecording() {
+        if (flightRecording == null) {
+            return;
+        }
+        try {
+            flightRecording.stop();
+            IO.println("✓ Flight recording written to " + flightRecording.getDestination());
+        } catch (IllegalStateException e) {
+            IO.println("⚠ Could not write flight recording: " + e.getMessage());
+        }
+    }
+
+    private static void registerGauges() {
+        MetricsRegistry metrics = MetricsRegistry.global();
+        metrics.gauge("bank_accounts", "Accounts managed", () -> accountManager.getAccountCount());
+        metrics.gauge("bank_transactions_in_memory", "Transactions held in memory on top of the persisted history",
+            () -> transactionManager.getTransactions().size());
+        metrics.gauge("bank_journal_persisted_transactions", "Transactions persisted to the journal",
+            () -> persistenceService.getPersistedTransactionCount());
+        metrics.gauge("bank_write_behind_pending", "Transactions waiting for the write-behind writer", () -> writeBehind.getPendingCount());
+        metrics.gauge("bank_write_behind_stalls", "Times a recording thread waited for the write-behind writer to drain its backlog",
+            () -> writeBehind.getBackpressureStalls());
+    }
+
+    private static Path metricsPath() {
+        return persistenceService.getDataDirectory().resolve(MetricsRegistry.METRICS_FILE);
+    }
+
+    private static void dumpMetrics() {
+        try {
+            MetricsRegistry.global().dumpTo(metricsPath());
+        } catch (IOException e) {
+            IO.println("⚠ Could not write metrics: " + e.getMessage());
+        }
+    }
+
+    private static void viewMetrics() {
+        MetricsRegistry.global().printSummary();
+        dumpMetrics();
+        IO.println("ℹ Prometheus metrics are written to " + metricsPath() + " every "
+            + MetricsRegistry.DEFAULT_DUMP_INTERVAL_SECONDS + " seconds");
+    }
+
     private static void handleCreateAccount(Menu menu, AccountManager accountManager, TransactionManager transactionManager) {
         try{
 
@@ -220,18 +336,56 @@ public class Main {
         IO.println("""                
                 1. Create Account
                 2. View Account
+                3. Bulk Import Accounts (CSV / JSON Lines)
+                4. Search Customers
                 """);
 
-        input = InputValidationHelper.validatedIntInputValueWithRange(1, 2, "Select action: ", "Please provide a valid input. Input must be only numbers from 1-2");
+        input = InputValidationHelper.validatedIntInputValueWithRange(1, 4, "Select action: ", "Please provide a valid input. Input must be only numbers from 1-4");
 
         switch (input){
             case 1 -> handleCreateAccount(menu, Main.accountManager, Main.transactionManager);
             case 2 -> accountManager.viewAllAccounts();
+            case 3 -> handleBulkImport();
+            case 4 -> handleCustomerSearch();
             default -> IO.println("Oops! Wrong input choice selected");
         }
 
     }
 
+    private static void handleBulkImport(){
+        String file = InputValidationHelper.validatedStringInputValue(
+            "Enter path of the .csv or .jsonl file to import: ",
+            "Please provide a file path",
+            "^\\S.*$"
+        );
+
+        try {
+            new BulkImportService(accountManager, transactionManager).importFile(Path.of(file.trim()));
+        } catch (IOException | IllegalArgumentException e) {
+            IO.println("❌ Import failed: " + e.getMessage());
+        }
+    }
+
+    private static void handleCustomerSearch(){
+        String prefix = InputValidationHelper.validatedStringInputValue(
+            "Enter the start of a customer name, surname or email: ",
+            "Please type at least one character",
+            "^\\s*\\S.*$"
+        );
+
+        long start = System.nanoTime();
+        List<CustomerSearchIndex.SearchHit> hits = accountManager.searchCustomers(prefix, SEARCH_RESULT_LIMIT);
+        long micros = (System.nanoTime() - start) / 1_000;
+
+        if(hits.isEmpty()){
+            IO.println("ℹ No customer matches \"" + prefix.trim() + "\"");
+            return;
+        }
+        IO.println("\n%-12s %-28s %s".formatted("ACCOUNT", "CUSTOMER", "EMAIL"));
+        hits.forEach(hit -> IO.println("%-12s %-28s %s".formatted(hit.accountNumber(), hit.name(), hit.email())));
+        IO.println("✓ " + hits.size() + (hits.size() == SEARCH_RESULT_LIMIT ? "+" : "") + " match(es) in " + micros + " µs");
+    }
+
     private static void performTransaction(){
         int input;
 
@@ -253,8 +407,17 @@ public class Main {
                 
                 CONCURRENT TRANSACTION SIMULATION
                 ----------------------------------
-                This will run multiple threads performing random deposits and withdrawals.
+                1. Interactive Simulation (prints every operation on your accounts)
+                2. Load Test (headless, synthetic accounts)
                 """);
+
+        int choice = InputValidationHelper.validatedIntInputValueWithRange(1, 2, "Enter choice (1-2): ", "Please enter 1 or 2");
+        if (choice == 2) {
+            runLoadTest();
+            return;
+        }
+
+        IO.println("This will run multiple threads performing random deposits and withdrawals.");
         
         int numThreads = InputValidationHelper.validatedIntInputValueWithRange(
             3, 10, 
@@ -267,14 +430,72 @@ public class Main {
             transactionManager, 
             numThreads
         );
+
+        if (accountManager.verifyBalanceStatistics()) {
+            IO.println("✓ Balance statistics match a full scan of the balances.");
+        } else {
+            IO.println("❌ Balance statistics differ from a full scan of the balances.");
+        }
+    }
+
+    private static void runLoadTest() {
+        IO.println("""
+                
+                LOAD TEST
+                ----------------------------------
+                Drives deposits, withdrawals and transfers against a synthetic account population
+                and a separate transaction log; your accounts and data files are not touched.
+                """);
+
+        int threads = InputValidationHelper.validatedIntInputValueWithRange(1, 256,
+            "Enter number of threads (1-256): ", "Please enter a number between 1 and 256");
+        int stopBy = InputValidationHelper.validatedIntInputValueWithRange(1, 2,
+            "Stop after 1. a number of operations or 2. a duration (1-2): ", "Please enter 1 or 2");
+        ConcurrencyUtils.LoadProfile profile = stopBy == 1
+            ? ConcurrencyUtils.LoadProfile.ofOperations(InputValidationHelper.validatedIntInputValueWithRange(1, 100_000_000,
+                "Enter number of operations (1-100000000): ", "Please enter a number between 1 and 100000000"))
+            : ConcurrencyUtils.LoadProfile.ofDuration(Duration.ofSeconds(InputValidationHelper.validatedIntInputValueWithRange(1, 3_600,
+                "Enter duration in seconds (1-3600): ", "Please enter a number between 1 and 3600")));
+
+        int depositPercent = InputValidationHelper.validatedIntInputValueWithRange(0, 100,
+            "Enter deposit percentage (0-100): ", "Please enter a number between 0 and 100");
+        int withdrawalPercent = InputValidationHelper.validatedIntInputValueWithRange(0, 100 - depositPercent,
+            "Enter withdrawal percentage (0-" + (100 - depositPercent) + "), transfers make up the rest: ",
+            "Please enter a number between 0 and " + (100 - depositPercent));
+        int skew = InputValidationHelper.validatedIntInputValueWithRange(1, 2,
+            "Account skew: 1. Uniform 2. Zipf (hot accounts) (1-2): ", "Please enter 1 or 2");
+        int population = InputValidationHelper.validatedIntInputValueWithRange(2, 10_000_000,
+            "Enter number of accounts (2-10000000): ", "Please enter a number between 2 and 10000000");
+
+        profile = profile.withThreads(threads)
+            .withMix(depositPercent, withdrawalPercent, 100 - depositPercent - withdrawalPercent)
+            .withSkew(skew == 2 ? AccountSkew.ZIPF : AccountSkew.UNIFORM, 1.0)
+            .withAccountPopulation(population);
+
+        IO.println("\nℹ Running load test...");
+        ConcurrencyUtils.printLoadReport(ConcurrencyUtils.runLoadTest(profile));
     }
 
     private static void saveDataToFiles() {
         IO.println("\n--- Saving data to files ---");
+        try {
+            writeBehind.flush().join();
+            IO.println("✓ Write-behind journal flushed (" + writeBehind.getWrittenCount() + " transactions written in background)");
+        } catch (CompletionException e) {
+            // saveAll below appends whatever the background writer could not
+            IO.println("⚠ Write-behind flush failed: " + e.getCause().getMessage());
+        }
+
         persistenceService.saveAll(
             accountManager.getAccounts(), 
-            transactionManager.getTransactions()
+            transactionManager.getTransactions(),
+            transactionManager.getHistoryOffset()
         );
+
+        long covered = snapshotService.takeSnapshot(accountManager, transactionManager);
+        if (covered >= 0) {
+            IO.println("✓ Snapshot written to " + snapshotService.getSnapshotPath().getFileName() + " (" + covered + " journal entries covered)");
+        }
     }
 
     private static void displayStatistics() {
@@ -285,21 +506,80 @@ public class Main {
                 1. Account Summary
                 2. Transaction Summary
                 3. Both
+                4. Archive Storage Report
+                5. Export Data (CSV / JSON Lines)
                 """);
         
         int choice = InputValidationHelper.validatedIntInputValueWithRange(
-            1, 3, 
+            1, 5, 
             "Select option: ", 
-            "Please enter 1, 2, or 3"
+            "Please enter 1, 2, 3, 4, or 5"
         );
         
         switch (choice) {
-            case 1 -> FunctionalUtils.printAccountSummary(accountManager.getAccounts());
-            case 2 -> FunctionalUtils.printTransactionSummary(transactionManager.getTransactions());
+            case 1 -> FunctionalUtils.printAccountSummary(accountManager.getBalanceStatistics());
+            case 2 -> {
+                FunctionalUtils.printTransactionSummary(transactionManager.getAmountStatistics());
+                FunctionalUtils.printTransactionVolume(transactionManager.getVolume());
+            }
             case 3 -> {
-                FunctionalUtils.printAccountSummary(accountManager.getAccounts());
-                FunctionalUtils.printTransactionSummary(transactionManager.getTransactions());
+                FunctionalUtils.printAccountSummary(accountManager.getBalanceStatistics());
+                FunctionalUtils.printTransactionSummary(transactionManager.getAmountStatistics());
+                FunctionalUtils.printTransactionVolume(transactionManager.getVolume());
+            }
+            case 4 -> persistenceService.printArchiveReport();
+            case 5 -> exportData();
+        }
+    }
+
+    private static void exportData() {
+        int dataSet = InputValidationHelper.validatedIntInputValueWithRange(1, 3,
+            "Export 1. Accounts  2. Transactions  3. Both: ", "Please enter 1, 2, or 3");
+        FileFormat format = InputValidationHelper.validatedIntInputValueWithRange(1, 2,
+            "Format 1. CSV  2. JSON Lines: ", "Please enter 1 or 2") == 1 ? FileFormat.CSV : FileFormat.JSON_LINES;
+
+        ExportService.ExportFilter filter = ExportService.ExportFilter.all();
+        switch (InputValidationHelper.validatedIntInputValueWithRange(1, 3,
+            "Account type 1. All  2. Savings  3. Checking: ", "Please enter 1, 2, or 3")) {
+            case 2 -> filter = filter.withAccountType(AccountType.SAVINGS);
+            case 3 -> filter = filter.withAccountType(AccountType.CHECKING);
+            default -> { }
+        }
+        switch (InputValidationHelper.validatedIntInputValueWithRange(1, 3,
+            "Customer type 1. All  2. Regular  3. Premium: ", "Please enter 1, 2, or 3")) {
+            case 2 -> filter = filter.withCustomerType(CustomerType.REGULAR);
+            case 3 -> filter = filter.withCustomerType(CustomerType.PREMIUM);
+            default -> { }
+        }
+        if (dataSet != 1) {
+            String dateRegex = "^(\\d{4}-\\d{2}-\\d{2})?$";
+            String from = InputValidationHelper.validatedStringInputValue(
+                "Transactions from (yyyy-MM-dd, blank for no limit): ", "Please enter a date as yyyy-MM-dd", dateRegex);
+            String to = InputValidationHelper.validatedStringInputValue(
+                "Transactions up to and including (yyyy-MM-dd, blank for no limit): ", "Please enter a date as yyyy-MM-dd", dateRegex);
+            try {
+                filter = filter.withDateRange(
+                    from.isEmpty() ? null : LocalDate.parse(from).atStartOfDay(),
+                    to.isEmpty() ? null : LocalDate.parse(to).plusDays(1).atStartOfDay());
+            } catch (DateTimeParseException e) {
+                IO.println("❌ Invalid date: " + e.getParsedString());
+                return;
+            }
+        }
+
+        ExportService exportService = new ExportService(persistenceService.getDataDirectory().resolve(ExportService.EXPORT_DIRECTORY));
+        ExportService.ExportView view = ExportService.ExportView.capture(accountManager, transactionManager);
+        IO.println("ℹ Exporting a point-in-time view of " + view.getAccountCount() + " accounts and "
+            + view.getTransactionCount() + " transactions");
+        try {
+            if (dataSet != 2) {
+                exportService.exportAccounts(view, format, filter, exportService.newExportPath("accounts", format));
+            }
+            if (dataSet != 1) {
+                exportService.exportTransactions(view, format, filter, exportService.newExportPath("transactions", format));
             }
+        } catch (IOException e) {
+            IO.println("❌ Export failed: " + e.getMessage());
         }
     }
 }
@@ -6,18 +6,44 @@ import com.amalitech.bankaccount.exceptions.InsufficientFundsException;
 import com.amalitech.bankaccount.exceptions.InvalidAmountException;
 import com.amalitech.bankaccount.exceptions.OverdraftExceededException;
 import com.amalitech.bankaccount.interfaces.DisplayAccountDetails;
+import com.amalitech.bankaccount.metrics.AccountOperationEvent;
+import com.amalitech.bankaccount.metrics.BankMetrics;
+import com.amalitech.bankaccount.metrics.DepositEvent;
+
+import java.lang.invoke.VarHandle;
 
 /**
  * Account class
+ * <p>
+ * Balance and status are written under the account's lock and read without it: every write
+ * is bracketed by a seqlock version (odd while a write is in progress), and a reader retries
+ * until it sees the same even version before and after reading. Reads are never torn or stale
+ * and never block deposit or withdrawal
  */
 public abstract class Account implements DisplayAccountDetails {
+
+    /**
+     * Balance and status read together, as of one point in time
+     * @param balance
+     * @param status
+     */
+    public record BalanceView(double balance, String status) {}
+
+    // Readers spin this many times on a write in progress before yielding to the writer
+    private static final int SPINS_BEFORE_YIELD = 64;
+
     private final String accountNumber;
     private final Customer customer;
+    // Written only inside beginWrite/endWrite with the account's lock held
     private double balance;
     private String status;
+    private volatile long version;
     static int accountCounter;
     private AccountType type;
 
+    // Statistics of the AccountManager holding this account, guarded by this account's lock
+    private BalanceStatistics balanceStatistics;
+
     protected Account(Customer customer){
         this.customer = customer;
         ++accountCounter;
@@ -25,6 +51,18 @@ public abstract class Account implements DisplayAccountDetails {
         this.status = "Active";
     }
 
+    /**
+     * Constructor for restoring a persisted account under its stored account number.
+     * The account counter is left alone, restore it with restoreAccountCounter
+     * @param customer
+     * @param accountNumber
+     */
+    protected Account(Customer customer, String accountNumber){
+        this.customer = customer;
+        this.accountNumber = accountNumber;
+        this.status = "Active";
+    }
+
     // Getters
 
     /**
@@ -45,18 +83,51 @@ public abstract class Account implements DisplayAccountDetails {
 
     /**
      *
-     * @return Getter method to return account balance
+     * @return Getter method to return account balance (lock-free, see class comment)
      */
     public double getAccountBalance(){
-        return this.balance;
+        for(int spins = 0; ; spins++){
+            long before = this.version;
+            double current = this.balance;
+            VarHandle.acquireFence();
+            if((before & 1) == 0 && this.version == before){
+                return current;
+            }
+            awaitWriter(spins);
+        }
     }
 
     /**
      *
-     * @return Getter method to return account status
+     * @return Getter method to return account status (lock-free, see class comment)
      */
     public String getAccountStatus(){
-        return this.status;
+        return getBalanceView().status();
+    }
+
+    /**
+     * Reads balance and status together without taking the account's lock, e.g. for reports
+     * @return Balance and status as of one point in time
+     */
+    public BalanceView getBalanceView(){
+        for(int spins = 0; ; spins++){
+            long before = this.version;
+            double currentBalance = this.balance;
+            String currentStatus = this.status;
+            VarHandle.acquireFence();
+            if((before & 1) == 0 && this.version == before){
+                return new BalanceView(currentBalance, currentStatus);
+            }
+            awaitWriter(spins);
+        }
+    }
+
+    private static void awaitWriter(int spins){
+        if(spins < SPINS_BEFORE_YIELD){
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
     }
 
     /**
@@ -75,22 +146,81 @@ public abstract class Account implements DisplayAccountDetails {
         return customer;
     }
 
+    /**
+     *
+     * @return Highest account counter issued so far (the account number high-water mark)
+     */
+    public static int getAccountCounter(){
+        return accountCounter;
+    }
+
+    /**
+     * Restores the account counter high-water mark (e.g. from a snapshot).
+     * The counter only ever moves forward so restored numbers are never re-issued
+     * @param counter
+     */
+    public static synchronized void restoreAccountCounter(int counter){
+        if(counter > accountCounter){
+            accountCounter = counter;
+        }
+    }
+
     // Setters
 
     /**
      * Set account balance
      * @param balance
      */
-    public void setAccountBalance(double balance){
-        this.balance = balance;
+    public synchronized void setAccountBalance(double balance){
+        applyBalance(balance);
+    }
+
+    /**
+     * Every balance change goes through here (with the account's lock held) so the
+     * owning AccountManager's statistics stay current
+     */
+    private void applyBalance(double newBalance){
+        double oldBalance = this.balance;
+        long stable = beginWrite();
+        this.balance = newBalance;
+        endWrite(stable);
+        if(balanceStatistics != null){
+            balanceStatistics.balanceChanged(this, oldBalance, newBalance);
+        }
+    }
+
+    /**
+     * Opens a seqlock write section, with the account's lock held
+     * @return Version to pass to endWrite
+     */
+    private long beginWrite(){
+        long stable = this.version;
+        this.version = stable + 1;
+        // Keeps the field writes that follow from moving above the odd version
+        VarHandle.storeStoreFence();
+        return stable;
+    }
+
+    private void endWrite(long stable){
+        this.version = stable + 2;
+    }
+
+    /**
+     * Called by BalanceStatistics with the account's lock held
+     * @param statistics Statistics to report balance changes to, null to stop
+     */
+    void trackBalanceWith(BalanceStatistics statistics){
+        this.balanceStatistics = statistics;
     }
 
     /**
      * Set account status
      * @param status
      */
-    public void setAccountStatus(String status){
+    public synchronized void setAccountStatus(String status){
+        long stable = beginWrite();
         this.status = status;
+        endWrite(stable);
     }
 
     /**
@@ -122,10 +252,18 @@ public abstract class Account implements DisplayAccountDetails {
      * @throws InvalidAmountException if amount is not greater than zero
      */
     public synchronized Account deposit(double amount) throws InvalidAmountException {
+        long start = System.nanoTime();
+        DepositEvent event = new DepositEvent();
+        event.begin();
         if(amount <= 0){
+            BankMetrics.DEPOSITS_REJECTED.increment();
+            event.finish(this.accountNumber, amount, InvalidAmountException.class.getSimpleName());
             throw new InvalidAmountException("Amount must be greater than zero");
         }
-        this.balance += amount;
+        applyBalance(this.balance + amount);
+        BankMetrics.DEPOSITS.increment();
+        BankMetrics.DEPOSIT_LATENCY.recordSince(start);
+        event.finish(this.accountNumber, amount, AccountOperationEvent.SUCCESS);
         return this;
     }
 
@@ -140,7 +278,7 @@ public abstract class Account implements DisplayAccountDetails {
         if(amount <= 0){
             throw new InvalidAmountException("Amount must be greater than zero");
         }
-        this.balance -= amount;
+        applyBalance(this.balance - amount);
     }
 
     /**
@@ -2,22 +2,40 @@ package com.amalitech.bankaccount.account;
 
 import com.amalitech.bankaccount.utils.IO;
 
+import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.enums.CustomerType;
+import com.amalitech.bankaccount.interfaces.AccountStorage;
+import com.amalitech.bankaccount.metrics.BankMetrics;
+
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Account manager for managing account creation during program running in memory
- * Uses HashMap for O(1) account lookups by account number
+ * Uses ConcurrentHashMap for O(1) account lookups by account number, so background
+ * readers (e.g. the snapshot writer) can iterate while the Menu keeps adding accounts.
+ * With an AccountStorage attached the map only holds the working set (accounts created
+ * or looked up this session); every other account stays on disk until it is asked for.
  */
 public class AccountManager {
 //    private final ArrayList<Account> accounts = new ArrayList<>(50);
-    private final Map<String, Account> accountMap = new HashMap<>();
+    private final Map<String, Account> accountMap = new ConcurrentHashMap<>();
     private int accountCount;
 
+    // Maintained on every balance change so totals and summaries never rescan the accounts
+    private final BalanceStatistics balanceStatistics = new BalanceStatistics();
+
+    // Name/email prefix index, maintained as accounts are added
+    private final CustomerSearchIndex customerIndex = new CustomerSearchIndex();
+
+    // Optional on-disk store, accountMap is then the in-memory working set
+    private AccountStorage storage;
+
     /**
      * AcountManager no-arg constructor
      */
@@ -32,6 +50,8 @@ public class AccountManager {
     public AccountManager(Account account){
 //        this.accounts.add(account);
         this.accountMap.put(account.getAccountNumber(), account);
+        this.balanceStatistics.add(account);
+        this.customerIndex.add(account);
 //        this.accountCount = this.accounts.size();
         this.accountCount = this.accountMap.size();
     }
@@ -44,7 +64,13 @@ public class AccountManager {
 //        Collections.addAll(accounts, accArr);
         // Populate HashMap for O(1) lookups
         for (Account acc : accArr) {
-            accountMap.put(acc.getAccountNumber(), acc);
+            Account previous = accountMap.put(acc.getAccountNumber(), acc);
+            if(previous != null){
+                balanceStatistics.remove(previous);
+                customerIndex.remove(previous);
+            }
+            balanceStatistics.add(acc);
+            customerIndex.add(acc);
         }
         this.accountCount = this.accountMap.size();
     }
@@ -55,17 +81,142 @@ public class AccountManager {
      */
     public void addAccount(Account acc){
 //        this.accounts.add(acc);
-        this.accountMap.put(acc.getAccountNumber(), acc);
+        Account previous = this.accountMap.put(acc.getAccountNumber(), acc);
+        if(previous != null){
+            balanceStatistics.remove(previous);
+            customerIndex.remove(previous);
+        }
+        balanceStatistics.add(acc);
+        customerIndex.add(acc);
+        if(storage != null){
+            storage.save(acc);
+            this.accountCount = (int) storage.size();
+            return;
+        }
         this.accountCount++;
     }
 
     /**
-     * For finding account using O(1) HashMap lookup
+     * For adding a batch of new accounts (e.g. a bulk import).
+     * With storage attached they are written straight to it and not kept in the working set,
+     * so large batches do not stay in heap; findAccount loads them back on demand
+     * @param accounts
+     */
+    public void addAccounts(List<Account> accounts){
+        if(storage != null){
+            accounts.forEach(storage::save);
+            // Counted but not tracked: these instances are not kept, findAccount tracks the loaded copy
+            accounts.forEach(balanceStatistics::add);
+            accounts.forEach(balanceStatistics::untrack);
+            accounts.forEach(customerIndex::add);
+            this.accountCount = (int) storage.size();
+            return;
+        }
+        for (Account acc : accounts) {
+            this.accountMap.put(acc.getAccountNumber(), acc);
+            balanceStatistics.add(acc);
+            customerIndex.add(acc);
+        }
+        this.accountCount += accounts.size();
+    }
+
+    /**
+     * For finding account using O(1) HashMap lookup.
+     * With storage attached, accounts outside the working set are loaded from disk and kept
+     * in the working set so every caller shares the same Account instance
      * @param accNumber
      * @return Account if found, null otherwise
      */
     public Account findAccount(String accNumber){
-        return accountMap.get(accNumber);
+        long start = System.nanoTime();
+        Account account = lookupAccount(accNumber);
+        BankMetrics.LOOKUPS.increment();
+        if(account == null){
+            BankMetrics.LOOKUP_MISSES.increment();
+        }
+        BankMetrics.LOOKUP_LATENCY.recordSince(start);
+        return account;
+    }
+
+    private Account lookupAccount(String accNumber){
+        Account account = accountMap.get(accNumber);
+        if(account != null || storage == null){
+            return account;
+        }
+
+        Account stored = storage.load(accNumber);
+        if(stored == null){
+            return null;
+        }
+        // Already counted when it was added or when storage was attached, only tracked here.
+        // Tracked before it is published so no change made through the map is missed
+        balanceStatistics.track(stored);
+        Account existing = accountMap.putIfAbsent(accNumber, stored);
+        if(existing != null){
+            balanceStatistics.untrack(stored);
+            return existing;
+        }
+        return stored;
+    }
+
+    // ==================== ACCOUNT STORAGE ====================
+
+    /**
+     * Attaches on-disk account storage. Accounts already in memory are written to it and
+     * stay in the working set
+     * @param accountStorage
+     */
+    public void attachStorage(AccountStorage accountStorage){
+        this.storage = accountStorage;
+        accountMap.values().forEach(accountStorage::save);
+        this.accountCount = (int) accountStorage.size();
+
+        // One scan to count and index the stored accounts, later changes are tracked incrementally
+        balanceStatistics.reset();
+        customerIndex.clear();
+        forEachAccount(acc -> {
+            balanceStatistics.add(acc);
+            customerIndex.add(acc);
+            if(accountMap.get(acc.getAccountNumber()) != acc){
+                balanceStatistics.untrack(acc);
+            }
+        });
+    }
+
+    /**
+     * For writing the working set (balances and statuses changed this session) to storage
+     */
+    public void saveWorkingSet(){
+        if(storage != null){
+            accountMap.values().forEach(storage::save);
+        }
+    }
+
+    /**
+     * For saving and then dropping the working set so bulk work over many accounts does not
+     * keep them all in heap. Account instances handed out before must not be used afterwards
+     */
+    public void releaseWorkingSet(){
+        if(storage == null){
+            return;
+        }
+        saveWorkingSet();
+        // Released instances must not report changes to statistics that no longer count them
+        accountMap.values().forEach(balanceStatistics::untrack);
+        accountMap.clear();
+    }
+
+    /**
+     * For visiting every account without loading them all into the working set.
+     * Working-set instances are passed when present, otherwise the stored copy
+     * @param action
+     */
+    public void forEachAccount(Consumer<Account> action){
+        if(storage == null){
+            accountMap.values().forEach(action);
+            return;
+        }
+        storage.forEach(stored -> action.accept(accountMap.getOrDefault(stored.getAccountNumber(), stored)));
     }
 
     /**
@@ -73,7 +224,7 @@ public class AccountManager {
      * Uses Streams for processing
      */
     public void viewAllAccounts(){
-        if(this.accountMap.isEmpty()){
+        if(this.accountMap.isEmpty() && (storage == null || storage.size() == 0)){
             IO.println("""
                     -------------------------------------------
                     No account account created yet.
@@ -94,33 +245,146 @@ public class AccountManager {
 
         stringBuilder.append(heading);
 
-        // Use Stream to process accounts
-        accountMap.forEach((key,acc) ->
-            stringBuilder.append(acc.viewAllAccounts(acc.getAccountCustomer()))
+        forEachAccount(acc -> stringBuilder.append(acc.viewAllAccounts(acc.getAccountCustomer()))
                         .append("\n")
                         .append(line)
-                        .append("\n")
-        );
-
-        // Calculate totals using Streams
-        int numAccounts = accountMap.size();
-        double totalBalance = accountMap.values().stream()
-            .mapToDouble(Account::getAccountBalance)
-            .sum();
+                        .append("\n"));
 
+        BalanceStatistics.BalanceSummary totals = balanceStatistics.overall();
         IO.println(stringBuilder.toString());
-        IO.println("Total Account: " + numAccounts);
-        IO.println("Total Account Balance: $%,.2f".formatted(totalBalance));
+        IO.println("Total Account: " + totals.count());
+        IO.println("Total Account Balance: $%,.2f".formatted(totals.sum()));
     }
 
     /**
      *
-     * @return Get total account balance in the Account Manager using Stream reduction
+     * @return Get total account balance in the Account Manager (O(1), maintained incrementally)
      */
     public double getTotalBalance(){
-        return accountMap.values().stream()
-            .mapToDouble(Account::getAccountBalance)
-            .sum();
+        return balanceStatistics.overall().sum();
+    }
+
+    /**
+     *
+     * @return Bank-wide and per type balance statistics, kept current on every balance change
+     */
+    public BalanceStatistics getBalanceStatistics(){
+        return balanceStatistics;
+    }
+
+    /**
+     * Recomputes the bank-wide figures from the balance columns and compares them with the
+     * incrementally maintained ones, e.g. after a burst of concurrent balance changes
+     * @return true when count, min and max match and the totals agree to rounding
+     */
+    public boolean verifyBalanceStatistics(){
+        BalanceStatistics.BalanceSummary maintained = balanceStatistics.overall();
+        BalanceStatistics.BalanceSummary scanned = balanceStatistics.scanAll();
+        // The scan adds in a different order without compensation, so allow for rounding
+        double tolerance = Math.max(0.01, Math.abs(maintained.sum()) * 1e-9);
+        return maintained.count() == scanned.count()
+            && maintained.min() == scanned.min()
+            && maintained.max() == scanned.max()
+            && Math.abs(maintained.sum() - scanned.sum()) <= tolerance;
+    }
+
+    /**
+     * Reads the balance leaderboard and resolves the accounts, without sorting
+     * @param k
+     * @return Up to k accounts with the highest balances, highest first
+     */
+    public List<Account> getTopAccounts(int k){
+        return resolve(balanceStatistics.top(k));
+    }
+
+    /**
+     * Reads the balance leaderboard and resolves the accounts, without sorting
+     * @param k
+     * @return Up to k accounts with the lowest balances, lowest first
+     */
+    public List<Account> getBottomAccounts(int k){
+        return resolve(balanceStatistics.bottom(k));
+    }
+
+    // ==================== INDEXED QUERIES ====================
+
+    /**
+     * Accounts of one type from the type index, without scanning every account
+     * @param type
+     * @return Accounts of that type, richest first
+     */
+    public List<Account> findAccountsByType(AccountType type){
+        return findAccounts(type, null, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Accounts of one customer type from the type index, without scanning every account
+     * @param type
+     * @return Accounts whose customer is of that type, richest first
+     */
+    public List<Account> findAccountsByCustomerType(CustomerType type){
+        return findAccounts(null, type, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param minBalance Lowest balance, inclusive
+     * @return Accounts with at least that balance, richest first, in O(log n + k)
+     */
+    public List<Account> findAccountsWithMinBalance(double minBalance){
+        return findAccounts(null, null, minBalance, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Counts from the balance columns without resolving any account
+     * @param minBalance Lowest balance, inclusive
+     * @return Number of accounts with at least that balance
+     */
+    public int countAccountsWithMinBalance(double minBalance){
+        return balanceStatistics.countAtLeast(minBalance);
+    }
+
+    /**
+     * @return Checking accounts using their overdraft (balance below zero), most overdrawn last
+     */
+    public List<Account> findOverdrawnAccounts(){
+        return findAccounts(AccountType.CHECKING, null, Double.NEGATIVE_INFINITY, -Double.MIN_VALUE);
+    }
+
+    /**
+     * Range query over the balance index, narrowed to the matching type buckets.
+     * The index is read without locking, so an account whose balance moves during the query
+     * may be left out, and balances may have moved by the time the returned accounts are read.
+     * With storage attached, matches outside the working set are loaded from disk
+     * @param accountType null for every account type
+     * @param customerType null for every customer type
+     * @param minBalance Lowest balance, inclusive
+     * @param maxBalance Highest balance, inclusive
+     * @return Matching accounts, richest first
+     */
+    public List<Account> findAccounts(AccountType accountType, CustomerType customerType, double minBalance, double maxBalance){
+        return resolve(balanceStatistics.inRange(accountType, customerType, minBalance, maxBalance));
+    }
+
+    /**
+     * Search-as-you-type over customer names, name words and emails, from the prefix index
+     * (O(log n + k), no account is loaded)
+     * @param prefix
+     * @param limit Maximum number of results
+     * @return Matching customers with their account numbers
+     */
+    public List<CustomerSearchIndex.SearchHit> searchCustomers(String prefix, int limit){
+        return customerIndex.search(prefix, limit);
+    }
+
+    private List<Account> resolve(List<BalanceStatistics.RankedBalance> ranking){
+        List<Account> accounts = new ArrayList<>(ranking.size());
+        for (BalanceStatistics.RankedBalance ranked : ranking) {
+            Account account = lookupAccount(ranked.accountNumber());
+            if(account != null){
+                accounts.add(account);
+            }
+        }
+        return accounts;
     }
 
     /**
@@ -132,10 +396,19 @@ public class AccountManager {
     }
 
     /**
-     *
+     * With storage attached this loads every stored account into the working set,
+     * so prefer findAccount or forEachAccount on large stores
      * @return List of all Accounts
      */
     public List<Account> getAccounts() {
+        if(storage != null){
+            storage.forEach(stored -> {
+                balanceStatistics.track(stored);
+                if(accountMap.putIfAbsent(stored.getAccountNumber(), stored) != null){
+                    balanceStatistics.untrack(stored);
+                }
+            });
+        }
         return this.accountMap.values().stream().toList();
     }
 
@@ -0,0 +1,170 @@
+package com.amalitech.bankaccount.account;
+
+import com.amalitech.bankaccount.interfaces.BalanceKernels;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every counted balance in primitive arrays (struct of arrays), so bank-wide scans such as
+ * "how many accounts hold at least X" run over contiguous doubles with SIMD kernels instead of
+ * chasing Account pointers.
+ * <p>
+ * Each account owns a slot for as long as it is counted. A balance change writes its slot
+ * with no lock (the account's own lock keeps one account's writes in order); only accounts
+ * joining or leaving take the column's lock. Slots live in fixed-size chunks that are never
+ * copied, so a write cannot land in a discarded array; a freed slot holds NaN until the next
+ * account that joins reuses it.
+ * <p>
+ * Scans never hold up balance changes: they copy the chunks into a scratch array under the
+ * column's lock (which only joins and leaves wait for), drop the freed slots and run the
+ * kernels over the copy, so each balance is seen either before or after a concurrent change
+ */
+final class BalanceColumn {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    // Whole-double writes, so a scan copying a slot never sees half of a change
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(double[].class);
+
+    /**
+     * One scan over a copy of the column
+     */
+    record Scan(int count, double sum, double min, double max) {}
+
+    private final BalanceKernels kernels;
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+
+    // Chunk directory, replaced (never the chunks) as the column grows; guarded by this for writes
+    private volatile double[][] chunks = new double[8][];
+    // Guarded by this
+    private int end;
+    private final ArrayDeque<Integer> free = new ArrayDeque<>();
+
+    // Reused by scans, guarded by scanLock (scans queue behind each other, never behind writers)
+    private final Object scanLock = new Object();
+    private double[] scratch = new double[0];
+
+    BalanceColumn(BalanceKernels kernels) {
+        this.kernels = kernels;
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    synchronized void add(String accountNumber, double balance) {
+        Integer existing = slots.get(accountNumber);
+        if (existing != null) {
+            write(existing, balance);
+            return;
+        }
+        int slot = free.isEmpty() ? end++ : free.pop();
+        ensureChunk(slot >>> CHUNK_BITS);
+        write(slot, balance);
+        slots.put(accountNumber, slot);
+    }
+
+    /**
+     * Lock-free; called with the account's lock held, as are add and remove for that account
+     */
+    void set(String accountNumber, double balance) {
+        Integer slot = slots.get(accountNumber);
+        if (slot != null) {
+            write(slot, balance);
+        }
+    }
+
+    synchronized void remove(String accountNumber) {
+        Integer slot = slots.remove(accountNumber);
+        if (slot == null) {
+            return;
+        }
+        write(slot, Double.NaN);
+        free.push(slot);
+    }
+
+    synchronized void clear() {
+        slots.clear();
+        chunks = new double[8][];
+        end = 0;
+        free.clear();
+    }
+
+    private void write(int slot, double balance) {
+        SLOT.setOpaque(chunks[slot >>> CHUNK_BITS], slot & CHUNK_MASK, balance);
+    }
+
+    private void ensureChunk(int chunk) {
+        double[][] directory = chunks;
+        if (chunk == directory.length) {
+            directory = Arrays.copyOf(directory, directory.length * 2);
+        }
+        if (directory[chunk] == null) {
+            directory[chunk] = new double[CHUNK_SIZE];
+        }
+        chunks = directory;
+    }
+
+    // ==================== SCANS ====================
+
+    int size() {
+        return slots.size();
+    }
+
+    /**
+     * @return Count, sum, min and max of one copy of the column (min and max are 0 when empty)
+     */
+    Scan scan() {
+        synchronized (scanLock) {
+            int length = copy();
+            return length == 0
+                ? new Scan(0, 0, 0, 0)
+                : new Scan(length, kernels.sum(scratch, length), kernels.min(scratch, length), kernels.max(scratch, length));
+        }
+    }
+
+    int countAtLeast(double threshold) {
+        synchronized (scanLock) {
+            return kernels.countAtLeast(scratch, copy(), threshold);
+        }
+    }
+
+    String kernelName() {
+        return kernels.name();
+    }
+
+    /**
+     * Copies the counted balances to the front of scratch, with scanLock held
+     * @return Number of balances copied
+     */
+    private int copy() {
+        int length;
+        int holes;
+        synchronized (this) {
+            length = end;
+            holes = free.size();
+            if (scratch.length < length) {
+                scratch = new double[length];
+            }
+            double[][] directory = chunks;
+            for (int offset = 0; offset < length; offset += CHUNK_SIZE) {
+                System.arraycopy(directory[offset >>> CHUNK_BITS], 0, scratch, offset, Math.min(CHUNK_SIZE, length - offset));
+            }
+        }
+        if (holes == 0) {
+            return length;
+        }
+        // Freed slots are the only NaNs, balances are never NaN
+        int dense = 0;
+        for (int i = 0; i < length; i++) {
+            if (!Double.isNaN(scratch[i])) {
+                scratch[dense++] = scratch[i];
+            }
+        }
+        return dense;
+    }
+}
@@ -0,0 +1,424 @@
+package com.amalitech.bankaccount.account;
+
+import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.enums.CustomerType;
+import com.amalitech.bankaccount.interfaces.BalanceKernels;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Balance statistics (count, sum, min, max, mean) and secondary indexes of every account in an
+ * AccountManager, bank-wide and per AccountType / CustomerType, kept up to date on every
+ * balance change instead of being recomputed by scanning the accounts.
+ * <p>
+ * Accounts are kept in one cell per (AccountType, CustomerType) pair; each cell holds its
+ * count, its sum, its accounts ordered by balance in a concurrent skip list and a columnar copy
+ * of their balances, so a change costs O(log n) in one cell and every summary is combined from
+ * at most four cells. The cells are also the type buckets and balance index behind the
+ * AccountManager range queries, answered in O(log n + k), and merged they are the leaderboard
+ * the top or bottom K accounts are read from in O(k) instead of sorting every account.
+ * <p>
+ * A balance change takes no lock beyond the account's own, which the caller already holds:
+ * the sum is a LongAdder of millionths (exact, so millions of small deltas cannot drift it),
+ * the index a ConcurrentSkipListSet and the column slot a plain write. Reads take no lock
+ * either and are weakly consistent: each account is reported at a balance it really had, at
+ * most once, but one that is moving while a query runs may be missed by it. Only accounts
+ * joining or leaving lock the cell's column (lock order: account, then column).
+ */
+public final class BalanceStatistics {
+
+    /**
+     * Statistics of a group of accounts; min, max and mean are 0 when the group is empty
+     */
+    public record BalanceSummary(long count, double sum, double min, double max) {
+
+        /**
+         * @return Average balance, 0 when there are no accounts
+         */
+        public double mean() {
+            return count == 0 ? 0 : sum / count;
+        }
+    }
+
+    /**
+     * An account's place in the balance index; account number and balance only, so accounts
+     * released to storage are not kept in memory by it
+     */
+    public record RankedBalance(String accountNumber, double balance) {}
+
+    private static final Comparator<RankedBalance> RICHEST_FIRST = Comparator
+        .comparingDouble(RankedBalance::balance).reversed()
+        .thenComparing(RankedBalance::accountNumber);
+
+    // Sort below / above every account number with the same balance, to bound range views
+    private static final String FIRST_ACCOUNT_NUMBER = "";
+    private static final String LAST_ACCOUNT_NUMBER = "\uffff";
+    private static final RankedBalance ABOVE_ALL = new RankedBalance(FIRST_ACCOUNT_NUMBER, Double.POSITIVE_INFINITY);
+    private static final RankedBalance BELOW_ALL = new RankedBalance(LAST_ACCOUNT_NUMBER, Double.NEGATIVE_INFINITY);
+
+    // Sums are kept in millionths, exact up to about 9 trillion per cell
+    private static final double UNITS_PER_CURRENCY = 1_000_000;
+
+    /**
+     * Accounts of one AccountType and CustomerType; every structure is safe for concurrent use
+     */
+    private static final class Cell {
+        final LongAdder count = new LongAdder();
+        final LongAdder units = new LongAdder();
+        final ConcurrentSkipListSet<RankedBalance> accounts = new ConcurrentSkipListSet<>(RICHEST_FIRST);
+        // The same balances as primitive arrays, for SIMD threshold scans
+        final BalanceColumn column = new BalanceColumn(BalanceKernels.best());
+
+        void add(RankedBalance entry) {
+            count.increment();
+            units.add(units(entry.balance()));
+            accounts.add(entry);
+            column.add(entry.accountNumber(), entry.balance());
+        }
+
+        void remove(RankedBalance entry) {
+            count.decrement();
+            units.add(-units(entry.balance()));
+            accounts.remove(entry);
+            column.remove(entry.accountNumber());
+        }
+
+        void change(RankedBalance oldEntry, RankedBalance newEntry) {
+            units.add(units(newEntry.balance()) - units(oldEntry.balance()));
+            if (!oldEntry.equals(newEntry)) {
+                accounts.remove(oldEntry);
+                accounts.add(newEntry);
+            }
+            column.set(newEntry.accountNumber(), newEntry.balance());
+        }
+
+        void clear() {
+            count.reset();
+            units.reset();
+            accounts.clear();
+            column.clear();
+        }
+
+        /**
+         * @return Lowest indexed entry, null when the cell is empty
+         */
+        RankedBalance lowest() {
+            return accounts.floor(BELOW_ALL);
+        }
+
+        /**
+         * @return Highest indexed entry, null when the cell is empty
+         */
+        RankedBalance highest() {
+            return accounts.ceiling(ABOVE_ALL);
+        }
+
+        /**
+         * @return Accounts with minBalance &lt;= balance &lt;= maxBalance, richest first
+         */
+        NavigableSet<RankedBalance> range(double minBalance, double maxBalance) {
+            return accounts.subSet(
+                new RankedBalance(FIRST_ACCOUNT_NUMBER, maxBalance), true,
+                new RankedBalance(LAST_ACCOUNT_NUMBER, minBalance), true);
+        }
+
+        private static long units(double balance) {
+            return Math.round(balance * UNITS_PER_CURRENCY);
+        }
+    }
+
+    private final Cell[][] cells = new Cell[AccountType.values().length][CustomerType.values().length];
+
+    BalanceStatistics() {
+        for (Cell[] row : cells) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = new Cell();
+            }
+        }
+    }
+
+    // ==================== TRACKING ====================
+
+    /**
+     * Counts an account that joined the manager and tracks its balance from now on
+     * @param account
+     */
+    void add(Account account) {
+        synchronized (account) {
+            account.trackBalanceWith(this);
+            cellOf(account).add(ranked(account, account.getAccountBalance()));
+        }
+    }
+
+    /**
+     * Stops tracking an account and takes it out of the statistics
+     * @param account
+     */
+    void remove(Account account) {
+        synchronized (account) {
+            account.trackBalanceWith(null);
+            cellOf(account).remove(ranked(account, account.getAccountBalance()));
+        }
+    }
+
+    /**
+     * Tracks a new instance of an account that is already counted (e.g. loaded back from
+     * storage), without counting it again
+     * @param account
+     */
+    void track(Account account) {
+        synchronized (account) {
+            account.trackBalanceWith(this);
+        }
+    }
+
+    /**
+     * Stops tracking an instance without taking its balance out (e.g. a copy that was
+     * counted but is not kept in the working set)
+     * @param account
+     */
+    void untrack(Account account) {
+        synchronized (account) {
+            account.trackBalanceWith(null);
+        }
+    }
+
+    /**
+     * Called by Account with its lock held whenever its balance changes; takes no other lock
+     */
+    void balanceChanged(Account account, double oldBalance, double newBalance) {
+        cellOf(account).change(ranked(account, oldBalance), ranked(account, newBalance));
+    }
+
+    void reset() {
+        covering(null, null).forEach(Cell::clear);
+    }
+
+    private static RankedBalance ranked(Account account, double balance) {
+        // -0.0 and 0.0 are the same balance
+        return new RankedBalance(account.getAccountNumber(), balance == 0 ? 0.0 : balance);
+    }
+
+    private Cell cellOf(Account account) {
+        AccountType accountType = account.getType() != null ? account.getType() : AccountType.SAVINGS;
+        CustomerType customerType = account.getCustomer() != null && account.getCustomer().getType() != null
+            ? account.getCustomer().getType()
+            : CustomerType.REGULAR;
+        return cells[accountType.ordinal()][customerType.ordinal()];
+    }
+
+    /**
+     * @param accountType null for every account type
+     * @param customerType null for every customer type
+     * @return The cells of that account type and customer type
+     */
+    private List<Cell> covering(AccountType accountType, CustomerType customerType) {
+        List<Cell> covered = new ArrayList<>(cells.length * cells[0].length);
+        for (AccountType a : AccountType.values()) {
+            if (accountType != null && a != accountType) continue;
+            for (CustomerType c : CustomerType.values()) {
+                if (customerType != null && c != customerType) continue;
+                covered.add(cells[a.ordinal()][c.ordinal()]);
+            }
+        }
+        return covered;
+    }
+
+    // ==================== SUMMARIES ====================
+
+    /**
+     * @return Statistics over every account
+     */
+    public BalanceSummary overall() {
+        return summaryOf(null, null);
+    }
+
+    /**
+     * @param type
+     * @return Statistics over the accounts of one type
+     */
+    public BalanceSummary byAccountType(AccountType type) {
+        return summaryOf(type, null);
+    }
+
+    /**
+     * @param type
+     * @return Statistics over the accounts of one customer type
+     */
+    public BalanceSummary byCustomerType(CustomerType type) {
+        return summaryOf(null, type);
+    }
+
+    private static BalanceSummary summarize(List<Cell> covered) {
+        long count = 0;
+        long units = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Cell cell : covered) {
+            count += cell.count.sum();
+            units += cell.units.sum();
+            RankedBalance lowest = cell.lowest();
+            RankedBalance highest = cell.highest();
+            if (lowest != null) min = Math.min(min, lowest.balance());
+            if (highest != null) max = Math.max(max, highest.balance());
+        }
+        return count <= 0 || min > max
+            ? new BalanceSummary(Math.max(0, count), units / UNITS_PER_CURRENCY, 0, 0)
+            : new BalanceSummary(count, units / UNITS_PER_CURRENCY, min, max);
+    }
+
+    // ==================== LEADERBOARD ====================
+
+    /**
+     * @param k
+     * @return Up to k accounts with the highest balances, highest first (O(k), merged from the cells)
+     */
+    public List<RankedBalance> top(int k) {
+        List<Iterator<RankedBalance>> rankings = new ArrayList<>();
+        covering(null, null).forEach(cell -> rankings.add(cell.accounts.iterator()));
+        return merge(rankings, RICHEST_FIRST, k);
+    }
+
+    /**
+     * @param k
+     * @return Up to k accounts with the lowest balances, lowest first (O(k), merged from the cells)
+     */
+    public List<RankedBalance> bottom(int k) {
+        List<Iterator<RankedBalance>> rankings = new ArrayList<>();
+        covering(null, null).forEach(cell -> rankings.add(cell.accounts.descendingIterator()));
+        return merge(rankings, RICHEST_FIRST.reversed(), k);
+    }
+
+    // ==================== INDEX QUERIES ====================
+
+    /**
+     * Accounts in a balance range, optionally limited to one account type and/or customer type.
+     * Only the matching cells are visited and each is range-scanned, O(log n + k)
+     * @param accountType null for every account type
+     * @param customerType null for every customer type
+     * @param minBalance Lowest balance, inclusive (Double.NEGATIVE_INFINITY for no bound)
+     * @param maxBalance Highest balance, inclusive (Double.POSITIVE_INFINITY for no bound)
+     * @return Matching accounts, richest first, each at most once
+     */
+    public List<RankedBalance> inRange(AccountType accountType, CustomerType customerType,
+                                       double minBalance, double maxBalance) {
+        return inRange(accountType, customerType, minBalance, maxBalance, true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Accounts in a balance range in either balance order, stopping after limit accounts, so
+     * the first k of a large range cost O(log n + k) rather than copying the whole range
+     * @param accountType null for every account type
+     * @param customerType null for every customer type
+     * @param minBalance Lowest balance, inclusive (Double.NEGATIVE_INFINITY for no bound)
+     * @param maxBalance Highest balance, inclusive (Double.POSITIVE_INFINITY for no bound)
+     * @param richestFirst true for highest balance first, false for lowest first
+     * @param limit Maximum number of accounts
+     * @return Matching accounts in that order, each at most once
+     */
+    public List<RankedBalance> inRange(AccountType accountType, CustomerType customerType,
+                                       double minBalance, double maxBalance, boolean richestFirst, int limit) {
+        if (Double.isNaN(minBalance) || Double.isNaN(maxBalance) || minBalance > maxBalance || limit <= 0) {
+            return List.of();
+        }
+        List<Iterator<RankedBalance>> ranges = new ArrayList<>();
+        for (Cell cell : covering(accountType, customerType)) {
+            NavigableSet<RankedBalance> range = cell.range(minBalance, maxBalance);
+            ranges.add(richestFirst ? range.iterator() : range.descendingIterator());
+        }
+        return merge(ranges, richestFirst ? RICHEST_FIRST : RICHEST_FIRST.reversed(), limit);
+    }
+
+    /**
+     * @param accountType null for every account type
+     * @param customerType null for every customer type
+     * @return Statistics over the accounts of that account type and customer type, O(1)
+     */
+    public BalanceSummary summaryOf(AccountType accountType, CustomerType customerType) {
+        return summarize(covering(accountType, customerType));
+    }
+
+    /**
+     * Merges per-cell rankings (each already in the given order) into one ordered list. An
+     * account whose balance moves during the merge can be met again at its new place; only
+     * its first entry is kept
+     * @param limit Stops after this many accounts
+     */
+    private static List<RankedBalance> merge(List<Iterator<RankedBalance>> rankings, Comparator<RankedBalance> order, int limit) {
+        List<RankedBalance> result = new ArrayList<>(Math.max(0, Math.min(limit, 64)));
+        Set<String> seen = new HashSet<>();
+        // Small fixed fan-in (at most four cells): repeatedly take the best head
+        List<RankedBalance> heads = new ArrayList<>(rankings.size());
+        for (Iterator<RankedBalance> ranking : rankings) {
+            heads.add(ranking.hasNext() ? ranking.next() : null);
+        }
+        while (result.size() < limit) {
+            int best = -1;
+            for (int i = 0; i < heads.size(); i++) {
+                if (heads.get(i) != null && (best < 0 || order.compare(heads.get(i), heads.get(best)) < 0)) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            if (seen.add(heads.get(best).accountNumber())) {
+                result.add(heads.get(best));
+            }
+            heads.set(best, rankings.get(best).hasNext() ? rankings.get(best).next() : null);
+        }
+        return result;
+    }
+
+    // ==================== COLUMN SCANS ====================
+
+    /**
+     * Scans a copy of each cell's balance column (SIMD when the Vector API module is
+     * enabled), so balance changes never wait for the scan
+     * @param threshold
+     * @return Number of accounts with a balance of at least threshold
+     */
+    public int countAtLeast(double threshold) {
+        int count = 0;
+        for (Cell cell : covering(null, null)) {
+            count += cell.column.countAtLeast(threshold);
+        }
+        return count;
+    }
+
+    /**
+     * Recomputes count, sum, min and max from copies of the balance columns instead of the
+     * incremental figures, e.g. to check the maintained figures
+     * @return Statistics over every account
+     */
+    public BalanceSummary scanAll() {
+        long count = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Cell cell : covering(null, null)) {
+            BalanceColumn.Scan scan = cell.column.scan();
+            if (scan.count() == 0) continue;
+            count += scan.count();
+            sum += scan.sum();
+            min = Math.min(min, scan.min());
+            max = Math.max(max, scan.max());
+        }
+        return count == 0 ? new BalanceSummary(0, 0, 0, 0) : new BalanceSummary(count, sum, min, max);
+    }
+
+    /**
+     * @return Kernels the column scans use, e.g. "vector (4 x double)" or "scalar"
+     */
+    public String getScanKernels() {
+        return cells[0][0].column.kernelName();
+    }
+}
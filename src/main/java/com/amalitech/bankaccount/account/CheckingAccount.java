@@ -6,6 +6,9 @@ import com.amalitech.bankaccount.customer.Customer;
 import com.amalitech.bankaccount.enums.AccountType;
 import com.amalitech.bankaccount.exceptions.InvalidAmountException;
 import com.amalitech.bankaccount.exceptions.OverdraftExceededException;
+import com.amalitech.bankaccount.metrics.AccountOperationEvent;
+import com.amalitech.bankaccount.metrics.BankMetrics;
+import com.amalitech.bankaccount.metrics.WithdrawalEvent;
 
 import java.text.DecimalFormat;
 import java.time.LocalDate;
@@ -32,6 +35,29 @@ public class CheckingAccount extends Account{
 
     }
 
+    private CheckingAccount(Customer customer, String accountNumber){
+        super(customer, accountNumber);
+        overdraftLimit = 1000;
+        monthlyFee = 10;
+        this.setType(AccountType.CHECKING);
+    }
+
+    /**
+     * Rehydrates a persisted Checking Account under its stored account number.
+     * The balance is set directly (it was validated when it was recorded)
+     * @param customer
+     * @param accountNumber
+     * @param balance
+     * @param status
+     * @return Restored account
+     */
+    public static CheckingAccount restore(Customer customer, String accountNumber, double balance, String status){
+        CheckingAccount account = new CheckingAccount(customer, accountNumber);
+        account.setAccountBalance(balance);
+        account.setAccountStatus(status);
+        return account;
+    }
+
     /**
      * Overdraft limit is a constant
      * @return Returns overdraft limit
@@ -65,15 +91,29 @@ public class CheckingAccount extends Account{
 
     @Override
     public synchronized void withdrawal(double amount) throws InvalidAmountException, OverdraftExceededException {
-        // apply monthly fess before withdrawal
-        this.applyMonthlyFee();
-
-        if((this.getAccountBalance() - amount) < -overdraftLimit){
-            DecimalFormat df = new DecimalFormat("#,###.00");
-            throw new OverdraftExceededException("The transaction amount of $" + df.format(amount) + " will exceed your overdraft limit of $" + df.format(overdraftLimit) + ". Your current balance: " + this.getAccountBalance());
+        long start = System.nanoTime();
+        WithdrawalEvent event = new WithdrawalEvent();
+        event.begin();
+        String outcome = AccountOperationEvent.SUCCESS;
+        try {
+            // apply monthly fess before withdrawal
+            this.applyMonthlyFee();
+
+            if((this.getAccountBalance() - amount) < -overdraftLimit){
+                DecimalFormat df = new DecimalFormat("#,###.00");
+                throw new OverdraftExceededException("The transaction amount of $" + df.format(amount) + " will exceed your overdraft limit of $" + df.format(overdraftLimit) + ". Your current balance: " + this.getAccountBalance());
+            }
+
+            super.withdrawal(amount);
+            BankMetrics.WITHDRAWALS.increment();
+        } catch (InvalidAmountException | OverdraftExceededException e) {
+            BankMetrics.WITHDRAWALS_REJECTED.increment();
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            BankMetrics.WITHDRAWAL_LATENCY.recordSince(start);
+            event.finish(this.getAccountNumber(), amount, outcome);
         }
-
-        super.withdrawal(amount);
     }
 
 
@@ -0,0 +1,126 @@
+package com.amalitech.bankaccount.account;
+
+import com.amalitech.bankaccount.customer.Customer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Prefix index over customer names and emails for search-as-you-type lookups.
+ * <p>
+ * Every account is indexed under its full name, each later word of the name (so "mensah"
+ * finds "Kofi Mensah") and its email, lower-cased. Keys are the term followed by the account
+ * number, kept in a ConcurrentSkipListMap, so a prefix search is a range scan of the matching
+ * keys in O(log n + k) and accounts can be indexed while searches run, without a lock.
+ * Entries hold the account number, name and email only, so accounts released to storage are
+ * not kept in memory by the index. Names are indexed as they were when the account was added.
+ */
+public final class CustomerSearchIndex {
+
+    /**
+     * One search result
+     */
+    public record SearchHit(String accountNumber, String name, String email) {}
+
+    // Separates the term from the account number; sorts before every character a term can hold
+    private static final char SEPARATOR = '\u0000';
+
+    private final ConcurrentSkipListMap<String, SearchHit> entries = new ConcurrentSkipListMap<>();
+
+    CustomerSearchIndex() {}
+
+    // ==================== INDEXING ====================
+
+    /**
+     * Indexes an account's customer under its name, name words and email
+     * @param account
+     */
+    void add(Account account) {
+        Customer customer = account.getCustomer();
+        if (customer == null) {
+            return;
+        }
+        SearchHit hit = new SearchHit(account.getAccountNumber(), customer.getName(), customer.getEmail());
+        for (String term : termsOf(customer)) {
+            entries.put(key(term, hit.accountNumber()), hit);
+        }
+    }
+
+    /**
+     * Removes an account's entries
+     * @param account
+     */
+    void remove(Account account) {
+        Customer customer = account.getCustomer();
+        if (customer == null) {
+            return;
+        }
+        for (String term : termsOf(customer)) {
+            entries.remove(key(term, account.getAccountNumber()));
+        }
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private static List<String> termsOf(Customer customer) {
+        List<String> terms = new ArrayList<>(4);
+        if (customer.getName() != null) {
+            String name = normalize(customer.getName());
+            terms.add(name);
+            String[] words = name.split("\\s+");
+            for (int i = 1; i < words.length; i++) {
+                terms.add(words[i]);
+            }
+        }
+        if (customer.getEmail() != null) {
+            terms.add(normalize(customer.getEmail()));
+        }
+        return terms;
+    }
+
+    private static String key(String term, String accountNumber) {
+        return term + SEPARATOR + accountNumber;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // ==================== SEARCH ====================
+
+    /**
+     * @param prefix Start of a name, of any word of a name, or of an email (case-insensitive)
+     * @param limit Maximum number of results
+     * @return Up to limit matching customers, in term order, each account once
+     */
+    public List<SearchHit> search(String prefix, int limit) {
+        String from = prefix == null ? "" : normalize(prefix);
+        if (from.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        NavigableMap<String, SearchHit> matches = entries.subMap(from, true, from + Character.MAX_VALUE, false);
+        // An account can match through its full name and a name word, keep its first match
+        Map<String, SearchHit> hits = new LinkedHashMap<>();
+        for (SearchHit hit : matches.values()) {
+            hits.putIfAbsent(hit.accountNumber(), hit);
+            if (hits.size() == limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(hits.values());
+    }
+
+    /**
+     * @return Number of indexed terms
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -6,6 +6,9 @@ import com.amalitech.bankaccount.customer.Customer;
 import com.amalitech.bankaccount.enums.AccountType;
 import com.amalitech.bankaccount.exceptions.InsufficientFundsException;
 import com.amalitech.bankaccount.exceptions.InvalidAmountException;
+import com.amalitech.bankaccount.metrics.AccountOperationEvent;
+import com.amalitech.bankaccount.metrics.BankMetrics;
+import com.amalitech.bankaccount.metrics.WithdrawalEvent;
 
 import java.text.DecimalFormat;
 
@@ -27,6 +30,29 @@ public class SavingsAccount extends Account{
         this.setType(AccountType.SAVINGS);
     }
 
+    private SavingsAccount(Customer customer, String accountNumber){
+        super(customer, accountNumber);
+        this.interestRate = 0.035;
+        this.minimumBalance = 500;
+        this.setType(AccountType.SAVINGS);
+    }
+
+    /**
+     * Rehydrates a persisted Savings Account under its stored account number.
+     * The balance is set directly (it was validated when it was recorded)
+     * @param customer
+     * @param accountNumber
+     * @param balance
+     * @param status
+     * @return Restored account
+     */
+    public static SavingsAccount restore(Customer customer, String accountNumber, double balance, String status){
+        SavingsAccount account = new SavingsAccount(customer, accountNumber);
+        account.setAccountBalance(balance);
+        account.setAccountStatus(status);
+        return account;
+    }
+
     /**
      *
      * @return Returns calculated interest amount
@@ -60,18 +86,30 @@ public class SavingsAccount extends Account{
 
     @Override
     public synchronized void withdrawal(double amount) throws InvalidAmountException, InsufficientFundsException {
-
-        if(amount <= 0){
-            throw new InvalidAmountException("Amount must be greater than zero");
+        long start = System.nanoTime();
+        WithdrawalEvent event = new WithdrawalEvent();
+        event.begin();
+        String outcome = AccountOperationEvent.SUCCESS;
+        try {
+            if(amount <= 0){
+                throw new InvalidAmountException("Amount must be greater than zero");
+            }
+
+            if((this.getAccountBalance() - amount) < 0 || (this.getAccountBalance() - amount) < minimumBalance){
+                DecimalFormat df =  new DecimalFormat("#,###.00");
+                throw new InsufficientFundsException("❌ Transaction Failed: Insufficient funds. Current balance: $" + df.format(this.getAccountBalance()));
+            }
+
+            super.withdrawal(amount);
+            BankMetrics.WITHDRAWALS.increment();
+        } catch (InvalidAmountException | InsufficientFundsException e) {
+            BankMetrics.WITHDRAWALS_REJECTED.increment();
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            BankMetrics.WITHDRAWAL_LATENCY.recordSince(start);
+            event.finish(this.getAccountNumber(), amount, outcome);
         }
-
-        if((this.getAccountBalance() - amount) < 0 || (this.getAccountBalance() - amount) < minimumBalance){
-            DecimalFormat df =  new DecimalFormat("#,###.00");
-            throw new InsufficientFundsException("❌ Transaction Failed: Insufficient funds. Current balance: $" + df.format(this.getAccountBalance()));
-        }
-
-        super.withdrawal(amount);
-
     }
 
     @Override
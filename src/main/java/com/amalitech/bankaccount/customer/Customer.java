@@ -38,6 +38,25 @@ public abstract class Customer implements DisplayCustomerDetails {
         this.customerId = "CUS00" + customerCounter;
     }
 
+    /**
+     * Constructor for rehydrating an already validated customer under its stored id.
+     * Validation is skipped and the customer counter is left alone
+     * @param customerId
+     * @param name
+     * @param age
+     * @param contact
+     * @param address
+     * @param email
+     */
+    protected Customer(String customerId, String name, int age, String contact, String address, String email) {
+        this.customerId = customerId;
+        this.name = name;
+        this.age = age;
+        this.contact = contact;
+        this.address = address;
+        this.email = email;
+    }
+
 
 
     // Getters
@@ -94,6 +113,33 @@ public abstract class Customer implements DisplayCustomerDetails {
         return email;
     }
 
+    /**
+     *
+     * @return Highest customer counter issued so far (the customer id high-water mark)
+     */
+    public static int getCustomerCounter(){
+        return customerCounter;
+    }
+
+    /**
+     * Restores the customer counter high-water mark (e.g. from a snapshot).
+     * The counter only ever moves forward so restored ids are never re-issued
+     * @param counter
+     */
+    public static synchronized void restoreCustomerCounter(int counter){
+        if(counter > customerCounter){
+            customerCounter = counter;
+        }
+    }
+
+    /**
+     * Issues the next customer id (for restored records that were saved without one)
+     * @return New customer id
+     */
+    public static synchronized String issueCustomerId(){
+        return "CUS00" + (++customerCounter);
+    }
+
     /**
      * For setting customer id
      * @param customerId
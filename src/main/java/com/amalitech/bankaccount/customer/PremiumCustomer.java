@@ -22,6 +22,25 @@ public class PremiumCustomer extends Customer{
         this.setType(CustomerType.PREMIUM);
     }
 
+    private PremiumCustomer(String customerId, String name, int age, String contact, String address, String email) {
+        super(customerId, name, age, contact, address, email);
+        this.setType(CustomerType.PREMIUM);
+    }
+
+    /**
+     * Rehydrates a persisted Premium Customer under its stored id without re-validating it
+     * @param customerId
+     * @param name
+     * @param age
+     * @param contact
+     * @param address
+     * @param email
+     * @return Restored customer
+     */
+    public static PremiumCustomer restore(String customerId, String name, int age, String contact, String address, String email) {
+        return new PremiumCustomer(customerId, name, age, contact, address, email);
+    }
+
 
     /**
      *
@@ -26,6 +26,25 @@ public class RegularCustomer extends Customer{
         this.setType(CustomerType.REGULAR);
     }
 
+    private RegularCustomer(String customerId, String name, int age, String contact, String address, String email) {
+        super(customerId, name, age, contact, address, email);
+        this.setType(CustomerType.REGULAR);
+    }
+
+    /**
+     * Rehydrates a persisted Regular Customer under its stored id without re-validating it
+     * @param customerId
+     * @param name
+     * @param age
+     * @param contact
+     * @param address
+     * @param email
+     * @return Restored customer
+     */
+    public static RegularCustomer restore(String customerId, String name, int age, String contact, String address, String email) {
+        return new RegularCustomer(customerId, name, age, contact, address, email);
+    }
+
     /**
      *
      * @return boolean indicating whether customer has waived fees
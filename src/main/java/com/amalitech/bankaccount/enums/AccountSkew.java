@@ -0,0 +1,20 @@
+package com.amalitech.bankaccount.enums;
+
+public enum AccountSkew {
+    UNIFORM("Uniform"),
+    ZIPF("Zipf");
+
+    private final String description;
+
+    AccountSkew(String description){
+        this.description = description;
+    }
+
+    /**
+     *
+     * @return Account skew string literal
+     */
+    public String getDescription(){
+        return this.description;
+    }
+}
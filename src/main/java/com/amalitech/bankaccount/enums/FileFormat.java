@@ -0,0 +1,50 @@
+package com.amalitech.bankaccount.enums;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum FileFormat {
+    CSV("CSV", ".csv"),
+    JSON_LINES("JSON Lines", ".jsonl");
+
+    private final String description;
+    private final String extension;
+
+    FileFormat(String description, String extension){
+        this.description = description;
+        this.extension = extension;
+    }
+
+    /**
+     *
+     * @return File format string literal
+     */
+    public String getDescription(){
+        return this.description;
+    }
+
+    /**
+     *
+     * @return File extension written for this format (including the dot)
+     */
+    public String getExtension(){
+        return this.extension;
+    }
+
+    /**
+     * For picking the format of a file from its extension (.csv, .jsonl or .ndjson)
+     * @param file
+     * @return Matching file format
+     * @throws IllegalArgumentException if the extension is not supported
+     */
+    public static FileFormat fromPath(Path file){
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if(name.endsWith(CSV.extension)){
+            return CSV;
+        }
+        if(name.endsWith(JSON_LINES.extension) || name.endsWith(".ndjson")){
+            return JSON_LINES;
+        }
+        throw new IllegalArgumentException("Unsupported file (expected .csv or .jsonl): " + file.getFileName());
+    }
+}
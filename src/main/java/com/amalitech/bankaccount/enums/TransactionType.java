@@ -17,4 +17,17 @@ public enum TransactionType {
         return this.description;
     }
 
+    /**
+     * @param description Type as stored on a Transaction, e.g. "Deposit"
+     * @return Matching type, null if there is none
+     */
+    public static TransactionType fromDescription(String description){
+        for (TransactionType type : values()) {
+            if (type.description.equals(description)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
 }
@@ -0,0 +1,17 @@
+package com.amalitech.bankaccount.exceptions;
+
+public class VelocityLimitExceededException extends RuntimeException {
+    private final String rule;
+
+    public VelocityLimitExceededException(String rule, String message) {
+        super(message);
+        this.rule = rule;
+    }
+
+    /**
+     * @return Name of the velocity rule that rejected the debit
+     */
+    public String getRule() {
+        return rule;
+    }
+}
@@ -0,0 +1,38 @@
+package com.amalitech.bankaccount.interfaces;
+
+import com.amalitech.bankaccount.account.Account;
+
+import java.util.function.Consumer;
+
+public interface AccountStorage extends AutoCloseable {
+    /**
+     * For knowing how many accounts are stored
+     * @return Number of stored accounts
+     */
+    long size();
+
+    /**
+     * For loading a single account by its account number
+     * @param accountNumber
+     * @return The stored account, null if there is none
+     */
+    Account load(String accountNumber);
+
+    /**
+     * For storing an account (replaces the stored copy of the same account number)
+     * @param account
+     */
+    void save(Account account);
+
+    /**
+     * For visiting every stored account in account number order without loading them all at once
+     * @param action
+     */
+    void forEach(Consumer<Account> action);
+
+    /**
+     * For releasing the storage files
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,61 @@
+package com.amalitech.bankaccount.interfaces;
+
+import com.amalitech.bankaccount.utils.ScalarBalanceKernels;
+
+public interface BalanceKernels {
+    /**
+     * Class of the SIMD implementation, loaded by name so this interface links without the
+     * incubator module
+     */
+    String VECTOR_KERNELS = "com.amalitech.bankaccount.utils.VectorBalanceKernels";
+
+    /**
+     * @return Implementation name, e.g. "scalar" or "vector (4 x double)"
+     */
+    String name();
+
+    /**
+     * @param balances
+     * @param length Number of leading elements to aggregate
+     * @return Sum of the first length balances
+     */
+    double sum(double[] balances, int length);
+
+    /**
+     * @return Smallest of the first length balances, +Infinity when length is 0
+     */
+    double min(double[] balances, int length);
+
+    /**
+     * @return Largest of the first length balances, -Infinity when length is 0
+     */
+    double max(double[] balances, int length);
+
+    /**
+     * @return Number of the first length balances that are &gt;= threshold
+     */
+    int countAtLeast(double[] balances, int length, double threshold);
+
+    /**
+     * For getting the SIMD kernels when the JVM runs with --add-modules jdk.incubator.vector
+     * @return The vector kernels, null when the module is not enabled
+     */
+    static BalanceKernels vectorized() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (BalanceKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return The vector kernels when available, otherwise the scalar ones
+     */
+    static BalanceKernels best() {
+        BalanceKernels vector = vectorized();
+        return vector != null ? vector : ScalarBalanceKernels.INSTANCE;
+    }
+}
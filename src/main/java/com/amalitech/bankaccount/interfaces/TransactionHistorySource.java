@@ -0,0 +1,66 @@
+package com.amalitech.bankaccount.interfaces;
+
+import com.amalitech.bankaccount.transaction.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public interface TransactionHistorySource {
+    /**
+     * For knowing how many persisted transactions this source covers
+     * @return Number of transactions in the persisted history
+     */
+    long size();
+
+    /**
+     * For loading the persisted history of a single account, oldest first
+     * @param accountNumber
+     * @return List of the account's persisted transactions (empty if none)
+     */
+    List<Transaction> loadHistory(String accountNumber);
+
+    /**
+     * For loading the whole persisted history, oldest first
+     * @return List of all persisted transactions
+     */
+    List<Transaction> loadAll();
+
+    /**
+     * For visiting the whole persisted history, oldest first, without holding it all in memory.
+     * The default loads it first; sources that can stream should override this.
+     * A read error is thrown as an UncheckedIOException and anything the action throws is
+     * passed on, both ending the visit, so a caller never mistakes a partial history for all of it
+     * @param action
+     */
+    default void forEach(Consumer<Transaction> action) {
+        loadAll().forEach(action);
+    }
+
+    /**
+     * For visiting the persisted history, oldest first, until the action returns false, so a
+     * scan that has found what it needs stops reading. Errors end the visit as in forEach.
+     * The default loads the history first; sources that can stream should override this
+     * @param action Returns false to stop
+     */
+    default void forEachWhile(Predicate<Transaction> action) {
+        for (Transaction transaction : loadAll()) {
+            if (!action.test(transaction)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * For visiting the persisted history from a point in time, oldest first, until the action
+     * returns false. Sources that can seek skip what is stamped before that time a block at a
+     * time, so transactions a little earlier may still be visited and the action filters them.
+     * The default visits the whole history
+     * @param from Earliest time of interest
+     * @param action Returns false to stop
+     */
+    default void forEachFromWhile(LocalDateTime from, Predicate<Transaction> action) {
+        forEachWhile(action);
+    }
+}
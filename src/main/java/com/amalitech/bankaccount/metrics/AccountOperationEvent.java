@@ -0,0 +1,42 @@
+package com.amalitech.bankaccount.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base JFR event for an operation on one account; begin() when the operation starts and
+ * finish() once the outcome is known, the duration is recorded by JFR
+ */
+@Category({"Bank Management", "Accounts"})
+@StackTrace(false)
+public abstract class AccountOperationEvent extends Event {
+
+    public static final String SUCCESS = "Success";
+
+    @Label("Account Number")
+    String accountNumber;
+
+    @Label("Amount")
+    double amount;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Ends the event and commits it if the recording wants it (fields are only filled in then)
+     * @param accountNumber Account the operation ran against
+     * @param amount Amount of the operation
+     * @param outcome SUCCESS or the simple name of the exception that rejected it
+     */
+    public void finish(String accountNumber, double amount, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.accountNumber = accountNumber;
+            this.amount = amount;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
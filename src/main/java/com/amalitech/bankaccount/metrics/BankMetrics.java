@@ -0,0 +1,43 @@
+package com.amalitech.bankaccount.metrics;
+
+/**
+ * Metrics recorded by the banking hot paths, looked up once so recording is a field read
+ * plus an adder increment
+ */
+public final class BankMetrics {
+    private BankMetrics() {}
+
+    private static final MetricsRegistry REGISTRY = MetricsRegistry.global();
+
+    // ==================== ACCOUNTS ====================
+
+    public static final Counter DEPOSITS = REGISTRY.counter("bank_deposits_total", "Deposits applied to accounts");
+    public static final Counter DEPOSITS_REJECTED = REGISTRY.counter("bank_deposits_rejected_total", "Deposits rejected by validation");
+    public static final LatencyHistogram DEPOSIT_LATENCY = REGISTRY.histogram("bank_deposit_duration_seconds", "Time to apply a deposit");
+
+    public static final Counter WITHDRAWALS = REGISTRY.counter("bank_withdrawals_total", "Withdrawals applied to accounts");
+    public static final Counter WITHDRAWALS_REJECTED = REGISTRY.counter("bank_withdrawals_rejected_total", "Withdrawals rejected (invalid amount, insufficient funds, overdraft)");
+    public static final LatencyHistogram WITHDRAWAL_LATENCY = REGISTRY.histogram("bank_withdrawal_duration_seconds", "Time to apply or reject a withdrawal");
+
+    public static final Counter TRANSFERS = REGISTRY.counter("bank_transfers_total", "Transfers completed");
+    public static final LatencyHistogram TRANSFER_LATENCY = REGISTRY.histogram("bank_transfer_duration_seconds", "Time to complete a transfer, both legs recorded");
+
+    public static final Counter LOOKUPS = REGISTRY.counter("bank_account_lookups_total", "AccountManager.findAccount calls");
+    public static final Counter LOOKUP_MISSES = REGISTRY.counter("bank_account_lookup_misses_total", "Lookups for an unknown account number");
+    public static final LatencyHistogram LOOKUP_LATENCY = REGISTRY.histogram("bank_account_lookup_duration_seconds", "Time to find an account, including loads from storage");
+
+    // ==================== TRANSACTIONS ====================
+
+    public static final Counter TRANSACTIONS_RECORDED = REGISTRY.counter("bank_transactions_recorded_total", "Transactions added to the journal");
+    public static final LatencyHistogram RECORD_LATENCY = REGISTRY.histogram("bank_transaction_record_duration_seconds", "Time to add a transaction, including the write-behind hand-off");
+
+    // ==================== PERSISTENCE ====================
+
+    public static final LatencyHistogram SAVE_ACCOUNTS_LATENCY = REGISTRY.histogram("bank_persistence_save_duration_seconds", "Time to save a data file", "file", "accounts");
+    public static final LatencyHistogram SAVE_TRANSACTIONS_LATENCY = REGISTRY.histogram("bank_persistence_save_duration_seconds", "Time to save a data file", "file", "transactions");
+    public static final LatencyHistogram LOAD_ACCOUNTS_LATENCY = REGISTRY.histogram("bank_persistence_load_duration_seconds", "Time to load a data file", "file", "accounts");
+    public static final LatencyHistogram LOAD_TRANSACTIONS_LATENCY = REGISTRY.histogram("bank_persistence_load_duration_seconds", "Time to load a data file", "file", "transactions");
+    public static final LatencyHistogram JOURNAL_APPEND_LATENCY = REGISTRY.histogram("bank_journal_append_duration_seconds", "Time to append one write-behind batch to the journal");
+    public static final Counter JOURNAL_APPENDED = REGISTRY.counter("bank_journal_appended_total", "Transactions appended to the journal by the write-behind writer");
+    public static final Counter PERSISTENCE_ERRORS = REGISTRY.counter("bank_persistence_errors_total", "Failed saves and loads");
+}
@@ -0,0 +1,29 @@
+package com.amalitech.bankaccount.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter backed by a LongAdder, whose cells are striped across threads so
+ * concurrent increments do not contend on one cache line
+ */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    /**
+     * @return Current total (not an atomic snapshot while increments are in flight)
+     */
+    public long sum() {
+        return value.sum();
+    }
+}
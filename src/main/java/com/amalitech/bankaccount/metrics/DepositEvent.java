@@ -0,0 +1,11 @@
+package com.amalitech.bankaccount.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.amalitech.bank.Deposit")
+@Label("Deposit")
+@Description("Deposit applied to or rejected by an account")
+public final class DepositEvent extends AccountOperationEvent {
+}
@@ -0,0 +1,64 @@
+package com.amalitech.bankaccount.metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * In-process Java Flight Recorder recording using the JDK "profile" settings plus the
+ * banking events, so CPU and allocation samples can be lined up with the deposit,
+ * withdrawal, transfer, statement, save and load events recorded on the same threads
+ */
+public final class FlightRecording {
+
+    public static final String RECORDING_FILE = "bank-operations.jfr";
+
+    private static final List<Class<? extends jdk.jfr.Event>> BANK_EVENTS = List.of(
+        DepositEvent.class, WithdrawalEvent.class, TransferEvent.class,
+        StatementEvent.class, SaveEvent.class, LoadEvent.class);
+
+    private final Recording recording;
+    private final Path destination;
+
+    private FlightRecording(Recording recording, Path destination) {
+        this.recording = recording;
+        this.destination = destination;
+    }
+
+    /**
+     * Starts a recording that is written to the destination when stopped, or when the JVM exits
+     * @param destination .jfr file to write
+     * @return Running recording
+     */
+    public static FlightRecording start(Path destination) throws IOException, ParseException {
+        Recording recording = new Recording(Configuration.getConfiguration("profile"));
+        recording.setName("Bank Management");
+        for (Class<? extends jdk.jfr.Event> event : BANK_EVENTS) {
+            recording.enable(event).withoutThreshold();
+        }
+        recording.setToDisk(true);
+        recording.setDumpOnExit(true);
+        recording.setDestination(destination);
+        recording.start();
+        return new FlightRecording(recording, destination);
+    }
+
+    /**
+     * Stops the recording and writes it to the destination
+     */
+    public void stop() {
+        recording.stop();
+        recording.close();
+    }
+
+    /**
+     * @return File the recording is written to
+     */
+    public Path getDestination() {
+        return destination;
+    }
+}
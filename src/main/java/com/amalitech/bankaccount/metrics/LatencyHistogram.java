@@ -0,0 +1,114 @@
+package com.amalitech.bankaccount.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two nanosecond buckets
+ * <p>
+ * Recording is a leading-zero count and two LongAdder increments, so it never blocks and
+ * stays cheap on hot paths. Bucket i counts durations in (2^(i+FIRST_BUCKET_SHIFT-1),
+ * 2^(i+FIRST_BUCKET_SHIFT)] ns, which bounds quantile error to a factor of two: the
+ * LogLinearBuckets layout with no sub-buckets over duration - 1, so each bucket's bound is a
+ * power of two as the exposition format expects.
+ */
+public final class LatencyHistogram {
+
+    private static final LogLinearBuckets LAYOUT = new LogLinearBuckets(0);
+    // First bucket holds everything up to 256 ns, the last one everything above ~34 s
+    private static final int FIRST_BUCKET_SHIFT = 8;
+    static final int BUCKETS = 28;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records the time elapsed since a System.nanoTime() reading
+     * @param startNanos Value of System.nanoTime() when the operation started
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records one duration
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long duration = Math.max(nanos, 0);
+        buckets[bucketIndex(duration)].increment();
+        count.increment();
+        totalNanos.add(duration);
+        maxNanos.accumulate(duration);
+    }
+
+    static int bucketIndex(long nanos) {
+        return Math.clamp(LAYOUT.index(Math.max(nanos - 1, 0)) - FIRST_BUCKET_SHIFT, 0, BUCKETS - 1);
+    }
+
+    /**
+     * @param index Bucket index
+     * @return Upper bound of the bucket in nanoseconds (the last bucket is unbounded)
+     */
+    static long bucketUpperBound(int index) {
+        return LAYOUT.upperBound(index + FIRST_BUCKET_SHIFT) + 1;
+    }
+
+    long bucketCount(int index) {
+        return buckets[index].sum();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @return Mean duration in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMeanNanos() {
+        long recorded = getCount();
+        return recorded == 0 ? 0 : (double) getTotalNanos() / recorded;
+    }
+
+    /**
+     * Estimates a quantile as the upper bound of the bucket it falls in (capped at the max)
+     * @param quantile Quantile between 0 and 1, e.g. 0.99
+     * @return Estimated duration in nanoseconds, 0 if nothing was recorded
+     */
+    public long quantileNanos(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            recorded += counts[i];
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = LogLinearBuckets.rank(quantile, recorded);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+}
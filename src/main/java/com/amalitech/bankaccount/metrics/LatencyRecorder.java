@@ -0,0 +1,82 @@
+package com.amalitech.bankaccount.metrics;
+
+/**
+ * Single-writer log-linear latency histogram: values below 64 ns are counted exactly, above
+ * that every power of two is split into 32 linear sub-buckets, so quantiles are within ~3%.
+ * Recording is a couple of shifts and an array increment with no synchronisation; give each
+ * thread its own recorder and merge() them once the threads are done. The layout is
+ * LogLinearBuckets with 5 sub-bucket bits
+ */
+public final class LatencyRecorder {
+
+    private static final LogLinearBuckets LAYOUT = new LogLinearBuckets(5);
+    private static final int BUCKETS = LAYOUT.count();
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[LAYOUT.index(value)]++;
+        count++;
+        totalNanos += value;
+        if (value > maxNanos) {
+            maxNanos = value;
+        }
+    }
+
+    /**
+     * Adds another recorder's values to this one
+     * @param other Recorder whose writer has finished
+     */
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        totalNanos += other.totalNanos;
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+    }
+
+    /**
+     * @return Number of recorded values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Largest recorded value in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return Mean in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMeanNanos() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * @param quantile Between 0 and 1, e.g. 0.999
+     * @return Upper bound of the bucket holding the quantile (capped at the maximum), 0 if empty
+     */
+    public long quantileNanos(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = LogLinearBuckets.rank(quantile, count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LAYOUT.upperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+}
@@ -0,0 +1,11 @@
+package com.amalitech.bankaccount.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.amalitech.bank.Load")
+@Label("Load")
+@Description("Data file loaded by FilePersistenceService")
+public final class LoadEvent extends PersistenceEvent {
+}
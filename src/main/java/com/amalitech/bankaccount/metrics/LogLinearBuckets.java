@@ -0,0 +1,82 @@
+package com.amalitech.bankaccount.metrics;
+
+/**
+ * Log-linear (HDR-style) bucket layout shared by the histograms: values below
+ * 2 * 2^subBucketBits get a bucket each, above that every power of two is split into
+ * 2^subBucketBits linear sub-buckets, so a bucket's upper bound is within 1/2^subBucketBits of
+ * every value in it. With no sub-bucket bits the layout is plain power-of-two buckets.
+ * <p>
+ * Indexes are dense and ordered by value, and the sub-buckets of one power of two are
+ * consecutive, so a histogram keeps its counts however it likes (a long[], LongAdders, arrays
+ * allocated per power of two) and only asks the layout where a value goes
+ */
+public final class LogLinearBuckets {
+
+    private final int subBucketBits;
+    private final int subBuckets;
+    private final int exactLimit;
+    private final int count;
+
+    /**
+     * @param subBucketBits Log2 of the sub-buckets per power of two, 0 to 10
+     */
+    public LogLinearBuckets(int subBucketBits) {
+        if (subBucketBits < 0 || subBucketBits > 10) {
+            throw new IllegalArgumentException("Sub-bucket bits must be between 0 and 10");
+        }
+        this.subBucketBits = subBucketBits;
+        this.subBuckets = 1 << subBucketBits;
+        this.exactLimit = subBuckets * 2;
+        this.count = exactLimit + (62 - subBucketBits) * subBuckets;
+    }
+
+    /**
+     * @param value Value to count, not negative
+     * @return Index of the bucket holding it
+     */
+    public int index(long value) {
+        if (value < exactLimit) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - subBucketBits;
+        int subBucket = (int) (value >>> shift) - subBuckets;
+        return exactLimit + (shift - 1) * subBuckets + subBucket;
+    }
+
+    /**
+     * @param index Bucket index
+     * @return Largest value the bucket holds
+     */
+    public long upperBound(int index) {
+        if (index < exactLimit) {
+            return index;
+        }
+        int shift = (index - exactLimit) / subBuckets + 1;
+        long top = (index - exactLimit) % subBuckets + subBuckets;
+        return ((top + 1) << shift) - 1;
+    }
+
+    /**
+     * @return Number of buckets, enough for every long value
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return Log2 of the sub-buckets per power of two (buckets come in runs of that many)
+     */
+    public int subBucketBits() {
+        return subBucketBits;
+    }
+
+    /**
+     * @param quantile Between 0 and 1, e.g. 0.99
+     * @param total Number of counted values, more than 0
+     * @return 1-based rank of the value at the quantile: the first bucket whose running count
+     *         reaches it holds the quantile
+     */
+    public static long rank(double quantile, long total) {
+        return Math.max(1, (long) Math.ceil(quantile * total));
+    }
+}
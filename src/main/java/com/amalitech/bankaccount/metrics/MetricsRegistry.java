@@ -0,0 +1,250 @@
+package com.amalitech.bankaccount.metrics;
+
+import com.amalitech.bankaccount.utils.IO;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Registry of counters, gauges and latency histograms
+ * <p>
+ * Hot paths look their metrics up once (see BankMetrics) and then only touch striped
+ * adders, so recording never takes a lock. Reading is done by the periodic dump in
+ * Prometheus text exposition format and by the Metrics menu.
+ */
+public final class MetricsRegistry {
+
+    public static final String METRICS_FILE = "metrics.prom";
+    public static final long DEFAULT_DUMP_INTERVAL_SECONDS = 15;
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private enum Kind {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        HISTOGRAM("histogram");
+
+        private final String description;
+
+        Kind(String description) {
+            this.description = description;
+        }
+    }
+
+    /**
+     * One metric name with its help text and a series per label set
+     */
+    private record Family(String name, String help, Kind kind, Map<String, Object> series) {}
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    private ScheduledExecutorService dumper;
+
+    /**
+     * @return Application-wide registry
+     */
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    // ==================== REGISTRATION ====================
+
+    /**
+     * @param name Metric name, e.g. bank_deposits_total
+     * @param help Help text
+     * @param labels Label names and values, alternating (e.g. "file", "accounts")
+     * @return The counter registered under this name and labels, created on first use
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, Kind.COUNTER).series().computeIfAbsent(labelString(labels), key -> new Counter());
+    }
+
+    /**
+     * @param name Metric name in seconds, e.g. bank_deposit_duration_seconds
+     * @param help Help text
+     * @param labels Label names and values, alternating
+     * @return The histogram registered under this name and labels, created on first use
+     */
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) family(name, help, Kind.HISTOGRAM).series().computeIfAbsent(labelString(labels), key -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers (or replaces) a gauge read from a supplier whenever metrics are collected
+     * @param name Metric name
+     * @param help Help text
+     * @param supplier Source of the current value, must be cheap and thread-safe
+     * @param labels Label names and values, alternating
+     */
+    public void gauge(String name, String help, DoubleSupplier supplier, String... labels) {
+        family(name, help, Kind.GAUGE).series().put(labelString(labels), supplier);
+    }
+
+    private Family family(String name, String help, Kind kind) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, kind, new ConcurrentSkipListMap<>()));
+        if (family.kind() != kind) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.kind().description);
+        }
+        return family;
+    }
+
+    private static String labelString(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            builder.append(builder.isEmpty() ? "" : ",").append(labels[i]).append("=\"")
+                .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return builder.toString();
+    }
+
+    // ==================== PROMETHEUS EXPOSITION ====================
+
+    /**
+     * Writes every metric in Prometheus text exposition format (version 0.0.4)
+     * @param out Destination
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name()).append(' ').append(family.help()).append('\n');
+            out.append("# TYPE ").append(family.name()).append(' ').append(family.kind().description).append('\n');
+            for (Map.Entry<String, Object> series : family.series().entrySet()) {
+                String labels = series.getKey();
+                switch (series.getValue()) {
+                    case Counter counter -> sample(out, family.name(), labels, Long.toString(counter.sum()));
+                    case DoubleSupplier gauge -> sample(out, family.name(), labels, formatDouble(gauge.getAsDouble()));
+                    case LatencyHistogram histogram -> writeHistogram(out, family.name(), labels, histogram);
+                    default -> { }
+                }
+            }
+        }
+    }
+
+    private static void writeHistogram(Appendable out, String name, String labels, LatencyHistogram histogram) throws IOException {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS - 1; i++) {
+            cumulative += histogram.bucketCount(i);
+            sample(out, name + "_bucket", prefix + "le=\"" + formatDouble(LatencyHistogram.bucketUpperBound(i) / 1e9) + "\"", Long.toString(cumulative));
+        }
+        cumulative += histogram.bucketCount(LatencyHistogram.BUCKETS - 1);
+        sample(out, name + "_bucket", prefix + "le=\"+Inf\"", Long.toString(cumulative));
+        sample(out, name + "_sum", labels, formatDouble(histogram.getTotalNanos() / 1e9));
+        sample(out, name + "_count", labels, Long.toString(cumulative));
+    }
+
+    private static void sample(Appendable out, String name, String labels, String value) throws IOException {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String formatDouble(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        return Double.toString(value);
+    }
+
+    /**
+     * Writes the exposition to a file (temporary file + atomic move, so scrapers never
+     * see a partial file)
+     * @param target File to write, e.g. data/metrics.prom
+     */
+    public void dumpTo(Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writePrometheus(writer);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Starts dumping the metrics to a file at a fixed interval on a daemon thread
+     * @param target File to write
+     * @param intervalSeconds Seconds between two dumps
+     */
+    public synchronized void startPeriodicDump(Path target, long intervalSeconds) {
+        if (dumper != null) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> {
+            try {
+                dumpTo(target);
+            } catch (IOException e) {
+                IO.println("⚠ Could not write metrics: " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic dump (an in-flight dump is allowed to finish)
+     */
+    public synchronized void stopPeriodicDump() {
+        if (dumper != null) {
+            dumper.shutdown();
+            dumper = null;
+        }
+    }
+
+    // ==================== CONSOLE SUMMARY ====================
+
+    /**
+     * Prints counters, gauges and latency percentiles as console tables
+     */
+    public void printSummary() {
+        String line = "-".repeat(110);
+        StringBuilder values = new StringBuilder();
+        StringBuilder latencies = new StringBuilder();
+
+        for (Family family : families.values()) {
+            for (Map.Entry<String, Object> series : family.series().entrySet()) {
+                String label = series.getKey().isEmpty() ? family.name() : family.name() + "{" + series.getKey() + "}";
+                switch (series.getValue()) {
+                    case Counter counter -> values.append("%-70s %,20d%n".formatted(label, counter.sum()));
+                    case DoubleSupplier gauge -> values.append("%-70s %,20.2f%n".formatted(label, gauge.getAsDouble()));
+                    case LatencyHistogram histogram -> latencies.append("%-52s %,10d %10s %10s %10s %10s%n".formatted(label,
+                        histogram.getCount(), formatNanos((long) histogram.getMeanNanos()), formatNanos(histogram.quantileNanos(0.5)),
+                        formatNanos(histogram.quantileNanos(0.99)), formatNanos(histogram.getMaxNanos())));
+                    default -> { }
+                }
+            }
+        }
+
+        IO.println("""
+
+                METRICS
+                %s
+                %-70s %20s
+                %s
+                %s%s
+                %-52s %10s %10s %10s %10s %10s
+                %s
+                %s""".formatted(line, "COUNTER / GAUGE", "VALUE", line, values, line,
+            "LATENCY", "COUNT", "MEAN", "P50", "P99", "MAX", line, latencies));
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) return nanos + " ns";
+        if (nanos < 1_000_000) return "%.1f µs".formatted(nanos / 1e3);
+        if (nanos < 1_000_000_000) return "%.1f ms".formatted(nanos / 1e6);
+        return "%.2f s".formatted(nanos / 1e9);
+    }
+}
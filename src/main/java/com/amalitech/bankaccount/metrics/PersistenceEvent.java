@@ -0,0 +1,39 @@
+package com.amalitech.bankaccount.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base JFR event for saving or loading one data file
+ */
+@Category({"Bank Management", "Persistence"})
+public abstract class PersistenceEvent extends Event {
+
+    public static final String SUCCESS = "Success";
+    public static final String FAILED = "Failed";
+
+    @Label("File")
+    String file;
+
+    @Label("Records")
+    long records;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * @param file Data set, "accounts" or "transactions"
+     * @param records Records written or read
+     * @param outcome SUCCESS, FAILED or the simple name of the exception
+     */
+    public void finish(String file, long records, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.file = file;
+            this.records = records;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
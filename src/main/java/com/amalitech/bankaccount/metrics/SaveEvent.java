@@ -0,0 +1,11 @@
+package com.amalitech.bankaccount.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.amalitech.bank.Save")
+@Label("Save")
+@Description("Data file saved by FilePersistenceService")
+public final class SaveEvent extends PersistenceEvent {
+}
@@ -0,0 +1,35 @@
+package com.amalitech.bankaccount.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.amalitech.bank.Statement")
+@Label("Statement")
+@Description("Transaction statement generated for an account")
+@Category({"Bank Management", "Accounts"})
+@StackTrace(false)
+public final class StatementEvent extends Event {
+
+    @Label("Account Number")
+    String accountNumber;
+
+    @Label("Transactions")
+    int transactions;
+
+    /**
+     * @param accountNumber Account the statement was generated for
+     * @param transactions Number of transactions listed
+     */
+    public void finish(String accountNumber, int transactions) {
+        end();
+        if (shouldCommit()) {
+            this.accountNumber = accountNumber;
+            this.transactions = transactions;
+            commit();
+        }
+    }
+}
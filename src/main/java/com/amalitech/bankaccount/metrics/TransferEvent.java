@@ -0,0 +1,23 @@
+package com.amalitech.bankaccount.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.amalitech.bank.Transfer")
+@Label("Transfer")
+@Description("Transfer between two accounts, both legs and their transaction records")
+public final class TransferEvent extends AccountOperationEvent {
+
+    @Label("Recipient Account Number")
+    String recipientAccountNumber;
+
+    /**
+     * @param recipientAccountNumber Account credited by the transfer
+     * @return this event for chaining into finish()
+     */
+    public TransferEvent recipient(String recipientAccountNumber) {
+        this.recipientAccountNumber = recipientAccountNumber;
+        return this;
+    }
+}
@@ -0,0 +1,11 @@
+package com.amalitech.bankaccount.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.amalitech.bank.Withdrawal")
+@Label("Withdrawal")
+@Description("Withdrawal applied to or rejected by an account, including fee and limit checks")
+public final class WithdrawalEvent extends AccountOperationEvent {
+}
@@ -0,0 +1,302 @@
+package com.amalitech.bankaccount.query;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.AccountManager;
+import com.amalitech.bankaccount.account.BalanceStatistics;
+import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.enums.CustomerType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Query over the accounts of an AccountManager: filter, order, limit and aggregate, e.g.
+ * <pre>
+ * AccountQuery.over(accountManager)
+ *     .whereAccountType(AccountType.CHECKING)
+ *     .whereBalanceBetween(Double.NEGATIVE_INFINITY, 0)
+ *     .orderByBalance(false)
+ *     .limit(10)
+ *     .list();
+ * </pre>
+ * The planner pushes the account number into a point lookup and the account type, customer
+ * type and balance range into the balance index, where the rows already come richest first,
+ * so a balance order needs no sort and a limit stops the scan after k rows. Aggregations with
+ * only type filters are answered from the maintained statistics without touching an account.
+ * Only predicates passed to where() are evaluated row by row. explain() shows the chosen plan
+ */
+public final class AccountQuery {
+
+    private enum Access { POINT_LOOKUP, STATISTICS, BALANCE_INDEX, FULL_SCAN }
+
+    private final AccountManager accountManager;
+    private String accountNumber;
+    private AccountType accountType;
+    private CustomerType customerType;
+    private double minBalance = Double.NEGATIVE_INFINITY;
+    private double maxBalance = Double.POSITIVE_INFINITY;
+    private final List<Predicate<Account>> residual = new ArrayList<>();
+    private Comparator<Account> order;
+    // null when the order is not by balance, true for highest first
+    private Boolean balanceDescending;
+    private int limit = -1;
+
+    private AccountQuery(AccountManager accountManager) {
+        this.accountManager = accountManager;
+    }
+
+    /**
+     * @param accountManager
+     * @return A query over every account of the manager
+     */
+    public static AccountQuery over(AccountManager accountManager) {
+        return new AccountQuery(accountManager);
+    }
+
+    // ==================== BUILDER ====================
+
+    public AccountQuery whereAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+        return this;
+    }
+
+    public AccountQuery whereAccountType(AccountType type) {
+        this.accountType = type;
+        return this;
+    }
+
+    public AccountQuery whereCustomerType(CustomerType type) {
+        this.customerType = type;
+        return this;
+    }
+
+    /**
+     * @param min Lowest balance, inclusive
+     * @param max Highest balance, inclusive
+     */
+    public AccountQuery whereBalanceBetween(double min, double max) {
+        this.minBalance = Math.max(this.minBalance, min);
+        this.maxBalance = Math.min(this.maxBalance, max);
+        return this;
+    }
+
+    /**
+     * Adds a predicate the planner cannot push into an index; it is evaluated per row
+     * @param predicate
+     */
+    public AccountQuery where(Predicate<Account> predicate) {
+        this.residual.add(predicate);
+        return this;
+    }
+
+    /**
+     * @param descending true for highest balance first
+     */
+    public AccountQuery orderByBalance(boolean descending) {
+        Comparator<Account> byBalance = Comparator.comparingDouble(Account::getAccountBalance);
+        this.order = descending ? byBalance.reversed() : byBalance;
+        this.balanceDescending = descending;
+        return this;
+    }
+
+    public AccountQuery orderBy(Comparator<Account> comparator) {
+        this.order = comparator;
+        this.balanceDescending = null;
+        return this;
+    }
+
+    public AccountQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    // ==================== PLANNING ====================
+
+    private Access access(boolean aggregate) {
+        if (accountNumber != null) {
+            return Access.POINT_LOOKUP;
+        }
+        boolean balanceBounded = minBalance != Double.NEGATIVE_INFINITY || maxBalance != Double.POSITIVE_INFINITY;
+        if (aggregate && residual.isEmpty() && limit < 0 && !balanceBounded) {
+            return Access.STATISTICS;
+        }
+        if (accountType != null || customerType != null || balanceBounded || balanceDescending != null) {
+            return Access.BALANCE_INDEX;
+        }
+        return Access.FULL_SCAN;
+    }
+
+    // Index rows are richest first; a balance order or no order keeps them without a sort
+    private boolean indexOrderSuffices() {
+        return order == null || balanceDescending != null;
+    }
+
+    /**
+     * @return The plan list() would run
+     */
+    public QueryPlan explain() {
+        return explain(false);
+    }
+
+    /**
+     * @return The plan summarize() would run
+     */
+    public QueryPlan explainSummary() {
+        return explain(true);
+    }
+
+    private QueryPlan explain(boolean aggregate) {
+        Access access = access(aggregate);
+        List<String> steps = new ArrayList<>();
+        String source = switch (access) {
+            case POINT_LOOKUP -> "point lookup of account " + accountNumber;
+            case STATISTICS -> "maintained balance statistics (" + typeBounds() + "), no rows read";
+            case BALANCE_INDEX -> "balance index range scan (" + typeBounds() + ", balance " + balanceBounds() + ")";
+            case FULL_SCAN -> "full scan of every account";
+        };
+        if (access == Access.POINT_LOOKUP || access == Access.FULL_SCAN) {
+            if (accountType != null || customerType != null) steps.add("filter " + typeBounds());
+            if (minBalance != Double.NEGATIVE_INFINITY || maxBalance != Double.POSITIVE_INFINITY) {
+                steps.add("filter balance " + balanceBounds());
+            }
+        }
+        if (!residual.isEmpty()) steps.add("filter " + residual.size() + " residual predicate(s) per row");
+        if (access != Access.STATISTICS) {
+            if (order != null && access == Access.BALANCE_INDEX && indexOrderSuffices()) {
+                steps.add("order by balance " + (balanceDescending ? "descending" : "ascending") + " (index order, no sort)");
+            } else if (order != null) {
+                steps.add("sort");
+            }
+            if (limit >= 0) {
+                steps.add("limit " + limit + (access == Access.BALANCE_INDEX && residual.isEmpty() && indexOrderSuffices()
+                    ? " (stops the index scan)" : ""));
+            }
+        }
+        if (aggregate) steps.add("aggregate count, sum, min, max, average" + (access == Access.STATISTICS ? " read in O(1)" : " in one pass"));
+        return new QueryPlan(source, steps);
+    }
+
+    private String typeBounds() {
+        return "type " + (accountType == null ? "any" : accountType.name())
+            + ", customer " + (customerType == null ? "any" : customerType.name());
+    }
+
+    private String balanceBounds() {
+        return "[" + minBalance + ", " + maxBalance + "]";
+    }
+
+    // ==================== EXECUTION ====================
+
+    /**
+     * @return Matching accounts in the requested order, at most limit
+     */
+    public List<Account> list() {
+        return switch (access(false)) {
+            case POINT_LOOKUP -> finish(pointLookup());
+            case BALANCE_INDEX -> indexScan();
+            default -> finish(fullScan());
+        };
+    }
+
+    /**
+     * Count, sum, min, max and average of the balances of the rows list() would return,
+     * computed together in one pass (or read from the statistics when nothing is row-filtered)
+     * @return Balance statistics
+     */
+    public DoubleSummaryStatistics summarize() {
+        if (access(true) == Access.STATISTICS) {
+            BalanceStatistics.BalanceSummary summary = accountManager.getBalanceStatistics().summaryOf(accountType, customerType);
+            return summary.count() == 0
+                ? new DoubleSummaryStatistics()
+                : new DoubleSummaryStatistics(summary.count(), summary.min(), summary.max(), summary.sum());
+        }
+        DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+        for (Account account : list()) {
+            statistics.accept(account.getAccountBalance());
+        }
+        return statistics;
+    }
+
+    /**
+     * Balance statistics per group, every group filled in the same single pass
+     * @param key Grouping key, e.g. Account::getType
+     * @return Statistics per key
+     */
+    public <K> Map<K, DoubleSummaryStatistics> summarizeBy(Function<Account, K> key) {
+        Map<K, DoubleSummaryStatistics> groups = new HashMap<>();
+        for (Account account : list()) {
+            groups.computeIfAbsent(key.apply(account), k -> new DoubleSummaryStatistics()).accept(account.getAccountBalance());
+        }
+        return groups;
+    }
+
+    private List<Account> pointLookup() {
+        Account account = accountManager.findAccount(accountNumber);
+        List<Account> rows = new ArrayList<>(1);
+        if (account != null && matchesBounds(account) && matchesResidual(account)) {
+            rows.add(account);
+        }
+        return rows;
+    }
+
+    private List<Account> fullScan() {
+        List<Account> rows = new ArrayList<>();
+        accountManager.forEachAccount(account -> {
+            if (matchesBounds(account) && matchesResidual(account)) {
+                rows.add(account);
+            }
+        });
+        return rows;
+    }
+
+    private List<Account> indexScan() {
+        boolean streamed = indexOrderSuffices();
+        // Without residual predicates every index row is a result, so the index stops at the limit
+        int indexLimit = streamed && limit >= 0 && residual.isEmpty() ? limit : Integer.MAX_VALUE;
+        List<BalanceStatistics.RankedBalance> ranked = accountManager.getBalanceStatistics()
+            .inRange(accountType, customerType, minBalance, maxBalance, !Boolean.FALSE.equals(balanceDescending), indexLimit);
+        List<Account> rows = new ArrayList<>();
+        for (BalanceStatistics.RankedBalance entry : ranked) {
+            if (streamed && limit >= 0 && rows.size() == limit) {
+                break;
+            }
+            Account account = accountManager.findAccount(entry.accountNumber());
+            if (account != null && matchesResidual(account)) {
+                rows.add(account);
+            }
+        }
+        return streamed ? rows : finish(rows);
+    }
+
+    private List<Account> finish(List<Account> rows) {
+        if (order != null) {
+            rows.sort(order);
+        }
+        return limit >= 0 && rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows;
+    }
+
+    private boolean matchesBounds(Account account) {
+        double balance = account.getAccountBalance();
+        return (accountType == null || account.getType() == accountType)
+            && (customerType == null || account.getCustomer().getType() == customerType)
+            && balance >= minBalance && balance <= maxBalance;
+    }
+
+    private boolean matchesResidual(Account account) {
+        for (Predicate<Account> predicate : residual) {
+            if (!predicate.test(account)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
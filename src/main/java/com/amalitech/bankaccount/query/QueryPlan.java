@@ -0,0 +1,21 @@
+package com.amalitech.bankaccount.query;
+
+import java.util.List;
+
+/**
+ * How a query will be answered: the access path the planner picked and the steps applied to
+ * its rows, in order. Returned by explain()
+ * @param source Access path, e.g. an index range scan or a full scan
+ * @param steps Filters, ordering, limit and aggregation applied after the access path
+ */
+public record QueryPlan(String source, List<String> steps) {
+
+    @Override
+    public String toString() {
+        StringBuilder plan = new StringBuilder("Source: ").append(source);
+        for (String step : steps) {
+            plan.append("\n  -> ").append(step);
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,365 @@
+package com.amalitech.bankaccount.query;
+
+import com.amalitech.bankaccount.enums.TransactionType;
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionManager;
+import com.amalitech.bankaccount.utils.FunctionalUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+
+/**
+ * Query over the transactions of a TransactionManager (persisted history + in memory):
+ * filter, order, limit and aggregate, e.g.
+ * <pre>
+ * TransactionQuery.over(transactionManager)
+ *     .whereType(TransactionType.WITHDRAWAL)
+ *     .whereTimeBetween(LocalDateTime.now().minusHours(1), null)
+ *     .orderByAmount(true)
+ *     .limit(20)
+ *     .list();
+ * </pre>
+ * The planner pushes an account number into the per-account history and a time range into a
+ * binary search of the in-memory transactions, which are held in append (time) order, and
+ * into the persisted history, which seeks to the first archive block or journal stretch that
+ * can hold the start of the range; the history is streamed, never loaded whole, and the scan
+ * stops at the limit or once past the end of the time range. An order with a limit keeps the
+ * top k in a bounded heap as the rows stream instead of collecting and sorting them, and
+ * aggregations are folded in the same way. explain() shows the chosen plan
+ */
+public final class TransactionQuery {
+
+    private enum Access { ACCOUNT_HISTORY, TIME_RANGE_SEEK, FULL_SCAN }
+
+    // Transactions are added a moment after their timestamp is taken, so concurrent adds can be
+    // out of order by that much; the seek starts this far early and rows are filtered exactly
+    private static final long SEEK_SLACK_SECONDS = 60;
+
+    private final TransactionManager transactionManager;
+    private String accountNumber;
+    private TransactionType type;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private double minAmount = Double.NEGATIVE_INFINITY;
+    private double maxAmount = Double.POSITIVE_INFINITY;
+    private final List<Predicate<Transaction>> residual = new ArrayList<>();
+    private Comparator<Transaction> order;
+    private String orderName;
+    private int limit = -1;
+
+    private TransactionQuery(TransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * @param transactionManager
+     * @return A query over every transaction of the manager
+     */
+    public static TransactionQuery over(TransactionManager transactionManager) {
+        return new TransactionQuery(transactionManager);
+    }
+
+    // ==================== BUILDER ====================
+
+    public TransactionQuery whereAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+        return this;
+    }
+
+    public TransactionQuery whereType(TransactionType type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     * @param from Earliest time, inclusive, null for no bound
+     * @param to Latest time, inclusive, null for no bound
+     */
+    public TransactionQuery whereTimeBetween(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    /**
+     * @param min Smallest amount, inclusive
+     * @param max Largest amount, inclusive
+     */
+    public TransactionQuery whereAmountBetween(double min, double max) {
+        this.minAmount = Math.max(this.minAmount, min);
+        this.maxAmount = Math.min(this.maxAmount, max);
+        return this;
+    }
+
+    /**
+     * Adds a predicate the planner cannot push down; it is evaluated per row
+     * @param predicate
+     */
+    public TransactionQuery where(Predicate<Transaction> predicate) {
+        this.residual.add(predicate);
+        return this;
+    }
+
+    /**
+     * @param descending true for largest amount first
+     */
+    public TransactionQuery orderByAmount(boolean descending) {
+        Comparator<Transaction> byAmount = Comparator.comparingDouble(Transaction::getAmount);
+        this.order = descending ? byAmount.reversed() : byAmount;
+        this.orderName = "amount";
+        return this;
+    }
+
+    public TransactionQuery orderBy(Comparator<Transaction> comparator) {
+        this.order = comparator;
+        this.orderName = "the given order";
+        return this;
+    }
+
+    public TransactionQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    // ==================== PLANNING ====================
+
+    private Access access() {
+        if (accountNumber != null) {
+            return Access.ACCOUNT_HISTORY;
+        }
+        if (from != null || to != null) {
+            return Access.TIME_RANGE_SEEK;
+        }
+        return Access.FULL_SCAN;
+    }
+
+    /**
+     * @return The plan list() would run
+     */
+    public QueryPlan explain() {
+        return explain(false);
+    }
+
+    /**
+     * @return The plan summarize() would run
+     */
+    public QueryPlan explainSummary() {
+        return explain(true);
+    }
+
+    private QueryPlan explain(boolean aggregate) {
+        Access access = access();
+        List<String> steps = new ArrayList<>();
+        String historyEnd = to == null ? "" : " until past " + to;
+        String source = switch (access) {
+            case ACCOUNT_HISTORY -> "history of account " + accountNumber;
+            case TIME_RANGE_SEEK -> "stream persisted history" + (from == null ? "" : " from the block holding " + from) + historyEnd
+                + " + binary search of in-memory transactions from "
+                + (from == null ? "the first" : from) + " to " + (to == null ? "the last" : to);
+            case FULL_SCAN -> "stream persisted history + scan of in-memory transactions";
+        };
+        if (access == Access.ACCOUNT_HISTORY && (from != null || to != null)) steps.add("filter time range");
+        if (access == Access.TIME_RANGE_SEEK && from != null) steps.add("filter persisted history before " + from);
+        if (type != null) steps.add("filter type " + type.getDescription());
+        if (minAmount != Double.NEGATIVE_INFINITY || maxAmount != Double.POSITIVE_INFINITY) {
+            steps.add("filter amount [" + minAmount + ", " + maxAmount + "]");
+        }
+        if (!residual.isEmpty()) steps.add("filter " + residual.size() + " residual predicate(s) per row");
+        // An aggregate without a limit covers every row whatever the order
+        boolean ordered = order != null && (!aggregate || limit >= 0);
+        if (ordered && limit >= 0) {
+            steps.add("top " + limit + " by " + orderName + " with a bounded heap as rows stream (no full sort)");
+        } else {
+            if (ordered) steps.add("sort");
+            if (limit >= 0) steps.add("limit " + limit + (order == null ? " (stops the scan)" : ""));
+        }
+        if (aggregate) {
+            steps.add("aggregate count, sum, min, max, average in one pass"
+                + (ordered && limit >= 0 ? " over the selected rows" : " as rows stream (none collected)"));
+        }
+        return new QueryPlan(source, steps);
+    }
+
+    // ==================== EXECUTION ====================
+
+    /**
+     * @return Matching transactions in the requested order (time order if none), at most limit
+     */
+    public List<Transaction> list() {
+        if (order != null && limit >= 0) {
+            // Only the first limit rows in order are kept, never every matching row
+            return limit == 0 ? new ArrayList<>() : select(FunctionalUtils.topKCollector(limit, order.reversed()));
+        }
+        // Without an order the scan can stop as soon as the limit is reached
+        List<Transaction> rows = new ArrayList<>();
+        if (limit != 0) {
+            scan(transaction -> {
+                rows.add(transaction);
+                return limit < 0 || rows.size() < limit;
+            });
+        }
+        if (order != null) {
+            rows.sort(order);
+        }
+        return rows;
+    }
+
+    private <A> List<Transaction> select(Collector<Transaction, A, List<Transaction>> collector) {
+        A selected = collector.supplier().get();
+        scan(transaction -> {
+            collector.accumulator().accept(selected, transaction);
+            return true;
+        });
+        return new ArrayList<>(collector.finisher().apply(selected));
+    }
+
+    /**
+     * Count, sum, min, max and average of the amounts of the rows list() would return, folded
+     * in as the rows are scanned, without collecting them
+     * @return Amount statistics
+     */
+    public DoubleSummaryStatistics summarize() {
+        DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+        forEachRow(transaction -> statistics.accept(transaction.getAmount()));
+        return statistics;
+    }
+
+    /**
+     * Amount statistics per group, every group filled in the same single pass
+     * @param key Grouping key, e.g. Transaction::getType
+     * @return Statistics per key
+     */
+    public <K> Map<K, DoubleSummaryStatistics> summarizeBy(Function<Transaction, K> key) {
+        Map<K, DoubleSummaryStatistics> groups = new HashMap<>();
+        forEachRow(transaction -> groups.computeIfAbsent(key.apply(transaction), k -> new DoubleSummaryStatistics())
+            .accept(transaction.getAmount()));
+        return groups;
+    }
+
+    /**
+     * Visits the rows list() would return. Only an order with a limit decides which rows those
+     * are, so only then are they collected first
+     */
+    private void forEachRow(Consumer<Transaction> action) {
+        if (order != null && limit >= 0) {
+            list().forEach(action);
+            return;
+        }
+        if (limit == 0) {
+            return;
+        }
+        long[] visited = {0};
+        scan(transaction -> {
+            action.accept(transaction);
+            return limit < 0 || ++visited[0] < limit;
+        });
+    }
+
+    /**
+     * Feeds the matching transactions to the sink in time order until it returns false
+     */
+    private void scan(Predicate<Transaction> sink) {
+        switch (access()) {
+            case ACCOUNT_HISTORY -> collect(transactionManager.getTransactionsForAccount(accountNumber), 0, sink);
+            case TIME_RANGE_SEEK -> {
+                if (scanHistory(sink)) {
+                    List<Transaction> recent = transactionManager.getTransactions();
+                    collect(recent, from == null ? 0 : seek(recent, from.minusSeconds(SEEK_SLACK_SECONDS)), sink);
+                }
+            }
+            case FULL_SCAN -> {
+                if (scanHistory(sink)) {
+                    collect(transactionManager.getTransactions(), 0, sink);
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams the persisted history, which is in time order like the in-memory transactions,
+     * from the start of the time range (less the slack), stopping when the sink has enough or
+     * the rows pass the end of the range
+     * @return true when the whole history was read and the in-memory transactions come next
+     */
+    private boolean scanHistory(Predicate<Transaction> sink) {
+        LocalDateTime end = rangeEnd();
+        boolean[] completed = {true};
+        Predicate<Transaction> visit = transaction -> {
+            if ((end != null && transaction.parseTimeStamp().isAfter(end))
+                || (matches(transaction) && !sink.test(transaction))) {
+                completed[0] = false;
+                return false;
+            }
+            return true;
+        };
+        if (from == null) {
+            transactionManager.forEachHistoryTransactionWhile(visit);
+        } else {
+            transactionManager.forEachHistoryTransactionWhile(from.minusSeconds(SEEK_SLACK_SECONDS), visit);
+        }
+        return completed[0];
+    }
+
+    private void collect(List<Transaction> source, int start, Predicate<Transaction> sink) {
+        LocalDateTime end = accountNumber == null ? rangeEnd() : null;
+        for (int i = start; i < source.size(); i++) {
+            Transaction transaction = source.get(i);
+            // Past the end of the range (and its slack): the rest of the list is later still
+            if (end != null && transaction.parseTimeStamp().isAfter(end)) {
+                return;
+            }
+            if (matches(transaction) && !sink.test(transaction)) {
+                return;
+            }
+        }
+    }
+
+    // Latest time a row in range can be stamped with, allowing for out-of-order adds
+    private LocalDateTime rangeEnd() {
+        return to == null ? null : to.plusSeconds(SEEK_SLACK_SECONDS);
+    }
+
+    /**
+     * @return Index of the first in-memory transaction stamped at or after the given time
+     */
+    private static int seek(List<Transaction> transactions, LocalDateTime time) {
+        int low = 0;
+        int high = transactions.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (transactions.get(mid).parseTimeStamp().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean matches(Transaction transaction) {
+        if (type != null && !type.getDescription().equals(transaction.getType())) return false;
+        double amount = transaction.getAmount();
+        if (amount < minAmount || amount > maxAmount) return false;
+        if (from != null || to != null) {
+            LocalDateTime time = transaction.parseTimeStamp();
+            if (from != null && time.isBefore(from)) return false;
+            if (to != null && time.isAfter(to)) return false;
+        }
+        for (Predicate<Transaction> predicate : residual) {
+            if (!predicate.test(transaction)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,97 @@
+package com.amalitech.bankaccount.services;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Bloom filter over string keys, stored at the end of every SSTable so lookups for keys a
+ * table does not hold are answered without touching its data blocks
+ * <p>
+ * Uses double hashing (h1 + i * h2) over one 64-bit FNV-1a hash, about 1% false positives
+ * at the default 10 bits per key.
+ */
+final class BloomFilter {
+
+    static final int DEFAULT_BITS_PER_KEY = 10;
+
+    private final long[] words;
+    private final int hashes;
+    private final long bitCount;
+
+    private BloomFilter(long[] words, int hashes) {
+        this.words = words;
+        this.hashes = hashes;
+        this.bitCount = (long) words.length * Long.SIZE;
+    }
+
+    /**
+     * Creates an empty filter sized for the expected number of keys
+     */
+    static BloomFilter create(long expectedKeys, int bitsPerKey) {
+        long bits = Math.max(Long.SIZE, expectedKeys * bitsPerKey);
+        int hashes = Math.clamp(Math.round(bitsPerKey * Math.log(2)), 1, 16);
+        return new BloomFilter(new long[(int) ((bits + Long.SIZE - 1) / Long.SIZE)], hashes);
+    }
+
+    void add(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @return false if the key was definitely never added, true if it might have been
+     */
+    boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(hashes);
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    static BloomFilter readFrom(ByteBuffer buffer) {
+        int hashes = buffer.getInt();
+        long[] words = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(words);
+        return new BloomFilter(words, hashes);
+    }
+
+    /**
+     * @return Serialized size in bytes
+     */
+    int sizeInBytes() {
+        return Integer.BYTES * 2 + words.length * Long.BYTES;
+    }
+
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        // Final avalanche so keys differing only in the last digit spread over both halves
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,603 @@
+package com.amalitech.bankaccount.services;
+
+import com.amalitech.bankaccount.utils.IO;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.AccountManager;
+import com.amalitech.bankaccount.account.CheckingAccount;
+import com.amalitech.bankaccount.account.SavingsAccount;
+import com.amalitech.bankaccount.customer.Customer;
+import com.amalitech.bankaccount.customer.PremiumCustomer;
+import com.amalitech.bankaccount.customer.RegularCustomer;
+import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.enums.CustomerType;
+import com.amalitech.bankaccount.enums.FileFormat;
+import com.amalitech.bankaccount.enums.TransactionType;
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionManager;
+import com.amalitech.bankaccount.utils.ValidationUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming bulk import of customers and their opening deposits
+ * <p>
+ * The source is read line by line and cut into batches. Batches are parsed and validated
+ * on a small worker pool with the precompiled ValidationUtils predicates, so no Pattern is
+ * compiled per row. The calling thread commits validated batches in file order: customers
+ * are built through the trusted factories (already validated), and each batch of accounts
+ * and opening-deposit transactions is handed to the managers in one call. Rejected rows go
+ * to a side file with the reason. At most a fixed number of batches is in flight, so memory
+ * does not grow with the size of the file.
+ * <p>
+ * Columns (CSV header or JSON Lines keys):
+ * customerType,name,age,contact,address,email,accountType,initialDeposit
+ */
+public class BulkImportService {
+
+    public static final int DEFAULT_BATCH_SIZE = 5_000;
+    public static final String REJECTS_SUFFIX = ".rejects";
+
+    // Same minimums the Menu enforces for a new account's first deposit
+    static final double SAVINGS_MINIMUM_DEPOSIT = 500;
+    static final double PREMIUM_MINIMUM_DEPOSIT = 10000;
+
+    private static final String[] COLUMNS = {
+        "customerType", "name", "age", "contact", "address", "email", "accountType", "initialDeposit"
+    };
+    private static final long PROGRESS_INTERVAL_NANOS = 1_000_000_000L;
+
+    /**
+     * Outcome of one import
+     * @param rows Data rows read (header and blank lines excluded)
+     * @param imported Accounts created
+     * @param rejected Rows written to the rejects file
+     * @param deposited Sum of the opening deposits imported
+     * @param elapsedNanos Wall-clock time of the import
+     * @param rejectsFile Side file holding the rejected rows, null if nothing was rejected
+     */
+    public record ImportReport(long rows, long imported, long rejected, double deposited, long elapsedNanos, Path rejectsFile) {
+
+        /**
+         * @return Rows processed per second
+         */
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows / (elapsedNanos / 1e9);
+        }
+    }
+
+    /**
+     * One parsed row, either valid or carrying the reason it was rejected
+     */
+    private record ImportRow(long lineNumber, String raw, String reason, CustomerType customerType, String name, int age,
+                             String contact, String address, String email, AccountType accountType, double deposit) {
+
+        static ImportRow rejected(long lineNumber, String raw, String reason) {
+            return new ImportRow(lineNumber, raw, reason, null, null, 0, null, null, null, null, 0);
+        }
+    }
+
+    private final AccountManager accountManager;
+    private final TransactionManager transactionManager;
+    private final int batchSize;
+    private final int parallelism;
+
+    /**
+     * Constructor with the default batch size and one worker per available processor
+     * @param accountManager Manager receiving the imported accounts
+     * @param transactionManager Manager receiving the opening deposits
+     */
+    public BulkImportService(AccountManager accountManager, TransactionManager transactionManager) {
+        this(accountManager, transactionManager, DEFAULT_BATCH_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for the bulk importer
+     * @param accountManager Manager receiving the imported accounts
+     * @param transactionManager Manager receiving the opening deposits
+     * @param batchSize Rows per validation and commit batch
+     * @param parallelism Number of validation workers
+     */
+    public BulkImportService(AccountManager accountManager, TransactionManager transactionManager, int batchSize, int parallelism) {
+        this.accountManager = accountManager;
+        this.transactionManager = transactionManager;
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    // ==================== IMPORT ====================
+
+    /**
+     * Imports a .csv or .jsonl file, writing rejected rows next to it (source + REJECTS_SUFFIX)
+     * @param source File to import
+     * @return Import report
+     */
+    public ImportReport importFile(Path source) throws IOException {
+        return importFile(source, FileFormat.fromPath(source), source.resolveSibling(source.getFileName() + REJECTS_SUFFIX));
+    }
+
+    /**
+     * Imports a file in the given format
+     * @param source File to import
+     * @param format Source format
+     * @param rejectsFile Side file for rejected rows (only left behind if something was rejected)
+     * @return Import report
+     */
+    public ImportReport importFile(Path source, FileFormat format, Path rejectsFile) throws IOException {
+        long start = System.nanoTime();
+        Files.deleteIfExists(rejectsFile);
+        ImportProgress progress = new ImportProgress(start);
+
+        AtomicInteger workerId = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import-" + workerId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Validated batches waiting to be committed in file order; bounded so memory is too
+        Deque<Future<List<ImportRow>>> inFlight = new ArrayDeque<>();
+        int maxInFlight = parallelism * 2;
+
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+             RejectsWriter rejects = new RejectsWriter(rejectsFile)) {
+
+            Map<String, Integer> columns = format == FileFormat.CSV ? readHeader(reader.readLine()) : null;
+            long lineNumber = format == FileFormat.CSV ? 1 : 0;
+
+            List<String> lines = new ArrayList<>(batchSize);
+            long batchStart = lineNumber + 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lines.isEmpty()) {
+                    batchStart = lineNumber;
+                }
+                lines.add(line);
+                if (lines.size() == batchSize) {
+                    submit(workers, inFlight, lines, batchStart, format, columns);
+                    lines = new ArrayList<>(batchSize);
+                    while (inFlight.size() >= maxInFlight) {
+                        commit(awaitBatch(inFlight.removeFirst()), rejects, progress);
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                submit(workers, inFlight, lines, batchStart, format, columns);
+            }
+            while (!inFlight.isEmpty()) {
+                commit(awaitBatch(inFlight.removeFirst()), rejects, progress);
+            }
+        } finally {
+            inFlight.forEach(pending -> pending.cancel(true));
+            workers.shutdownNow();
+        }
+
+        ImportReport report = new ImportReport(progress.rows, progress.imported, progress.rejected, progress.deposited,
+            System.nanoTime() - start, progress.rejected > 0 ? rejectsFile : null);
+        printReport(report);
+        return report;
+    }
+
+    private void submit(ExecutorService workers, Deque<Future<List<ImportRow>>> inFlight, List<String> lines,
+                        long firstLineNumber, FileFormat format, Map<String, Integer> columns) {
+        inFlight.addLast(workers.submit(() -> parseBatch(lines, firstLineNumber, format, columns)));
+    }
+
+    private static List<ImportRow> awaitBatch(Future<List<ImportRow>> pending) throws IOException {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import worker failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Creates the accounts and opening deposits of a validated batch (calling thread only,
+     * so account numbers and customer ids follow file order)
+     */
+    private void commit(List<ImportRow> batch, RejectsWriter rejects, ImportProgress progress) throws IOException {
+        List<Account> accounts = new ArrayList<>(batch.size());
+        List<Transaction> deposits = new ArrayList<>(batch.size());
+
+        for (ImportRow row : batch) {
+            if (row.reason() != null) {
+                rejects.write(row);
+                progress.rejected++;
+                continue;
+            }
+
+            String customerId = Customer.issueCustomerId();
+            Customer customer = row.customerType() == CustomerType.PREMIUM
+                ? PremiumCustomer.restore(customerId, row.name(), row.age(), row.contact(), row.address(), row.email())
+                : RegularCustomer.restore(customerId, row.name(), row.age(), row.contact(), row.address(), row.email());
+            Account account = row.accountType() == AccountType.SAVINGS
+                ? new SavingsAccount(customer)
+                : new CheckingAccount(customer);
+            account.setAccountBalance(row.deposit());
+
+            Transaction transaction = new Transaction(account.getAccountNumber(), row.deposit(), row.deposit());
+            transaction.setType(TransactionType.DEPOSIT.getDescription());
+
+            accounts.add(account);
+            deposits.add(transaction);
+            progress.deposited += row.deposit();
+        }
+
+        accountManager.addAccounts(accounts);
+        transactionManager.addTransactions(deposits);
+        progress.imported += accounts.size();
+        progress.rows += batch.size();
+        progress.maybePrint();
+    }
+
+    // ==================== PARSING AND VALIDATION ====================
+
+    private static Map<String, Integer> readHeader(String header) throws IOException {
+        if (header == null) {
+            throw new IOException("Import file is empty");
+        }
+        List<String> names = splitCsv(stripBom(header));
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String column : COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IOException("Missing column '" + column + "' in CSV header");
+            }
+        }
+        return columns;
+    }
+
+    private static List<ImportRow> parseBatch(List<String> lines, long firstLineNumber, FileFormat format, Map<String, Integer> columns) {
+        List<ImportRow> rows = new ArrayList<>(lines.size());
+        long lineNumber = firstLineNumber;
+        for (String line : lines) {
+            if (!line.isBlank()) {
+                rows.add(parseRow(lineNumber, line, format, columns));
+            }
+            lineNumber++;
+        }
+        return rows;
+    }
+
+    private static ImportRow parseRow(long lineNumber, String line, FileFormat format, Map<String, Integer> columns) {
+        Map<String, String> fields;
+        try {
+            fields = format == FileFormat.CSV ? csvFields(line, columns) : parseJsonObject(stripBom(line));
+        } catch (IllegalArgumentException e) {
+            return ImportRow.rejected(lineNumber, line, e.getMessage());
+        }
+
+        for (String column : COLUMNS) {
+            if (fields.get(column) == null || fields.get(column).isBlank()) {
+                return ImportRow.rejected(lineNumber, line, "Missing " + column);
+            }
+        }
+
+        CustomerType customerType = parseEnum(CustomerType.class, fields.get("customerType"));
+        if (customerType == null) {
+            return ImportRow.rejected(lineNumber, line, "Unknown customer type");
+        }
+        AccountType accountType = parseEnum(AccountType.class, fields.get("accountType"));
+        if (accountType == null) {
+            return ImportRow.rejected(lineNumber, line, "Unknown account type");
+        }
+
+        String name = fields.get("name").trim();
+        String age = fields.get("age").trim();
+        String contact = fields.get("contact").trim();
+        String address = fields.get("address").trim();
+        String email = fields.get("email").trim();
+
+        if (!ValidationUtils.isValidName.test(name)) {
+            return ImportRow.rejected(lineNumber, line, "Invalid name");
+        }
+        if (!ValidationUtils.isValidAge.test(age)) {
+            return ImportRow.rejected(lineNumber, line, "Invalid age");
+        }
+        if (!ValidationUtils.isValidPhone.test(contact)) {
+            return ImportRow.rejected(lineNumber, line, "Invalid phone number");
+        }
+        if (!ValidationUtils.isValidAddress.test(address)) {
+            return ImportRow.rejected(lineNumber, line, "Invalid address");
+        }
+        if (!ValidationUtils.isValidEmail.test(email)) {
+            return ImportRow.rejected(lineNumber, line, "Invalid email");
+        }
+
+        double deposit;
+        try {
+            deposit = Double.parseDouble(fields.get("initialDeposit").trim());
+        } catch (NumberFormatException e) {
+            return ImportRow.rejected(lineNumber, line, "Invalid initial deposit");
+        }
+        if (!Double.isFinite(deposit) || !ValidationUtils.isPositiveAmount.test(deposit)) {
+            return ImportRow.rejected(lineNumber, line, "Initial deposit must be greater than zero");
+        }
+        double minimum = minimumDeposit(customerType, accountType);
+        if (deposit < minimum) {
+            return ImportRow.rejected(lineNumber, line, "Initial deposit below minimum of " + minimum);
+        }
+
+        return new ImportRow(lineNumber, line, null, customerType, name, Integer.parseInt(age),
+            contact, address, email, accountType, deposit);
+    }
+
+    private static double minimumDeposit(CustomerType customerType, AccountType accountType) {
+        if (customerType == CustomerType.PREMIUM) return PREMIUM_MINIMUM_DEPOSIT;
+        if (accountType == AccountType.SAVINGS) return SAVINGS_MINIMUM_DEPOSIT;
+        return 0;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> csvFields(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsv(line);
+        Map<String, String> fields = new HashMap<>();
+        for (String column : COLUMNS) {
+            int index = columns.get(column);
+            fields.put(column, index < values.size() ? values.get(index) : null);
+        }
+        return fields;
+    }
+
+    /**
+     * Splits one CSV record (RFC 4180 quoting: "a, b" and "" for a literal quote)
+     */
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Parses a flat JSON object (string, number, boolean and null values) into its fields.
+     * Numbers and booleans are kept as their literal text, null becomes a missing field
+     */
+    static Map<String, String> parseJsonObject(String line) {
+        JsonCursor cursor = new JsonCursor(line);
+        Map<String, String> fields = new HashMap<>();
+        cursor.expect('{');
+        if (!cursor.consumeIf('}')) {
+            do {
+                String key = cursor.readString();
+                cursor.expect(':');
+                fields.put(key, cursor.readValue());
+            } while (cursor.consumeIf(','));
+            cursor.expect('}');
+        }
+        cursor.expectEnd();
+        return fields;
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    /**
+     * Minimal cursor over one JSON Lines record
+     */
+    private static final class JsonCursor {
+        private final String text;
+        private int position;
+
+        JsonCursor(String text) {
+            this.text = text;
+        }
+
+        void expect(char expected) {
+            skipWhitespace();
+            if (position >= text.length() || text.charAt(position) != expected) {
+                throw new IllegalArgumentException("Malformed JSON: expected '" + expected + "' at " + position);
+            }
+            position++;
+        }
+
+        boolean consumeIf(char wanted) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == wanted) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (position != text.length()) {
+                throw new IllegalArgumentException("Malformed JSON: trailing characters at " + position);
+            }
+        }
+
+        String readValue() {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == '"') {
+                return readString();
+            }
+            int start = position;
+            while (position < text.length() && ",}".indexOf(text.charAt(position)) < 0 && !Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.isEmpty() || literal.startsWith("{") || literal.startsWith("[")) {
+                throw new IllegalArgumentException("Malformed JSON: unsupported value at " + start);
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw new IllegalArgumentException("Malformed JSON: bad unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("Malformed JSON: bad unicode escape");
+                        }
+                        position += 4;
+                    }
+                    default -> throw new IllegalArgumentException("Malformed JSON: bad escape '\\" + escaped + "'");
+                }
+            }
+            throw new IllegalArgumentException("Malformed JSON: unterminated string");
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+
+    // ==================== REJECTS AND PROGRESS ====================
+
+    /**
+     * Rejects side file, created on the first rejected row.
+     * Line format: lineNumber|reason|original row
+     */
+    private static final class RejectsWriter implements AutoCloseable {
+        private final Path path;
+        private BufferedWriter writer;
+
+        RejectsWriter(Path path) {
+            this.path = path;
+        }
+
+        void write(ImportRow row) throws IOException {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            }
+            writer.write(row.lineNumber() + "|" + row.reason() + "|" + row.raw());
+            writer.newLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Running totals, updated and printed by the committing thread only
+     */
+    private static final class ImportProgress {
+        private final long start;
+        private long lastPrint;
+        long rows;
+        long imported;
+        long rejected;
+        double deposited;
+
+        ImportProgress(long start) {
+            this.start = start;
+            this.lastPrint = start;
+        }
+
+        void maybePrint() {
+            long now = System.nanoTime();
+            if (now - lastPrint < PROGRESS_INTERVAL_NANOS) {
+                return;
+            }
+            lastPrint = now;
+            IO.println("ℹ Imported %,d of %,d rows (%,d rejected) - %,.0f rows/s"
+                .formatted(imported, rows, rejected, rows / ((now - start) / 1e9)));
+        }
+    }
+
+    private static void printReport(ImportReport report) {
+        IO.println("""
+
+                BULK IMPORT REPORT
+                ------------------
+                Rows read:          %,d
+                Accounts created:   %,d
+                Rows rejected:      %,d
+                Deposits imported:  $%,.2f
+                Elapsed:            %.2f s
+                Throughput:         %,.0f rows/s
+                """.formatted(report.rows(), report.imported(), report.rejected(), report.deposited(),
+            report.elapsedNanos() / 1e9, report.rowsPerSecond()));
+        if (report.rejectsFile() != null) {
+            IO.println("⚠ Rejected rows written to " + report.rejectsFile());
+        } else {
+            IO.println("✓ Every row was imported");
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package com.amalitech.bankaccount.services;
+
+import com.amalitech.bankaccount.utils.IO;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.AccountManager;
+import com.amalitech.bankaccount.customer.Customer;
+import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.enums.CustomerType;
+import com.amalitech.bankaccount.enums.FileFormat;
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming export of accounts and transactions (CSV or JSON Lines) for downstream reporting
+ * <p>
+ * Exports run against an ExportView, a point-in-time cut captured while transactions keep
+ * being recorded. Records are encoded one at a time into a fixed direct buffer that is drained
+ * to a FileChannel, so no whole-file string is ever built and the persisted history is streamed
+ * from disk. Files are written under a temporary name and moved into place once complete.
+ */
+public class ExportService {
+
+    public static final String EXPORT_DIRECTORY = "exports";
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final String[] ACCOUNT_COLUMNS = {
+        "accountNumber", "customerId", "name", "customerType", "age", "contact", "address", "email",
+        "accountType", "balance", "status"
+    };
+    private static final String[] TRANSACTION_COLUMNS = {
+        "transactionId", "accountNumber", "type", "amount", "balanceAfter", "timestamp", "transferDirection"
+    };
+
+    private final Path exportDirectory;
+
+    /**
+     * Constructor for the exporter
+     * @param exportDirectory Directory new export files are created in
+     */
+    public ExportService(Path exportDirectory) {
+        this.exportDirectory = exportDirectory;
+    }
+
+    /**
+     * Export filters, every criterion is optional (null matches everything).
+     * Account and customer type apply to both data sets, the date range to transactions only
+     * @param accountType Only accounts of this type (and their transactions)
+     * @param customerType Only customers of this type (and their transactions)
+     * @param from Earliest transaction timestamp, inclusive
+     * @param to Latest transaction timestamp, exclusive
+     */
+    public record ExportFilter(AccountType accountType, CustomerType customerType, LocalDateTime from, LocalDateTime to) {
+
+        /**
+         * @return Filter that exports everything
+         */
+        public static ExportFilter all() {
+            return new ExportFilter(null, null, null, null);
+        }
+
+        /**
+         * @return Copy of this filter restricted to one account type
+         */
+        public ExportFilter withAccountType(AccountType type) {
+            return new ExportFilter(type, customerType, from, to);
+        }
+
+        /**
+         * @return Copy of this filter restricted to one customer type
+         */
+        public ExportFilter withCustomerType(CustomerType type) {
+            return new ExportFilter(accountType, type, from, to);
+        }
+
+        /**
+         * @return Copy of this filter restricted to transactions in [fromInclusive, toExclusive)
+         */
+        public ExportFilter withDateRange(LocalDateTime fromInclusive, LocalDateTime toExclusive) {
+            return new ExportFilter(accountType, customerType, fromInclusive, toExclusive);
+        }
+
+        boolean matches(AccountRow account) {
+            return (accountType == null || accountType == account.accountType())
+                && (customerType == null || customerType == account.customerType());
+        }
+
+        boolean matches(Transaction transaction, AccountRow account) {
+            if ((accountType != null || customerType != null) && (account == null || !matches(account))) {
+                return false;
+            }
+            if (from == null && to == null) {
+                return true;
+            }
+            LocalDateTime timestamp;
+            try {
+                timestamp = transaction.parseTimeStamp();
+            } catch (DateTimeParseException | NullPointerException e) {
+                return false;
+            }
+            return (from == null || !timestamp.isBefore(from)) && (to == null || timestamp.isBefore(to));
+        }
+    }
+
+    /**
+     * Outcome of one export
+     * @param rows Records written (header excluded)
+     * @param bytes Size of the export file
+     * @param elapsedNanos Wall-clock time of the export
+     * @param target Export file
+     */
+    public record ExportReport(long rows, long bytes, long elapsedNanos, Path target) {
+
+        /**
+         * @return Records written per second
+         */
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows / (elapsedNanos / 1e9);
+        }
+    }
+
+    /**
+     * Immutable copy of the account fields that are exported
+     */
+    record AccountRow(String accountNumber, String customerId, String name, CustomerType customerType, int age,
+                      String contact, String address, String email, AccountType accountType, double balance,
+                      String status, long copiedAtSequence) {
+
+        static AccountRow of(Account account, long copiedAtSequence) {
+            Customer customer = account.getAccountCustomer();
+            return new AccountRow(account.getAccountNumber(), customer.getCustomerId(), customer.getName(), customer.getType(),
+                customer.getAge(), customer.getContact(), customer.getAddress(), customer.getEmail(), account.getType(),
+                account.getAccountBalance(), account.getAccountStatus(), copiedAtSequence);
+        }
+
+        AccountRow withBalance(double newBalance) {
+            return new AccountRow(accountNumber, customerId, name, customerType, age, contact, address, email,
+                accountType, newBalance, status, copiedAtSequence);
+        }
+    }
+
+    // ==================== POINT-IN-TIME VIEW ====================
+
+    /**
+     * Consistent cut of accounts and transactions at one journal position
+     * <p>
+     * Each account is copied under its own lock together with the journal length at that
+     * moment. Every balance change is journaled inside that same lock and an append returns
+     * only once its row is published (see TransactionManager.addTransaction), so the account's
+     * rows below that length are already in the copy. No other lock is taken: once every
+     * account is copied, the cut is an O(1) snapshot of the append log, and each account is
+     * rolled forward to it by the balanceAfter of its last row at or past its copy position,
+     * the same way a snapshot restore replays the journal tail. Transactions recorded after
+     * the cut are not part of the view, so both exports describe the same instant while
+     * recording continues.
+     */
+    public static final class ExportView {
+        private final Map<String, AccountRow> accounts;
+        private final List<AccountRow> orderedAccounts;
+        private final TransactionManager transactionManager;
+        private final long historySize;
+        private final List<Transaction> recent;
+
+        private ExportView(Map<String, AccountRow> accounts, TransactionManager transactionManager, long historySize, List<Transaction> recent) {
+            this.accounts = accounts;
+            this.transactionManager = transactionManager;
+            this.historySize = historySize;
+            this.recent = recent;
+            this.orderedAccounts = new ArrayList<>(accounts.values());
+            this.orderedAccounts.sort(Comparator.comparingInt(row -> FilePersistenceService.idSequence(row.accountNumber())));
+        }
+
+        /**
+         * Captures a view of the bank without pausing transaction recording (the in-memory
+         * journal is cut with an O(1) snapshot)
+         * @param accountManager Accounts to capture
+         * @param transactionManager Journal to cut
+         * @return Point-in-time view
+         */
+        public static ExportView capture(AccountManager accountManager, TransactionManager transactionManager) {
+            Map<String, AccountRow> accounts = new HashMap<>();
+            accountManager.forEachAccount(account -> {
+                synchronized (account) {
+                    long position = transactionManager.getTotalTransactionCount();
+                    accounts.put(account.getAccountNumber(), AccountRow.of(account, position));
+                }
+            });
+
+            long historySize = transactionManager.getHistoryOffset();
+            List<Transaction> recent = transactionManager.getTransactions();
+
+            // Roll accounts forward to the cut: the last balanceAfter recorded after each copy wins
+            for (int i = 0; i < recent.size(); i++) {
+                Transaction transaction = recent.get(i);
+                AccountRow row = accounts.get(transaction.getAccountNumber());
+                if (row != null && historySize + i >= row.copiedAtSequence()) {
+                    accounts.put(row.accountNumber(), row.withBalance(transaction.getBalanceAfter()));
+                }
+            }
+            return new ExportView(accounts, transactionManager, historySize, recent);
+        }
+
+        /**
+         * @return Number of journal entries the view covers
+         */
+        public long getTransactionCount() {
+            return historySize + recent.size();
+        }
+
+        /**
+         * @return Number of accounts in the view
+         */
+        public int getAccountCount() {
+            return orderedAccounts.size();
+        }
+    }
+
+    // ==================== EXPORT ====================
+
+    /**
+     * @param dataSet Name of the data set, e.g. "accounts"
+     * @param format Export format
+     * @return New time-stamped file in the export directory
+     */
+    public Path newExportPath(String dataSet, FileFormat format) {
+        return exportDirectory.resolve(dataSet + "-" + LocalDateTime.now().format(FILE_STAMP) + format.getExtension());
+    }
+
+    /**
+     * Exports the accounts of a view
+     * @param view Point-in-time view to export
+     * @param format CSV or JSON Lines
+     * @param filter Account and customer type filters
+     * @param target Export file (replaced if it exists)
+     * @return Export report
+     */
+    public ExportReport exportAccounts(ExportView view, FileFormat format, ExportFilter filter, Path target) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (RecordWriter writer = RecordWriter.open(target, format, ACCOUNT_COLUMNS)) {
+            for (AccountRow row : view.orderedAccounts) {
+                if (!filter.matches(row)) continue;
+                writer.write(row.accountNumber(), row.customerId(), row.name(), name(row.customerType()), row.age(),
+                    row.contact(), row.address(), row.email(), name(row.accountType()), row.balance(), row.status());
+                rows++;
+            }
+            writer.commit();
+        }
+        return report("accounts", rows, target, start);
+    }
+
+    /**
+     * Exports the transactions of a view, streaming the persisted history from disk
+     * @param view Point-in-time view to export
+     * @param format CSV or JSON Lines
+     * @param filter Account type, customer type and date range filters
+     * @param target Export file (replaced if it exists)
+     * @return Export report
+     */
+    public ExportReport exportTransactions(ExportView view, FileFormat format, ExportFilter filter, Path target) throws IOException {
+        long start = System.nanoTime();
+        long[] rows = {0};
+        try (RecordWriter writer = RecordWriter.open(target, format, TRANSACTION_COLUMNS)) {
+            try {
+                view.transactionManager.forEachHistoryTransaction(transaction -> {
+                    if (writeTransaction(writer, view, filter, transaction)) rows[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            for (Transaction transaction : view.recent) {
+                if (writeTransaction(writer, view, filter, transaction)) rows[0]++;
+            }
+            writer.commit();
+        }
+        return report("transactions", rows[0], target, start);
+    }
+
+    private static boolean writeTransaction(RecordWriter writer, ExportView view, ExportFilter filter, Transaction transaction) {
+        if (!filter.matches(transaction, view.accounts.get(transaction.getAccountNumber()))) {
+            return false;
+        }
+        try {
+            writer.write(transaction.getTransactionId(), transaction.getAccountNumber(), transaction.getType(),
+                transaction.getAmount(), transaction.getBalanceAfter(), transaction.getTimestamp(),
+                transaction.getTransferToOrFrom() == null ? null : transaction.getTransferToOrFrom().name());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    private static String name(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    private static ExportReport report(String dataSet, long rows, Path target, long start) throws IOException {
+        ExportReport report = new ExportReport(rows, Files.size(target), System.nanoTime() - start, target);
+        IO.println("✓ Exported %,d %s to %s (%,d bytes, %.2f s, %,.0f rows/s)".formatted(
+            report.rows(), dataSet, target, report.bytes(), report.elapsedNanos() / 1e9, report.rowsPerSecond()));
+        return report;
+    }
+
+    // ==================== RECORD WRITER ====================
+
+    /**
+     * Encodes records straight into a fixed buffer drained to a FileChannel.
+     * Strings and numbers are written as JSON strings and numbers, null as an empty CSV
+     * field or JSON null
+     */
+    private static final class RecordWriter implements AutoCloseable {
+        private final Path target;
+        private final Path temp;
+        private final FileChannel channel;
+        private final FileFormat format;
+        private final String[] columns;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final StringBuilder record = new StringBuilder(256);
+        private boolean committed;
+
+        private RecordWriter(Path target, FileFormat format, String[] columns) throws IOException {
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".part");
+            this.format = format;
+            this.columns = columns;
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        static RecordWriter open(Path target, FileFormat format, String[] columns) throws IOException {
+            RecordWriter writer = new RecordWriter(target, format, columns);
+            if (format == FileFormat.CSV) {
+                writer.record.append(String.join(",", columns));
+                writer.endRecord();
+            }
+            return writer;
+        }
+
+        void write(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (format == FileFormat.CSV) {
+                    if (i > 0) record.append(',');
+                    appendCsv(values[i]);
+                } else {
+                    record.append(i == 0 ? '{' : ',').append('"').append(columns[i]).append("\":");
+                    appendJson(values[i]);
+                }
+            }
+            if (format == FileFormat.JSON_LINES) {
+                record.append('}');
+            }
+            endRecord();
+        }
+
+        private void appendCsv(Object value) {
+            if (value == null) {
+                return;
+            }
+            String text = text(value);
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                record.append(text);
+                return;
+            }
+            record.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') record.append('"');
+                record.append(c);
+            }
+            record.append('"');
+        }
+
+        private void appendJson(Object value) {
+            if (value == null) {
+                record.append("null");
+                return;
+            }
+            if (value instanceof Number) {
+                record.append(text(value));
+                return;
+            }
+            String text = value.toString();
+            record.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '"' -> record.append("\\\"");
+                    case '\\' -> record.append("\\\\");
+                    case '\n' -> record.append("\\n");
+                    case '\r' -> record.append("\\r");
+                    case '\t' -> record.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            record.append("\\u%04x".formatted((int) c));
+                        } else {
+                            record.append(c);
+                        }
+                    }
+                }
+            }
+            record.append('"');
+        }
+
+        // Doubles as plain decimals (no exponent) so large balances stay readable in spreadsheets
+        private static String text(Object value) {
+            return value instanceof Double number && Double.isFinite(number)
+                ? BigDecimal.valueOf(number).toPlainString()
+                : value.toString();
+        }
+
+        private void endRecord() throws IOException {
+            record.append('\n');
+            CharBuffer chars = CharBuffer.wrap(record);
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, true);
+                if (result.isOverflow()) {
+                    drain();
+                    continue;
+                }
+                if (result.isError()) {
+                    try {
+                        result.throwException();
+                    } catch (CharacterCodingException e) {
+                        throw new IOException("Cannot encode export record: " + e.getMessage(), e);
+                    }
+                }
+                break;
+            }
+            encoder.reset();
+            record.setLength(0);
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Flushes the buffer and moves the finished file into place
+         */
+        void commit() throws IOException {
+            drain();
+            channel.force(false);
+            channel.close();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -11,43 +11,113 @@ import com.amalitech.bankaccount.customer.RegularCustomer;
 import com.amalitech.bankaccount.enums.AccountType;
 import com.amalitech.bankaccount.enums.CustomerType;
 import com.amalitech.bankaccount.enums.TransferToOrFromType;
-import com.amalitech.bankaccount.exceptions.InputMismatchException;
-import com.amalitech.bankaccount.exceptions.InvalidAmountException;
+import com.amalitech.bankaccount.interfaces.AccountStorage;
+import com.amalitech.bankaccount.interfaces.TransactionHistorySource;
+import com.amalitech.bankaccount.metrics.BankMetrics;
+import com.amalitech.bankaccount.metrics.LoadEvent;
+import com.amalitech.bankaccount.metrics.PersistenceEvent;
+import com.amalitech.bankaccount.metrics.SaveEvent;
 import com.amalitech.bankaccount.transaction.Transaction;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Service for persisting and loading account and transaction data to/from files
  * Uses Java NIO for file operations and Streams for data processing
+ * <p>
+ * transactions.txt is treated as an append-only journal: each save only appends the
+ * transactions recorded since the previous save. Older parts of the journal can be
+ * compacted into sealed archive segments (data/archive) once a snapshot covers them.
+ * Archive segments use the block-compressed TransactionArchive format (.tca); plain
+ * text segments written by older versions are still read.
+ * A per-account offset index (transactions.idx) is appended to on every save so that
+ * account histories can be faulted in lazily instead of loading the whole journal.
+ * With WriteBehindPersistence attached, new transactions are appended in the background
+ * as they happen and a save only has to flush what is still queued.
  */
 public class FilePersistenceService {
     
     private static final String DATA_DIR = "data";
     private static final String ACCOUNTS_FILE = "accounts.txt";
     private static final String TRANSACTIONS_FILE = "transactions.txt";
+    private static final String ARCHIVE_DIR = "archive";
+    private static final String ACCOUNT_STORE_DIR = "accounts-lsm";
+    private static final String SEGMENT_NAME_FORMAT = "transactions-%010d-%010d" + TransactionArchive.EXTENSION;
+    private static final Pattern SEGMENT_NAME_PATTERN = Pattern.compile("^transactions-(\\d{10})-(\\d{10})\\.(txt|tca)$");
+    private static final int MAX_ARCHIVE_SEGMENTS = 8;
+    // A time-bounded scan bisects transactions.txt down to this many bytes, then reads forward
+    private static final long TAIL_SEEK_BYTES = 64 * 1024;
     
     private final Path dataDirectory;
     private final Path accountsPath;
     private final Path transactionsPath;
+    private final Path archiveDirectory;
+    private final Path indexPath;
+    
+    // Journal bookkeeping, guarded by the journal methods being synchronized
+    private long persistedTransactionCount;
+    private long archivedTransactionCount;
+    private TransactionIndex index;
+    // Bumped whenever transactions.txt is replaced or compacted, so byte offsets taken earlier are known to be stale
+    private long journalGeneration;
+    
+    // Opened lazily by the write-behind writer, closed before the journal file is replaced
+    private AsynchronousFileChannel journalChannel;
     
     /**
      * Constructor initializes paths and ensures data directory exists
      */
     public FilePersistenceService() {
-        this.dataDirectory = Paths.get(DATA_DIR);
+        this(Paths.get(DATA_DIR));
+    }
+    
+    /**
+     * Constructor for a custom data directory (e.g. a temporary directory in tests)
+     * 
+     * @param dataDirectory Directory holding the data files
+     */
+    public FilePersistenceService(Path dataDirectory) {
+        this.dataDirectory = dataDirectory;
         this.accountsPath = dataDirectory.resolve(ACCOUNTS_FILE);
         this.transactionsPath = dataDirectory.resolve(TRANSACTIONS_FILE);
+        this.archiveDirectory = dataDirectory.resolve(ARCHIVE_DIR);
+        this.indexPath = dataDirectory.resolve(TransactionIndex.INDEX_FILE);
         ensureDataDirectoryExists();
+        // Static, so no overridable method runs on the half-built instance
+        this.archivedTransactionCount = listArchiveSegments(archiveDirectory).stream()
+            .mapToLong(segment -> segmentEnd(segment))
+            .max()
+            .orElse(0);
     }
     
     /**
@@ -68,12 +138,16 @@ public class FilePersistenceService {
     
     /**
      * Saves all accounts to the accounts file
-     * Format: accountNumber|customerType|customerName|age|contact|address|accountType|balance|status
+     * Format: accountNumber|customerType|customerName|age|contact|address|accountType|balance|status|email|customerId
      * 
      * @param accounts List of accounts to save
      * @return true if successful, false otherwise
      */
     public boolean saveAccounts(List<Account> accounts) {
+        long start = System.nanoTime();
+        SaveEvent event = new SaveEvent();
+        event.begin();
+        String outcome = PersistenceEvent.SUCCESS;
         try {
             List<String> lines = accounts.stream()
                 .map(this::accountToLine)
@@ -86,16 +160,22 @@ public class FilePersistenceService {
             IO.println("✓ Accounts saved successfully to " + accountsPath.getFileName() + " (" + accounts.size() + " accounts)");
             return true;
         } catch (IOException e) {
+            BankMetrics.PERSISTENCE_ERRORS.increment();
+            outcome = e.getClass().getSimpleName();
             IO.println("❌ Error saving accounts: " + e.getMessage());
             return false;
+        } finally {
+            BankMetrics.SAVE_ACCOUNTS_LATENCY.recordSince(start);
+            event.finish("accounts", accounts.size(), outcome);
         }
     }
     
     /**
      * Converts an Account to a pipe-delimited string for file storage
      */
-    private String accountToLine(Account account) {
+    String accountToLine(Account account) {
         Customer customer = account.getCustomer();
+        Account.BalanceView view = account.getBalanceView();
         return String.join("|",
             account.getAccountNumber(),
             customer.getType().name(),
@@ -104,9 +184,10 @@ public class FilePersistenceService {
             customer.getContact(),
             customer.getAddress(),
             account.getType().name(),
-            String.valueOf(account.getAccountBalance()),
-            account.getAccountStatus(),
-            String.valueOf(customer.getEmail())
+            String.valueOf(view.balance()),
+            view.status(),
+            String.valueOf(customer.getEmail()),
+            customer.getCustomerId()
         );
     }
     
@@ -121,28 +202,68 @@ public class FilePersistenceService {
             return new ArrayList<>();
         }
         
+        long start = System.nanoTime();
+        LoadEvent event = new LoadEvent();
+        event.begin();
+        String outcome = PersistenceEvent.SUCCESS;
+        long records = 0;
         try (Stream<String> lines = Files.lines(accountsPath)) {
             List<Account> accounts = lines
                 .filter(line -> !line.isBlank())
                 .map(this::lineToAccount)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+            restoreIdCounters(accounts);
             
             IO.println("✓ Loaded " + accounts.size() + " accounts from " + accountsPath.getFileName());
+            records = accounts.size();
             return accounts;
         } catch (IOException e) {
+            BankMetrics.PERSISTENCE_ERRORS.increment();
+            outcome = e.getClass().getSimpleName();
             IO.println("❌ Error loading accounts: " + e.getMessage());
             return new ArrayList<>();
+        } finally {
+            BankMetrics.LOAD_ACCOUNTS_LATENCY.recordSince(start);
+            event.finish("accounts", records, outcome);
         }
     }
     
     /**
-     * Converts a pipe-delimited string back to an Account object
+     * Reads only the wanted accounts from the accounts file, streaming it line by line
+     *
+     * @param accountNumbers Account numbers to look for
+     * @return The accounts found, by account number (missing ones are left out)
      */
-    private Account lineToAccount(String line) {
+    Map<String, Account> loadAccounts(Set<String> accountNumbers) throws IOException {
+        Map<String, Account> found = new HashMap<>();
+        if (accountNumbers.isEmpty() || !Files.exists(accountsPath)) {
+            return found;
+        }
+        try (Stream<String> lines = Files.lines(accountsPath)) {
+            lines.filter(line -> {
+                    int end = line.indexOf('|');
+                    return end > 0 && accountNumbers.contains(line.substring(0, end));
+                })
+                .map(this::lineToAccount)
+                .filter(Objects::nonNull)
+                .forEach(account -> found.put(account.getAccountNumber(), account));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return found;
+    }
+
+    /**
+     * Converts a pipe-delimited string back to an Account object through the trusted restore
+     * factories: stored account and customer ids are kept and the already validated fields
+     * are not validated again (no regex work per record). Lines saved before customer ids
+     * were persisted get a freshly issued customer id.
+     */
+    Account lineToAccount(String line) {
         try {
             String[] parts = line.split("\\|");
-            if (parts.length < 9) {
+            if (parts.length < 10) {
                 IO.println("⚠ Invalid account line (insufficient fields): " + line);
                 return null;
             }
@@ -157,28 +278,54 @@ public class FilePersistenceService {
             double balance = Double.parseDouble(parts[7]);
             String status = parts[8];
             String email = parts[9];
+            String customerId = parts.length > 10 ? parts[10] : Customer.issueCustomerId();
             
-            // Create customer based on type
+            // Rehydrate customer based on type
             Customer customer = (customerType == CustomerType.PREMIUM)
-                ? new PremiumCustomer(customerName, age, contact, address, email)
-                : new RegularCustomer(customerName, age, contact, address, email);
-            
-            // Create account based on type
-            Account account = (accountType == AccountType.SAVINGS)
-                ? new SavingsAccount(customer)
-                : new CheckingAccount(customer);
-            
-            // Set the balance and status
-            account.setAccountBalance(balance);
-            account.setAccountStatus(status);
+                ? PremiumCustomer.restore(customerId, customerName, age, contact, address, email)
+                : RegularCustomer.restore(customerId, customerName, age, contact, address, email);
             
-            return account;
-        } catch (InputMismatchException | InvalidAmountException | IllegalArgumentException e) {
+            // Rehydrate account based on type, with its stored balance and status
+            return (accountType == AccountType.SAVINGS)
+                ? SavingsAccount.restore(customer, accountNumber, balance, status)
+                : CheckingAccount.restore(customer, accountNumber, balance, status);
+        } catch (IllegalArgumentException e) {
             IO.println("⚠ Error parsing account line: " + line + " - " + e.getMessage());
             return null;
         }
     }
     
+    /**
+     * Moves the account and customer counters past the restored ids so new accounts never
+     * re-use a stored number
+     * 
+     * @param accounts Restored accounts
+     */
+    static void restoreIdCounters(List<Account> accounts) {
+        int maxAccount = 0;
+        int maxCustomer = 0;
+        for (Account account : accounts) {
+            maxAccount = Math.max(maxAccount, idSequence(account.getAccountNumber()));
+            maxCustomer = Math.max(maxCustomer, idSequence(account.getCustomer().getCustomerId()));
+        }
+        Account.restoreAccountCounter(maxAccount);
+        Customer.restoreCustomerCounter(maxCustomer);
+    }
+    
+    /**
+     * Numeric part of a generated id (ACC0012 -> 12, CUS003 -> 3)
+     */
+    static int idSequence(String id) {
+        int sequence = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sequence = sequence * 10 + (c - '0');
+            }
+        }
+        return sequence;
+    }
+    
     // ==================== TRANSACTION PERSISTENCE ====================
     
     /**
@@ -189,20 +336,90 @@ public class FilePersistenceService {
      * @return true if successful, false otherwise
      */
     public boolean saveTransactions(List<Transaction> transactions) {
+        return saveTransactions(transactions, 0);
+    }
+    
+    /**
+     * Saves transactions to the transactions file and updates the per-account offset index
+     * <p>
+     * The file is an append-only journal: transactions that were already persisted
+     * are not rewritten, only the new tail of the list is appended. The whole file is
+     * rewritten (and stale archive segments dropped) when nothing has been persisted
+     * yet or the list no longer lines up with what is on disk.
+     * 
+     * @param transactions Transactions to save
+     * @param firstSequence Global journal sequence of the first element of the list
+     *                      (non-zero when older history was not loaded into memory)
+     * @return true if successful, false otherwise
+     */
+    public synchronized boolean saveTransactions(List<Transaction> transactions, long firstSequence) {
+        long start = System.nanoTime();
+        SaveEvent event = new SaveEvent();
+        event.begin();
+        long written = -1;
+        try {
+            written = writeTransactions(transactions, firstSequence);
+            return written >= 0;
+        } finally {
+            BankMetrics.SAVE_TRANSACTIONS_LATENCY.recordSince(start);
+            event.finish("transactions", Math.max(written, 0), written >= 0 ? PersistenceEvent.SUCCESS : PersistenceEvent.FAILED);
+        }
+    }
+    
+    /**
+     * @return Number of lines written, or -1 if the journal could not be saved
+     */
+    private long writeTransactions(List<Transaction> transactions, long firstSequence) {
+        long size = firstSequence + transactions.size();
+        boolean rewrite = firstSequence == 0 && (persistedTransactionCount == 0 || persistedTransactionCount > size);
+        
+        if (!rewrite && (persistedTransactionCount < firstSequence || persistedTransactionCount > size)) {
+            BankMetrics.PERSISTENCE_ERRORS.increment();
+            IO.println("❌ Error saving transactions: in-memory transactions do not line up with the journal on disk");
+            return -1;
+        }
+        
         try {
-            List<String> lines = transactions.stream()
+            if (rewrite) {
+                deleteArchiveSegments();
+                archivedTransactionCount = 0;
+                persistedTransactionCount = 0;
+                index = new TransactionIndex();
+                journalGeneration++;
+            } else {
+                ensureIndex();
+            }
+            
+            List<String> lines = transactions.subList((int) (persistedTransactionCount - firstSequence), transactions.size()).stream()
                 .map(this::transactionToLine)
                 .collect(Collectors.toList());
             
-            Files.write(transactionsPath, lines, 
-                StandardOpenOption.CREATE, 
-                StandardOpenOption.TRUNCATE_EXISTING);
+            long offset = !rewrite && Files.exists(transactionsPath) ? Files.size(transactionsPath) : 0;
+            long sequence = persistedTransactionCount;
+            for (String line : lines) {
+                index.append(TransactionIndex.accountOf(line), sequence++, offset);
+                offset += TransactionIndex.lineBytes(line);
+            }
             
-            IO.println("✓ Transactions saved successfully to " + transactionsPath.getFileName() + " (" + transactions.size() + " transactions)");
-            return true;
+            if (rewrite) {
+                Files.write(transactionsPath, lines, 
+                    StandardOpenOption.CREATE, 
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            } else {
+                Files.write(transactionsPath, lines, 
+                    StandardOpenOption.CREATE, 
+                    StandardOpenOption.APPEND);
+            }
+            persistedTransactionCount = size;
+            writeIndex();
+            
+            IO.println("✓ Transactions saved successfully to " + transactionsPath.getFileName() + " (" + size + " transactions, " + lines.size() + " new)");
+            return lines.size();
         } catch (IOException e) {
+            index = null;
+            BankMetrics.PERSISTENCE_ERRORS.increment();
             IO.println("❌ Error saving transactions: " + e.getMessage());
-            return false;
+            return -1;
         }
     }
     
@@ -226,31 +443,56 @@ public class FilePersistenceService {
     }
     
     /**
-     * Loads transactions from the transactions file using Streams
+     * Loads transactions from the archive segments and the transactions file using Streams
      * 
      * @return List of loaded transactions, empty list if file doesn't exist or error occurs
      */
-    public List<Transaction> loadTransactions() {
+    public synchronized List<Transaction> loadTransactions() {
         if (!Files.exists(transactionsPath)) {
             IO.println("ℹ No transactions file found. Starting with empty transaction list.");
             return new ArrayList<>();
         }
         
-        try (Stream<String> lines = Files.lines(transactionsPath)) {
-            List<Transaction> transactions = lines
-                .filter(line -> !line.isBlank())
-                .map(this::lineToTransaction)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-            
-            IO.println("✓ Loaded " + transactions.size() + " transactions from " + transactionsPath.getFileName());
+        long start = System.nanoTime();
+        LoadEvent event = new LoadEvent();
+        event.begin();
+        String outcome = PersistenceEvent.SUCCESS;
+        long records = 0;
+        try {
+            List<Transaction> transactions = readTransactions();
+            records = transactions.size();
             return transactions;
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
+            BankMetrics.PERSISTENCE_ERRORS.increment();
+            outcome = e.getClass().getSimpleName();
             IO.println("❌ Error loading transactions: " + e.getMessage());
             return new ArrayList<>();
+        } finally {
+            BankMetrics.LOAD_TRANSACTIONS_LATENCY.recordSince(start);
+            event.finish("transactions", records, outcome);
         }
     }
     
+    private List<Transaction> readTransactions() throws IOException {
+        List<Path> sources = new ArrayList<>(listArchiveSegments());
+        sources.add(transactionsPath);
+        
+        List<Transaction> transactions = new ArrayList<>();
+        for (Path source : sources) {
+            try (Stream<String> lines = journalLines(source)) {
+                lines.filter(line -> !line.isBlank())
+                    .map(this::lineToTransaction)
+                    .filter(Objects::nonNull)
+                    .forEach(transactions::add);
+            }
+        }
+        
+        persistedTransactionCount = transactions.size();
+        IO.println("✓ Loaded " + transactions.size() + " transactions from " + transactionsPath.getFileName()
+            + (sources.size() > 1 ? " and " + (sources.size() - 1) + " archive segment(s)" : ""));
+        return transactions;
+    }
+    
     /**
      * Converts a pipe-delimited string back to a Transaction object
      */
@@ -270,27 +512,847 @@ public class FilePersistenceService {
             String timestamp = parts[5];
             String transferTypeStr = parts[6];
             
-            // Create transaction with basic info
-            Transaction transaction = new Transaction(accountNumber, amount, balanceAfter);
-            transaction.setType(type);
-            
-            // Set transfer direction if applicable
+            // Transfer direction if applicable
+            TransferToOrFromType transferType = null;
             if (!transferTypeStr.equals("NONE")) {
                 try {
-                    TransferToOrFromType transferType = TransferToOrFromType.valueOf(transferTypeStr);
-                    transaction.setTransferToOrFrom(transferType);
+                    transferType = TransferToOrFromType.valueOf(transferTypeStr);
                 } catch (IllegalArgumentException ignored) {
                     // Not a transfer transaction
                 }
             }
             
-            return transaction;
+            // Rehydrate with the stored id and timestamp
+            return Transaction.restore(transactionId, accountNumber, type, amount, balanceAfter, timestamp, transferType);
         } catch (IllegalArgumentException e) {
             IO.println("⚠ Error parsing transaction line: " + line + " - " + e.getMessage());
             return null;
         }
     }
     
+    // ==================== WRITE-BEHIND JOURNAL APPENDS ====================
+    
+    /**
+     * Appends one batch from the write-behind writer with a single positional write on an
+     * AsynchronousFileChannel. The offset index is only updated in memory; syncJournal()
+     * writes it out, so a crash between the two just makes the next start rebuild it.
+     * The write is awaited while holding the journal lock so compaction never moves the
+     * file under an in-flight write.
+     * 
+     * @param batch Transactions to append, in journal order
+     * @param firstSequence Global journal sequence of the first element of the batch
+     * @throws IOException if the batch does not line up with the journal or the write fails
+     */
+    synchronized void appendJournalBatch(List<Transaction> batch, long firstSequence) throws IOException {
+        boolean rewrite = firstSequence == 0 && persistedTransactionCount == 0;
+        if (!rewrite && firstSequence != persistedTransactionCount) {
+            throw new IOException("batch starts at sequence " + firstSequence + " but the journal holds " + persistedTransactionCount + " entries");
+        }
+        
+        if (rewrite) {
+            deleteArchiveSegments();
+            archivedTransactionCount = 0;
+            index = new TransactionIndex();
+            journalGeneration++;
+        } else {
+            ensureIndex();
+        }
+        
+        AsynchronousFileChannel channel = journalChannel();
+        if (rewrite) {
+            channel.truncate(0);
+        }
+        long start = channel.size();
+        
+        StringBuilder text = new StringBuilder(batch.size() * 96);
+        long offset = start;
+        long sequence = firstSequence;
+        for (Transaction transaction : batch) {
+            String line = transactionToLine(transaction);
+            index.append(TransactionIndex.accountOf(line), sequence++, offset);
+            offset += TransactionIndex.lineBytes(line);
+            text.append(line).append(System.lineSeparator());
+        }
+        
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text));
+        long writeStart = System.nanoTime();
+        long position = start;
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position).get();
+            }
+        } catch (ExecutionException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            // Drop the partial batch so the journal still ends on a complete line
+            index = null;
+            try {
+                channel.truncate(start);
+            } catch (IOException ignored) {
+                // Best effort, the batch is reported as failed either way
+            }
+            BankMetrics.PERSISTENCE_ERRORS.increment();
+            throw new IOException("journal write failed: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()), e);
+        }
+        BankMetrics.JOURNAL_APPEND_LATENCY.recordSince(writeStart);
+        BankMetrics.JOURNAL_APPENDED.add(batch.size());
+        persistedTransactionCount = sequence;
+    }
+    
+    /**
+     * Forces appended batches to disk and writes the offset index
+     */
+    synchronized void syncJournal() throws IOException {
+        if (journalChannel != null) {
+            journalChannel.force(false);
+        }
+        if (index != null) {
+            writeIndex();
+        }
+    }
+    
+    /**
+     * Closes the write-behind channel (it is reopened on the next batch)
+     */
+    synchronized void closeJournalChannel() {
+        if (journalChannel == null) {
+            return;
+        }
+        try {
+            journalChannel.close();
+        } catch (IOException e) {
+            IO.println("⚠ Warning: Could not close transaction journal: " + e.getMessage());
+        }
+        journalChannel = null;
+    }
+    
+    private AsynchronousFileChannel journalChannel() throws IOException {
+        if (journalChannel == null) {
+            journalChannel = AsynchronousFileChannel.open(transactionsPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        return journalChannel;
+    }
+    
+    // ==================== ACCOUNT STORE ====================
+    
+    /**
+     * Opens the log-structured account store (data/accounts-lsm). Accounts are looked up
+     * by account number on demand, so the store can hold far more accounts than the heap.
+     * 
+     * @return Account storage to attach to an AccountManager, null if it cannot be opened
+     */
+    public AccountStorage openAccountStore() {
+        try {
+            return new LsmAccountStorage(LogStructuredStore.open(dataDirectory.resolve(ACCOUNT_STORE_DIR)), this);
+        } catch (IOException e) {
+            IO.println("❌ Error opening account store: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    // ==================== LAZY TRANSACTION HISTORY ====================
+    
+    /**
+     * Opens the persisted transaction history for lazy, per-account loading.
+     * Only the offset index is read (no journal line is parsed); transactions are parsed when an
+     * account's history is first requested. The returned source is bounded to the
+     * transactions persisted right now, so later saves never show up twice.
+     * 
+     * @return History source over the persisted journal
+     */
+    public synchronized TransactionHistorySource openTransactionHistory() {
+        try {
+            ensureIndex();
+        } catch (IOException e) {
+            IO.println("❌ Error loading transaction index: " + e.getMessage());
+            index = new TransactionIndex();
+        }
+        persistedTransactionCount = index.getPersistedCount();
+        long boundary = persistedTransactionCount;
+        // Where the boundary falls in transactions.txt, valid until the journal is replaced or compacted
+        long boundaryBytes = journalBytes();
+        long generation = journalGeneration;
+        
+        IO.println("✓ Indexed " + boundary + " transactions from " + indexPath.getFileName() + " (history is loaded on demand)");
+        
+        return new TransactionHistorySource() {
+            @Override
+            public long size() {
+                return boundary;
+            }
+            
+            @Override
+            public List<Transaction> loadHistory(String accountNumber) {
+                return readHistory(accountNumber, boundary);
+            }
+            
+            @Override
+            public List<Transaction> loadAll() {
+                return readAllHistory(boundary);
+            }
+            
+            @Override
+            public void forEach(Consumer<Transaction> action) {
+                streamAllHistory(boundary, transaction -> {
+                    action.accept(transaction);
+                    return true;
+                });
+            }
+            
+            @Override
+            public void forEachWhile(Predicate<Transaction> action) {
+                streamAllHistory(boundary, action);
+            }
+            
+            @Override
+            public void forEachFromWhile(LocalDateTime from, Predicate<Transaction> action) {
+                streamHistoryFrom(boundary, boundaryBytes, generation, from, action);
+            }
+        };
+    }
+    
+    /**
+     * Faults in one account's history by seeking to the indexed offsets
+     */
+    private synchronized List<Transaction> readHistory(String accountNumber, long boundary) {
+        List<Transaction> history = new ArrayList<>();
+        if (index == null) {
+            return history;
+        }
+        
+        List<Path> segments = listArchiveSegments();
+        Map<Path, FileChannel> channels = new HashMap<>();
+        Map<Path, TransactionArchive> archives = new HashMap<>();
+        try {
+            for (long[] position : index.locate(accountNumber)) {
+                if (position[0] >= boundary) break;
+                
+                Path source = sourceForSequence(position[0], segments);
+                String line;
+                if (isCompressedSegment(source)) {
+                    TransactionArchive archive = archives.get(source);
+                    if (archive == null) {
+                        archive = TransactionArchive.open(source);
+                        archives.put(source, archive);
+                    }
+                    line = archive.readEntry(position[0]);
+                } else {
+                    FileChannel channel = channels.get(source);
+                    if (channel == null) {
+                        channel = FileChannel.open(source, StandardOpenOption.READ);
+                        channels.put(source, channel);
+                    }
+                    line = TransactionIndex.readLineAt(channel, position[1]);
+                }
+                
+                Transaction transaction = line == null ? null : lineToTransaction(line);
+                if (transaction != null) {
+                    history.add(transaction);
+                }
+            }
+        } catch (IOException e) {
+            IO.println("❌ Error loading history for " + accountNumber + ": " + e.getMessage());
+        } finally {
+            List<AutoCloseable> resources = new ArrayList<>(channels.values());
+            resources.addAll(archives.values());
+            for (AutoCloseable resource : resources) {
+                try {
+                    resource.close();
+                } catch (Exception ignored) {
+                    // Read-only resource, nothing to flush
+                }
+            }
+        }
+        return history;
+    }
+    
+    /**
+     * Reads the first {@code boundary} journal entries across archive segments and transactions.txt
+     */
+    private List<Transaction> readAllHistory(long boundary) {
+        List<Transaction> transactions = new ArrayList<>();
+        try {
+            streamAllHistory(boundary, transactions::add);
+        } catch (UncheckedIOException e) {
+            IO.println("❌ Error loading transactions: " + e.getMessage());
+        }
+        return transactions;
+    }
+    
+    /**
+     * Streams the first {@code boundary} journal entries, oldest first, until the action
+     * returns false. Only opening the sources happens under the lock: open files stay readable
+     * after a compaction moves or deletes them, so a long scan does not hold up journal appends.
+     * 
+     * @throws UncheckedIOException if a journal source cannot be read; exceptions thrown by
+     *                              the action propagate unchanged and end the scan
+     */
+    private void streamAllHistory(long boundary, Predicate<Transaction> action) {
+        streamSources(openHistorySources(), boundary, action);
+    }
+    
+    /**
+     * Streams the first {@code limit} entries of the sources, in order, until the action
+     * returns false, and closes them
+     */
+    private void streamSources(List<Stream<String>> sources, long limit, Predicate<Transaction> action) {
+        long remaining = limit;
+        try {
+            for (Stream<String> lines : sources) {
+                if (remaining <= 0) break;
+                Iterator<String> iterator = lines.filter(line -> !line.isBlank()).limit(remaining).iterator();
+                while (iterator.hasNext()) {
+                    remaining--;
+                    Transaction transaction = lineToTransaction(iterator.next());
+                    if (transaction != null && !action.test(transaction)) {
+                        return;
+                    }
+                }
+            }
+        } finally {
+            sources.forEach(Stream::close);
+        }
+    }
+    
+    /**
+     * Streams the first {@code boundary} journal entries like streamAllHistory, but starts at
+     * the first block that can hold an entry stamped at or after {@code from}:
+     * <ul>
+     *   <li>archive segments whose last entry is stamped earlier are skipped unread,</li>
+     *   <li>in the segment holding the start, a binary search over its block index finds the
+     *       last block starting earlier, and reading starts there,</li>
+     *   <li>if every segment is skipped, transactions.txt is bisected by byte offset down to
+     *       TAIL_SEEK_BYTES and read from there up to the boundary's byte offset.</li>
+     * </ul>
+     * Entries stamped a little earlier can still be visited; the action filters them. If the
+     * journal was replaced or compacted since the boundary was taken the byte offset is stale,
+     * and the whole history is streamed instead
+     */
+    private void streamHistoryFrom(long boundary, long boundaryBytes, long generation, LocalDateTime from,
+                                   Predicate<Transaction> action) {
+        List<Stream<String>> sources = openHistorySourcesFrom(boundaryBytes, generation, from);
+        if (sources == null) {
+            streamAllHistory(boundary, action);
+        } else {
+            // Archive segments all lie below the boundary and the tail stops at its byte offset
+            streamSources(sources, Long.MAX_VALUE, action);
+        }
+    }
+    
+    /**
+     * Opens the journal sources from the first block that can hold an entry stamped at or
+     * after the given time; the seek only reads O(log) blocks and lines
+     * 
+     * @return The sources to stream, null if the boundary's byte offset is stale
+     */
+    private synchronized List<Stream<String>> openHistorySourcesFrom(long boundaryBytes, long generation, LocalDateTime from) {
+        if (generation != journalGeneration || boundaryBytes < 0) {
+            return null;
+        }
+        Predicate<String> stampedBefore = line -> {
+            Transaction transaction = lineToTransaction(line);
+            return transaction != null && transaction.parseTimeStamp().isBefore(from);
+        };
+        
+        List<Stream<String>> sources = new ArrayList<>();
+        boolean started = false;
+        try {
+            for (Path segment : listArchiveSegments()) {
+                if (started || !isCompressedSegment(segment)) {
+                    // Plain text segments from older versions have no block index, they are read whole
+                    sources.add(journalLines(segment));
+                    started = true;
+                    continue;
+                }
+                TransactionArchive archive = TransactionArchive.open(segment);
+                int block;
+                try {
+                    String last = archive.lastLine();
+                    block = last == null || stampedBefore.test(last) ? -1 : archive.lastBlockStartingBefore(stampedBefore);
+                } catch (IOException | RuntimeException e) {
+                    archive.close();
+                    throw e;
+                }
+                if (block < 0) {
+                    archive.close();
+                    continue;
+                }
+                sources.add(archive.lines(block).onClose(() -> {
+                    try {
+                        archive.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                started = true;
+            }
+            if (Files.exists(transactionsPath)) {
+                sources.add(journalTail(started ? 0 : seekJournal(stampedBefore, boundaryBytes), boundaryBytes));
+            }
+            return sources;
+        } catch (IOException e) {
+            sources.forEach(Stream::close);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            sources.forEach(Stream::close);
+            throw e;
+        }
+    }
+    
+    /**
+     * Bisects transactions.txt by byte offset, reading one line per step
+     * 
+     * @return A line start before which every line is stamped before the time sought, within
+     *         TAIL_SEEK_BYTES of the first line that is not
+     */
+    private long seekJournal(Predicate<String> stampedBefore, long endBytes) throws IOException {
+        long low = 0;
+        long high = endBytes;
+        try (FileChannel channel = FileChannel.open(transactionsPath, StandardOpenOption.READ)) {
+            while (high - low > TAIL_SEEK_BYTES) {
+                long mid = (low + high) >>> 1;
+                long lineStart = nextLineStart(channel, mid, high);
+                if (lineStart >= high) {
+                    high = mid;
+                } else if (stampedBefore.test(TransactionIndex.readLineAt(channel, lineStart))) {
+                    low = lineStart;
+                } else {
+                    high = lineStart;
+                }
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * @return Offset of the first line starting at or after position, limit if there is none before it
+     */
+    private static long nextLineStart(FileChannel channel, long position, long limit) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        // A line starts at position if the byte before it ends the previous one
+        long offset = position - 1;
+        while (offset < limit) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return limit;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return Math.min(offset + i + 1, limit);
+                }
+            }
+            offset += read;
+        }
+        return limit;
+    }
+    
+    /**
+     * Streams the lines of transactions.txt between two byte offsets (line starts)
+     */
+    private Stream<String> journalTail(long startBytes, long endBytes) throws IOException {
+        FileChannel channel = FileChannel.open(transactionsPath, StandardOpenOption.READ).position(startBytes);
+        BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+        long[] position = {startBytes};
+        return reader.lines()
+            .takeWhile(line -> {
+                boolean inRange = position[0] < endBytes;
+                position[0] += TransactionIndex.lineBytes(line);
+                return inRange;
+            })
+            .onClose(() -> {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+    }
+    
+    /**
+     * @return Size of transactions.txt (0 if missing), -1 if it cannot be read
+     */
+    private long journalBytes() {
+        try {
+            return Files.exists(transactionsPath) ? Files.size(transactionsPath) : 0;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+    
+    private synchronized List<Stream<String>> openHistorySources() {
+        List<Path> paths = new ArrayList<>(listArchiveSegments());
+        paths.add(transactionsPath);
+        
+        List<Stream<String>> sources = new ArrayList<>();
+        for (Path source : paths) {
+            if (!Files.exists(source)) continue;
+            try {
+                sources.add(journalLines(source));
+            } catch (IOException e) {
+                // A skipped source would silently truncate the history
+                sources.forEach(Stream::close);
+                throw new UncheckedIOException(e);
+            }
+        }
+        return sources;
+    }
+    
+    /**
+     * Archive segments cover fixed sequence ranges; everything after them lives in transactions.txt
+     */
+    private Path sourceForSequence(long sequence, List<Path> segments) {
+        if (sequence >= archivedTransactionCount) {
+            return transactionsPath;
+        }
+        for (Path segment : segments) {
+            if (sequence >= segmentStart(segment) && sequence < segmentEnd(segment)) {
+                return segment;
+            }
+        }
+        return transactionsPath;
+    }
+    
+    /**
+     * Loads the offset index, rebuilding it from the journal when it is missing or stale
+     */
+    private void ensureIndex() throws IOException {
+        if (index != null) {
+            return;
+        }
+        index = TransactionIndex.load(indexPath, transactionsPath);
+        if (index == null) {
+            List<Path> sources = new ArrayList<>(listArchiveSegments());
+            sources.add(transactionsPath);
+            index = TransactionIndex.rebuild(sources);
+            persistedTransactionCount = index.getPersistedCount();
+            writeIndex();
+        }
+    }
+    
+    private void writeIndex() {
+        try {
+            index.setPersistedCount(persistedTransactionCount);
+            index.setJournalBytes(Files.exists(transactionsPath) ? Files.size(transactionsPath) : 0);
+            index.write(indexPath);
+        } catch (IOException e) {
+            IO.println("⚠ Warning: Could not write transaction index: " + e.getMessage());
+        }
+    }
+    
+    // ==================== JOURNAL COMPACTION ====================
+    
+    /**
+     * Moves the journal entries before the given sequence number out of transactions.txt
+     * into a sealed archive segment, so restart only has to replay the tail. When too many
+     * segments pile up they are merged into a single one.
+     * Only entries that are already persisted are moved.
+     * 
+     * @param upToSequence Exclusive global sequence number covered by a snapshot
+     * @return Number of entries moved into the archive
+     */
+    public synchronized long compactTransactions(long upToSequence) {
+        long end = Math.min(upToSequence, persistedTransactionCount);
+        long toMove = end - archivedTransactionCount;
+        if (toMove <= 0 || !Files.exists(transactionsPath)) {
+            return 0;
+        }
+        
+        Path segment = archiveDirectory.resolve(SEGMENT_NAME_FORMAT.formatted(archivedTransactionCount, end));
+        Path tail = dataDirectory.resolve(TRANSACTIONS_FILE + ".tmp");
+        
+        try {
+            Files.createDirectories(archiveDirectory);
+            try (BufferedReader reader = Files.newBufferedReader(transactionsPath);
+                 TransactionArchive.Writer segmentWriter = TransactionArchive.create(segment, archivedTransactionCount);
+                 BufferedWriter tailWriter = Files.newBufferedWriter(tail)) {
+                long moved = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    if (moved < toMove) {
+                        segmentWriter.append(line);
+                        moved++;
+                    } else {
+                        tailWriter.write(line);
+                        tailWriter.newLine();
+                    }
+                }
+            }
+            closeJournalChannel();
+            Files.move(tail, transactionsPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            archivedTransactionCount = end;
+            journalGeneration++;
+        } catch (IOException e) {
+            IO.println("⚠ Warning: Could not compact transaction journal: " + e.getMessage());
+            try {
+                Files.deleteIfExists(tail);
+                Files.deleteIfExists(segment);
+            } catch (IOException ignored) {
+                // Nothing else to clean up
+            }
+            return 0;
+        }
+        
+        try {
+            mergeArchiveSegmentsIfNeeded();
+            
+            // Offsets moved to other files, so the index is rebuilt from the compacted journal
+            index = null;
+            ensureIndex();
+        } catch (IOException e) {
+            IO.println("⚠ Warning: Could not finish journal compaction: " + e.getMessage());
+        }
+        return toMove;
+    }
+    
+    /**
+     * Merges all archive segments into one once there are more than MAX_ARCHIVE_SEGMENTS
+     */
+    private void mergeArchiveSegmentsIfNeeded() throws IOException {
+        List<Path> segments = listArchiveSegments();
+        if (segments.size() <= MAX_ARCHIVE_SEGMENTS) {
+            return;
+        }
+        
+        long start = segmentStart(segments.getFirst());
+        long end = segmentEnd(segments.getLast());
+        Path merged = archiveDirectory.resolve(SEGMENT_NAME_FORMAT.formatted(start, end) + ".tmp");
+        
+        try (TransactionArchive.Writer writer = TransactionArchive.create(merged, start)) {
+            for (Path segment : segments) {
+                try (Stream<String> lines = journalLines(segment)) {
+                    for (String line : (Iterable<String>) lines::iterator) {
+                        if (!line.isBlank()) {
+                            writer.append(line);
+                        }
+                    }
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+        for (Path segment : segments) {
+            Files.delete(segment);
+        }
+        Files.move(merged, archiveDirectory.resolve(SEGMENT_NAME_FORMAT.formatted(start, end)), StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Lists the sealed archive segments ordered by their starting sequence number
+     */
+    List<Path> listArchiveSegments() {
+        return listArchiveSegments(archiveDirectory);
+    }
+    
+    private static List<Path> listArchiveSegments(Path archiveDirectory) {
+        if (!Files.isDirectory(archiveDirectory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(archiveDirectory)) {
+            return files
+                .filter(file -> SEGMENT_NAME_PATTERN.matcher(file.getFileName().toString()).matches())
+                .sorted(Comparator.comparingLong(FilePersistenceService::segmentStart))
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            IO.println("⚠ Warning: Could not list archive segments: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Streams the lines of a journal source: a compressed archive segment, a legacy plain
+     * text segment or transactions.txt. The stream must be closed.
+     */
+    static Stream<String> journalLines(Path source) throws IOException {
+        if (!isCompressedSegment(source)) {
+            return Files.lines(source);
+        }
+        TransactionArchive archive = TransactionArchive.open(source);
+        return archive.lines().onClose(() -> {
+            try {
+                archive.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    static boolean isCompressedSegment(Path source) {
+        return source.getFileName().toString().endsWith(TransactionArchive.EXTENSION);
+    }
+    
+    private void deleteArchiveSegments() throws IOException {
+        for (Path segment : listArchiveSegments()) {
+            Files.delete(segment);
+        }
+    }
+    
+    private static long segmentStart(Path segment) {
+        Matcher matcher = SEGMENT_NAME_PATTERN.matcher(segment.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+    
+    private static long segmentEnd(Path segment) {
+        Matcher matcher = SEGMENT_NAME_PATTERN.matcher(segment.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(2)) : 0;
+    }
+    
+    /**
+     * Global sequence number of the first entry still held in transactions.txt
+     * (everything before it lives in archive segments)
+     */
+    public synchronized long getArchivedTransactionCount() {
+        return archivedTransactionCount;
+    }
+    
+    /**
+     * Number of journal entries currently persisted (archive segments + transactions.txt)
+     */
+    public synchronized long getPersistedTransactionCount() {
+        return persistedTransactionCount;
+    }
+    
+    // ==================== ARCHIVE RANGE READS AND REPORT ====================
+    
+    /**
+     * Loads the transactions with journal sequence numbers in [fromSequence, toSequence).
+     * Only the archive blocks overlapping the range are decompressed.
+     * 
+     * @param fromSequence Inclusive first sequence number
+     * @param toSequence Exclusive last sequence number
+     * @return Transactions in the range, oldest first
+     */
+    public synchronized List<Transaction> loadTransactionRange(long fromSequence, long toSequence) {
+        List<String> lines = new ArrayList<>();
+        try {
+            for (Path segment : listArchiveSegments()) {
+                if (segmentEnd(segment) <= fromSequence || segmentStart(segment) >= toSequence) continue;
+                
+                if (isCompressedSegment(segment)) {
+                    try (TransactionArchive archive = TransactionArchive.open(segment)) {
+                        lines.addAll(archive.readRange(fromSequence, toSequence));
+                    }
+                } else {
+                    try (Stream<String> segmentLines = Files.lines(segment)) {
+                        long start = segmentStart(segment);
+                        segmentLines.filter(line -> !line.isBlank())
+                            .skip(Math.max(0, fromSequence - start))
+                            .limit(toSequence - Math.max(fromSequence, start))
+                            .forEach(lines::add);
+                    }
+                }
+            }
+            
+            if (toSequence > archivedTransactionCount && Files.exists(transactionsPath)) {
+                try (Stream<String> tailLines = Files.lines(transactionsPath)) {
+                    long from = Math.max(fromSequence, archivedTransactionCount);
+                    tailLines.filter(line -> !line.isBlank())
+                        .skip(from - archivedTransactionCount)
+                        .limit(toSequence - from)
+                        .forEach(lines::add);
+                }
+            }
+        } catch (IOException e) {
+            IO.println("❌ Error loading transaction range: " + e.getMessage());
+        }
+        
+        return lines.stream()
+            .map(this::lineToTransaction)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Prints the archive compression ratio and compares full-scan throughput of the
+     * compressed archive against the same entries stored as plain text
+     */
+    public synchronized void printArchiveReport() {
+        IO.println("""
+            
+            ╔══════════════════════════════════════════════════════════════╗
+            ║                  ARCHIVE STORAGE REPORT                      ║
+            ╚══════════════════════════════════════════════════════════════╝
+            """);
+        
+        List<Path> segments = listArchiveSegments().stream()
+            .filter(FilePersistenceService::isCompressedSegment)
+            .collect(Collectors.toList());
+        
+        if (segments.isEmpty()) {
+            IO.println("ℹ No compressed archive segments yet. They are created when a snapshot compacts the journal.");
+        }
+        
+        try {
+            long entries = 0;
+            long blocks = 0;
+            long rawBytes = 0;
+            long compressedBytes = 0;
+            for (Path segment : segments) {
+                try (TransactionArchive archive = TransactionArchive.open(segment)) {
+                    entries += archive.endSequence() - archive.firstSequence();
+                    blocks += archive.blockCount();
+                    rawBytes += archive.rawBytes();
+                    compressedBytes += archive.compressedBytes();
+                }
+            }
+            
+            if (!segments.isEmpty()) {
+                IO.println("Segments: " + segments.size() + " (" + blocks + " blocks of up to " + TransactionArchive.BLOCK_ENTRIES + " entries)");
+                IO.println("Archived Entries: " + entries);
+                IO.println("Raw Size: " + String.format("%,d", rawBytes) + " bytes");
+                IO.println("Compressed Size: " + String.format("%,d", compressedBytes) + " bytes");
+                IO.println("Compression Ratio: " + String.format("%.2fx", compressedBytes == 0 ? 0.0 : (double) rawBytes / compressedBytes));
+                printScanThroughput("Archive scan (.tca)", segments, rawBytes);
+                printPlainScanThroughput(segments);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            IO.println("❌ Error reading archive: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Times a scan of the same archived entries stored as plain text, written to a temporary
+     * file first, so both scans cover identical data
+     */
+    private void printPlainScanThroughput(List<Path> segments) throws IOException {
+        Path plain = Files.createTempFile(dataDirectory, "archive-scan", ".txt");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(plain)) {
+                for (Path segment : segments) {
+                    try (Stream<String> segmentLines = journalLines(segment)) {
+                        for (String line : (Iterable<String>) segmentLines::iterator) {
+                            writer.write(line);
+                            writer.newLine();
+                        }
+                    }
+                }
+            }
+            printScanThroughput("Plain scan (same entries, uncompressed)", List.of(plain), Files.size(plain));
+        } finally {
+            Files.deleteIfExists(plain);
+        }
+    }
+    
+    private void printScanThroughput(String label, List<Path> sources, long rawBytes) throws IOException {
+        long start = System.nanoTime();
+        long lines = 0;
+        for (Path source : sources) {
+            try (Stream<String> sourceLines = journalLines(source)) {
+                lines += sourceLines.filter(line -> !line.isBlank()).count();
+            }
+        }
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+        
+        IO.println(label + ": " + String.format("%,d", lines) + " entries in " + String.format("%.2f", seconds * 1000) + "ms ("
+            + String.format("%,.0f", lines / seconds) + " entries/s, "
+            + String.format("%,.1f", rawBytes / seconds / (1024 * 1024)) + " MB/s uncompressed)");
+    }
+    
     // ==================== UTILITY METHODS ====================
     
     /**
@@ -301,8 +1363,20 @@ public class FilePersistenceService {
      * @return true if both saved successfully
      */
     public boolean saveAll(List<Account> accounts, List<Transaction> transactions) {
+        return saveAll(accounts, transactions, 0);
+    }
+    
+    /**
+     * Saves both accounts and transactions when older history is not held in memory
+     * 
+     * @param accounts List of accounts to save
+     * @param transactions In-memory transactions to save
+     * @param firstSequence Global journal sequence of the first in-memory transaction
+     * @return true if both saved successfully
+     */
+    public boolean saveAll(List<Account> accounts, List<Transaction> transactions, long firstSequence) {
         boolean accountsSaved = saveAccounts(accounts);
-        boolean transactionsSaved = saveTransactions(transactions);
+        boolean transactionsSaved = saveTransactions(transactions, firstSequence);
         return accountsSaved && transactionsSaved;
     }
     
@@ -328,4 +1402,11 @@ public class FilePersistenceService {
     public Path getTransactionsPath() {
         return transactionsPath;
     }
+    
+    /**
+     * Gets the data directory all files are stored in
+     */
+    public Path getDataDirectory() {
+        return dataDirectory;
+    }
 }
@@ -0,0 +1,489 @@
+package com.amalitech.bankaccount.services;
+
+import com.amalitech.bankaccount.utils.IO;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Small embedded log-structured key-value store (string keys and values)
+ * <p>
+ * Writes go to a write-ahead log and a sorted in-memory memtable. When the memtable reaches
+ * its limit it is flushed to an immutable SSTable file and the log is truncated. Lookups
+ * check the memtable, then the tables from newest to oldest; each table's bloom filter skips
+ * it without any I/O when it cannot hold the key. Once COMPACTION_THRESHOLD tables pile up,
+ * a background thread merges them into one and drops deleted keys, so lookups stay cheap.
+ * <p>
+ * The MANIFEST file lists the live tables newest first and is replaced atomically, so a
+ * crash during a flush or a compaction never exposes a half-written table.
+ */
+public class LogStructuredStore implements AutoCloseable {
+
+    public static final int DEFAULT_MEMTABLE_LIMIT = 50_000;
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 4;
+
+    // Deleted keys are kept as this value until compaction drops them
+    static final String TOMBSTONE = "\u0000<deleted>";
+
+    private static final String WAL_FILE = "wal.log";
+    private static final String MANIFEST_FILE = "MANIFEST";
+    private static final String TABLE_NAME_FORMAT = "table-%010d" + SSTable.EXTENSION;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+
+    private final Path directory;
+    private final int memtableLimit;
+    private final int compactionThreshold;
+    private final ExecutorService compactor;
+
+    private volatile ConcurrentSkipListMap<String, String> memtable = new ConcurrentSkipListMap<>();
+    // Newest first, replaced as a whole (copy-on-write) so readers never see a partial update
+    private volatile List<SSTable> tables;
+    // ConcurrentSkipListMap.size() walks the whole map, so the entry count is tracked here
+    private int memtableEntries;
+    private DataOutputStream wal;
+    private long nextTableNumber;
+    private boolean compactionScheduled;
+
+    private LogStructuredStore(Path directory, int memtableLimit, int compactionThreshold) {
+        this.directory = directory;
+        this.memtableLimit = memtableLimit;
+        this.compactionThreshold = compactionThreshold;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lsm-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens (or creates) a store with the default memtable limit and compaction threshold
+     *
+     * @param directory Directory holding the log, the manifest and the tables
+     * @return Opened store
+     */
+    public static LogStructuredStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_MEMTABLE_LIMIT, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Opens (or creates) a store: loads the tables listed in the manifest, removes files a
+     * crash left behind and replays the write-ahead log into the memtable
+     *
+     * @param directory Directory holding the log, the manifest and the tables
+     * @param memtableLimit Number of memtable entries that triggers a flush
+     * @param compactionThreshold Number of tables that triggers a background compaction
+     * @return Opened store
+     */
+    public static LogStructuredStore open(Path directory, int memtableLimit, int compactionThreshold) throws IOException {
+        Files.createDirectories(directory);
+        LogStructuredStore store = new LogStructuredStore(directory, memtableLimit, compactionThreshold);
+        store.loadTables();
+        store.replayWal();
+        store.wal = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(directory.resolve(WAL_FILE), StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        return store;
+    }
+
+    private void loadTables() throws IOException {
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        List<String> live = Files.exists(manifest) ? Files.readAllLines(manifest) : List.of();
+
+        List<SSTable> opened = new ArrayList<>();
+        for (String name : live) {
+            if (name.isBlank()) continue;
+            opened.add(SSTable.open(directory.resolve(name)));
+            nextTableNumber = Math.max(nextTableNumber, tableNumber(name) + 1);
+        }
+        tables = List.copyOf(opened);
+
+        // Tables not in the manifest were left behind by an interrupted flush or compaction
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if ((name.endsWith(SSTable.EXTENSION) && !live.contains(name)) || name.endsWith(".tmp")) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private void replayWal() throws IOException {
+        Path walPath = directory.resolve(WAL_FILE);
+        if (!Files.exists(walPath)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(walPath)))) {
+            while (true) {
+                byte op = in.readByte();
+                String key = in.readUTF();
+                if (memtable.put(key, op == OP_DELETE ? TOMBSTONE : in.readUTF()) == null) {
+                    memtableEntries++;
+                }
+            }
+        } catch (EOFException e) {
+            // End of the log (a record torn by a crash is dropped here too)
+        }
+    }
+
+    // ==================== WRITES ====================
+
+    /**
+     * Stores a value, replacing any previous value of the key
+     */
+    public synchronized void put(String key, String value) throws IOException {
+        wal.writeByte(OP_PUT);
+        wal.writeUTF(key);
+        wal.writeUTF(value);
+        wal.flush();
+        if (memtable.put(key, value) == null) {
+            memtableEntries++;
+        }
+        flushIfFull();
+    }
+
+    /**
+     * Deletes a key (a tombstone shadows older values until compaction removes it)
+     */
+    public synchronized void delete(String key) throws IOException {
+        wal.writeByte(OP_DELETE);
+        wal.writeUTF(key);
+        wal.flush();
+        if (memtable.put(key, TOMBSTONE) == null) {
+            memtableEntries++;
+        }
+        flushIfFull();
+    }
+
+    private void flushIfFull() throws IOException {
+        if (memtableEntries >= memtableLimit) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the memtable to a new SSTable and truncates the write-ahead log
+     */
+    public synchronized void flush() throws IOException {
+        ConcurrentSkipListMap<String, String> frozen = memtable;
+        if (frozen.isEmpty()) {
+            return;
+        }
+
+        Path table = directory.resolve(TABLE_NAME_FORMAT.formatted(nextTableNumber++));
+        SSTable.write(table, frozen.entrySet().iterator(), memtableEntries);
+
+        List<SSTable> updated = new ArrayList<>(tables.size() + 1);
+        updated.add(SSTable.open(table));
+        updated.addAll(tables);
+        writeManifest(updated);
+
+        // Publish the table before dropping the memtable so readers always see the data
+        tables = List.copyOf(updated);
+        memtable = new ConcurrentSkipListMap<>();
+        memtableEntries = 0;
+
+        wal.close();
+        wal = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(directory.resolve(WAL_FILE), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)));
+
+        scheduleCompactionIfNeeded();
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * Looks a key up in the memtable, then in the tables from newest to oldest
+     *
+     * @return The value, null if the key does not exist
+     */
+    public String get(String key) throws IOException {
+        String value = memtable.get(key);
+        if (value == null) {
+            value = getFromTables(key);
+        }
+        return TOMBSTONE.equals(value) ? null : value;
+    }
+
+    private String getFromTables(String key) throws IOException {
+        while (true) {
+            try {
+                for (SSTable table : tables) {
+                    String value = table.get(key);
+                    if (value != null) {
+                        return value;
+                    }
+                }
+                return null;
+            } catch (ClosedChannelException e) {
+                // A compaction replaced the tables mid-lookup, retry against the new list
+            }
+        }
+    }
+
+    /**
+     * Visits every live key in ascending order without loading the store into memory
+     * (a k-way merge over the memtable and all tables, newest value wins)
+     *
+     * @param action Called with each key and its value
+     */
+    public void forEach(BiConsumer<String, String> action) throws IOException {
+        List<Iterator<Map.Entry<String, String>>> sources = new ArrayList<>();
+        sources.add(memtable.entrySet().iterator());
+        for (SSTable table : tables) {
+            sources.add(table.iterator());
+        }
+
+        try {
+            Iterator<Map.Entry<String, String>> merged = new MergingIterator(sources);
+            while (merged.hasNext()) {
+                Map.Entry<String, String> entry = merged.next();
+                if (!TOMBSTONE.equals(entry.getValue())) {
+                    action.accept(entry.getKey(), entry.getValue());
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ==================== COMPACTION ====================
+
+    private void scheduleCompactionIfNeeded() {
+        if (compactionScheduled || tables.size() < compactionThreshold) {
+            return;
+        }
+        compactionScheduled = true;
+        compactor.execute(() -> {
+            try {
+                compact();
+            } catch (IOException | UncheckedIOException e) {
+                IO.println("⚠ Warning: Account store compaction failed: " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    compactionScheduled = false;
+                    // Tables flushed while this compaction ran may already need another one
+                    scheduleCompactionIfNeeded();
+                }
+            }
+        });
+    }
+
+    /**
+     * Merges every current table into a single one. Runs without holding the store lock;
+     * tables flushed in the meantime stay in front of the merged table.
+     */
+    void compact() throws IOException {
+        List<SSTable> inputs = tables;
+        if (inputs.size() < 2) {
+            return;
+        }
+
+        long expected = inputs.stream().mapToLong(SSTable::entryCount).sum();
+        List<Iterator<Map.Entry<String, String>>> sources = new ArrayList<>();
+        for (SSTable table : inputs) {
+            sources.add(table.iterator());
+        }
+
+        Path output;
+        synchronized (this) {
+            output = directory.resolve(TABLE_NAME_FORMAT.formatted(nextTableNumber++));
+        }
+        // The inputs include the oldest table, so deleted keys can be dropped for good
+        SSTable.write(output, new LiveEntries(new MergingIterator(sources)), expected);
+        SSTable merged = SSTable.open(output);
+
+        synchronized (this) {
+            List<SSTable> updated = new ArrayList<>(tables);
+            updated.removeAll(inputs);
+            updated.add(merged);
+            writeManifest(updated);
+            tables = List.copyOf(updated);
+        }
+
+        for (SSTable table : inputs) {
+            table.close();
+            Files.deleteIfExists(table.path());
+        }
+    }
+
+    /**
+     * Waits until no background compaction is running or scheduled
+     */
+    void awaitCompaction() throws InterruptedException, ExecutionException {
+        while (true) {
+            compactor.submit(() -> { }).get();
+            synchronized (this) {
+                if (!compactionScheduled) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void writeManifest(List<SSTable> live) throws IOException {
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        Path temp = directory.resolve(MANIFEST_FILE + ".tmp");
+        Files.write(temp, live.stream().map(table -> table.path().getFileName().toString()).toList());
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long tableNumber(String name) {
+        String digits = name.replaceAll("\\D", "");
+        return digits.isEmpty() ? 0 : Long.parseLong(digits);
+    }
+
+    // ==================== METADATA ====================
+
+    /**
+     * @return Number of SSTables on disk
+     */
+    public int getTableCount() {
+        return tables.size();
+    }
+
+    /**
+     * @return Number of entries (including tombstones) waiting in the memtable
+     */
+    public synchronized int getMemtableSize() {
+        return memtableEntries;
+    }
+
+    /**
+     * @return Total size of the SSTables on disk in bytes
+     */
+    public long getDiskSize() throws IOException {
+        long size = 0;
+        for (SSTable table : tables) {
+            size += table.sizeInBytes();
+        }
+        return size;
+    }
+
+    /**
+     * Flushes the memtable, waits for background compaction and closes every file
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        // Not holding the store lock here: a running compaction needs it to publish its table
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            wal.close();
+            for (SSTable table : tables) {
+                table.close();
+            }
+        }
+    }
+
+    // ==================== MERGING ====================
+
+    /**
+     * K-way merge over sorted sources ordered newest first; for a key present in several
+     * sources only the newest entry is returned
+     */
+    private static final class MergingIterator implements Iterator<Map.Entry<String, String>> {
+
+        private record Head(Map.Entry<String, String> entry, int source) {}
+
+        private final List<Iterator<Map.Entry<String, String>>> sources;
+        private final PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> {
+            int byKey = a.entry().getKey().compareTo(b.entry().getKey());
+            return byKey != 0 ? byKey : Integer.compare(a.source(), b.source());
+        });
+
+        MergingIterator(List<Iterator<Map.Entry<String, String>>> sources) {
+            this.sources = sources;
+            for (int i = 0; i < sources.size(); i++) {
+                advance(i);
+            }
+        }
+
+        private void advance(int source) {
+            if (sources.get(source).hasNext()) {
+                heads.add(new Head(sources.get(source).next(), source));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            Head newest = heads.poll();
+            if (newest == null) {
+                throw new NoSuchElementException();
+            }
+            advance(newest.source());
+            // Skip the same key in older sources
+            while (!heads.isEmpty() && heads.peek().entry().getKey().equals(newest.entry().getKey())) {
+                advance(heads.poll().source());
+            }
+            return newest.entry();
+        }
+    }
+
+    /**
+     * Filters tombstones out of a merged stream
+     */
+    private static final class LiveEntries implements Iterator<Map.Entry<String, String>> {
+
+        private final Iterator<Map.Entry<String, String>> source;
+        private Map.Entry<String, String> next;
+
+        LiveEntries(Iterator<Map.Entry<String, String>> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && source.hasNext()) {
+                Map.Entry<String, String> candidate = source.next();
+                if (!TOMBSTONE.equals(candidate.getValue())) {
+                    next = candidate;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, String> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+}
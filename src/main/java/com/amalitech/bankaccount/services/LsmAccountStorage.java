@@ -0,0 +1,91 @@
+package com.amalitech.bankaccount.services;
+
+import com.amalitech.bankaccount.utils.IO;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.interfaces.AccountStorage;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * AccountStorage backed by a LogStructuredStore: account number -> account line
+ * (same pipe-delimited format as accounts.txt)
+ */
+final class LsmAccountStorage implements AccountStorage {
+
+    private final LogStructuredStore store;
+    private final FilePersistenceService codec;
+    private final AtomicLong size = new AtomicLong();
+
+    LsmAccountStorage(LogStructuredStore store, FilePersistenceService codec) throws IOException {
+        this.store = store;
+        this.codec = codec;
+        // One streaming pass over the keys, nothing is kept in memory
+        int[] maxAccount = {0};
+        store.forEach((key, value) -> {
+            size.incrementAndGet();
+            maxAccount[0] = Math.max(maxAccount[0], FilePersistenceService.idSequence(key));
+        });
+        Account.restoreAccountCounter(maxAccount[0]);
+    }
+
+    @Override
+    public long size() {
+        return size.get();
+    }
+
+    @Override
+    public Account load(String accountNumber) {
+        try {
+            String line = store.get(accountNumber);
+            return line == null ? null : codec.lineToAccount(line);
+        } catch (IOException e) {
+            IO.println("❌ Error loading account " + accountNumber + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void save(Account account) {
+        String line;
+        synchronized (account) {
+            line = codec.accountToLine(account);
+        }
+        try {
+            // New keys are usually rejected by the bloom filters without reading any table
+            synchronized (store) {
+                if (store.get(account.getAccountNumber()) == null) {
+                    size.incrementAndGet();
+                }
+                store.put(account.getAccountNumber(), line);
+            }
+        } catch (IOException e) {
+            IO.println("❌ Error saving account " + account.getAccountNumber() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<Account> action) {
+        try {
+            store.forEach((key, line) -> {
+                Account account = codec.lineToAccount(line);
+                if (account != null) {
+                    action.accept(account);
+                }
+            });
+        } catch (IOException e) {
+            IO.println("❌ Error reading account store: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            store.close();
+        } catch (IOException e) {
+            IO.println("⚠ Warning: Could not close account store: " + e.getMessage());
+        }
+    }
+}
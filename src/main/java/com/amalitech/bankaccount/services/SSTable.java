@@ -0,0 +1,297 @@
+package com.amalitech.bankaccount.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable sorted string table written by LogStructuredStore when the memtable is flushed
+ * or tables are compacted
+ * <p>
+ * Only the sparse index (every INDEX_INTERVAL-th key) and the bloom filter are held in heap;
+ * a lookup reads one index interval from disk with a positional read.
+ * <p>
+ * Layout:
+ * [entries][sparse index][bloom filter][footer]
+ * entry: keyLength(int) key(UTF-8) valueLength(int, -1 for a tombstone) value(UTF-8)
+ * sparse index: count(int) then keyLength(int) key(UTF-8) offset(long) per indexed key
+ * footer: indexOffset(long) bloomOffset(long) entryCount(long) magic(int)
+ */
+final class SSTable implements AutoCloseable {
+
+    static final String EXTENSION = ".sst";
+    private static final int INDEX_INTERVAL = 64;
+    private static final int MAGIC = 0x53535431; // "SST1"
+    private static final int FOOTER_BYTES = Long.BYTES * 3 + Integer.BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final String[] indexKeys;
+    private final long[] indexOffsets;
+    private final long indexOffset;
+    private final long entryCount;
+    private final BloomFilter bloomFilter;
+
+    private SSTable(Path path, FileChannel channel, String[] indexKeys, long[] indexOffsets,
+                    long indexOffset, long entryCount, BloomFilter bloomFilter) {
+        this.path = path;
+        this.channel = channel;
+        this.indexKeys = indexKeys;
+        this.indexOffsets = indexOffsets;
+        this.indexOffset = indexOffset;
+        this.entryCount = entryCount;
+        this.bloomFilter = bloomFilter;
+    }
+
+    // ==================== WRITING ====================
+
+    /**
+     * Writes a table from entries in ascending key order (temporary file + atomic move)
+     *
+     * @param target Table file to create
+     * @param entries Sorted entries, a TOMBSTONE value marks a deleted key
+     * @param expectedEntries Upper bound on the number of entries, used to size the bloom filter
+     */
+    static void write(Path target, Iterator<Map.Entry<String, String>> entries, long expectedEntries) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        BloomFilter bloom = BloomFilter.create(expectedEntries, BloomFilter.DEFAULT_BITS_PER_KEY);
+        List<String> indexKeys = new ArrayList<>();
+        List<Long> indexOffsets = new ArrayList<>();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            long offset = 0;
+            long count = 0;
+            while (entries.hasNext()) {
+                Map.Entry<String, String> entry = entries.next();
+                if (count % INDEX_INTERVAL == 0) {
+                    indexKeys.add(entry.getKey());
+                    indexOffsets.add(offset);
+                }
+                bloom.add(entry.getKey());
+                offset += writeEntry(out, entry.getKey(), entry.getValue());
+                count++;
+            }
+
+            long sparseIndexOffset = offset;
+            out.writeInt(indexKeys.size());
+            for (int i = 0; i < indexKeys.size(); i++) {
+                byte[] key = indexKeys.get(i).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeLong(indexOffsets.get(i));
+                offset += Integer.BYTES + key.length + Long.BYTES;
+            }
+            offset += Integer.BYTES;
+
+            bloom.writeTo(out);
+            out.writeLong(sparseIndexOffset);
+            out.writeLong(offset);
+            out.writeLong(count);
+            out.writeInt(MAGIC);
+        }
+
+        try (FileChannel written = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            written.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int writeEntry(DataOutputStream out, String key, String value) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(keyBytes.length);
+        out.write(keyBytes);
+        if (LogStructuredStore.TOMBSTONE.equals(value)) {
+            out.writeInt(-1);
+            return Integer.BYTES * 2 + keyBytes.length;
+        }
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(valueBytes.length);
+        out.write(valueBytes);
+        return Integer.BYTES * 2 + keyBytes.length + valueBytes.length;
+    }
+
+    // ==================== READING ====================
+
+    /**
+     * Opens a table, loading its sparse index and bloom filter
+     */
+    static SSTable open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < FOOTER_BYTES) {
+                throw new IOException("Table too small: " + path.getFileName());
+            }
+            ByteBuffer footer = readFully(channel, size - FOOTER_BYTES, FOOTER_BYTES);
+            long sparseIndexOffset = footer.getLong();
+            long bloomOffset = footer.getLong();
+            long entryCount = footer.getLong();
+            if (footer.getInt() != MAGIC) {
+                throw new IOException("Not an SSTable: " + path.getFileName());
+            }
+
+            ByteBuffer index = readFully(channel, sparseIndexOffset, (int) (bloomOffset - sparseIndexOffset));
+            int count = index.getInt();
+            String[] keys = new String[count];
+            long[] offsets = new long[count];
+            for (int i = 0; i < count; i++) {
+                byte[] key = new byte[index.getInt()];
+                index.get(key);
+                keys[i] = new String(key, StandardCharsets.UTF_8);
+                offsets[i] = index.getLong();
+            }
+
+            BloomFilter bloom = BloomFilter.readFrom(readFully(channel, bloomOffset, (int) (size - FOOTER_BYTES - bloomOffset)));
+            return new SSTable(path, channel, keys, offsets, sparseIndexOffset, entryCount, bloom);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e instanceof IOException io ? io : new IOException("Corrupt table " + path.getFileName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Looks a key up: bloom filter, then binary search over the sparse index, then a scan of
+     * at most INDEX_INTERVAL entries read with one positional read
+     *
+     * @return The value, TOMBSTONE if the key was deleted, null if this table does not hold it
+     */
+    String get(String key) throws IOException {
+        if (indexKeys.length == 0 || !bloomFilter.mightContain(key)) {
+            return null;
+        }
+
+        int low = 0;
+        int high = indexKeys.length - 1;
+        int interval = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (indexKeys[mid].compareTo(key) <= 0) {
+                interval = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (interval < 0) {
+            return null;
+        }
+
+        long start = indexOffsets[interval];
+        long end = interval + 1 < indexOffsets.length ? indexOffsets[interval + 1] : indexOffset;
+        ByteBuffer block = readFully(channel, start, (int) (end - start));
+        byte[] wanted = key.getBytes(StandardCharsets.UTF_8);
+
+        while (block.hasRemaining()) {
+            int keyLength = block.getInt();
+            boolean match = keyLength == wanted.length && block.slice(block.position(), keyLength).equals(ByteBuffer.wrap(wanted));
+            block.position(block.position() + keyLength);
+            int valueLength = block.getInt();
+            if (match) {
+                if (valueLength < 0) {
+                    return LogStructuredStore.TOMBSTONE;
+                }
+                byte[] value = new byte[valueLength];
+                block.get(value);
+                return new String(value, StandardCharsets.UTF_8);
+            }
+            block.position(block.position() + Math.max(valueLength, 0));
+        }
+        return null;
+    }
+
+    /**
+     * Streams every entry in key order through its own buffered stream, so iterating never
+     * interferes with concurrent lookups on the shared channel
+     */
+    Iterator<Map.Entry<String, String>> iterator() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+        return new Iterator<>() {
+            private long remaining = entryCount;
+
+            @Override
+            public boolean hasNext() {
+                if (remaining > 0) {
+                    return true;
+                }
+                closeQuietly();
+                return false;
+            }
+
+            @Override
+            public Map.Entry<String, String> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    String key = new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+                    int valueLength = in.readInt();
+                    String value = valueLength < 0
+                        ? LogStructuredStore.TOMBSTONE
+                        : new String(in.readNBytes(valueLength), StandardCharsets.UTF_8);
+                    remaining--;
+                    return new AbstractMap.SimpleImmutableEntry<>(key, value);
+                } catch (EOFException e) {
+                    closeQuietly();
+                    throw new UncheckedIOException("Truncated table " + path.getFileName(), e);
+                } catch (IOException e) {
+                    closeQuietly();
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            private void closeQuietly() {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                    // Read-only stream
+                }
+            }
+        };
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of table");
+            }
+        }
+        return buffer.flip();
+    }
+
+    // ==================== METADATA ====================
+
+    Path path() {
+        return path;
+    }
+
+    long entryCount() {
+        return entryCount;
+    }
+
+    long sizeInBytes() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,287 @@
+package com.amalitech.bankaccount.services;
+
+import com.amalitech.bankaccount.utils.IO;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.AccountManager;
+import com.amalitech.bankaccount.customer.Customer;
+import com.amalitech.bankaccount.transaction.TransactionManager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for taking periodic, consistent snapshots of the AccountManager state
+ * (balances, statuses and ID high-water marks) and restoring from them on restart.
+ * <p>
+ * A snapshot never pauses the Menu or the transaction workers: the journal position is
+ * read first, then every account is copied under its own lock (the same monitor used by
+ * deposit/withdrawal), streamed from the account store when one is attached rather than
+ * loaded all at once. Transactions recorded while the copy is running are simply replayed
+ * again on restart, which is harmless because replay sets the balance to the account's last
+ * recorded balanceAfter: every balance change is journaled inside the account's lock (see
+ * TransactionManager.addTransaction), so that row holds the latest balance. Accounts created
+ * after the snapshot are read back from the accounts file. Once a snapshot is on disk the
+ * journal prefix it covers is compacted into archive segments.
+ * <p>
+ * Format: a header line followed by one account line per account (same format as accounts.txt)
+ * #SNAPSHOT|createdAtMillis|accountCounter|customerCounter|transactionCounter|journalSequence
+ */
+public class SnapshotService {
+
+    private static final String SNAPSHOT_FILE = "snapshot.txt";
+    private static final String SNAPSHOT_HEADER = "#SNAPSHOT";
+    public static final long DEFAULT_SNAPSHOT_INTERVAL_MINUTES = 5;
+
+    private final FilePersistenceService persistenceService;
+    private final Path snapshotPath;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor for the snapshot service. Snapshots are stored next to the other data files
+     * @param persistenceService Persistence service owning the data directory and the journal
+     */
+    public SnapshotService(FilePersistenceService persistenceService) {
+        this.persistenceService = persistenceService;
+        this.snapshotPath = persistenceService.getDataDirectory().resolve(SNAPSHOT_FILE);
+    }
+
+    // ==================== TAKING SNAPSHOTS ====================
+
+    /**
+     * Writes a consistent snapshot of all accounts and compacts the journal it covers.
+     * The snapshot is written to a temporary file and atomically moved into place, so a
+     * crash mid-write always leaves the previous snapshot intact.
+     *
+     * @param accountManager Account manager to snapshot
+     * @param transactionManager Transaction manager whose journal position is recorded
+     * @return Journal sequence covered by the snapshot, -1 if the snapshot failed
+     */
+    public synchronized long takeSnapshot(AccountManager accountManager, TransactionManager transactionManager) {
+        // Read the journal position before copying accounts so nothing can be missed on replay.
+        // Transactions still queued for the journal are not covered: they are replayed once written
+        long journalSequence = Math.min(transactionManager.getTotalTransactionCount(), persistenceService.getPersistedTransactionCount());
+        int transactionCounter = TransactionManager.getTransactionCounter();
+
+        String header = String.join("|",
+            SNAPSHOT_HEADER,
+            String.valueOf(System.currentTimeMillis()),
+            String.valueOf(Account.getAccountCounter()),
+            String.valueOf(Customer.getCustomerCounter()),
+            String.valueOf(transactionCounter),
+            String.valueOf(journalSequence)
+        );
+
+        Path temp = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+            writer.write(header);
+            writer.newLine();
+            // One account at a time, so a stored population is never loaded into memory at once
+            accountManager.forEachAccount(account -> {
+                String line;
+                synchronized (account) {
+                    line = persistenceService.accountToLine(account);
+                }
+                try {
+                    writer.write(line);
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            IO.println("❌ Error writing snapshot: " + e.getMessage());
+            return -1;
+        }
+        try {
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            IO.println("❌ Error writing snapshot: " + e.getMessage());
+            return -1;
+        }
+
+        persistenceService.compactTransactions(journalSequence);
+        return journalSequence;
+    }
+
+    /**
+     * Starts taking snapshots in the background at a fixed interval.
+     * Runs on a single daemon thread so it never keeps the application alive.
+     *
+     * @param accountManager Account manager to snapshot
+     * @param transactionManager Transaction manager whose journal position is recorded
+     * @param intervalMinutes Minutes between two snapshots
+     */
+    public synchronized void startPeriodicSnapshots(AccountManager accountManager, TransactionManager transactionManager, long intervalMinutes) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(
+            () -> takeSnapshot(accountManager, transactionManager),
+            intervalMinutes, intervalMinutes, TimeUnit.MINUTES
+        );
+    }
+
+    /**
+     * Stops the periodic snapshots (an in-flight snapshot is allowed to finish)
+     */
+    public synchronized void stopPeriodicSnapshots() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    // ==================== RESTORING ====================
+
+    /**
+     * Checks if a snapshot exists
+     *
+     * @return true if a snapshot file exists
+     */
+    public boolean snapshotExists() {
+        return Files.exists(snapshotPath);
+    }
+
+    /**
+     * Restores accounts from the latest snapshot, restores the ID high-water marks and
+     * replays only the journal tail written after the snapshot onto the account balances.
+     *
+     * @return List of restored accounts, empty list if there is no usable snapshot
+     */
+    public List<Account> restore() {
+        if (!snapshotExists()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Account> restored = new LinkedHashMap<>();
+        long journalSequence;
+
+        try (BufferedReader reader = Files.newBufferedReader(snapshotPath)) {
+            String headerLine = reader.readLine();
+            String[] header = headerLine == null ? new String[0] : headerLine.split("\\|");
+            if (header.length < 6 || !SNAPSHOT_HEADER.equals(header[0])) {
+                IO.println("⚠ Invalid snapshot header in " + snapshotPath.getFileName());
+                return new ArrayList<>();
+            }
+            journalSequence = Long.parseLong(header[5]);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                Account account = persistenceService.lineToAccount(line);
+                if (account != null) {
+                    restored.put(account.getAccountNumber(), account);
+                }
+            }
+
+            // Restore high-water marks after the accounts so the counters never move backwards
+            Account.restoreAccountCounter(Integer.parseInt(header[2]));
+            Customer.restoreCustomerCounter(Integer.parseInt(header[3]));
+            TransactionManager.restoreTransactionCounter(Integer.parseInt(header[4]));
+        } catch (IOException | IllegalArgumentException e) {
+            IO.println("❌ Error reading snapshot: " + e.getMessage());
+            return new ArrayList<>();
+        }
+
+        long replayed = replayJournalTail(restored, journalSequence);
+
+        IO.println("✓ Restored " + restored.size() + " accounts from " + snapshotPath.getFileName()
+            + " (replayed " + replayed + " journal entries)");
+        // In id order, whatever order the accounts were streamed into the snapshot
+        List<Account> accounts = new ArrayList<>(restored.values());
+        accounts.sort(Comparator.comparingInt(account -> FilePersistenceService.idSequence(account.getAccountNumber())));
+        return accounts;
+    }
+
+    /**
+     * Applies the journal entries at or after the snapshot position to the restored accounts.
+     * Replay is idempotent: each account's balance is set to its last recorded balanceAfter.
+     * Accounts missing from the snapshot (created after it) are read from the accounts file
+     * and added; entries for accounts found in neither are reported, not applied.
+     */
+    private long replayJournalTail(Map<String, Account> accounts, long journalSequence) {
+        Path journal = persistenceService.getTransactionsPath();
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+
+        long skip = journalSequence - persistenceService.getArchivedTransactionCount();
+        // Last balanceAfter per account and the number of entries behind it, in journal order
+        Map<String, Double> lastBalances = new LinkedHashMap<>();
+        Map<String, Long> entries = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(journal)) {
+            String line;
+            long index = 0;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                if (index++ < skip) continue;
+
+                String[] parts = line.split("\\|");
+                if (parts.length < 7) continue;
+
+                lastBalances.put(parts[1], Double.parseDouble(parts[4]));
+                entries.merge(parts[1], 1L, Long::sum);
+            }
+
+            Set<String> missing = new HashSet<>(lastBalances.keySet());
+            missing.removeAll(accounts.keySet());
+            Map<String, Account> created = persistenceService.loadAccounts(missing);
+            FilePersistenceService.restoreIdCounters(new ArrayList<>(created.values()));
+            accounts.putAll(created);
+        } catch (IOException | NumberFormatException e) {
+            IO.println("⚠ Warning: Could not replay journal tail: " + e.getMessage());
+            return 0;
+        }
+
+        long replayed = 0;
+        long skipped = 0;
+        int unknownAccounts = 0;
+        for (Map.Entry<String, Double> last : lastBalances.entrySet()) {
+            Account account = accounts.get(last.getKey());
+            if (account == null) {
+                skipped += entries.get(last.getKey());
+                unknownAccounts++;
+                continue;
+            }
+            synchronized (account) {
+                account.setAccountBalance(last.getValue());
+            }
+            replayed += entries.get(last.getKey());
+        }
+        if (skipped > 0) {
+            IO.println("⚠ Warning: " + skipped + " journal entries of " + unknownAccounts
+                + " accounts found in neither the snapshot nor " + persistenceService.getAccountsPath().getFileName() + " were not replayed");
+        }
+        return replayed;
+    }
+
+    /**
+     * Gets the path to the snapshot file
+     */
+    public Path getSnapshotPath() {
+        return snapshotPath;
+    }
+}
@@ -0,0 +1,381 @@
+package com.amalitech.bankaccount.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Block-compressed, seekable archive of journal lines (.tca segments)
+ * <p>
+ * Lines are grouped into blocks of BLOCK_ENTRIES which are deflated independently, so a
+ * range read only inflates the blocks that overlap the range. Journal lines compress very
+ * well because account numbers, types and timestamps repeat constantly.
+ * <p>
+ * Layout:
+ * [block 0][block 1]...[block index][trailer]
+ * block index entry: firstSequence(long) entries(int) offset(long) compressedLength(int) rawLength(int)
+ * trailer: indexOffset(long) blockCount(int) magic(int)
+ */
+final class TransactionArchive implements AutoCloseable {
+
+    static final String EXTENSION = ".tca";
+    static final int BLOCK_ENTRIES = 512;
+    private static final int MAGIC = 0x54434131; // "TCA1"
+    private static final int INDEX_ENTRY_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    /**
+     * One independently compressed block
+     */
+    record Block(long firstSequence, int entries, long offset, int compressedLength, int rawLength) {
+        long endSequence() {
+            return firstSequence + entries;
+        }
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final List<Block> blocks;
+
+    // Last inflated block, so walking one account's ascending sequence numbers inflates each block once
+    private int cachedBlock = -1;
+    private List<String> cachedLines;
+
+    private TransactionArchive(Path path, FileChannel channel, List<Block> blocks) {
+        this.path = path;
+        this.channel = channel;
+        this.blocks = blocks;
+    }
+
+    // ==================== WRITING ====================
+
+    /**
+     * Creates a new archive at the given path
+     *
+     * @param target Archive file to create (replaced if it exists)
+     * @param firstSequence Global journal sequence of the first line that will be appended
+     * @return Writer that must be closed to write the block index
+     */
+    static Writer create(Path target, long firstSequence) throws IOException {
+        return new Writer(target, firstSequence);
+    }
+
+    /**
+     * Streaming archive writer: buffers one block of lines at a time
+     */
+    static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final List<Block> blocks = new ArrayList<>();
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream(BLOCK_ENTRIES * 96);
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private long nextSequence;
+        private long blockStart;
+        private int pendingEntries;
+
+        private Writer(Path target, long firstSequence) throws IOException {
+            this.channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.nextSequence = firstSequence;
+            this.blockStart = firstSequence;
+        }
+
+        /**
+         * Appends one journal line (without line separator)
+         */
+        void append(String line) throws IOException {
+            if (pendingEntries > 0) {
+                pending.write('\n');
+            }
+            pending.writeBytes(line.getBytes(StandardCharsets.UTF_8));
+            pendingEntries++;
+            nextSequence++;
+            if (pendingEntries == BLOCK_ENTRIES) {
+                flushBlock();
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (pendingEntries == 0) {
+                return;
+            }
+            byte[] raw = pending.toByteArray();
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                compressed.write(buffer, 0, length);
+            }
+
+            long offset = channel.position();
+            writeFully(ByteBuffer.wrap(compressed.toByteArray()));
+            blocks.add(new Block(blockStart, pendingEntries, offset, compressed.size(), raw.length));
+
+            blockStart = nextSequence;
+            pendingEntries = 0;
+            pending.reset();
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flushBlock();
+                long indexOffset = channel.position();
+                ByteBuffer index = ByteBuffer.allocate(blocks.size() * INDEX_ENTRY_BYTES + TRAILER_BYTES);
+                for (Block block : blocks) {
+                    index.putLong(block.firstSequence())
+                        .putInt(block.entries())
+                        .putLong(block.offset())
+                        .putInt(block.compressedLength())
+                        .putInt(block.rawLength());
+                }
+                index.putLong(indexOffset).putInt(blocks.size()).putInt(MAGIC);
+                writeFully(index.flip());
+                channel.force(true);
+            } finally {
+                deflater.end();
+                channel.close();
+            }
+        }
+    }
+
+    // ==================== READING ====================
+
+    /**
+     * Opens an archive and reads its block index (the blocks themselves are not touched)
+     */
+    static TransactionArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < TRAILER_BYTES) {
+                throw new IOException("Archive too small: " + path.getFileName());
+            }
+            ByteBuffer trailer = readFully(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            long indexOffset = trailer.getLong();
+            int blockCount = trailer.getInt();
+            if (trailer.getInt() != MAGIC) {
+                throw new IOException("Not a transaction archive: " + path.getFileName());
+            }
+
+            ByteBuffer index = readFully(channel, indexOffset, blockCount * INDEX_ENTRY_BYTES);
+            List<Block> blocks = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                blocks.add(new Block(index.getLong(), index.getInt(), index.getLong(), index.getInt(), index.getInt()));
+            }
+            return new TransactionArchive(path, channel, blocks);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the lines with sequence numbers in [fromSequence, toSequence), inflating only the
+     * blocks that overlap the range
+     */
+    List<String> readRange(long fromSequence, long toSequence) throws IOException {
+        List<String> lines = new ArrayList<>();
+        int first = blockFor(Math.max(fromSequence, firstSequence()));
+        if (first < 0) {
+            return lines;
+        }
+        for (int i = first; i < blocks.size() && blocks.get(i).firstSequence() < toSequence; i++) {
+            Block block = blocks.get(i);
+            List<String> blockLines = readBlock(i);
+            int from = (int) Math.max(0, fromSequence - block.firstSequence());
+            int to = (int) Math.min(block.entries(), toSequence - block.firstSequence());
+            if (from < to) {
+                lines.addAll(blockLines.subList(from, to));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Reads a single line by its global sequence number
+     *
+     * @return The journal line, null if the sequence is not in this archive
+     */
+    String readEntry(long sequence) throws IOException {
+        int block = blockFor(sequence);
+        if (block < 0) {
+            return null;
+        }
+        return readBlock(block).get((int) (sequence - blocks.get(block).firstSequence()));
+    }
+
+    /**
+     * Streams every line, inflating one block at a time
+     */
+    Stream<String> lines() {
+        return lines(0);
+    }
+
+    /**
+     * Streams the lines from the start of a block to the end of the archive, inflating one
+     * block at a time
+     */
+    Stream<String> lines(int fromBlock) {
+        return IntStream.range(fromBlock, blocks.size())
+            .mapToObj(i -> {
+                try {
+                    return inflate(blocks.get(i));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })
+            .flatMap(List::stream);
+    }
+
+    private List<String> readBlock(int block) throws IOException {
+        if (block != cachedBlock) {
+            cachedLines = inflate(blocks.get(block));
+            cachedBlock = block;
+        }
+        return cachedLines;
+    }
+
+    private List<String> inflate(Block block) throws IOException {
+        ByteBuffer compressed = readFully(channel, block.offset(), block.compressedLength());
+        byte[] raw = new byte[block.rawLength()];
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    // Truncated block or a header that overstates the raw length
+                    throw new IOException("Corrupt block in " + path.getFileName() + ": " + length + " of " + raw.length + " bytes inflated");
+                }
+                length += inflated;
+            }
+            if (length != raw.length) {
+                throw new IOException("Corrupt block in " + path.getFileName() + ": " + length + " of " + raw.length + " bytes inflated");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block in " + path.getFileName() + ": " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+        return Arrays.asList(new String(raw, StandardCharsets.UTF_8).split("\n", -1));
+    }
+
+    /**
+     * Binary search over the blocks by their first line, for an archive whose lines are ordered
+     * by some key (e.g. their timestamp), inflating O(log blocks) blocks
+     *
+     * @param before Whether a line's key comes before the one sought
+     * @return Index of the last block whose first line comes before it (0 if none does), so no
+     *         line at or after the key sought is in an earlier block
+     */
+    int lastBlockStartingBefore(Predicate<String> before) throws IOException {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (before.test(readBlock(mid).getFirst())) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The last line of the archive, null if it is empty
+     */
+    String lastLine() throws IOException {
+        return blocks.isEmpty() ? null : readBlock(blocks.size() - 1).getLast();
+    }
+
+    /**
+     * Binary search over the block index
+     *
+     * @return Index of the block holding the sequence, -1 if outside this archive
+     */
+    private int blockFor(long sequence) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Block block = blocks.get(mid);
+            if (sequence < block.firstSequence()) {
+                high = mid - 1;
+            } else if (sequence >= block.endSequence()) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of archive");
+            }
+        }
+        return buffer.flip();
+    }
+
+    // ==================== METADATA ====================
+
+    long firstSequence() {
+        return blocks.isEmpty() ? 0 : blocks.getFirst().firstSequence();
+    }
+
+    long endSequence() {
+        return blocks.isEmpty() ? 0 : blocks.getLast().endSequence();
+    }
+
+    int blockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * @return Uncompressed size of all lines (with one separator per line)
+     */
+    long rawBytes() {
+        return blocks.stream().mapToLong(block -> block.rawLength() + 1L).sum();
+    }
+
+    /**
+     * @return Size of the archive file on disk
+     */
+    long compressedBytes() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,433 @@
+package com.amalitech.bankaccount.services;
+
+import com.amalitech.bankaccount.utils.IO;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * On-disk per-account offset index over the transaction journal (archive segments + transactions.txt)
+ * <p>
+ * Each account maps to the global sequence numbers and byte offsets of its journal lines
+ * (for compressed archive segments the sequence number is enough to find the block).
+ * The sequence number alone tells which file holds the line (archive segments cover fixed
+ * sequence ranges, everything after them is in transactions.txt), so only offsets are stored.
+ * <p>
+ * Only a directory is kept in memory: for each account, where its offset lists sit in the
+ * index file. Loading the index at startup reads the file once but keeps no offset, so it
+ * costs memory per account (and per appended line of it) rather than per transaction; an
+ * account's offsets are read back from the file, with positional reads, when its history is
+ * faulted in. Positions recorded since the last write are held in memory until the next one.
+ * <p>
+ * The file is append-only: each save appends one line per account it touched followed by a
+ * commit line, so a save costs O(new transactions) rather than O(all transactions). Lines
+ * after the last commit (a save cut short) are ignored. The file is rewritten in full when it
+ * is created or rebuilt, after a failed append, or once appended lines outnumber the accounts
+ * enough that merging them makes faulting noticeably cheaper.
+ * <p>
+ * Format: a header line, account lines, and a commit line after the rewritten body and after
+ * every appended save
+ * #INDEX|persistedCount|journalBytes
+ * ACC001|0@0,3@174
+ * #COMMIT|persistedCount|journalBytes
+ * ACC001|7@402
+ * #COMMIT|persistedCount|journalBytes
+ */
+final class TransactionIndex {
+
+    static final String INDEX_FILE = "transactions.idx";
+    private static final String INDEX_HEADER = "#INDEX";
+    private static final String COMMIT_MARKER = "#COMMIT";
+    // Appended account lines allowed per indexed account before the file is rewritten merged
+    private static final int MAX_LINES_PER_ACCOUNT = 4;
+    private static final int LINE_SEPARATOR_BYTES = System.lineSeparator().getBytes(StandardCharsets.UTF_8).length;
+
+    /**
+     * Byte ranges of the index file holding one account's offset lists, oldest first
+     */
+    private static final class Spans {
+        // start, length pairs
+        private long[] values = new long[2];
+        private int size;
+
+        void add(long start, long length) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = start;
+            values[size++] = length;
+        }
+
+        void addAll(Spans other) {
+            for (int i = 0; i < other.size; i += 2) {
+                add(other.values[i], other.values[i + 1]);
+            }
+        }
+    }
+
+    // Where each account's committed offset lists sit in the index file
+    private Map<String, Spans> directory = new HashMap<>();
+    // Positions added since the index file was last written, written on the next write
+    private final Map<String, StringBuilder> unwritten = new LinkedHashMap<>();
+    // Index file the directory points into, null until the index is loaded or written
+    private Path file;
+    private long persistedCount;
+    private long journalBytes;
+    // Account lines in the index file, and whether the next write must rewrite it in full
+    private long fileLines;
+    private boolean rewrite = true;
+
+    /**
+     * Loads the index file, returning null when it is missing, malformed or out of date
+     * with the journal (e.g. the application stopped between writing the journal and the index)
+     */
+    static TransactionIndex load(Path indexPath, Path journalPath) {
+        if (!Files.exists(indexPath)) {
+            return null;
+        }
+
+        TransactionIndex index = new TransactionIndex();
+        index.file = indexPath;
+        try (BufferedReader reader = Files.newBufferedReader(indexPath)) {
+            String headerLine = reader.readLine();
+            String[] header = headerLine == null ? new String[0] : headerLine.split("\\|");
+            if (header.length < 3 || !INDEX_HEADER.equals(header[0])) {
+                return null;
+            }
+            index.persistedCount = Long.parseLong(header[1]);
+            index.journalBytes = Long.parseLong(header[2]);
+            long position = lineBytes(headerLine);
+
+            // Account lines only count once a commit line follows them
+            Map<String, Spans> uncommitted = new HashMap<>();
+            long uncommittedLines = 0;
+            boolean committed = false;
+            long committedCount = index.persistedCount;
+            long committedBytes = index.journalBytes;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(COMMIT_MARKER + "|")) {
+                    String[] commit = line.split("\\|");
+                    committedCount = Long.parseLong(commit[1]);
+                    committedBytes = Long.parseLong(commit[2]);
+                    uncommitted.forEach(index::merge);
+                    index.fileLines += uncommittedLines;
+                    uncommitted.clear();
+                    uncommittedLines = 0;
+                    committed = true;
+                } else {
+                    int separator = line.indexOf('|');
+                    if (separator > 0) {
+                        long offsetsStart = position + utf8Length(line.substring(0, separator + 1));
+                        uncommitted.computeIfAbsent(line.substring(0, separator), key -> new Spans())
+                            .add(offsetsStart, line.length() - separator - 1);
+                        uncommittedLines++;
+                    } else if (!line.isEmpty()) {
+                        uncommittedLines++;
+                    }
+                }
+                position += lineBytes(line);
+            }
+
+            if (!committed) {
+                // Written before commit lines existed, the header covers every line
+                uncommitted.forEach(index::merge);
+                index.fileLines = uncommittedLines;
+            }
+
+            long actualBytes = Files.exists(journalPath) ? Files.size(journalPath) : 0;
+            if (actualBytes != committedBytes) {
+                return null;
+            }
+            index.persistedCount = committedCount;
+            index.journalBytes = committedBytes;
+            // A save cut short left lines after the last commit, appending after them would corrupt the file
+            index.rewrite = !committed || uncommittedLines > 0;
+            return index;
+        } catch (IOException | RuntimeException e) {
+            IO.println("⚠ Warning: Could not read transaction index: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Rebuilds the index by scanning every journal file once. The positions are held in memory
+     * until the index is written
+     *
+     * @param sources Archive segments in sequence order followed by transactions.txt
+     *                (the size of the last source is recorded as the journal size)
+     */
+    static TransactionIndex rebuild(List<Path> sources) throws IOException {
+        TransactionIndex index = new TransactionIndex();
+        long sequence = 0;
+
+        for (Path source : sources) {
+            index.journalBytes = 0;
+            if (!Files.exists(source)) continue;
+
+            if (FilePersistenceService.isCompressedSegment(source)) {
+                // Compressed archives are addressed by sequence number, the offset is just the ordinal
+                long ordinal = 0;
+                try (Stream<String> lines = FilePersistenceService.journalLines(source)) {
+                    for (String line : (Iterable<String>) lines::iterator) {
+                        if (!line.isBlank()) {
+                            index.append(accountOf(line), sequence++, ordinal++);
+                        }
+                    }
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                continue;
+            }
+
+            long offset = 0;
+            try (BufferedReader reader = Files.newBufferedReader(source)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        index.append(accountOf(line), sequence++, offset);
+                    }
+                    offset += lineBytes(line);
+                }
+            }
+            index.journalBytes = offset;
+        }
+
+        index.persistedCount = sequence;
+        return index;
+    }
+
+    /**
+     * Records the position of one journal line
+     */
+    void append(String accountNumber, long sequence, long offset) {
+        StringBuilder offsets = unwritten.computeIfAbsent(accountNumber, key -> new StringBuilder());
+        if (!offsets.isEmpty()) {
+            offsets.append(',');
+        }
+        offsets.append(sequence).append('@').append(offset);
+    }
+
+    private void merge(String accountNumber, Spans spans) {
+        Spans existing = directory.get(accountNumber);
+        if (existing == null) {
+            directory.put(accountNumber, spans);
+        } else {
+            existing.addAll(spans);
+        }
+    }
+
+    /**
+     * Reads the positions recorded for an account from the index file, followed by the ones
+     * not written yet
+     *
+     * @return Pairs of {sequence, byteOffset}, oldest first
+     */
+    List<long[]> locate(String accountNumber) throws IOException {
+        List<long[]> positions = new ArrayList<>();
+        Spans spans = directory.get(accountNumber);
+        if (spans != null) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                parsePositions(readSpans(channel, spans), positions);
+            }
+        }
+        StringBuilder offsets = unwritten.get(accountNumber);
+        if (offsets != null) {
+            parsePositions(offsets, positions);
+        }
+        return positions;
+    }
+
+    private static void parsePositions(CharSequence offsets, List<long[]> positions) {
+        int start = 0;
+        while (start < offsets.length()) {
+            int comma = start;
+            int at = -1;
+            while (comma < offsets.length() && offsets.charAt(comma) != ',') {
+                if (offsets.charAt(comma) == '@') {
+                    at = comma;
+                }
+                comma++;
+            }
+            if (at > start) {
+                positions.add(new long[]{
+                    Long.parseLong(offsets, start, at, 10),
+                    Long.parseLong(offsets, at + 1, comma, 10)
+                });
+            }
+            start = comma + 1;
+        }
+    }
+
+    /**
+     * @return The account's committed offset lists joined by commas
+     */
+    private static StringBuilder readSpans(FileChannel channel, Spans spans) throws IOException {
+        StringBuilder offsets = new StringBuilder();
+        for (int i = 0; i < spans.size; i += 2) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) spans.values[i + 1]);
+            long position = spans.values[i];
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Transaction index ends inside an offset list");
+                }
+            }
+            if (!offsets.isEmpty()) {
+                offsets.append(',');
+            }
+            // Offset lists are ASCII digits, '@' and ','
+            offsets.append(new String(buffer.array(), StandardCharsets.US_ASCII));
+        }
+        return offsets;
+    }
+
+    /**
+     * Writes the index next to the journal: appends the positions added since the last write
+     * and a commit line, or rewrites the whole file (temporary file + atomic move) when needed
+     */
+    void write(Path indexPath) throws IOException {
+        if (rewrite || !indexPath.equals(file) || !Files.exists(indexPath)
+                || fileLines + unwritten.size() > (long) MAX_LINES_PER_ACCOUNT * Math.max(directory.size(), 16)) {
+            rewrite(indexPath);
+            return;
+        }
+        long position = Files.size(indexPath);
+        Map<String, Spans> written = new HashMap<>();
+        try (BufferedWriter writer = Files.newBufferedWriter(indexPath, StandardOpenOption.APPEND)) {
+            for (Map.Entry<String, StringBuilder> entry : unwritten.entrySet()) {
+                position = writeEntry(writer, position, entry.getKey(), entry.getValue(), written);
+            }
+            writeCommit(writer);
+        } catch (IOException e) {
+            // The file may now end in a partial line, so the next write starts over
+            rewrite = true;
+            throw e;
+        }
+        written.forEach(this::merge);
+        fileLines += unwritten.size();
+        unwritten.clear();
+    }
+
+    /**
+     * Writes every account's offsets, read back from the current file and merged with the
+     * unwritten ones, one line per account
+     */
+    private void rewrite(Path indexPath) throws IOException {
+        Path temp = indexPath.resolveSibling(INDEX_FILE + ".tmp");
+        Map<String, Spans> rewritten = new HashMap<>();
+        try (BufferedWriter writer = Files.newBufferedWriter(temp);
+             FileChannel current = directory.isEmpty() ? null : FileChannel.open(file, StandardOpenOption.READ)) {
+            String header = INDEX_HEADER + "|" + persistedCount + "|" + journalBytes;
+            writer.write(header);
+            writer.newLine();
+            long position = lineBytes(header);
+            for (Map.Entry<String, Spans> entry : directory.entrySet()) {
+                StringBuilder offsets = readSpans(current, entry.getValue());
+                StringBuilder added = unwritten.get(entry.getKey());
+                if (added != null) {
+                    offsets.append(',').append(added);
+                }
+                position = writeEntry(writer, position, entry.getKey(), offsets, rewritten);
+            }
+            for (Map.Entry<String, StringBuilder> entry : unwritten.entrySet()) {
+                if (!directory.containsKey(entry.getKey())) {
+                    position = writeEntry(writer, position, entry.getKey(), entry.getValue(), rewritten);
+                }
+            }
+            writeCommit(writer);
+        }
+        Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        file = indexPath;
+        directory = rewritten;
+        fileLines = rewritten.size();
+        unwritten.clear();
+        rewrite = false;
+    }
+
+    private void writeCommit(BufferedWriter writer) throws IOException {
+        writer.write(COMMIT_MARKER + "|" + persistedCount + "|" + journalBytes);
+        writer.newLine();
+    }
+
+    /**
+     * Writes one account line starting at the given file position and records where its
+     * offsets went
+     * @return File position after the line
+     */
+    private static long writeEntry(BufferedWriter writer, long position, String accountNumber, StringBuilder offsets,
+                                   Map<String, Spans> spans) throws IOException {
+        writer.write(accountNumber);
+        writer.write('|');
+        writer.append(offsets);
+        writer.newLine();
+        long offsetsStart = position + utf8Length(accountNumber) + 1;
+        spans.computeIfAbsent(accountNumber, key -> new Spans()).add(offsetsStart, offsets.length());
+        return offsetsStart + offsets.length() + LINE_SEPARATOR_BYTES;
+    }
+
+    private static int utf8Length(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Reads the journal line starting at the given byte offset using positional reads,
+     * so one channel can serve many lookups without seeking back and forth
+     */
+    static String readLineAt(FileChannel channel, long offset) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        long position = offset;
+
+        while (channel.read(buffer.clear(), position) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n' || b == '\r') {
+                    return line.toString(StandardCharsets.UTF_8);
+                }
+                line.write(b);
+            }
+            position += buffer.limit();
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    static long lineBytes(String line) {
+        return line.getBytes(StandardCharsets.UTF_8).length + LINE_SEPARATOR_BYTES;
+    }
+
+    static String accountOf(String journalLine) {
+        int first = journalLine.indexOf('|');
+        int second = journalLine.indexOf('|', first + 1);
+        return first < 0 || second < 0 ? "" : journalLine.substring(first + 1, second);
+    }
+
+    long getPersistedCount() {
+        return persistedCount;
+    }
+
+    void setPersistedCount(long persistedCount) {
+        this.persistedCount = persistedCount;
+    }
+
+    void setJournalBytes(long journalBytes) {
+        this.journalBytes = journalBytes;
+    }
+}
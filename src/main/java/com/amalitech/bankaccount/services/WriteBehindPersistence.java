@@ -0,0 +1,308 @@
+package com.amalitech.bankaccount.services;
+
+import com.amalitech.bankaccount.utils.IO;
+
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind persistence for the transaction journal
+ * <p>
+ * Once attached to a TransactionManager, a single background writer reads the transactions
+ * it records by index, in the same order as getTransactions(), and appends them to
+ * transactions.txt in batches (through an AsynchronousFileChannel, see
+ * FilePersistenceService.appendJournalBatch). The in-memory transaction log is the queue,
+ * so recording takes no lock shared with the writer, and the writer parks while it is
+ * caught up.
+ * <p>
+ * The backlog is bounded: once more than maxPending recorded transactions are waiting to be
+ * written, recording threads park before appending until the writer has brought the backlog
+ * back under the bound (backpressure). Without it a slow disk would let unwritten
+ * transactions, and the loss on a crash, grow without limit. Recorders are never held back
+ * by a writer that failed or stopped.
+ * <p>
+ * flush() queues a barrier at the current end of the log that completes once everything
+ * before it is on disk; saves and the exit path await it. If the writer fails it stops
+ * writing and the next synchronous save appends whatever it could not.
+ */
+public class WriteBehindPersistence implements AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 512;
+    public static final int DEFAULT_MAX_PENDING = 4096;
+    // Longest park while caught up; flush() unparks the writer sooner
+    private static final long IDLE_PARK_MILLIS = 50;
+
+    /**
+     * Completed by the writer once the transactions before end are written
+     */
+    private record Barrier(int end, CompletableFuture<Void> done, boolean stop) {}
+
+    private final FilePersistenceService persistenceService;
+    private final int batchSize;
+    private final int maxPending;
+    private final Queue<Barrier> barriers = new ConcurrentLinkedQueue<>();
+    private final AtomicLong writtenCount = new AtomicLong();
+    // Recording threads parked on a full backlog, unparked by the writer as it drains
+    private final Queue<Thread> stalled = new ConcurrentLinkedQueue<>();
+    private final LongAdder backpressureStalls = new LongAdder();
+
+    private volatile TransactionManager transactionManager;
+    private volatile Thread writer;
+    private volatile IOException failure;
+    // Index in getTransactions() of the next transaction to write, advanced by the writer only
+    private volatile int nextIndex;
+    // Set once the writer thread has returned, so nobody waits for it any more
+    private volatile boolean stopped;
+
+    // Writer thread only
+    private final List<Transaction> batch;
+    private long nextSequence;
+
+    /**
+     * Constructor for the write-behind writer, with a backlog of at most DEFAULT_MAX_PENDING
+     * @param persistenceService Persistence service owning the journal
+     * @param batchSize Maximum number of transactions appended to the journal at once
+     */
+    public WriteBehindPersistence(FilePersistenceService persistenceService, int batchSize) {
+        this(persistenceService, batchSize, DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * Constructor for the write-behind writer
+     * @param persistenceService Persistence service owning the journal
+     * @param batchSize Maximum number of transactions appended to the journal at once
+     * @param maxPending Unwritten transactions beyond which recording threads wait for the writer
+     */
+    public WriteBehindPersistence(FilePersistenceService persistenceService, int batchSize, int maxPending) {
+        if (batchSize < 1 || maxPending < 1) {
+            throw new IllegalArgumentException("Batch size and backlog bound must be positive");
+        }
+        this.persistenceService = persistenceService;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    /**
+     * Starts the background writer on the transaction manager's log. In-memory transactions
+     * that are not persisted yet are written first, then every new one, in the same order as
+     * the manager's transaction list. Recording on the manager waits while the backlog is
+     * over its bound.
+     *
+     * @param transactionManager Transaction manager whose new transactions are written behind
+     */
+    public synchronized void attach(TransactionManager transactionManager) {
+        if (writer != null) {
+            return;
+        }
+        this.transactionManager = transactionManager;
+
+        long historyOffset = transactionManager.getHistoryOffset();
+        long persisted = persistenceService.getPersistedTransactionCount();
+        int firstUnsaved = Math.clamp(persisted - historyOffset, 0, transactionManager.getTransactions().size());
+
+        nextIndex = firstUnsaved;
+        nextSequence = historyOffset + firstUnsaved;
+        stopped = false;
+        Thread thread = new Thread(this::runWriter, "write-behind-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+        transactionManager.setBackpressure(this::awaitCapacity);
+    }
+
+    /**
+     * Queues a barrier behind everything recorded so far
+     *
+     * @return Future completing when all earlier transactions are written and the
+     *         journal is forced to disk (exceptionally if the writer failed)
+     */
+    public CompletableFuture<Void> flush() {
+        return submitBarrier(false);
+    }
+
+    /**
+     * Flushes and stops the writer. Transactions recorded afterwards are left to the
+     * synchronous save.
+     */
+    @Override
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        transactionManager.setBackpressure(null);
+        submitBarrier(true).exceptionally(e -> null).join();
+        persistenceService.closeJournalChannel();
+        writer = null;
+    }
+
+    private CompletableFuture<Void> submitBarrier(boolean stop) {
+        Thread thread = writer;
+        if (thread == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Barrier barrier = new Barrier(transactionManager.getTransactions().size(), new CompletableFuture<>(), stop);
+        barriers.add(barrier);
+        LockSupport.unpark(thread);
+        return barrier.done();
+    }
+
+    // ==================== BACKPRESSURE ====================
+
+    /**
+     * Run by recording threads before they append: parks while the backlog is over its bound
+     * and the writer is still writing
+     */
+    private void awaitCapacity() {
+        if (!backlogFull()) {
+            return;
+        }
+        backpressureStalls.increment();
+        Thread current = Thread.currentThread();
+        while (backlogFull()) {
+            stalled.add(current);
+            // Registered before re-checking, so the writer either sees this thread or it sees the drained backlog
+            if (backlogFull()) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(IDLE_PARK_MILLIS));
+            }
+            stalled.remove(current);
+        }
+    }
+
+    private boolean backlogFull() {
+        return failure == null && !stopped && getPendingCount() > maxPending;
+    }
+
+    private void releaseStalled() {
+        Thread thread;
+        while ((thread = stalled.poll()) != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    // ==================== WRITER THREAD ====================
+
+    private void runWriter() {
+        try {
+            writeUntilStopped();
+        } finally {
+            stopped = true;
+            releaseStalled();
+        }
+    }
+
+    private void writeUntilStopped() {
+        while (true) {
+            List<Transaction> recorded = transactionManager.getTransactions();
+            while (failure == null && nextIndex < recorded.size()) {
+                int end = Math.min(recorded.size(), nextIndex + batchSize);
+                batch.addAll(recorded.subList(nextIndex, end));
+                writeBatch(end);
+                if (!stalled.isEmpty() && !backlogFull()) {
+                    releaseStalled();
+                }
+            }
+            if (completeBarriers()) {
+                return;
+            }
+            if (failure == null) {
+                transactionManager.awaitTransactions(nextIndex, IDLE_PARK_MILLIS, TimeUnit.MILLISECONDS);
+            } else {
+                // Nothing more is written, only barriers are answered
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(IDLE_PARK_MILLIS));
+            }
+        }
+    }
+
+    private void writeBatch(int end) {
+        try {
+            persistenceService.appendJournalBatch(batch, nextSequence);
+            nextSequence += batch.size();
+            writtenCount.addAndGet(batch.size());
+            nextIndex = end;
+        } catch (IOException e) {
+            failure = e;
+            releaseStalled();
+            IO.println("❌ Write-behind journal failed: " + e.getMessage() + ". Falling back to synchronous saves.");
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Completes the barriers the writer has caught up with (all of them once it failed)
+     * @return true if one of them stops the writer
+     */
+    private boolean completeBarriers() {
+        boolean stop = false;
+        Barrier barrier;
+        while ((barrier = barriers.peek()) != null && (failure != null || barrier.end() <= nextIndex)) {
+            barriers.poll();
+            completeBarrier(barrier);
+            stop |= barrier.stop();
+        }
+        return stop;
+    }
+
+    private void completeBarrier(Barrier barrier) {
+        if (failure == null) {
+            try {
+                persistenceService.syncJournal();
+            } catch (IOException e) {
+                failure = e;
+                releaseStalled();
+            }
+        }
+
+        if (failure == null) {
+            barrier.done().complete(null);
+        } else {
+            barrier.done().completeExceptionally(failure);
+        }
+    }
+
+    // ==================== STATISTICS ====================
+
+    /**
+     * @return Number of transactions appended by the background writer
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * @return Number of recorded transactions the writer has not written yet
+     */
+    public int getPendingCount() {
+        TransactionManager manager = transactionManager;
+        return writer == null || manager == null ? 0 : Math.max(0, manager.getTransactions().size() - nextIndex);
+    }
+
+    /**
+     * @return Number of times a recording thread waited for the writer because the backlog
+     *         was over its bound
+     */
+    public long getBackpressureStalls() {
+        return backpressureStalls.sum();
+    }
+
+    /**
+     * @return true if the writer stopped after an I/O error
+     */
+    public boolean hasFailed() {
+        return failure != null;
+    }
+}
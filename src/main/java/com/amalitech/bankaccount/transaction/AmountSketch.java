@@ -0,0 +1,136 @@
+package com.amalitech.bankaccount.transaction;
+
+import com.amalitech.bankaccount.metrics.LogLinearBuckets;
+
+/**
+ * Mergeable log-linear histogram of transaction amounts (HDR-style): amounts are counted in
+ * cents over the same LogLinearBuckets layout as LatencyRecorder, below 64 cents exactly,
+ * above that every power of two is split into 32 linear sub-buckets, so percentiles are within
+ * ~3%. Count, sum, min and max are exact.
+ * <p>
+ * Bucket arrays are allocated per power of two on first use, so a sketch that has only seen
+ * amounts of a similar size (typical for one account) stays a few hundred bytes.
+ * Not thread-safe: callers confine or lock each sketch and read merged copies
+ */
+public final class AmountSketch {
+
+    private static final LogLinearBuckets LAYOUT = new LogLinearBuckets(5);
+    // The buckets of one power of two (and the exact ones, two runs) form a page
+    private static final int PAGE_BITS = LAYOUT.subBucketBits();
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGES = LAYOUT.count() >>> PAGE_BITS;
+
+    private final long[][] pages = new long[PAGES][];
+    private long count;
+    private double sum;
+    private long minCents = Long.MAX_VALUE;
+    private long maxCents;
+
+    /**
+     * @param amount Amount in dollars, negative amounts count as 0
+     */
+    public void record(double amount) {
+        long cents = Math.max(0, Math.round(amount * 100));
+        int bucket = LAYOUT.index(cents);
+        long[] page = pages[bucket >>> PAGE_BITS];
+        if (page == null) {
+            page = pages[bucket >>> PAGE_BITS] = new long[PAGE_SIZE];
+        }
+        page[bucket & (PAGE_SIZE - 1)]++;
+        count++;
+        sum += amount;
+        minCents = Math.min(minCents, cents);
+        maxCents = Math.max(maxCents, cents);
+    }
+
+    /**
+     * Adds another sketch's amounts to this one
+     * @param other Sketch that is not being written to
+     */
+    public void merge(AmountSketch other) {
+        for (int p = 0; p < PAGES; p++) {
+            if (other.pages[p] == null) continue;
+            if (pages[p] == null) {
+                pages[p] = other.pages[p].clone();
+                continue;
+            }
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                pages[p][i] += other.pages[p][i];
+            }
+        }
+        count += other.count;
+        sum += other.sum;
+        minCents = Math.min(minCents, other.minCents);
+        maxCents = Math.max(maxCents, other.maxCents);
+    }
+
+    /**
+     * @return An independent copy of this sketch
+     */
+    public AmountSketch copy() {
+        AmountSketch copy = new AmountSketch();
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * @return Number of recorded amounts
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Sum of the recorded amounts
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return Average amount, 0 if nothing was recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * @return Smallest recorded amount, 0 if nothing was recorded
+     */
+    public double getMin() {
+        return count == 0 ? 0 : minCents / 100.0;
+    }
+
+    /**
+     * @return Largest recorded amount, 0 if nothing was recorded
+     */
+    public double getMax() {
+        return maxCents / 100.0;
+    }
+
+    /**
+     * @param quantile Between 0 and 1, e.g. 0.99
+     * @return Upper bound of the bucket holding the quantile (kept within min and max), 0 if empty
+     */
+    public double quantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = LogLinearBuckets.rank(quantile, count);
+        long seen = 0;
+        for (int p = 0; p < PAGES; p++) {
+            if (pages[p] == null) continue;
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                seen += pages[p][i];
+                if (seen >= rank) {
+                    return bounded(LAYOUT.upperBound((p << PAGE_BITS) + i));
+                }
+            }
+        }
+        return getMax();
+    }
+
+    private double bounded(long upperCents) {
+        return Math.max(minCents, Math.min(upperCents, maxCents)) / 100.0;
+    }
+}
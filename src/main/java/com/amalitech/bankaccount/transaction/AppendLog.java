@@ -0,0 +1,264 @@
+package com.amalitech.bankaccount.transaction;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Concurrent append-only log, the in-memory transaction journal.
+ * <p>
+ * Elements live in chunks that double in size (1024, 2048, ...) and are never moved, so
+ * appending never copies. An append makes sure the chunks it needs exist, claims its slots
+ * with one compare-and-set and fills them; nothing after the claim can fail, so a claimed slot
+ * is always filled. The published length then moves over the filled slots in order, so it
+ * always covers a gap-free prefix. Readers only read the published length and the slots below
+ * it, which never change again, so snapshot() is O(1) and snapshots iterate safely while
+ * appends continue.
+ * <p>
+ * Publishing is combined: whichever appender gets the publishing flag moves the published
+ * length over every filled slot, its own and the other appenders', then unparks the threads
+ * waiting for it. Nothing else runs under the flag. An appender returns once its own slot is
+ * published, spinning briefly and then parking, so by then its element is visible to readers.
+ * Consumers such as the write-behind writer read the published slots by index and park in
+ * awaitSize() until there are more. An appender descheduled between claiming and filling its
+ * slot holds back the slots after it until it runs again.
+ */
+final class AppendLog<T> {
+
+    private static final int FIRST_CHUNK_BITS = 10;
+    // Chunk k holds 1024 << k slots; 21 chunks hold just under 2^31 elements
+    private static final int CHUNKS = 31 - FIRST_CHUNK_BITS;
+    private static final int CAPACITY = ((1 << CHUNKS) - 1) << FIRST_CHUNK_BITS;
+    // Spinning only helps when the thread being waited for runs on another core
+    private static final int SPINS_BEFORE_PARK = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    /**
+     * A parked thread and the published length it waits for
+     */
+    private record Waiter(Thread thread, int end) {}
+
+    private final AtomicReferenceArray<Object[]> chunks = new AtomicReferenceArray<>(CHUNKS);
+    private final AtomicInteger claimed = new AtomicInteger();
+    private final AtomicInteger published = new AtomicInteger();
+    private final AtomicBoolean publishing = new AtomicBoolean();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    // ==================== APPENDING ====================
+
+    /**
+     * @param element Element to append, not null
+     * @return Its index
+     * @throws NullPointerException if the element is null
+     */
+    int append(T element) {
+        Objects.requireNonNull(element, "element");
+        int index = claim(1);
+        fill(index, element);
+        publishFilled();
+        awaitPublished(index + 1);
+        return index;
+    }
+
+    /**
+     * Appends a batch into consecutive slots claimed with a single compare-and-set
+     * @param batch Elements to append, in order, none null
+     * @return Index of the first one
+     * @throws NullPointerException if the batch holds a null (nothing is appended)
+     */
+    int appendAll(List<? extends T> batch) {
+        // Copied and checked before claiming, so the claimed slots are certain to be filled
+        Object[] elements = batch.toArray();
+        for (Object element : elements) {
+            Objects.requireNonNull(element, "batch element");
+        }
+        if (elements.length == 0) {
+            return size();
+        }
+        int first = claim(elements.length);
+        for (int i = 0; i < elements.length; i++) {
+            SLOTS.setVolatile(chunks.get(chunkIndex(first + i)), offset(first + i), elements[i]);
+        }
+        publishFilled();
+        awaitPublished(first + elements.length);
+        return first;
+    }
+
+    /**
+     * Claims count slots, allocating their chunks first: an allocation failure leaves nothing claimed
+     */
+    private int claim(int count) {
+        while (true) {
+            int first = claimed.get();
+            if (first > CAPACITY - count) {
+                throw new IllegalStateException("Append log is full");
+            }
+            for (int chunk = chunkIndex(first); chunk <= chunkIndex(first + count - 1); chunk++) {
+                if (chunks.get(chunk) == null) {
+                    chunks.compareAndSet(chunk, null, new Object[1 << (FIRST_CHUNK_BITS + chunk)]);
+                }
+            }
+            if (claimed.compareAndSet(first, first + count)) {
+                return first;
+            }
+        }
+    }
+
+    private void fill(int index, T element) {
+        // Volatile, so a publisher releasing the flag sees it (see publishFilled)
+        SLOTS.setVolatile(chunks.get(chunkIndex(index)), offset(index), element);
+    }
+
+    private void awaitPublished(int end) {
+        for (int spins = 0; spins < SPINS_BEFORE_PARK; spins++) {
+            if (published.get() >= end) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        park(end, -1);
+    }
+
+    /**
+     * Moves the published length over the filled slots, unless another thread holds the flag.
+     * A slot filled while another thread held the flag is either seen by that thread when it
+     * re-checks after letting go, or this thread gets the flag, so no filled slot is stranded
+     */
+    private void publishFilled() {
+        while (publishing.compareAndSet(false, true)) {
+            int next;
+            try {
+                next = published.get();
+                int end = claimed.get();
+                while (next < end && filled(next) != null) {
+                    next++;
+                }
+                published.set(next);
+            } finally {
+                publishing.set(false);
+            }
+            wakeWaiters(next);
+            if (next >= claimed.get() || filled(next) == null) {
+                return;
+            }
+        }
+    }
+
+    private Object filled(int index) {
+        return SLOTS.getVolatile(chunks.get(chunkIndex(index)), offset(index));
+    }
+
+    // ==================== WAITING ====================
+
+    /**
+     * Waits until the published length is above a given length, e.g. for a consumer that
+     * reads the log by index
+     * @param size Length to wait past
+     * @param timeoutNanos Longest wait
+     * @return Published length, still size or less if the wait timed out or the thread was unparked
+     */
+    int awaitSize(int size, long timeoutNanos) {
+        if (published.get() <= size) {
+            park(size + 1, Math.max(1, timeoutNanos));
+        }
+        return published.get();
+    }
+
+    /**
+     * Parks until the published length reaches end
+     * @param timeoutNanos Longest wait (a single park), negative to wait as long as it takes
+     */
+    private void park(int end, long timeoutNanos) {
+        Waiter waiter = new Waiter(Thread.currentThread(), end);
+        waiters.add(waiter);
+        try {
+            // Registered before re-checking, so a publisher either sees the waiter or this thread sees its length
+            while (published.get() < end) {
+                if (timeoutNanos < 0) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, timeoutNanos);
+                    return;
+                }
+            }
+        } finally {
+            waiters.remove(waiter);
+        }
+    }
+
+    private void wakeWaiters(int length) {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        for (Waiter waiter : waiters) {
+            if (waiter.end() <= length) {
+                LockSupport.unpark(waiter.thread());
+            }
+        }
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * @return Published length
+     */
+    int size() {
+        return published.get();
+    }
+
+    /**
+     * @param index Below a published length that was read before
+     * @return Element at the index
+     */
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        return (T) chunks.get(chunkIndex(index))[offset(index)];
+    }
+
+    /**
+     * @return Immutable view of the elements published so far, backed by the log (no copy)
+     */
+    List<T> snapshot() {
+        return new Snapshot(size());
+    }
+
+    private final class Snapshot extends AbstractList<T> implements RandomAccess {
+        private final int size;
+
+        Snapshot(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            return AppendLog.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // ==================== CHUNKS ====================
+
+    private static int chunkIndex(int index) {
+        return 31 - Integer.numberOfLeadingZeros((index >>> FIRST_CHUNK_BITS) + 1);
+    }
+
+    private static int offset(int index) {
+        return index - (((1 << chunkIndex(index)) - 1) << FIRST_CHUNK_BITS);
+    }
+}
@@ -0,0 +1,58 @@
+package com.amalitech.bankaccount.transaction;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+/**
+ * Walks the keys of a concurrent map a few at a time, so the idle entries of per-account state
+ * are dropped by the threads that record into it without any of them paying for a pass over
+ * the whole map.
+ * <p>
+ * Each step visits at most keysPerStep keys, continuing where the previous step stopped and
+ * starting over at the end of the map. Only one thread steps at a time: the others skip
+ * instead of waiting. Since every step visits at least as many keys as one caller can add,
+ * idle entries are dropped within one pass over the map
+ */
+final class IncrementalSweep<K, V> {
+
+    private final ConcurrentMap<K, V> map;
+    private final int keysPerStep;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    // Guarded by sweeping; the map's iterators tolerate concurrent changes
+    private Iterator<K> cursor;
+
+    /**
+     * @param map Map to sweep
+     * @param keysPerStep Keys visited by one step
+     */
+    IncrementalSweep(ConcurrentMap<K, V> map, int keysPerStep) {
+        this.map = map;
+        this.keysPerStep = keysPerStep;
+    }
+
+    /**
+     * Visits the next keys, unless another thread is stepping
+     * @param keep Called through computeIfPresent for each key: returns the value to keep it,
+     *             null to drop it
+     */
+    void step(BiFunction<? super K, ? super V, ? extends V> keep) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (int i = 0; i < keysPerStep; i++) {
+                if (cursor == null || !cursor.hasNext()) {
+                    cursor = map.keySet().iterator();
+                    if (!cursor.hasNext()) {
+                        return;
+                    }
+                }
+                map.computeIfPresent(cursor.next(), keep);
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
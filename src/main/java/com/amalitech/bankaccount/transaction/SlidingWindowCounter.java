@@ -0,0 +1,91 @@
+package com.amalitech.bankaccount.transaction;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer of time buckets holding a count and an amount each. A bucket is reused once
+ * its slot comes round again, so memory is fixed; adding is O(1) and reading a window is
+ * O(buckets). A window is resolved to whole buckets, so it is accurate to one bucket width.
+ * Not thread-safe: callers lock or confine each counter
+ */
+public final class SlidingWindowCounter {
+
+    /**
+     * Number and total amount of the transactions in a window
+     */
+    public record WindowTotals(long count, double amount) {
+
+        public static final WindowTotals EMPTY = new WindowTotals(0, 0);
+
+        /**
+         * @param other
+         * @return Totals of both windows
+         */
+        public WindowTotals plus(WindowTotals other) {
+            return new WindowTotals(count + other.count, amount + other.amount);
+        }
+    }
+
+    private final long bucketMillis;
+    // Bucket number (time / bucketMillis) each slot currently holds, -1 when unused
+    private final long[] epochs;
+    private final long[] counts;
+    private final double[] amounts;
+
+    /**
+     * @param bucketMillis Width of one bucket
+     * @param buckets Number of buckets, the longest readable window is bucketMillis * buckets
+     */
+    public SlidingWindowCounter(long bucketMillis, int buckets) {
+        if (bucketMillis <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("Bucket width and count must be positive");
+        }
+        this.bucketMillis = bucketMillis;
+        this.epochs = new long[buckets];
+        this.counts = new long[buckets];
+        this.amounts = new double[buckets];
+        Arrays.fill(epochs, -1);
+    }
+
+    /**
+     * @param nowMillis Current time
+     * @param amount Amount to add to the current bucket
+     */
+    public void add(long nowMillis, double amount) {
+        long epoch = nowMillis / bucketMillis;
+        int slot = (int) (epoch % epochs.length);
+        if (epochs[slot] != epoch) {
+            epochs[slot] = epoch;
+            counts[slot] = 0;
+            amounts[slot] = 0;
+        }
+        counts[slot]++;
+        amounts[slot] += amount;
+    }
+
+    /**
+     * @param nowMillis Current time
+     * @param windowMillis Window length, at most getSpanMillis()
+     * @return Totals of the buckets in the window ending now (the current bucket included)
+     */
+    public WindowTotals totals(long nowMillis, long windowMillis) {
+        long now = nowMillis / bucketMillis;
+        long oldest = now - Math.min(epochs.length, Math.max(1, (windowMillis + bucketMillis - 1) / bucketMillis)) + 1;
+        long count = 0;
+        double amount = 0;
+        for (int slot = 0; slot < epochs.length; slot++) {
+            if (epochs[slot] >= oldest && epochs[slot] <= now) {
+                count += counts[slot];
+                amount += amounts[slot];
+            }
+        }
+        return count == 0 ? WindowTotals.EMPTY : new WindowTotals(count, amount);
+    }
+
+    /**
+     * @return Longest window this counter can answer
+     */
+    public long getSpanMillis() {
+        return bucketMillis * epochs.length;
+    }
+}
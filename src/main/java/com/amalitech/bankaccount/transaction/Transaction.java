@@ -6,6 +6,9 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class Transaction{
+    // Formatters are immutable and thread-safe, so one instance serves every transaction
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss a");
+
     private int transactionCounter;
     private String transactionId;
     private String accountNumber;
@@ -37,6 +40,31 @@ public class Transaction{
         generateTimeStamp();
     }
 
+    /**
+     * Rehydrates a persisted transaction with its stored id and timestamp
+     * (nothing is regenerated)
+     * @param transactionId
+     * @param accNumber
+     * @param type
+     * @param amt
+     * @param balAfter
+     * @param timestamp
+     * @param transferToOrFrom Transfer direction, null if not a transfer
+     * @return Restored transaction
+     */
+    public static Transaction restore(String transactionId, String accNumber, String type, double amt, double balAfter,
+                                      String timestamp, TransferToOrFromType transferToOrFrom){
+        Transaction transaction = new Transaction();
+        transaction.transactionId = transactionId;
+        transaction.accountNumber = accNumber;
+        transaction.type = type;
+        transaction.amount = amt;
+        transaction.balanceAfter = balAfter;
+        transaction.timestamp = timestamp;
+        transaction.transferToOrFrom = transferToOrFrom;
+        return transaction;
+    }
+
     /**
      * For generating and assigning transaction id
      * @param counter
@@ -49,9 +77,7 @@ public class Transaction{
      * For generating timestamp
      */
     private void generateTimeStamp(){
-        LocalDateTime now = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss a");
-        timestamp = now.format(formatter);
+        timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
     }
 
     /**
@@ -59,8 +85,7 @@ public class Transaction{
      * @return LocalDateTime
      */
     public LocalDateTime parseTimeStamp(){
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss a");
-        return LocalDateTime.parse(timestamp, formatter);
+        return LocalDateTime.parse(timestamp, TIMESTAMP_FORMAT);
     }
 
 
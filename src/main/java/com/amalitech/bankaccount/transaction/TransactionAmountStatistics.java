@@ -0,0 +1,140 @@
+package com.amalitech.bankaccount.transaction;
+
+import com.amalitech.bankaccount.enums.TransactionType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming amount statistics (count, sum, min, max and percentiles) per TransactionType and
+ * per account, updated as transactions are recorded so summaries never rescan the transactions.
+ * <p>
+ * The per-type sketches are the hot keys every recording thread hits, so they are striped:
+ * each thread writes the stripe picked by its thread id and readers merge the stripes.
+ * Per-account sketches are not striped (a thread per account would multiply their memory);
+ * they are locked individually, and concurrent writes to one account are already serialised
+ * by the account's own lock
+ */
+public final class TransactionAmountStatistics {
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    /**
+     * One sketch per transaction type plus one for amounts of any other type
+     */
+    private static final class Stripe {
+        final AmountSketch[] byType = new AmountSketch[TYPES.length + 1];
+
+        Stripe() {
+            for (int i = 0; i < byType.length; i++) {
+                byType[i] = new AmountSketch();
+            }
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final Map<String, AmountSketch> byAccount = new ConcurrentHashMap<>();
+
+    TransactionAmountStatistics() {
+        // Power of two of at least twice the processors, so threads rarely share a stripe
+        int size = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())) << 1;
+        stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    // ==================== RECORDING ====================
+
+    void record(Transaction transaction) {
+        double amount = transaction.getAmount();
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & (stripes.length - 1)];
+        synchronized (stripe) {
+            stripe.byType[typeIndex(transaction.getType())].record(amount);
+        }
+        if (transaction.getAccountNumber() != null) {
+            AmountSketch account = byAccount.computeIfAbsent(transaction.getAccountNumber(), k -> new AmountSketch());
+            synchronized (account) {
+                account.record(amount);
+            }
+        }
+    }
+
+    private static int typeIndex(String type) {
+        TransactionType known = TransactionType.fromDescription(type);
+        return known != null ? known.ordinal() : TYPES.length;
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * @return Amounts of every transaction, merged from the stripes
+     */
+    public AmountSketch overall() {
+        AmountSketch merged = new AmountSketch();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (AmountSketch sketch : stripe.byType) {
+                    merged.merge(sketch);
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @param type null for any other type
+     * @return Amounts of the transactions of one type, merged from the stripes
+     */
+    public AmountSketch byType(TransactionType type) {
+        int slot = type != null ? type.ordinal() : TYPES.length;
+        AmountSketch merged = new AmountSketch();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                merged.merge(stripe.byType[slot]);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @return Amounts per transaction type, every type present (other types in byType(null))
+     */
+    public Map<TransactionType, AmountSketch> byType() {
+        Map<TransactionType, AmountSketch> result = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TYPES) {
+            result.put(type, byType(type));
+        }
+        return result;
+    }
+
+    /**
+     * @return Count, sum, min and max overall and per type, read from the sketches without a scan
+     */
+    public TransactionSummary summary() {
+        TransactionSummary summary = new TransactionSummary();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (int i = 0; i < stripe.byType.length; i++) {
+                    summary.include(i < TYPES.length ? TYPES[i] : null, stripe.byType[i]);
+                }
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * @param accountNumber
+     * @return Copy of the account's amounts, empty if it has no recorded transactions
+     */
+    public AmountSketch forAccount(String accountNumber) {
+        AmountSketch sketch = byAccount.get(accountNumber);
+        if (sketch == null) {
+            return new AmountSketch();
+        }
+        synchronized (sketch) {
+            return sketch.copy();
+        }
+    }
+}
@@ -6,34 +6,336 @@ import com.amalitech.bankaccount.utils.IO;
 import com.amalitech.bankaccount.account.Account;
 import com.amalitech.bankaccount.enums.TransactionType;
 import com.amalitech.bankaccount.enums.TransferToOrFromType;
-
+import com.amalitech.bankaccount.interfaces.TransactionHistorySource;
+import com.amalitech.bankaccount.metrics.BankMetrics;
+import com.amalitech.bankaccount.metrics.Counter;
+import com.amalitech.bankaccount.metrics.LatencyHistogram;
+import com.amalitech.bankaccount.metrics.MetricsRegistry;
+import com.amalitech.bankaccount.metrics.StatementEvent;
+
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class TransactionManager {
-    private final ArrayList<Transaction> transactions = new ArrayList<>(200);
+    // Lock-free append-only journal of the transactions added in this session
+    private final AppendLog<Transaction> transactions = new AppendLog<>();
     private int transactionCount;
-    static int transactionCounter;
+    private static final AtomicInteger transactionCounter = new AtomicInteger();
+
+    // Persisted history that is faulted in per account instead of being loaded eagerly
+    private TransactionHistorySource historySource;
+    private long historyOffset;
+    private final Map<String, List<Transaction>> faultedHistory = new ConcurrentHashMap<>();
+
+    // Amount percentiles per type and account, fed by addTransaction; the attached history is
+    // folded in on first read so attaching it stays free
+    private volatile TransactionAmountStatistics amountStatistics = new TransactionAmountStatistics();
+    private volatile boolean historyInAmountStatistics = true;
+    private final Object amountStatisticsLock = new Object();
+
+    // Sliding-window volume per account and type, counted at the time transactions are added
+    private final TransactionVolume volume;
+
+    // Velocity limits checked before every debit made through the transaction menu
+    private volatile VelocityLimits velocityLimits;
+
+    // Run before every append, e.g. to hold recorders back while the write-behind writer catches up
+    private volatile Runnable backpressure = () -> {};
+
+    // Where recordings are counted: the session's transaction counter and BankMetrics, unless isolated
+    private final AtomicInteger recordedCounter;
+    private final Counter recordedMetric;
+    private final LatencyHistogram recordLatency;
+
+    public TransactionManager(){
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * @param clock Clock the volume windows are measured against
+     */
+    TransactionManager(Clock clock){
+        this(clock, transactionCounter, MetricsRegistry.global(), BankMetrics.TRANSACTIONS_RECORDED, BankMetrics.RECORD_LATENCY);
+    }
+
+    private TransactionManager(Clock clock, AtomicInteger recordedCounter, MetricsRegistry metrics,
+                               Counter recordedMetric, LatencyHistogram recordLatency){
+        this.volume = new TransactionVolume(clock);
+        this.velocityLimits = new VelocityLimits(VelocityLimits.defaultRules(), clock, metrics);
+        this.recordedCounter = recordedCounter;
+        this.recordedMetric = recordedMetric;
+        this.recordLatency = recordLatency;
+    }
+
+    /**
+     * Creates a manager that leaves the session alone, e.g. for a load test: it keeps its own
+     * transaction counter instead of the session's high-water mark, and reports its recording
+     * and velocity-limit metrics to the given registry instead of the global one
+     * @param metrics Registry to report to
+     * @return The isolated manager, with the default velocity limits
+     */
+    public static TransactionManager isolated(MetricsRegistry metrics){
+        return new TransactionManager(Clock.systemUTC(), new AtomicInteger(), metrics,
+            metrics.counter("bank_transactions_recorded_total", "Transactions added to the journal"),
+            metrics.histogram("bank_transaction_record_duration_seconds", "Time to add a transaction"));
+    }
 
 
     public static void updateCounter(){
-        transactionCounter++;
+        transactionCounter.incrementAndGet();
     }
 
+    /**
+     *
+     * @return Number of transactions recorded since start-up (the transaction high-water mark)
+     */
+    public static int getTransactionCounter(){
+        return transactionCounter.get();
+    }
+
+    /**
+     * Restores the transaction counter high-water mark (e.g. from a snapshot).
+     * The counter only ever moves forward
+     * @param counter
+     */
+    public static void restoreTransactionCounter(int counter){
+        transactionCounter.accumulateAndGet(counter, Math::max);
+    }
+
+    /**
+     * Adds a transaction (thread-safe, no lock: the journal slot is claimed atomically and the
+     * statistics are striped). A transaction recording a balance change must be added inside
+     * the same account lock as the change, with balanceAfter read there: the journal then
+     * holds each account's rows in balance order, which snapshot replay and the export
+     * roll-forward rely on
+     * @param transaction
+     */
     public void addTransaction(Transaction transaction){
-        this.transactions.add(transaction);
-        TransactionManager.updateCounter();
+        long start = System.nanoTime();
+        this.backpressure.run();
+        this.transactions.append(transaction);
+        recorded(transaction);
+        this.recordLatency.recordSince(start);
+    }
+
+    /**
+     * Adds a batch of transactions into consecutive journal slots claimed at once (e.g. a bulk
+     * import). The write-behind writer still reads every transaction, in order
+     * @param batch
+     */
+    public void addTransactions(List<Transaction> batch){
+        this.backpressure.run();
+        this.transactions.appendAll(batch);
+        batch.forEach(this::recorded);
+    }
+
+    private void recorded(Transaction transaction){
+        this.recordedCounter.incrementAndGet();
+        this.amountStatistics.record(transaction);
+        this.volume.record(transaction);
+        this.recordedMetric.increment();
     }
 
+    /**
+     * Sets the hook run by the recording thread before each append (or batch); it may block
+     * the recorder, e.g. while a write-behind backlog is over its bound
+     * @param backpressure Hook to run, null for none
+     */
+    public void setBackpressure(Runnable backpressure){
+        this.backpressure = backpressure == null ? () -> {} : backpressure;
+    }
+
+    /**
+     * Waits until more than count transactions have been added in this session, e.g. for the
+     * write-behind writer, which reads getTransactions() by index
+     * @param count Number of transactions already seen
+     * @param timeout
+     * @param unit
+     * @return Number of transactions added so far; count or less if the wait timed out or the
+     *         thread was unparked
+     */
+    public int awaitTransactions(int count, long timeout, TimeUnit unit){
+        return this.transactions.awaitSize(count, unit.toNanos(timeout));
+    }
+
+    /**
+     * @return Snapshot of the transactions added in this session: an immutable view that
+     *         transactions added later do not change, safe to iterate while recording goes on
+     */
     public List<Transaction> getTransactions(){
-        return  this.transactions;
+        return this.transactions.snapshot();
+    }
+
+    /**
+     * Attaches the persisted history. Nothing is read yet: an account's history is faulted in
+     * the first time it is asked for, so start-up reads the offset index instead of parsing every transaction.
+     * Transactions added afterwards are kept in memory on top of that history.
+     * Attach before transactions are recorded concurrently (at start-up)
+     * @param source
+     */
+    public void attachHistory(TransactionHistorySource source){
+        this.historySource = source;
+        this.historyOffset = source.size();
+        this.faultedHistory.clear();
+        TransactionManager.restoreTransactionCounter((int) Math.min(Integer.MAX_VALUE, historyOffset));
+
+        TransactionAmountStatistics statistics = new TransactionAmountStatistics();
+        this.transactions.snapshot().forEach(statistics::record);
+        this.amountStatistics = statistics;
+        this.historyInAmountStatistics = false;
+    }
+
+    /**
+     * Volume of the transactions added in this session over sliding windows of up to a day,
+     * per account and bank-wide (transactions restored from files are not counted)
+     * @return Window counters, read in O(buckets)
+     */
+    public TransactionVolume getVolume(){
+        return volume;
+    }
+
+    /**
+     * @return Velocity limits debits are checked against (VelocityLimits.defaultRules() unless replaced)
+     */
+    public VelocityLimits getVelocityLimits(){
+        return velocityLimits;
+    }
+
+    /**
+     * Replaces the velocity limits, e.g. with VelocityLimits.none() to lift them.
+     * Counts of debits made under the previous limits are not carried over
+     * @param limits
+     */
+    public void setVelocityLimits(VelocityLimits limits){
+        this.velocityLimits = limits;
+    }
+
+    /**
+     * Amount statistics (count, sum, min, max, percentiles) per transaction type and per account,
+     * maintained as transactions are added. The first call after attachHistory reads the
+     * persisted history once to include it
+     * @return Statistics over every transaction (persisted history + in memory)
+     */
+    public TransactionAmountStatistics getAmountStatistics(){
+        if(!historyInAmountStatistics){
+            synchronized (amountStatisticsLock){
+                if(!historyInAmountStatistics){
+                    TransactionAmountStatistics statistics = this.amountStatistics;
+                    try{
+                        forEachHistoryTransaction(statistics::record);
+                    } catch(UncheckedIOException e){
+                        // Not retried: what was read is already counted
+                        IO.println("⚠ Warning: Transaction statistics cover part of the history: " + e.getMessage());
+                    }
+                    this.historyInAmountStatistics = true;
+                }
+            }
+        }
+        return amountStatistics;
+    }
+
+    /**
+     * Number of persisted transactions that live in the attached history rather than in memory
+     * @return Global journal sequence of the first in-memory transaction
+     */
+    public long getHistoryOffset(){
+        return historyOffset;
+    }
+
+    /**
+     *
+     * @return Total number of transactions (persisted history + in memory)
+     */
+    public long getTotalTransactionCount(){
+        return historyOffset + this.transactions.size();
+    }
+
+    /**
+     * For visiting the attached persisted history (the first getHistoryOffset() transactions),
+     * oldest first, without loading it into memory
+     * @param action
+     * @throws UncheckedIOException if the history cannot be read; exceptions thrown by the action are passed on
+     */
+    public void forEachHistoryTransaction(Consumer<Transaction> action){
+        if(historySource != null){
+            historySource.forEach(action);
+        }
+    }
+
+    /**
+     * For visiting the attached persisted history, oldest first, until the action returns false
+     * @param action Returns false to stop reading
+     * @throws UncheckedIOException if the history cannot be read; exceptions thrown by the action are passed on
+     */
+    public void forEachHistoryTransactionWhile(Predicate<Transaction> action){
+        if(historySource != null){
+            historySource.forEachWhile(action);
+        }
+    }
+
+    /**
+     * For visiting the attached persisted history from a point in time, oldest first, until the
+     * action returns false. The source may skip what is stamped earlier, a block at a time
+     * @param from Earliest time of interest (earlier transactions may still be visited)
+     * @param action Returns false to stop reading
+     * @throws UncheckedIOException if the history cannot be read; exceptions thrown by the action are passed on
+     */
+    public void forEachHistoryTransactionWhile(LocalDateTime from, Predicate<Transaction> action){
+        if(historySource != null){
+            historySource.forEachFromWhile(from, action);
+        }
+    }
+
+    /**
+     * For getting every transaction of an account, oldest first.
+     * Faults in the account's persisted history on first use
+     * @param accNumber
+     * @return List of the account's transactions
+     */
+    public List<Transaction> getTransactionsForAccount(String accNumber){
+        List<Transaction> recent = getAllTransactions(accNumber, this.transactions.snapshot());
+        if(historySource == null){
+            return recent;
+        }
+
+        List<Transaction> history = faultedHistory.computeIfAbsent(accNumber, historySource::loadHistory);
+        if(history.isEmpty()) return recent;
+
+        ArrayList<Transaction> combined = new ArrayList<>(history.size() + recent.size());
+        combined.addAll(history);
+        combined.addAll(recent);
+        return combined;
+    }
+
+    /**
+     * For getting every transaction of the bank (persisted history + in memory), oldest first.
+     * This reads the whole persisted history, so it is meant for bank-wide reports only
+     * @return List of all transactions
+     */
+    public List<Transaction> getAllTransactions(){
+        if(historySource == null){
+            return this.transactions.snapshot();
+        }
+
+        List<Transaction> all = new ArrayList<>(historySource.loadAll());
+        all.addAll(this.transactions.snapshot());
+        return all;
     }
 
     public void previewTransactionConfirmation(Account account, TransactionType transactionType, double transactionAmount, TransactionManager transactionManager, String accNumber){
-        List<Transaction> newTransactions = getAllTransactions(accNumber, transactionManager.getTransactions());
+        List<Transaction> newTransactions = transactionManager.getTransactionsForAccount(accNumber);
 
         String txnID = String.valueOf(newTransactions.size() + 1);
         // Calculate new balance: deposits add, withdrawals and transfers subtract
@@ -61,8 +363,10 @@ public class TransactionManager {
     }
 
     public void viewTransactionsByAccount(String accountNumber, String msg){
+        StatementEvent event = new StatementEvent();
+        event.begin();
 
-        List<Transaction> newTransactions = getAllTransactions(accountNumber, this.transactions);
+        List<Transaction> newTransactions = getTransactionsForAccount(accountNumber);
 
         if(newTransactions.isEmpty()){
             IO.println("""
@@ -70,6 +374,7 @@ public class TransactionManager {
                     No transaction recorded for this account.
                     -------------------------------------------
                     """);
+            event.finish(accountNumber, 0);
             return;
         }
 
@@ -99,6 +404,7 @@ public class TransactionManager {
         stringBuilder.append("----------------------------------------------------------------------------------------------------------------------------------------------");
 
         IO.println(stringBuilder.toString());
+        event.finish(accountNumber, sortedTransactions.size());
     }
 
     private static String getFormattingString(Transaction trn) {
@@ -133,15 +439,15 @@ public class TransactionManager {
 
     public double calculateTotalDeposits(String accountNumber) {
 
-        if(this.transactions.isEmpty()){
+        if(this.transactions.size() == 0 && historySource == null){
             return 0.0;
         }
 
         double tempBal = 0.0;
         transactionCount = 0;
 
-        for(Transaction trn: transactions){
-            if(trn.getType().equals(TransactionType.DEPOSIT.getDescription()) && trn.getAccountNumber().equals(accountNumber)){
+        for(Transaction trn: getTransactionsForAccount(accountNumber)){
+            if(trn.getType().equals(TransactionType.DEPOSIT.getDescription())){
                 tempBal += trn.getBalanceAfter();
                 ++transactionCount;
             }
@@ -154,7 +460,7 @@ public class TransactionManager {
     public double calculateTotalWithdrawals(String accountNumber) {
 
 
-        if(this.transactions.isEmpty()){
+        if(this.transactions.size() == 0 && historySource == null){
             return 0.0;
         }
 
@@ -162,8 +468,8 @@ public class TransactionManager {
 
         double tempBal = 0.0;
 
-        for(Transaction trn: transactions){
-            if(trn.getType().equals(TransactionType.WITHDRAWAL.getDescription()) && trn.getAccountNumber().equals(accountNumber)){
+        for(Transaction trn: getTransactionsForAccount(accountNumber)){
+            if(trn.getType().equals(TransactionType.WITHDRAWAL.getDescription())){
                 tempBal += trn.getBalanceAfter();
                 ++transactionCount;
             }
@@ -196,14 +502,15 @@ public class TransactionManager {
     @Override
     public String toString(){
         StringBuilder str = new StringBuilder();
+        List<Transaction> snapshot = this.transactions.snapshot();
 
         str.append("[ ");
-        for(int i = 0; i < this.transactions.size(); i++){
+        for(int i = 0; i < snapshot.size(); i++){
 
-            if (i < (this.transactions.size() - 1)) {
-                str.append(this.transactions.get(i).getTransactionId()).append(", ");
+            if (i < (snapshot.size() - 1)) {
+                str.append(snapshot.get(i).getTransactionId()).append(", ");
             } else {
-                str.append(this.transactions.get(i).getTransactionId());
+                str.append(snapshot.get(i).getTransactionId());
             }
         }
         str.append(" ]");
@@ -0,0 +1,190 @@
+package com.amalitech.bankaccount.transaction;
+
+import com.amalitech.bankaccount.enums.TransactionType;
+
+import java.util.Arrays;
+import java.util.stream.Collector;
+
+/**
+ * Count, sum, min and max of transaction amounts, overall and per TransactionType, gathered in
+ * a single pass. The type is resolved once per transaction and every figure is updated from
+ * it, instead of one stream pass (and one String comparison per element) per figure.
+ * <p>
+ * Summaries of disjoint parts combine, so the same accumulator serves a sequential scan, a
+ * parallel stream (see collector()), a columnar source fed through accept(type, amount) and
+ * the incrementally maintained TransactionAmountStatistics.summary().
+ * Not thread-safe: each thread fills its own summary and the results are combined
+ */
+public final class TransactionSummary {
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    // One slot per transaction type plus one for amounts of any other type
+    private final long[] counts = new long[TYPES.length + 1];
+    private final double[] sums = new double[TYPES.length + 1];
+    private final double[] mins = new double[TYPES.length + 1];
+    private final double[] maxes = new double[TYPES.length + 1];
+
+    public TransactionSummary() {
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxes, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * @return Collector summarising a stream of transactions, parallel streams combine per-thread summaries
+     */
+    public static Collector<Transaction, ?, TransactionSummary> collector() {
+        return Collector.of(TransactionSummary::new, TransactionSummary::accept, TransactionSummary::combine,
+            Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    // ==================== ACCUMULATION ====================
+
+    /**
+     * @param transaction Transaction to add
+     */
+    public void accept(Transaction transaction) {
+        accept(TransactionType.fromDescription(transaction.getType()), transaction.getAmount());
+    }
+
+    /**
+     * Adds one amount, for sources that already hold the type and amount as columns
+     * @param type Transaction type, null for any other type
+     * @param amount
+     */
+    public void accept(TransactionType type, double amount) {
+        int slot = slot(type);
+        counts[slot]++;
+        sums[slot] += amount;
+        if (amount < mins[slot]) mins[slot] = amount;
+        if (amount > maxes[slot]) maxes[slot] = amount;
+    }
+
+    /**
+     * Adds the figures of another summary to this one
+     * @param other Summary of a disjoint set of transactions
+     * @return This summary
+     */
+    public TransactionSummary combine(TransactionSummary other) {
+        for (int slot = 0; slot < counts.length; slot++) {
+            counts[slot] += other.counts[slot];
+            sums[slot] += other.sums[slot];
+            mins[slot] = Math.min(mins[slot], other.mins[slot]);
+            maxes[slot] = Math.max(maxes[slot], other.maxes[slot]);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the figures of a sketch of one type
+     */
+    void include(TransactionType type, AmountSketch sketch) {
+        if (sketch.getCount() == 0) return;
+        int slot = slot(type);
+        counts[slot] += sketch.getCount();
+        sums[slot] += sketch.getSum();
+        mins[slot] = Math.min(mins[slot], sketch.getMin());
+        maxes[slot] = Math.max(maxes[slot], sketch.getMax());
+    }
+
+    // ==================== OVERALL ====================
+
+    /**
+     * @return Number of transactions
+     */
+    public long getCount() {
+        long count = 0;
+        for (long slotCount : counts) {
+            count += slotCount;
+        }
+        return count;
+    }
+
+    /**
+     * @return Sum of the amounts
+     */
+    public double getSum() {
+        double sum = 0;
+        for (double slotSum : sums) {
+            sum += slotSum;
+        }
+        return sum;
+    }
+
+    /**
+     * @return Average amount, 0 if there are no transactions
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : getSum() / count;
+    }
+
+    /**
+     * @return Smallest amount, 0 if there are no transactions
+     */
+    public double getMin() {
+        double min = Double.POSITIVE_INFINITY;
+        for (double slotMin : mins) {
+            min = Math.min(min, slotMin);
+        }
+        return getCount() == 0 ? 0 : min;
+    }
+
+    /**
+     * @return Largest amount, 0 if there are no transactions
+     */
+    public double getMax() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double slotMax : maxes) {
+            max = Math.max(max, slotMax);
+        }
+        return getCount() == 0 ? 0 : max;
+    }
+
+    // ==================== PER TYPE ====================
+
+    /**
+     * @param type null for any other type
+     * @return Number of transactions of the type
+     */
+    public long getCount(TransactionType type) {
+        return counts[slot(type)];
+    }
+
+    /**
+     * @param type null for any other type
+     * @return Sum of the amounts of the type
+     */
+    public double getSum(TransactionType type) {
+        return sums[slot(type)];
+    }
+
+    /**
+     * @param type null for any other type
+     * @return Average amount of the type, 0 if there are none
+     */
+    public double getMean(TransactionType type) {
+        long count = counts[slot(type)];
+        return count == 0 ? 0 : sums[slot(type)] / count;
+    }
+
+    /**
+     * @param type null for any other type
+     * @return Smallest amount of the type, 0 if there are none
+     */
+    public double getMin(TransactionType type) {
+        return counts[slot(type)] == 0 ? 0 : mins[slot(type)];
+    }
+
+    /**
+     * @param type null for any other type
+     * @return Largest amount of the type, 0 if there are none
+     */
+    public double getMax(TransactionType type) {
+        return counts[slot(type)] == 0 ? 0 : maxes[slot(type)];
+    }
+
+    private static int slot(TransactionType type) {
+        return type != null ? type.ordinal() : TYPES.length;
+    }
+}
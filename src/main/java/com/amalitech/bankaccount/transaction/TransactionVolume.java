@@ -0,0 +1,215 @@
+package com.amalitech.bankaccount.transaction;
+
+import com.amalitech.bankaccount.enums.TransactionType;
+import com.amalitech.bankaccount.transaction.SlidingWindowCounter.WindowTotals;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Transaction volume (count and amount) over sliding windows of up to a day, per account and
+ * bank-wide, per TransactionType, counted as transactions are recorded so "deposits in the last
+ * hour" never scans the transaction list or parses timestamps.
+ * <p>
+ * Every (account, type) pair has three ring buffers: the last minute in 5 s buckets, the last
+ * hour in 5 min buckets and the last day in 1 h buckets. A read uses the finest ring that
+ * covers the window, so it is O(buckets) and accurate to that ring's bucket width. The rings
+ * of one account and type take about 1.4 KB, created on the account's first transaction of that
+ * type. Accounts with no transaction in the last MAX_WINDOW have only empty rings; every
+ * recorded transaction looks at the next two accounts of an incremental sweep and drops them
+ * if they are idle, so memory follows the accounts active in the last day rather than every
+ * account ever seen, at O(1) extra cost per transaction. Bank-wide rings are
+ * striped by thread id like the amount sketches and merged on read; an account's rings are
+ * guarded by one lock per account
+ */
+public final class TransactionVolume {
+
+    /**
+     * Longest window that can be read
+     */
+    public static final Duration MAX_WINDOW = Duration.ofDays(1);
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    // Finest first: a minute in 5 s buckets, an hour in 5 min buckets, a day in 1 h buckets
+    private static final long[] TIER_BUCKET_MILLIS = {5_000, 300_000, 3_600_000};
+    private static final int[] TIER_BUCKETS = {12, 12, 24};
+
+    /**
+     * The three rings of one account (or stripe) and type
+     */
+    private static final class Windows {
+        final SlidingWindowCounter[] tiers = new SlidingWindowCounter[TIER_BUCKETS.length];
+
+        Windows() {
+            for (int i = 0; i < tiers.length; i++) {
+                tiers[i] = new SlidingWindowCounter(TIER_BUCKET_MILLIS[i], TIER_BUCKETS[i]);
+            }
+        }
+
+        void add(long nowMillis, double amount) {
+            for (SlidingWindowCounter tier : tiers) {
+                tier.add(nowMillis, amount);
+            }
+        }
+
+        WindowTotals totals(long nowMillis, long windowMillis) {
+            for (SlidingWindowCounter tier : tiers) {
+                if (windowMillis <= tier.getSpanMillis()) {
+                    return tier.totals(nowMillis, windowMillis);
+                }
+            }
+            return tiers[tiers.length - 1].totals(nowMillis, windowMillis);
+        }
+    }
+
+    /**
+     * The rings of one account, one slot per type (plus other), created on first use
+     */
+    private static final class AccountWindows {
+        final Windows[] byType = new Windows[TYPES.length + 1];
+        long lastMillis;
+        // Set by the sweep under the account's lock; a recorder holding a dropped instance starts over
+        boolean evicted;
+    }
+
+    private static final int SWEEP_KEYS_PER_RECORD = 2;
+
+    private final Clock clock;
+    // [stripe][type], the last type slot counts transactions of any other type
+    private final Windows[][] stripes;
+    private final ConcurrentMap<String, AccountWindows> byAccount = new ConcurrentHashMap<>();
+    private final IncrementalSweep<String, AccountWindows> sweep = new IncrementalSweep<>(byAccount, SWEEP_KEYS_PER_RECORD);
+
+    TransactionVolume(Clock clock) {
+        this.clock = clock;
+        int size = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())) << 1;
+        stripes = new Windows[size][TYPES.length + 1];
+        for (Windows[] stripe : stripes) {
+            for (int i = 0; i < stripe.length; i++) {
+                stripe[i] = new Windows();
+            }
+        }
+    }
+
+    // ==================== RECORDING ====================
+
+    void record(Transaction transaction) {
+        long now = clock.millis();
+        int type = typeIndex(transaction.getType());
+        double amount = transaction.getAmount();
+
+        Windows[] stripe = stripes[(int) Thread.currentThread().threadId() & (stripes.length - 1)];
+        synchronized (stripe) {
+            stripe[type].add(now, amount);
+        }
+        String accountNumber = transaction.getAccountNumber();
+        if (accountNumber != null) {
+            // Evicted between the lookup and the lock: the next lookup creates fresh rings
+            AccountWindows account;
+            do {
+                account = byAccount.computeIfAbsent(accountNumber, k -> new AccountWindows());
+            } while (!recordFor(account, type, now, amount));
+        }
+
+        long cutoff = now - MAX_WINDOW.toMillis();
+        sweep.step((key, account) -> keepIfActive(account, cutoff));
+    }
+
+    private static boolean recordFor(AccountWindows account, int type, long now, double amount) {
+        synchronized (account) {
+            if (account.evicted) {
+                return false;
+            }
+            if (account.byType[type] == null) {
+                account.byType[type] = new Windows();
+            }
+            account.byType[type].add(now, amount);
+            account.lastMillis = now;
+            return true;
+        }
+    }
+
+    /**
+     * Sweep check, run inside computeIfPresent: an account with no transaction since cutoff
+     * has only empty rings
+     * @return The account to keep it, null to drop it
+     */
+    private static AccountWindows keepIfActive(AccountWindows account, long cutoff) {
+        synchronized (account) {
+            account.evicted = account.lastMillis < cutoff;
+            return account.evicted ? null : account;
+        }
+    }
+
+    private static int typeIndex(String type) {
+        TransactionType known = TransactionType.fromDescription(type);
+        return known != null ? known.ordinal() : TYPES.length;
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * @param type Transaction type, null for every type
+     * @param window Window ending now, at most MAX_WINDOW
+     * @return Bank-wide count and amount in the window
+     */
+    public WindowTotals bankWide(TransactionType type, Duration window) {
+        long windowMillis = windowMillis(window);
+        long now = clock.millis();
+        WindowTotals totals = WindowTotals.EMPTY;
+        for (Windows[] stripe : stripes) {
+            synchronized (stripe) {
+                totals = totals.plus(sum(stripe, type, now, windowMillis));
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * @param accountNumber
+     * @param type Transaction type, null for every type
+     * @param window Window ending now, at most MAX_WINDOW
+     * @return The account's count and amount in the window
+     */
+    public WindowTotals forAccount(String accountNumber, TransactionType type, Duration window) {
+        long windowMillis = windowMillis(window);
+        AccountWindows account = byAccount.get(accountNumber);
+        if (account == null) {
+            return WindowTotals.EMPTY;
+        }
+        synchronized (account) {
+            return sum(account.byType, type, clock.millis(), windowMillis);
+        }
+    }
+
+    /**
+     * @return Number of accounts whose rings are held, the ones active in the last MAX_WINDOW
+     *         and those not swept yet
+     */
+    public int getTrackedAccounts() {
+        return byAccount.size();
+    }
+
+    private static WindowTotals sum(Windows[] windows, TransactionType type, long now, long windowMillis) {
+        if (type != null) {
+            Windows typed = windows[type.ordinal()];
+            return typed == null ? WindowTotals.EMPTY : typed.totals(now, windowMillis);
+        }
+        WindowTotals totals = WindowTotals.EMPTY;
+        for (Windows typed : windows) {
+            if (typed != null) {
+                totals = totals.plus(typed.totals(now, windowMillis));
+            }
+        }
+        return totals;
+    }
+
+    private static long windowMillis(Duration window) {
+        if (window == null || window.isNegative() || window.isZero() || window.compareTo(MAX_WINDOW) > 0) {
+            throw new IllegalArgumentException("Window must be between 0 and " + MAX_WINDOW.toHours() + " hours");
+        }
+        return window.toMillis();
+    }
+}
@@ -0,0 +1,290 @@
+package com.amalitech.bankaccount.transaction;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.enums.CustomerType;
+import com.amalitech.bankaccount.enums.TransactionType;
+import com.amalitech.bankaccount.exceptions.InsufficientFundsException;
+import com.amalitech.bankaccount.exceptions.InvalidAmountException;
+import com.amalitech.bankaccount.exceptions.VelocityLimitExceededException;
+import com.amalitech.bankaccount.metrics.Counter;
+import com.amalitech.bankaccount.metrics.LatencyHistogram;
+import com.amalitech.bankaccount.metrics.MetricsRegistry;
+import com.amalitech.bankaccount.transaction.SlidingWindowCounter.WindowTotals;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Velocity-limit rule engine evaluated synchronously before every debit.
+ * <p>
+ * Rules are compiled once into a plan per (customer type, debit type): the indexes of the
+ * rules that apply, with their window, limit and measure in flat arrays, so a debit never
+ * matches rules at run time. Each rule keeps one sliding-window counter per account; checking
+ * a rule is one O(buckets) read of that counter and a comparison.
+ * <p>
+ * The check, the debit and the counter updates all run under the account's own lock (the one
+ * Account.deposit and withdrawal already take), so two concurrent debits cannot both pass a
+ * limit only one of them fits in. Neither the limits nor the balance statistics the debit
+ * updates take any other lock. Each rule's evaluation time and rejections are reported to the
+ * metrics registry, labelled with the rule name
+ * <p>
+ * A rule's counter costs about 370 bytes per account that debited under it. Every debit also
+ * looks at the next two accounts of an incremental sweep and drops their counters if they
+ * have not debited within the longest rule window, so memory follows the recently active
+ * accounts rather than every account ever debited, at O(1) extra cost per debit.
+ */
+public final class VelocityLimits {
+
+    /**
+     * A debit to run once every applicable rule has passed, e.g. () -> account.withdrawal(amount)
+     */
+    @FunctionalInterface
+    public interface Debit {
+        void apply() throws InvalidAmountException, InsufficientFundsException;
+    }
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final CustomerType[] CUSTOMER_TYPES = CustomerType.values();
+    // A rule's window is split into this many buckets, so it is accurate to 1/12 of the window
+    private static final int WINDOW_BUCKETS = 12;
+    private static final int[] NO_RULES = new int[0];
+
+    private final List<VelocityRule> rules;
+    private final Clock clock;
+
+    // [customer type][transaction type] -> indexes of the rules to evaluate, in declaration order
+    private final int[][][] plans;
+    private final boolean[] byAmount;
+    private final long[] windowMillis;
+    private final long[] bucketMillis;
+    private final double[] limits;
+    private final LatencyHistogram[] latencies;
+    private final Counter[] rejections;
+
+    /**
+     * One account's counters, one per rule (null until the rule first counts a debit), guarded
+     * by the account's lock
+     */
+    private static final class AccountCounters {
+        final SlidingWindowCounter[] byRule;
+        volatile long lastMillis;
+        // Raised by the sweep before it reads lastMillis, see keepIfActive
+        volatile boolean evicted;
+
+        AccountCounters(int rules) {
+            byRule = new SlidingWindowCounter[rules];
+        }
+    }
+
+    private static final int SWEEP_KEYS_PER_DEBIT = 2;
+
+    private final ConcurrentMap<String, AccountCounters> byAccount = new ConcurrentHashMap<>();
+    private final IncrementalSweep<String, AccountCounters> sweep = new IncrementalSweep<>(byAccount, SWEEP_KEYS_PER_DEBIT);
+    // Longest rule window: an account with no debit for that long has only empty counters
+    private final long idleMillis;
+
+    /**
+     * @param rules Rules to enforce, evaluated in this order
+     */
+    public VelocityLimits(List<VelocityRule> rules) {
+        this(rules, Clock.systemUTC());
+    }
+
+    /**
+     * @param rules Rules to enforce, evaluated in this order
+     * @param clock Clock the windows are measured against
+     */
+    VelocityLimits(List<VelocityRule> rules, Clock clock) {
+        this(rules, clock, MetricsRegistry.global());
+    }
+
+    /**
+     * @param rules Rules to enforce, evaluated in this order
+     * @param clock Clock the windows are measured against
+     * @param registry Registry the per-rule latencies and rejections are reported to
+     */
+    VelocityLimits(List<VelocityRule> rules, Clock clock, MetricsRegistry registry) {
+        this.rules = List.copyOf(rules);
+        this.clock = clock;
+
+        int count = this.rules.size();
+        byAmount = new boolean[count];
+        windowMillis = new long[count];
+        bucketMillis = new long[count];
+        limits = new double[count];
+        latencies = new LatencyHistogram[count];
+        rejections = new Counter[count];
+        for (int i = 0; i < count; i++) {
+            VelocityRule rule = this.rules.get(i);
+            byAmount[i] = rule.measure() == VelocityRule.Measure.AMOUNT;
+            windowMillis[i] = rule.window().toMillis();
+            bucketMillis[i] = Math.max(1, (windowMillis[i] + WINDOW_BUCKETS - 1) / WINDOW_BUCKETS);
+            limits[i] = rule.limit();
+            latencies[i] = registry.histogram("bank_velocity_rule_duration_seconds", "Time to evaluate a velocity rule before a debit", "rule", rule.name());
+            rejections[i] = registry.counter("bank_velocity_rule_rejections_total", "Debits rejected by a velocity rule", "rule", rule.name());
+        }
+
+        idleMillis = Arrays.stream(windowMillis).max().orElse(0);
+
+        plans = new int[CUSTOMER_TYPES.length][TYPES.length][];
+        for (CustomerType customerType : CUSTOMER_TYPES) {
+            for (TransactionType type : TYPES) {
+                List<Integer> plan = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    if (type != TransactionType.DEPOSIT && this.rules.get(i).appliesTo(type, customerType)) {
+                        plan.add(i);
+                    }
+                }
+                plans[customerType.ordinal()][type.ordinal()] = plan.isEmpty() ? NO_RULES : plan.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+    }
+
+    /**
+     * @return Limits that let every debit through
+     */
+    public static VelocityLimits none() {
+        return new VelocityLimits(List.of());
+    }
+
+    /**
+     * Default limits: withdrawals per hour and transferred amount per day, tighter for
+     * regular customers than for premium ones
+     * @return The default rules
+     */
+    public static List<VelocityRule> defaultRules() {
+        return List.of(
+            VelocityRule.maxCount("regular-withdrawals-per-hour", TransactionType.WITHDRAWAL, CustomerType.REGULAR, 10, Duration.ofHours(1)),
+            VelocityRule.maxCount("premium-withdrawals-per-hour", TransactionType.WITHDRAWAL, CustomerType.PREMIUM, 50, Duration.ofHours(1)),
+            VelocityRule.maxAmount("regular-transfer-amount-per-day", TransactionType.TRANSFER, CustomerType.REGULAR, 5_000, Duration.ofDays(1)),
+            VelocityRule.maxAmount("premium-transfer-amount-per-day", TransactionType.TRANSFER, CustomerType.PREMIUM, 50_000, Duration.ofDays(1)));
+    }
+
+    // ==================== ENFORCEMENT ====================
+
+    /**
+     * Checks every rule that applies to this debit and, if all pass, applies the debit and
+     * counts it against them, all under the account's lock
+     * @param account Account being debited
+     * @param type WITHDRAWAL or TRANSFER (deposits are not limited)
+     * @param amount Amount of the debit
+     * @param debit The debit itself
+     * @throws VelocityLimitExceededException if a rule's limit would be exceeded, nothing is debited
+     */
+    public void debit(Account account, TransactionType type, double amount, Debit debit) throws InvalidAmountException, InsufficientFundsException {
+        CustomerType customerType = account.getAccountCustomer().getType();
+        int[] plan = plans[(customerType != null ? customerType : CustomerType.REGULAR).ordinal()][type.ordinal()];
+        if (plan.length == 0) {
+            debit.apply();
+            return;
+        }
+
+        long now;
+        synchronized (account) {
+            now = clock.millis();
+            AccountCounters accountCounters = byAccount.computeIfAbsent(account.getAccountNumber(), key -> new AccountCounters(rules.size()));
+            SlidingWindowCounter[] counters = accountCounters.byRule;
+            for (int rule : plan) {
+                long start = System.nanoTime();
+                SlidingWindowCounter counter = counters[rule];
+                WindowTotals totals = counter == null ? WindowTotals.EMPTY : counter.totals(now, windowMillis[rule]);
+                double used = byAmount[rule] ? totals.amount() + amount : totals.count() + 1;
+                latencies[rule].recordSince(start);
+                if (used > limits[rule]) {
+                    rejections[rule].increment();
+                    throw new VelocityLimitExceededException(rules.get(rule).name(), rejectionMessage(rules.get(rule), totals));
+                }
+            }
+
+            debit.apply();
+
+            for (int rule : plan) {
+                if (counters[rule] == null) {
+                    counters[rule] = new SlidingWindowCounter(bucketMillis[rule], WINDOW_BUCKETS);
+                }
+                counters[rule].add(now, amount);
+            }
+            accountCounters.lastMillis = now;
+            if (accountCounters.evicted) {
+                // A sweep saw the old lastMillis; only this account's debits (holding its lock) add entries, so put it back
+                accountCounters.evicted = false;
+                byAccount.put(account.getAccountNumber(), accountCounters);
+            }
+        }
+
+        long cutoff = now - idleMillis;
+        sweep.step((key, counters) -> keepIfActive(counters, cutoff));
+    }
+
+    /**
+     * Sweep check, run inside computeIfPresent. The flag is raised before lastMillis is read
+     * and a debit writes lastMillis before reading the flag, so a debit racing the sweep either
+     * keeps its account or sees the flag and puts it back once the sweep has dropped it
+     * @return The counters to keep them, null to drop them
+     */
+    private static AccountCounters keepIfActive(AccountCounters counters, long cutoff) {
+        counters.evicted = true;
+        if (counters.lastMillis < cutoff) {
+            return null;
+        }
+        counters.evicted = false;
+        return counters;
+    }
+
+    private static String rejectionMessage(VelocityRule rule, WindowTotals totals) {
+        String limit = rule.measure() == VelocityRule.Measure.COUNT
+            ? "%.0f %s per %s (already %d)".formatted(rule.limit(), debitName(rule), formatWindow(rule.window()), totals.count())
+            : "$%,.2f in %s per %s (already $%,.2f)".formatted(rule.limit(), debitName(rule), formatWindow(rule.window()), totals.amount());
+        return "❌ Transaction Failed: Limit of " + limit + " reached.";
+    }
+
+    private static String debitName(VelocityRule rule) {
+        return rule.type() == null ? "debits" : rule.type().getDescription().toLowerCase() + "s";
+    }
+
+    private static String formatWindow(Duration window) {
+        long seconds = window.toSeconds();
+        if (seconds % 86_400 == 0) return seconds == 86_400 ? "day" : seconds / 86_400 + " days";
+        if (seconds % 3_600 == 0) return seconds == 3_600 ? "hour" : seconds / 3_600 + " hours";
+        if (seconds % 60 == 0) return seconds / 60 + " min";
+        return seconds + " s";
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * @return The enforced rules, in evaluation order
+     */
+    public List<VelocityRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @param rule One of getRules()
+     * @return Evaluation times of the rule
+     */
+    public LatencyHistogram getLatency(VelocityRule rule) {
+        return latencies[rules.indexOf(rule)];
+    }
+
+    /**
+     * @param rule One of getRules()
+     * @return Number of debits the rule has rejected
+     */
+    public long getRejections(VelocityRule rule) {
+        return rejections[rules.indexOf(rule)].sum();
+    }
+
+    /**
+     * @return Number of accounts whose counters are held, the ones that debited within the
+     *         longest rule window and those not swept yet
+     */
+    public int getTrackedAccounts() {
+        return byAccount.size();
+    }
+}
@@ -0,0 +1,64 @@
+package com.amalitech.bankaccount.transaction;
+
+import com.amalitech.bankaccount.enums.CustomerType;
+import com.amalitech.bankaccount.enums.TransactionType;
+
+import java.time.Duration;
+
+/**
+ * A per-account velocity limit on debits, e.g. "at most 10 withdrawals per hour for regular
+ * customers" or "at most $5,000 transferred per day"
+ *
+ * @param name Name reported in rejections and metrics
+ * @param type Debit type the rule counts (WITHDRAWAL or TRANSFER), null for every debit
+ * @param customerType Customers the rule applies to, null for every customer
+ * @param measure Whether the limit caps the number of debits or their total amount
+ * @param window Sliding window the limit applies over
+ * @param limit Highest count or amount allowed within the window, the debit being checked included
+ */
+public record VelocityRule(String name, TransactionType type, CustomerType customerType,
+                           Measure measure, Duration window, double limit) {
+
+    /**
+     * What a rule caps within its window
+     */
+    public enum Measure {
+        COUNT,
+        AMOUNT
+    }
+
+    public VelocityRule {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Rule name must not be blank");
+        }
+        if (type == TransactionType.DEPOSIT) {
+            throw new IllegalArgumentException("Velocity rules only apply to debits");
+        }
+        if (window.toSeconds() < 1 || limit < 0) {
+            throw new IllegalArgumentException("Window must be at least a second and limit not negative");
+        }
+    }
+
+    /**
+     * @return Rule allowing at most count debits of the type within the window
+     */
+    public static VelocityRule maxCount(String name, TransactionType type, CustomerType customerType, int count, Duration window) {
+        return new VelocityRule(name, type, customerType, Measure.COUNT, window, count);
+    }
+
+    /**
+     * @return Rule allowing at most amount in debits of the type within the window
+     */
+    public static VelocityRule maxAmount(String name, TransactionType type, CustomerType customerType, double amount, Duration window) {
+        return new VelocityRule(name, type, customerType, Measure.AMOUNT, window, amount);
+    }
+
+    /**
+     * @param debitType
+     * @param debitCustomerType
+     * @return Whether a debit of this type by this kind of customer counts against the rule
+     */
+    boolean appliesTo(TransactionType debitType, CustomerType debitCustomerType) {
+        return (type == null || type == debitType) && (customerType == null || customerType == debitCustomerType);
+    }
+}
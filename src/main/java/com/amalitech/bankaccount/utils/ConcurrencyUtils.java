@@ -1,24 +1,38 @@
 package com.amalitech.bankaccount.utils;
 
 import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.CheckingAccount;
+import com.amalitech.bankaccount.account.SavingsAccount;
+import com.amalitech.bankaccount.customer.RegularCustomer;
+import com.amalitech.bankaccount.enums.AccountSkew;
 import com.amalitech.bankaccount.enums.TransactionType;
+import com.amalitech.bankaccount.enums.TransferToOrFromType;
 import com.amalitech.bankaccount.exceptions.InsufficientFundsException;
 import com.amalitech.bankaccount.exceptions.InvalidAmountException;
 import com.amalitech.bankaccount.exceptions.OverdraftExceededException;
+import com.amalitech.bankaccount.exceptions.VelocityLimitExceededException;
+import com.amalitech.bankaccount.metrics.LatencyRecorder;
+import com.amalitech.bankaccount.metrics.MetricsRegistry;
 import com.amalitech.bankaccount.transaction.Transaction;
 import com.amalitech.bankaccount.transaction.TransactionManager;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Utility class for concurrent transaction operations
- * Demonstrates thread-safe banking operations with synchronized methods
+ * Demonstrates thread-safe banking operations with synchronized methods, and drives
+ * the engine with a headless load generator (runLoadTest)
  */
 public class ConcurrencyUtils {
     
@@ -179,10 +193,11 @@ public class ConcurrencyUtils {
         IO.println("-".repeat(50));
         double totalBalance = 0;
         for (Account account : accounts) {
+            double balance = account.getAccountBalance();
             IO.println("  " + account.getAccountNumber() + " (" + 
                 account.getCustomer().getName() + "): $" + 
-                String.format("%,.2f", account.getAccountBalance()));
-            totalBalance += account.getAccountBalance();
+                String.format("%,.2f", balance));
+            totalBalance += balance;
         }
         IO.println("-".repeat(50));
         IO.println("  Total: $" + String.format("%,.2f", totalBalance));
@@ -198,7 +213,8 @@ public class ConcurrencyUtils {
         
         for (Account account : accounts) {
             // Check that balance is not corrupted (not NaN or infinite)
-            if (Double.isNaN(account.getAccountBalance()) || Double.isInfinite(account.getAccountBalance())) {
+            double balance = account.getAccountBalance();
+            if (Double.isNaN(balance) || Double.isInfinite(balance)) {
                 IO.println("❌ Data corruption detected in account " + account.getAccountNumber());
                 integrityOk = false;
             }
@@ -257,4 +273,362 @@ public class ConcurrencyUtils {
             }
         };
     }
+
+    // ==================== LOAD GENERATOR ====================
+
+    private static final String[] OPERATIONS = {
+        TransactionType.DEPOSIT.getDescription(),
+        TransactionType.WITHDRAWAL.getDescription(),
+        TransactionType.TRANSFER.getDescription()
+    };
+    private static final int DEPOSIT = 0;
+    private static final int WITHDRAWAL = 1;
+    private static final int TRANSFER = 2;
+    private static final double LOAD_OPENING_BALANCE = 10_000;
+    // Only check the clock every this many operations in duration mode
+    private static final int DEADLINE_CHECK_INTERVAL = 64;
+
+    /**
+     * Load test settings. The run stops after operations when that is positive, otherwise
+     * once duration has elapsed. The mix is in percent and must add up to 100
+     */
+    public record LoadProfile(int threads, long operations, Duration duration,
+                              int depositPercent, int withdrawalPercent, int transferPercent,
+                              AccountSkew skew, double zipfExponent, int accountPopulation) {
+
+        public LoadProfile {
+            if (threads < 1) {
+                throw new IllegalArgumentException("At least one thread is required");
+            }
+            if (operations <= 0 && (duration == null || duration.isZero() || duration.isNegative())) {
+                throw new IllegalArgumentException("Either an operation count or a duration is required");
+            }
+            if (depositPercent < 0 || withdrawalPercent < 0 || transferPercent < 0
+                || depositPercent + withdrawalPercent + transferPercent != 100) {
+                throw new IllegalArgumentException("Operation mix must add up to 100%");
+            }
+            if (skew == null || (skew == AccountSkew.ZIPF && zipfExponent <= 0)) {
+                throw new IllegalArgumentException("Zipf skew needs a positive exponent");
+            }
+            if (accountPopulation < 2) {
+                throw new IllegalArgumentException("At least two accounts are required for transfers");
+            }
+        }
+
+        /**
+         * @return Profile running the given number of operations with one thread per core,
+         * a 50/30/20 deposit/withdrawal/transfer mix and 1,000 uniformly picked accounts
+         */
+        public static LoadProfile ofOperations(long operations) {
+            return new LoadProfile(Runtime.getRuntime().availableProcessors(), operations, null,
+                50, 30, 20, AccountSkew.UNIFORM, 1.0, 1_000);
+        }
+
+        /**
+         * @return Same defaults as ofOperations, running for a fixed time instead
+         */
+        public static LoadProfile ofDuration(Duration duration) {
+            return new LoadProfile(Runtime.getRuntime().availableProcessors(), 0, duration,
+                50, 30, 20, AccountSkew.UNIFORM, 1.0, 1_000);
+        }
+
+        public LoadProfile withThreads(int threads) {
+            return new LoadProfile(threads, operations, duration, depositPercent, withdrawalPercent, transferPercent, skew, zipfExponent, accountPopulation);
+        }
+
+        public LoadProfile withMix(int depositPercent, int withdrawalPercent, int transferPercent) {
+            return new LoadProfile(threads, operations, duration, depositPercent, withdrawalPercent, transferPercent, skew, zipfExponent, accountPopulation);
+        }
+
+        public LoadProfile withSkew(AccountSkew skew, double zipfExponent) {
+            return new LoadProfile(threads, operations, duration, depositPercent, withdrawalPercent, transferPercent, skew, zipfExponent, accountPopulation);
+        }
+
+        public LoadProfile withAccountPopulation(int accountPopulation) {
+            return new LoadProfile(threads, operations, duration, depositPercent, withdrawalPercent, transferPercent, skew, zipfExponent, accountPopulation);
+        }
+    }
+
+    /**
+     * Outcome of one operation type; latencies are in nanoseconds
+     */
+    public record OperationStats(String operation, long attempted, long rejected,
+                                 long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+
+        /**
+         * @return Share of attempts that were rejected (insufficient funds, overdraft limit, velocity limit)
+         */
+        public double rejectionRate() {
+            return attempted == 0 ? 0 : (double) rejected / attempted;
+        }
+    }
+
+    /**
+     * Load test result. Latencies cover one operation including its transaction records
+     */
+    public record LoadReport(LoadProfile profile, long operations, long rejected, int transactionsRecorded,
+                             long elapsedNanos, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos,
+                             List<OperationStats> byOperation) {
+
+        /**
+         * @return Completed operations (accepted or rejected) per second
+         */
+        public double opsPerSecond() {
+            return elapsedNanos == 0 ? 0 : operations / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * @return Share of all operations that were rejected
+         */
+        public double rejectionRate() {
+            return operations == 0 ? 0 : (double) rejected / operations;
+        }
+    }
+
+    /**
+     * Per-worker tallies, only touched by the worker until it has finished
+     */
+    private static final class WorkerStats {
+        final LatencyRecorder[] latencies = {new LatencyRecorder(), new LatencyRecorder(), new LatencyRecorder()};
+        final long[] rejected = new long[OPERATIONS.length];
+    }
+
+    /**
+     * Runs a load test against a synthetic population of accounts and an isolated
+     * TransactionManager, so the session's own accounts, journal, transaction counter and
+     * recording metrics are left alone. Operations go through the same synchronized Account
+     * and TransactionManager methods as the Menu, debits through the default velocity limits;
+     * nothing is printed per operation
+     *
+     * @param profile Load test settings
+     * @return Throughput, latency percentiles and rejection rates
+     */
+    public static LoadReport runLoadTest(LoadProfile profile) {
+        Account[] accounts = createLoadAccounts(profile.accountPopulation());
+        double[] zipfCdf = profile.skew() == AccountSkew.ZIPF
+            ? zipfCumulativeDistribution(profile.accountPopulation(), profile.zipfExponent())
+            : null;
+        TransactionManager transactionManager = TransactionManager.isolated(new MetricsRegistry());
+
+        ExecutorService executor = Executors.newFixedThreadPool(profile.threads());
+        CountDownLatch startGate = new CountDownLatch(1);
+        SplittableRandom seeds = new SplittableRandom();
+        List<Future<WorkerStats>> workers = new ArrayList<>(profile.threads());
+        try {
+            for (int i = 0; i < profile.threads(); i++) {
+                // Operations are split up front so workers never share a counter
+                long quota = profile.operations() > 0
+                    ? profile.operations() / profile.threads() + (i < profile.operations() % profile.threads() ? 1 : 0)
+                    : -1;
+                SplittableRandom random = seeds.split();
+                workers.add(executor.submit(() -> {
+                    startGate.await();
+                    return runLoadWorker(profile, accounts, zipfCdf, transactionManager, quota, random);
+                }));
+            }
+
+            long startTime = System.nanoTime();
+            startGate.countDown();
+
+            WorkerStats total = new WorkerStats();
+            for (Future<WorkerStats> worker : workers) {
+                WorkerStats stats = worker.get();
+                for (int op = 0; op < OPERATIONS.length; op++) {
+                    total.latencies[op].merge(stats.latencies[op]);
+                    total.rejected[op] += stats.rejected[op];
+                }
+            }
+            long elapsed = System.nanoTime() - startTime;
+            return toLoadReport(profile, total, transactionManager.getTransactions().size(), elapsed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load test was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load test worker failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static WorkerStats runLoadWorker(LoadProfile profile, Account[] accounts, double[] zipfCdf,
+                                             TransactionManager transactionManager, long quota, SplittableRandom random) {
+        WorkerStats stats = new WorkerStats();
+        long deadline = quota < 0 ? System.nanoTime() + profile.duration().toNanos() : 0;
+        int depositBound = profile.depositPercent();
+        int withdrawalBound = depositBound + profile.withdrawalPercent();
+
+        for (long done = 0; quota < 0 || done < quota; done++) {
+            if (quota < 0 && done % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                break;
+            }
+            int roll = random.nextInt(100);
+            int operation = roll < depositBound ? DEPOSIT : roll < withdrawalBound ? WITHDRAWAL : TRANSFER;
+            int source = pickAccount(random, accounts.length, zipfCdf);
+            // Amounts between $10.00 and $500.00, like the interactive simulation
+            double amount = (1_000 + random.nextInt(49_001)) / 100.0;
+
+            long start = System.nanoTime();
+            boolean accepted = switch (operation) {
+                case DEPOSIT -> loadDeposit(accounts[source], amount, transactionManager);
+                case WITHDRAWAL -> loadWithdrawal(accounts[source], amount, transactionManager);
+                default -> {
+                    int target = pickAccount(random, accounts.length, zipfCdf);
+                    if (target == source) {
+                        target = (source + 1) % accounts.length;
+                    }
+                    yield loadTransfer(accounts[source], accounts[target], source < target, amount, transactionManager);
+                }
+            };
+            stats.latencies[operation].record(System.nanoTime() - start);
+            if (!accepted) {
+                stats.rejected[operation]++;
+            }
+        }
+        return stats;
+    }
+
+    private static int pickAccount(SplittableRandom random, int population, double[] zipfCdf) {
+        if (zipfCdf == null) {
+            return random.nextInt(population);
+        }
+        int index = Arrays.binarySearch(zipfCdf, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, population - 1);
+    }
+
+    /**
+     * @return Cumulative Zipf probabilities, index 0 being the most frequently picked account
+     */
+    private static double[] zipfCumulativeDistribution(int population, double exponent) {
+        double[] cdf = new double[population];
+        double sum = 0;
+        for (int rank = 1; rank <= population; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < population; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static Account[] createLoadAccounts(int population) {
+        Account[] accounts = new Account[population];
+        for (int i = 0; i < population; i++) {
+            // Restored under their own ids so the session's account and customer counters do not move
+            RegularCustomer customer = RegularCustomer.restore("LOADCUS" + (i + 1), "Load Customer", 30,
+                "+233-559-123456", "12 Main Street", "load" + (i + 1) + "@example.com");
+            String accountNumber = "LOAD" + (i + 1);
+            accounts[i] = i % 2 == 0
+                ? SavingsAccount.restore(customer, accountNumber, LOAD_OPENING_BALANCE, "Active")
+                : CheckingAccount.restore(customer, accountNumber, LOAD_OPENING_BALANCE, "Active");
+        }
+        return accounts;
+    }
+
+    private static boolean loadDeposit(Account account, double amount, TransactionManager transactionManager) {
+        try {
+            synchronized (account) {
+                account.deposit(amount);
+                transactionManager.addTransaction(loadTransaction(account, amount, TransactionType.DEPOSIT, null));
+            }
+            return true;
+        } catch (InvalidAmountException e) {
+            return false;
+        }
+    }
+
+    private static boolean loadWithdrawal(Account account, double amount, TransactionManager transactionManager) {
+        try {
+            synchronized (account) {
+                transactionManager.getVelocityLimits().debit(account, TransactionType.WITHDRAWAL, amount, () -> account.withdrawal(amount));
+                transactionManager.addTransaction(loadTransaction(account, amount, TransactionType.WITHDRAWAL, null));
+            }
+            return true;
+        } catch (InvalidAmountException | InsufficientFundsException | OverdraftExceededException | VelocityLimitExceededException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Both accounts are locked in index order so opposite transfers cannot deadlock
+     */
+    private static boolean loadTransfer(Account source, Account target, boolean sourceFirst, double amount,
+                                        TransactionManager transactionManager) {
+        Account first = sourceFirst ? source : target;
+        Account second = sourceFirst ? target : source;
+        try {
+            synchronized (first) {
+                synchronized (second) {
+                    transactionManager.getVelocityLimits().debit(source, TransactionType.TRANSFER, amount, () -> source.withdrawal(amount));
+                    target.deposit(amount);
+                    transactionManager.addTransaction(loadTransaction(source, amount, TransactionType.TRANSFER, TransferToOrFromType.FROM));
+                    transactionManager.addTransaction(loadTransaction(target, amount, TransactionType.TRANSFER, TransferToOrFromType.TO));
+                }
+            }
+            return true;
+        } catch (InvalidAmountException | InsufficientFundsException | OverdraftExceededException | VelocityLimitExceededException e) {
+            return false;
+        }
+    }
+
+    private static Transaction loadTransaction(Account account, double amount, TransactionType type, TransferToOrFromType direction) {
+        Transaction transaction = new Transaction(account.getAccountNumber(), amount, account.getAccountBalance());
+        transaction.setType(type.getDescription());
+        if (direction != null) {
+            transaction.setTransferToOrFrom(direction);
+        }
+        return transaction;
+    }
+
+    private static LoadReport toLoadReport(LoadProfile profile, WorkerStats total, int transactionsRecorded, long elapsedNanos) {
+        LatencyRecorder all = new LatencyRecorder();
+        List<OperationStats> byOperation = new ArrayList<>(OPERATIONS.length);
+        long rejected = 0;
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            LatencyRecorder latencies = total.latencies[op];
+            all.merge(latencies);
+            rejected += total.rejected[op];
+            byOperation.add(new OperationStats(OPERATIONS[op], latencies.getCount(), total.rejected[op],
+                latencies.quantileNanos(0.5), latencies.quantileNanos(0.99), latencies.quantileNanos(0.999), latencies.getMaxNanos()));
+        }
+        return new LoadReport(profile, all.getCount(), rejected, transactionsRecorded, elapsedNanos,
+            all.quantileNanos(0.5), all.quantileNanos(0.99), all.quantileNanos(0.999), all.getMaxNanos(), byOperation);
+    }
+
+    /**
+     * Prints a load test report
+     */
+    public static void printLoadReport(LoadReport report) {
+        LoadProfile profile = report.profile();
+        IO.println("""
+            
+            ╔══════════════════════════════════════════════════════════════╗
+            ║                     LOAD TEST REPORT                         ║
+            ╚══════════════════════════════════════════════════════════════╝
+            """);
+        IO.println(String.format("Threads: %d | Accounts: %,d (%s%s) | Mix: %d%% deposit / %d%% withdrawal / %d%% transfer",
+            profile.threads(), profile.accountPopulation(), profile.skew().getDescription(),
+            profile.skew() == AccountSkew.ZIPF ? ", s=" + profile.zipfExponent() : "",
+            profile.depositPercent(), profile.withdrawalPercent(), profile.transferPercent()));
+        IO.println(String.format("Operations: %,d in %.2f s  →  %,.0f ops/sec  (%,d transactions recorded)",
+            report.operations(), report.elapsedNanos() / 1e9, report.opsPerSecond(), report.transactionsRecorded()));
+        IO.println("-".repeat(86));
+        IO.println(String.format("%-12s %14s %10s %10s %10s %10s %10s", "OPERATION", "COUNT", "REJECTED", "P50", "P99", "P99.9", "MAX"));
+        IO.println("-".repeat(86));
+        for (OperationStats stats : report.byOperation()) {
+            IO.println(String.format("%-12s %,14d %9.2f%% %10s %10s %10s %10s", stats.operation(), stats.attempted(),
+                stats.rejectionRate() * 100, formatLatency(stats.p50Nanos()), formatLatency(stats.p99Nanos()),
+                formatLatency(stats.p999Nanos()), formatLatency(stats.maxNanos())));
+        }
+        IO.println("-".repeat(86));
+        IO.println(String.format("%-12s %,14d %9.2f%% %10s %10s %10s %10s", "All", report.operations(),
+            report.rejectionRate() * 100, formatLatency(report.p50Nanos()), formatLatency(report.p99Nanos()),
+            formatLatency(report.p999Nanos()), formatLatency(report.maxNanos())));
+    }
+
+    private static String formatLatency(long nanos) {
+        if (nanos < 1_000) return nanos + " ns";
+        if (nanos < 1_000_000) return String.format("%.1f µs", nanos / 1e3);
+        return String.format("%.2f ms", nanos / 1e6);
+    }
 }
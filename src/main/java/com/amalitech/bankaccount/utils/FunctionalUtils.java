@@ -1,30 +1,80 @@
 package com.amalitech.bankaccount.utils;
 
 import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.BalanceStatistics;
 import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.enums.CustomerType;
 import com.amalitech.bankaccount.enums.TransactionType;
+import com.amalitech.bankaccount.transaction.AmountSketch;
+import com.amalitech.bankaccount.transaction.SlidingWindowCounter;
 import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionAmountStatistics;
+import com.amalitech.bankaccount.transaction.TransactionSummary;
+import com.amalitech.bankaccount.transaction.TransactionVolume;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.DoubleSummaryStatistics;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Utility class for functional programming operations
  * Provides Stream-based operations for filtering, mapping, sorting, and reduction
  * Uses Lambdas, Method References, and Functional Interfaces
+ * <p>
+ * The *Parallel variants run sequentially on small lists and switch to a parallel stream on
+ * a dedicated ForkJoinPool once a list reaches PARALLEL_THRESHOLD elements, so reports over
+ * millions of accounts use every core without competing with the common pool
  */
 public class FunctionalUtils {
     
+    /**
+     * List size from which the *Parallel variants go parallel. Below it the fork/join and merge
+     * overhead outweighs the gain (see ParallelCrossoverBenchmark in the benchmarks module);
+     * override with -Dbank.parallelThreshold=&lt;size&gt;
+     */
+    public static final int PARALLEL_THRESHOLD = Integer.getInteger("bank.parallelThreshold", 20_000);
+    
+    /**
+     * Worker count of the dedicated pool, override with -Dbank.parallelism=&lt;threads&gt;
+     */
+    public static final int PARALLELISM = Math.max(1, Integer.getInteger("bank.parallelism", Runtime.getRuntime().availableProcessors()));
+    
+    // Dedicated pool: a parallel stream started from one of its tasks forks into it, not the common pool
+    private static final ForkJoinPool PARALLEL_POOL = new ForkJoinPool(PARALLELISM, pool -> {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("functional-utils-" + worker.getPoolIndex());
+        worker.setDaemon(true);
+        return worker;
+    }, null, false);
+    
+    // Label for transactions whose type is not a TransactionType
+    private static final String OTHER_TYPES = "Other";
+    
+    // Balance thresholds the account summary counts, from the balance columns
+    private static final double[] BALANCE_BANDS = {1_000, 10_000, 100_000};
+    
     // ==================== ACCOUNT OPERATIONS ====================
     
     /**
-     * Filters accounts by account type using Streams
+     * Filters accounts by account type using Streams (full scan; for every account of an
+     * AccountManager use its indexed findAccountsByType)
      * 
      * @param accounts List of accounts
      * @param type Account type to filter by
@@ -37,7 +87,8 @@ public class FunctionalUtils {
     }
     
     /**
-     * Filters accounts by minimum balance using Streams and Predicate
+     * Filters accounts by minimum balance using Streams and Predicate (full scan; for every
+     * account of an AccountManager use its indexed findAccountsWithMinBalance)
      * 
      * @param accounts List of accounts
      * @param minBalance Minimum balance threshold
@@ -319,6 +370,296 @@ public class FunctionalUtils {
             .summaryStatistics();
     }
     
+    /**
+     * Gets count, sum, min and max overall and per transaction type in a single pass
+     * 
+     * @param transactions List of transactions
+     * @return Summary of the transactions
+     */
+    public static TransactionSummary summarizeTransactions(List<Transaction> transactions) {
+        TransactionSummary summary = new TransactionSummary();
+        for (Transaction transaction : transactions) {
+            summary.accept(transaction);
+        }
+        return summary;
+    }
+    
+    // ==================== PARALLEL OPERATIONS ====================
+    
+    /**
+     * Runs a pipeline on a sequential stream below the threshold, otherwise on a parallel
+     * stream inside the dedicated pool
+     */
+    private static <T, R> R adaptive(List<T> source, Function<Stream<T>, R> pipeline) {
+        if (source.size() < PARALLEL_THRESHOLD || PARALLELISM == 1) {
+            return pipeline.apply(source.stream());
+        }
+        return PARALLEL_POOL.submit(() -> pipeline.apply(source.parallelStream())).join();
+    }
+    
+    /**
+     * @param size Number of elements an operation would process
+     * @return true if the *Parallel variants would run that size in parallel
+     */
+    public static boolean runsInParallel(int size) {
+        return size >= PARALLEL_THRESHOLD && PARALLELISM > 1;
+    }
+    
+    /**
+     * Filters accounts with a custom predicate, in parallel on large lists (order is kept)
+     * 
+     * @param accounts List of accounts
+     * @param predicate Custom filter condition
+     * @return Filtered list of accounts
+     */
+    public static List<Account> filterAccountsParallel(List<Account> accounts, Predicate<Account> predicate) {
+        return adaptive(accounts, stream -> stream.filter(predicate).collect(Collectors.toList()));
+    }
+    
+    /**
+     * Sorts accounts by balance in descending order, in parallel on large lists
+     * 
+     * @param accounts List of accounts
+     * @return Sorted list of accounts
+     */
+    public static List<Account> sortByBalanceDescendingParallel(List<Account> accounts) {
+        return adaptive(accounts, stream -> stream
+            .sorted(Comparator.comparingDouble(Account::getAccountBalance).reversed())
+            .collect(Collectors.toList()));
+    }
+    
+    /**
+     * Calculates total balance, in parallel on large lists
+     * 
+     * @param accounts List of accounts
+     * @return Total balance
+     */
+    public static double calculateTotalBalanceParallel(List<Account> accounts) {
+        return adaptive(accounts, stream -> stream.mapToDouble(Account::getAccountBalance).sum());
+    }
+    
+    /**
+     * Gets balance statistics, in parallel on large lists
+     * 
+     * @param accounts List of accounts
+     * @return DoubleSummaryStatistics with count, sum, min, max, average
+     */
+    public static DoubleSummaryStatistics getBalanceStatisticsParallel(List<Account> accounts) {
+        return adaptive(accounts, stream -> stream.mapToDouble(Account::getAccountBalance).summaryStatistics());
+    }
+    
+    /**
+     * Groups accounts by account type. In parallel every worker adds straight into one
+     * ConcurrentMap (groupingByConcurrent) instead of building per-thread maps that are merged,
+     * so the order of accounts within a group is not kept
+     * 
+     * @param accounts List of accounts
+     * @return EnumMap of account type to list of accounts, whichever way it was built
+     */
+    public static Map<AccountType, List<Account>> groupByAccountTypeParallel(List<Account> accounts) {
+        Map<AccountType, List<Account>> groups = new EnumMap<>(AccountType.class);
+        if (!runsInParallel(accounts.size())) {
+            return accounts.stream()
+                .collect(Collectors.groupingBy(Account::getType, () -> groups, Collectors.toList()));
+        }
+        groups.putAll(adaptive(accounts, stream -> stream.collect(Collectors.groupingByConcurrent(Account::getType))));
+        return groups;
+    }
+    
+    /**
+     * Calculates total deposits, in parallel on large lists
+     * 
+     * @param transactions List of transactions
+     * @return Total deposit amount
+     */
+    public static double calculateTotalDepositsParallel(List<Transaction> transactions) {
+        String deposit = TransactionType.DEPOSIT.getDescription();
+        return adaptive(transactions, stream -> stream
+            .filter(t -> t.getType().equals(deposit))
+            .mapToDouble(Transaction::getAmount)
+            .sum());
+    }
+    
+    /**
+     * Filters transactions by account number, in parallel on large lists (order is kept)
+     * 
+     * @param transactions List of transactions
+     * @param accountNumber Account number to filter by
+     * @return List of transactions for that account
+     */
+    public static List<Transaction> filterByAccountNumberParallel(List<Transaction> transactions, String accountNumber) {
+        return adaptive(transactions, stream -> stream
+            .filter(t -> t.getAccountNumber().equals(accountNumber))
+            .collect(Collectors.toList()));
+    }
+    
+    /**
+     * Counts transactions by type. In parallel this uses a concurrent collector that bumps a
+     * LongAdder per type, so workers hitting the same few keys do not serialise on them
+     * 
+     * @param transactions List of transactions
+     * @return Map of transaction type to count
+     */
+    public static Map<String, Long> countByTransactionTypeParallel(List<Transaction> transactions) {
+        if (!runsInParallel(transactions.size())) {
+            return countByTransactionType(transactions);
+        }
+        return adaptive(transactions, stream -> stream.collect(countingConcurrently(Transaction::getType)));
+    }
+    
+    /**
+     * Gets transaction statistics, in parallel on large lists
+     * 
+     * @param transactions List of transactions
+     * @return DoubleSummaryStatistics for transaction amounts
+     */
+    public static DoubleSummaryStatistics getTransactionStatisticsParallel(List<Transaction> transactions) {
+        return adaptive(transactions, stream -> stream.mapToDouble(Transaction::getAmount).summaryStatistics());
+    }
+    
+    /**
+     * Gets count, sum, min and max overall and per transaction type in a single pass, in
+     * parallel on large lists (each worker fills its own summary and the summaries are combined)
+     * 
+     * @param transactions List of transactions
+     * @return Summary of the transactions
+     */
+    public static TransactionSummary summarizeTransactionsParallel(List<Transaction> transactions) {
+        if (!runsInParallel(transactions.size())) {
+            return summarizeTransactions(transactions);
+        }
+        return adaptive(transactions, stream -> stream.collect(TransactionSummary.collector()));
+    }
+    
+    /**
+     * Concurrent, unordered counting collector: one shared map of striped counters
+     */
+    private static <T, K> Collector<T, ?, Map<K, Long>> countingConcurrently(Function<T, K> classifier) {
+        return Collector.<T, ConcurrentHashMap<K, LongAdder>, Map<K, Long>>of(
+            ConcurrentHashMap::new,
+            (counts, element) -> counts.computeIfAbsent(classifier.apply(element), key -> new LongAdder()).increment(),
+            (left, right) -> {
+                right.forEach((key, count) -> left.computeIfAbsent(key, k -> new LongAdder()).add(count.sum()));
+                return left;
+            },
+            counts -> {
+                Map<K, Long> result = new HashMap<>();
+                counts.forEach((key, count) -> result.put(key, count.sum()));
+                return result;
+            },
+            Collector.Characteristics.CONCURRENT,
+            Collector.Characteristics.UNORDERED);
+    }
+    
+    // ==================== TOP-K OPERATIONS ====================
+    
+    /**
+     * Selects the k greatest elements with a bounded heap: O(n log k) and O(k) memory instead of
+     * sorting the whole list. On large lists every worker keeps its own heap over its part of
+     * the list and the heaps are merged (parallel partial selection)
+     * 
+     * @param items List to select from
+     * @param k Number of elements to keep
+     * @param comparator Order that defines "greatest"
+     * @return Up to k elements, greatest first
+     */
+    public static <T> List<T> topK(List<T> items, int k, Comparator<? super T> comparator) {
+        if (k <= 0) {
+            return List.of();
+        }
+        return adaptive(items, stream -> stream.collect(boundedHeap(k, comparator)));
+    }
+    
+    /**
+     * Selects the k least elements with a bounded heap
+     * 
+     * @param items List to select from
+     * @param k Number of elements to keep
+     * @param comparator Order that defines "least"
+     * @return Up to k elements, least first
+     */
+    public static <T> List<T> bottomK(List<T> items, int k, Comparator<? super T> comparator) {
+        return topK(items, k, Collections.reverseOrder(comparator));
+    }
+    
+    /**
+     * Top accounts by balance from a list. For every account of an AccountManager,
+     * AccountManager.getTopAccounts reads the maintained leaderboard instead
+     * 
+     * @param accounts List of accounts
+     * @param k Number of accounts
+     * @return Up to k accounts with the highest balances, highest first
+     */
+    public static List<Account> topAccountsByBalance(List<Account> accounts, int k) {
+        return topK(accounts, k, Comparator.comparingDouble(Account::getAccountBalance));
+    }
+    
+    /**
+     * @param accounts List of accounts
+     * @param k Number of accounts
+     * @return Up to k accounts with the lowest balances, lowest first
+     */
+    public static List<Account> bottomAccountsByBalance(List<Account> accounts, int k) {
+        return bottomK(accounts, k, Comparator.comparingDouble(Account::getAccountBalance));
+    }
+    
+    /**
+     * @param transactions List of transactions
+     * @param k Number of transactions
+     * @return Up to k transactions with the largest amounts, largest first
+     */
+    public static List<Transaction> largestTransactions(List<Transaction> transactions, int k) {
+        return topK(transactions, k, Comparator.comparingDouble(Transaction::getAmount));
+    }
+    
+    /**
+     * @param transactions List of transactions
+     * @param k Number of transactions
+     * @return Up to k transactions with the smallest amounts, smallest first
+     */
+    public static List<Transaction> smallestTransactions(List<Transaction> transactions, int k) {
+        return bottomK(transactions, k, Comparator.comparingDouble(Transaction::getAmount));
+    }
+    
+    /**
+     * Collector keeping the k greatest elements in a min-heap whose head is the weakest kept
+     * element, so a stream or a scan selects them in O(k) memory
+     * 
+     * @param k Number of elements to keep, more than 0
+     * @param comparator Order that defines "greatest"
+     * @return Collector producing up to k elements, greatest first
+     */
+    public static <T> Collector<T, ?, List<T>> topKCollector(int k, Comparator<? super T> comparator) {
+        return boundedHeap(k, comparator);
+    }
+    
+    /**
+     * Collector keeping the k greatest elements in a min-heap whose head is the weakest kept element
+     */
+    private static <T> Collector<T, ?, List<T>> boundedHeap(int k, Comparator<? super T> comparator) {
+        return Collector.<T, PriorityQueue<T>, List<T>>of(
+            () -> new PriorityQueue<>(Math.min(k, 1024), comparator),
+            (heap, element) -> offerBounded(heap, element, k, comparator),
+            (left, right) -> {
+                right.forEach(element -> offerBounded(left, element, k, comparator));
+                return left;
+            },
+            heap -> {
+                List<T> result = new ArrayList<>(heap);
+                result.sort(comparator.reversed());
+                return result;
+            });
+    }
+    
+    private static <T> void offerBounded(PriorityQueue<T> heap, T element, int k, Comparator<? super T> comparator) {
+        if (heap.size() < k) {
+            heap.add(element);
+        } else if (comparator.compare(element, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(element);
+        }
+    }
+    
     /**
      * Creates a custom mapper function
      * 
@@ -359,15 +700,67 @@ public class FunctionalUtils {
         );
     }
     
+    /**
+     * Prints a summary of account statistics from incrementally maintained statistics,
+     * without touching the accounts themselves (O(1) whatever the number of accounts)
+     * 
+     * @param statistics Statistics of an AccountManager
+     */
+    public static void printAccountSummary(BalanceStatistics statistics) {
+        BalanceStatistics.BalanceSummary overall = statistics.overall();
+        
+        IO.println("""
+            
+            ╔══════════════════════════════════════════════════════════════╗
+            ║                    ACCOUNT SUMMARY                           ║
+            ╚══════════════════════════════════════════════════════════════╝
+            """);
+        
+        IO.println("Total Accounts: " + overall.count());
+        IO.println("Total Balance: $" + String.format("%,.2f", overall.sum()));
+        IO.println("Average Balance: $" + String.format("%,.2f", overall.mean()));
+        IO.println("Highest Balance: $" + String.format("%,.2f", overall.max()));
+        IO.println("Lowest Balance: $" + String.format("%,.2f", overall.min()));
+        
+        IO.println("\nAccounts by Type:");
+        for (AccountType type : AccountType.values()) {
+            printGroupSummary(type.getDescription(), statistics.byAccountType(type));
+        }
+        IO.println("\nAccounts by Customer Type:");
+        for (CustomerType type : CustomerType.values()) {
+            printGroupSummary(type.getDescription(), statistics.byCustomerType(type));
+        }
+        IO.println("\nAccounts by Balance:");
+        for (double threshold : BALANCE_BANDS) {
+            IO.println(String.format("  $%,.0f or more: %d accounts", threshold, statistics.countAtLeast(threshold)));
+        }
+        IO.println("\nTop Accounts by Balance:");
+        for (BalanceStatistics.RankedBalance ranked : statistics.top(5)) {
+            IO.println(String.format("  %s: $%,.2f", ranked.accountNumber(), ranked.balance()));
+        }
+    }
+    
+    private static void printGroupSummary(String group, BalanceStatistics.BalanceSummary summary) {
+        IO.println(String.format("  %s: %d accounts, total $%,.2f, average $%,.2f, min $%,.2f, max $%,.2f",
+            group, summary.count(), summary.sum(), summary.mean(), summary.min(), summary.max()));
+    }
+    
     /**
      * Prints a summary of transaction statistics
      * 
      * @param transactions List of transactions
      */
     public static void printTransactionSummary(List<Transaction> transactions) {
-        DoubleSummaryStatistics stats = getTransactionStatistics(transactions);
-        Map<String, Long> countByType = countByTransactionType(transactions);
-        
+        printTransactionSummary(summarizeTransactionsParallel(transactions));
+    }
+    
+    /**
+     * Prints a summary of transaction statistics already gathered in one pass
+     * (summarizeTransactions) or read from the sketches (TransactionAmountStatistics.summary())
+     * 
+     * @param summary Summary of the transactions
+     */
+    public static void printTransactionSummary(TransactionSummary summary) {
         IO.println("""
             
             ╔══════════════════════════════════════════════════════════════╗
@@ -375,20 +768,78 @@ public class FunctionalUtils {
             ╚══════════════════════════════════════════════════════════════╝
             """);
         
-        IO.println("Total Transactions: " + stats.getCount());
-        IO.println("Total Amount: $" + String.format("%,.2f", stats.getSum()));
-        IO.println("Average Amount: $" + String.format("%,.2f", stats.getAverage()));
-        IO.println("Largest Transaction: $" + String.format("%,.2f", stats.getMax()));
-        IO.println("Smallest Transaction: $" + String.format("%,.2f", stats.getMin()));
+        IO.println("Total Transactions: " + summary.getCount());
+        IO.println("Total Amount: $" + String.format("%,.2f", summary.getSum()));
+        IO.println("Average Amount: $" + String.format("%,.2f", summary.getMean()));
+        IO.println("Largest Transaction: $" + String.format("%,.2f", summary.getMax()));
+        IO.println("Smallest Transaction: $" + String.format("%,.2f", summary.getMin()));
         
         IO.println("\nTransactions by Type:");
-        countByType.forEach((type, count) -> 
-            IO.println("  " + type + ": " + count + " transactions")
-        );
+        for (TransactionType type : TransactionType.values()) {
+            printTypeSummary(type.getDescription(), summary, type);
+        }
+        printTypeSummary(OTHER_TYPES, summary, null);
+    }
+    
+    private static void printTypeSummary(String label, TransactionSummary summary, TransactionType type) {
+        if (summary.getCount(type) == 0) return;
+        IO.println(String.format("  %s: %d transactions, total $%,.2f, average $%,.2f, min $%,.2f, max $%,.2f",
+            label, summary.getCount(type), summary.getSum(type), summary.getMean(type),
+            summary.getMin(type), summary.getMax(type)));
+    }
+    
+    /**
+     * Prints a summary of transaction statistics from the incrementally maintained sketches,
+     * without scanning the transactions, including amount percentiles
+     * 
+     * @param statistics Amount statistics of a TransactionManager
+     */
+    public static void printTransactionSummary(TransactionAmountStatistics statistics) {
+        AmountSketch overall = statistics.overall();
+        
+        IO.println("""
+            
+            ╔══════════════════════════════════════════════════════════════╗
+            ║                  TRANSACTION SUMMARY                         ║
+            ╚══════════════════════════════════════════════════════════════╝
+            """);
+        
+        IO.println("Total Transactions: " + overall.getCount());
+        IO.println("Total Amount: $" + String.format("%,.2f", overall.getSum()));
+        IO.println("Average Amount: $" + String.format("%,.2f", overall.getMean()));
+        IO.println("Largest Transaction: $" + String.format("%,.2f", overall.getMax()));
+        IO.println("Smallest Transaction: $" + String.format("%,.2f", overall.getMin()));
+        IO.println("Amount Percentiles: " + formatPercentiles(overall));
         
-        IO.println("\nTotals by Type:");
-        IO.println("  Total Deposits: $" + String.format("%,.2f", calculateTotalDeposits(transactions)));
-        IO.println("  Total Withdrawals: $" + String.format("%,.2f", calculateTotalWithdrawals(transactions)));
-        IO.println("  Total Transfers: $" + String.format("%,.2f", calculateTotalTransfers(transactions)));
+        IO.println("\nTransactions by Type:");
+        statistics.byType().forEach((type, sketch) -> printTypeSketch(type.getDescription(), sketch));
+        printTypeSketch(OTHER_TYPES, statistics.byType(null));
+    }
+    
+    private static void printTypeSketch(String label, AmountSketch sketch) {
+        if (sketch.getCount() == 0) return;
+        IO.println(String.format("  %s: %d transactions, total $%,.2f, %s",
+            label, sketch.getCount(), sketch.getSum(), formatPercentiles(sketch)));
+    }
+    
+    /**
+     * Prints bank-wide transaction volume over the last minute, hour and day, per type
+     * 
+     * @param volume Sliding-window counters of a TransactionManager
+     */
+    public static void printTransactionVolume(TransactionVolume volume) {
+        IO.println("\nRecent Activity (last minute / hour / day):");
+        for (TransactionType type : TransactionType.values()) {
+            SlidingWindowCounter.WindowTotals minute = volume.bankWide(type, Duration.ofMinutes(1));
+            SlidingWindowCounter.WindowTotals hour = volume.bankWide(type, Duration.ofHours(1));
+            SlidingWindowCounter.WindowTotals day = volume.bankWide(type, Duration.ofDays(1));
+            IO.println(String.format("  %s: %d / %d / %d transactions, $%,.2f / $%,.2f / $%,.2f",
+                type.getDescription(), minute.count(), hour.count(), day.count(), minute.amount(), hour.amount(), day.amount()));
+        }
+    }
+    
+    private static String formatPercentiles(AmountSketch sketch) {
+        return String.format("p50 $%,.2f, p90 $%,.2f, p99 $%,.2f",
+            sketch.quantile(0.50), sketch.quantile(0.90), sketch.quantile(0.99));
     }
 }
@@ -10,7 +10,11 @@ import com.amalitech.bankaccount.enums.TransferToOrFromType;
 import com.amalitech.bankaccount.exceptions.InsufficientFundsException;
 import com.amalitech.bankaccount.exceptions.InvalidAmountException;
 import com.amalitech.bankaccount.exceptions.OverdraftExceededException;
+import com.amalitech.bankaccount.exceptions.VelocityLimitExceededException;
 import com.amalitech.bankaccount.interfaces.Transactable;
+import com.amalitech.bankaccount.metrics.AccountOperationEvent;
+import com.amalitech.bankaccount.metrics.BankMetrics;
+import com.amalitech.bankaccount.metrics.TransferEvent;
 import com.amalitech.bankaccount.records.CustomerRecords;
 import com.amalitech.bankaccount.transaction.Transaction;
 import com.amalitech.bankaccount.transaction.TransactionManager;
@@ -57,17 +61,18 @@ public class Menu implements Transactable {
                 5. Save Data to Files
                 6. View Statistics
                 7. Run Tests
-                8. Exit
+                8. View Metrics
+                9. Exit
                 """;
 
         IO.println(introFormattedStr);
 
         while (true){
             try{
-               this.choice = receiveChoice(1, 8);
+               this.choice = receiveChoice(1, 9);
                 break;
             }catch (InputMismatchException e){
-                IO.println("Please provide a valid input. Input must be only numbers from 1-8");
+                IO.println("Please provide a valid input. Input must be only numbers from 1-9");
             }
 
         }
@@ -205,7 +210,7 @@ public class Menu implements Transactable {
                     done = this.processTransaction(transactionAmount, transactionType.getDescription());
 
                     IO.println("✔ Transaction completed successfully!");
-                }catch (InvalidAmountException | InsufficientFundsException | OverdraftExceededException err){
+                }catch (InvalidAmountException | InsufficientFundsException | OverdraftExceededException | VelocityLimitExceededException err){
                     IO.println(err.getMessage());
                 }
             }
@@ -293,24 +298,61 @@ public class Menu implements Transactable {
 
     @Override
     public boolean processTransaction(double transactionAmount, String transactionType) throws InvalidAmountException, InsufficientFundsException, OverdraftExceededException {
-        Transaction transaction;
-        Transaction recipient;
-        // Collect all the transactions specific to an account number
-        List<Transaction> userPerformingOperationTransactions = TransactionManager.getAllTransactions(this.accountSelectedForTransaction.getAccountNumber(), this.transactionManager.getTransactions());
+        if(!transactionType.equals(TransactionType.TRANSFER.getDescription())){
+            return applyTransaction(transactionAmount, transactionType);
+        }
 
+        long start = System.nanoTime();
+        TransferEvent event = new TransferEvent();
+        event.begin();
+        String outcome = AccountOperationEvent.SUCCESS;
+        try {
+            boolean applied = applyTransaction(transactionAmount, transactionType);
+            BankMetrics.TRANSFERS.increment();
+            BankMetrics.TRANSFER_LATENCY.recordSince(start);
+            return applied;
+        } catch (InvalidAmountException | InsufficientFundsException | OverdraftExceededException | VelocityLimitExceededException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.recipient(this.recipientAccount != null ? this.recipientAccount.getAccountNumber() : null)
+                .finish(this.accountSelectedForTransaction.getAccountNumber(), transactionAmount, outcome);
+        }
+    }
 
-        if(transactionType.equals(TransactionType.DEPOSIT.getDescription())) {
-            this.accountSelectedForTransaction.deposit(transactionAmount);
-        } else {
-            // Withdraw from current user account
-            this.accountSelectedForTransaction.withdrawal(transactionAmount);
+    private boolean applyTransaction(double transactionAmount, String transactionType) throws InvalidAmountException, InsufficientFundsException, OverdraftExceededException {
+        Account selected = this.accountSelectedForTransaction;
+        // Collect all the transactions specific to an account number
+        List<Transaction> userPerformingOperationTransactions = this.transactionManager.getTransactionsForAccount(selected.getAccountNumber());
+
+        // Each balance change is journaled under the account's lock, so the account's rows are
+        // in balance order and the last one holds its current balance (snapshot replay and the
+        // export roll-forward rely on that)
+        synchronized (selected) {
+            if(transactionType.equals(TransactionType.DEPOSIT.getDescription())) {
+                selected.deposit(transactionAmount);
+            } else {
+                // Withdraw from current user account, once the velocity limits allow it
+                this.transactionManager.getVelocityLimits().debit(selected, TransactionType.fromDescription(transactionType),
+                    transactionAmount, () -> selected.withdrawal(transactionAmount));
+            }
 
-            // Transfer to recipient account
+            Transaction transaction = new Transaction(selected.getAccountNumber(), transactionAmount, selected.getAccountBalance());
+            transaction.setType(transactionType);
             if(transactionType.equals(TransactionType.TRANSFER.getDescription())){
-                List<Transaction> userRecipientTransactions = TransactionManager.getAllTransactions(this.recipientAccount.getAccountNumber(), this.transactionManager.getTransactions());
+                transaction.setTransferToOrFrom(TransferToOrFromType.FROM);
+            }
+            transaction.generateTransactionId(userPerformingOperationTransactions.size() + 1);
+            this.transactionManager.addTransaction(transaction);
+        }
 
-                this.recipientAccount.deposit(transactionAmount);
-                recipient = new Transaction(this.recipientAccount.getAccountNumber(), transactionAmount, this.recipientAccount.getAccountBalance());
+        // Transfer to recipient account, under its own lock only (never both, so two opposite transfers cannot deadlock)
+        if(transactionType.equals(TransactionType.TRANSFER.getDescription())){
+            Account recipientAccount = this.recipientAccount;
+            List<Transaction> userRecipientTransactions = this.transactionManager.getTransactionsForAccount(recipientAccount.getAccountNumber());
+            synchronized (recipientAccount) {
+                recipientAccount.deposit(transactionAmount);
+                Transaction recipient = new Transaction(recipientAccount.getAccountNumber(), transactionAmount, recipientAccount.getAccountBalance());
                 recipient.setType(TransactionType.TRANSFER.getDescription());
                 recipient.setTransferToOrFrom(TransferToOrFromType.TO);
                 recipient.generateTransactionId(userRecipientTransactions.size() + 1);
@@ -318,17 +360,6 @@ public class Menu implements Transactable {
             }
         }
 
-        transaction = new Transaction(this.accountSelectedForTransaction.getAccountNumber(), transactionAmount, this.accountSelectedForTransaction.getAccountBalance());
-
-        transaction.setType(transactionType);
-        
-        if(transactionType.equals(TransactionType.TRANSFER.getDescription())){
-            transaction.setTransferToOrFrom(TransferToOrFromType.FROM);
-        }
-        
-        transaction.generateTransactionId(userPerformingOperationTransactions.size() + 1);
-        this.transactionManager.addTransaction(transaction);
-
         return true;
     }
 
@@ -401,7 +432,7 @@ public class Menu implements Transactable {
 
         transactionManager.viewTransactionsByAccount(accNumber, "Transactions:");
 
-        List<Transaction> newTransactions = TransactionManager.getAllTransactions(accNumber, transactionManager.getTransactions());
+        List<Transaction> newTransactions = transactionManager.getTransactionsForAccount(accNumber);
 
         double netCharge;
 
@@ -0,0 +1,65 @@
+package com.amalitech.bankaccount.utils;
+
+import com.amalitech.bankaccount.interfaces.BalanceKernels;
+
+/**
+ * Plain loops over a balance column, used when the Vector API module is not enabled.
+ * The loops only read a primitive array, so the JIT may still auto-vectorise some of them
+ */
+public final class ScalarBalanceKernels implements BalanceKernels {
+
+    public static final ScalarBalanceKernels INSTANCE = new ScalarBalanceKernels();
+
+    private ScalarBalanceKernels() {}
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public double sum(double[] balances, int length) {
+        // Four independent accumulators break the add dependency chain
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += balances[i];
+            s1 += balances[i + 1];
+            s2 += balances[i + 2];
+            s3 += balances[i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += balances[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public double min(double[] balances, int length) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            min = Math.min(min, balances[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] balances, int length) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, balances[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public int countAtLeast(double[] balances, int length, double threshold) {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (balances[i] >= threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,82 @@
+package com.amalitech.bankaccount.utils;
+
+import com.amalitech.bankaccount.interfaces.BalanceKernels;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels over a balance column with the incubating Vector API, at the widest vector
+ * size the CPU supports. Only usable when the JVM runs with --add-modules jdk.incubator.vector;
+ * obtain it through BalanceKernels.vectorized() or best(), never by name
+ */
+public final class VectorBalanceKernels implements BalanceKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.length() + " x double)";
+    }
+
+    @Override
+    public double sum(double[] balances, int length) {
+        DoubleVector sums = DoubleVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            sums = sums.add(DoubleVector.fromArray(SPECIES, balances, i));
+        }
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += balances[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double min(double[] balances, int length) {
+        DoubleVector mins = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            mins = mins.min(DoubleVector.fromArray(SPECIES, balances, i));
+        }
+        double min = mins.reduceLanes(VectorOperators.MIN);
+        for (; i < length; i++) {
+            min = Math.min(min, balances[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] balances, int length) {
+        DoubleVector maxes = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            maxes = maxes.max(DoubleVector.fromArray(SPECIES, balances, i));
+        }
+        double max = maxes.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            max = Math.max(max, balances[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public int countAtLeast(double[] balances, int length, double threshold) {
+        int bound = SPECIES.loopBound(length);
+        int count = 0;
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            count += DoubleVector.fromArray(SPECIES, balances, i).compare(VectorOperators.GE, threshold).trueCount();
+        }
+        for (; i < length; i++) {
+            if (balances[i] >= threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
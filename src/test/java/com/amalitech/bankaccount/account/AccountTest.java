@@ -6,16 +6,21 @@ import com.amalitech.bankaccount.customer.Customer;
 import com.amalitech.bankaccount.customer.PremiumCustomer;
 import com.amalitech.bankaccount.customer.RegularCustomer;
 import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.enums.CustomerType;
 import com.amalitech.bankaccount.exceptions.InputMismatchException;
 import com.amalitech.bankaccount.exceptions.InsufficientFundsException;
 import com.amalitech.bankaccount.exceptions.InvalidAmountException;
 import com.amalitech.bankaccount.exceptions.OverdraftExceededException;
+import com.amalitech.bankaccount.utils.FunctionalUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class AccountTest {
@@ -360,6 +365,36 @@ class AccountTest {
             acc.setType(AccountType.CHECKING);
             assertEquals(AccountType.CHECKING, acc.getType());
         }
+
+        @Test
+        @DisplayName("Should read balance and status without the lock while they are written")
+        void readsBalanceViewWhileWriting() throws Exception {
+            CheckingAccount acc = new CheckingAccount(customer);
+            int writes = 20_000;
+            Thread writer = new Thread(() -> {
+                for (int i = 1; i <= writes; i++) {
+                    acc.setAccountStatus("Write " + i);
+                    acc.setAccountBalance(i);
+                }
+            });
+            writer.start();
+
+            double last = 0;
+            while (last < writes) {
+                Account.BalanceView view = acc.getBalanceView();
+                double balance = view.balance();
+                assertTrue(balance >= last, "balance went back from " + last + " to " + balance);
+                assertEquals(Math.rint(balance), balance);
+                if (balance > 0) {
+                    // The status is written just before the balance, so it is at most one write ahead
+                    int status = Integer.parseInt(view.status().substring("Write ".length()));
+                    assertTrue(status == balance || status == balance + 1, view.toString());
+                }
+                last = balance;
+            }
+            writer.join();
+            assertEquals(new Account.BalanceView(writes, "Write " + writes), acc.getBalanceView());
+        }
     }
 
     // ==================== VIEW ALL ACCOUNTS TESTS ====================
@@ -433,4 +468,207 @@ class AccountTest {
             assertEquals(acc.getAccountNumber(), acc.toString());
         }
     }
-}
\ No newline at end of file
+
+    // ==================== BALANCE STATISTICS TESTS ====================
+
+    @Nested
+    @DisplayName("Balance Statistics Tests")
+    class BalanceStatisticsTests {
+
+        @Test
+        @DisplayName("Should keep totals, min and max current as balances change")
+        void tracksBalanceChanges() throws Exception {
+            SavingsAccount savings = new SavingsAccount(customer);
+            savings.deposit(1000);
+            CheckingAccount checking = new CheckingAccount(premiumCustomer);
+            checking.deposit(20000);
+            AccountManager manager = new AccountManager(new Account[]{savings, checking});
+            BalanceStatistics statistics = manager.getBalanceStatistics();
+
+            savings.deposit(500);
+            checking.withdrawal(19800);
+
+            BalanceStatistics.BalanceSummary overall = statistics.overall();
+            assertEquals(2, overall.count());
+            assertEquals(1700.0, overall.sum(), 1e-9);
+            assertEquals(200.0, overall.min(), 1e-9);
+            assertEquals(1500.0, overall.max(), 1e-9);
+            assertEquals(850.0, overall.mean(), 1e-9);
+            assertEquals(1700.0, manager.getTotalBalance(), 1e-9);
+            assertEquals(1500.0, statistics.byAccountType(AccountType.SAVINGS).sum(), 1e-9);
+            assertEquals(200.0, statistics.byCustomerType(CustomerType.PREMIUM).max(), 1e-9);
+            assertEquals(1, statistics.byAccountType(AccountType.SAVINGS).count());
+        }
+
+        @Test
+        @DisplayName("Should not lose updates under concurrent deposits")
+        void consistentUnderConcurrentDeposits() throws Exception {
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                accounts.add(new SavingsAccount(i % 2 == 0 ? customer : premiumCustomer));
+            }
+            AccountManager manager = new AccountManager(accounts.toArray(new Account[0]));
+
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        try {
+                            accounts.get(i % accounts.size()).deposit(0.1);
+                        } catch (InvalidAmountException e) {
+                            fail(e);
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            double expected = accounts.stream().mapToDouble(Account::getAccountBalance).sum();
+            BalanceStatistics.BalanceSummary overall = manager.getBalanceStatistics().overall();
+            assertEquals(8, overall.count());
+            assertEquals(expected, overall.sum(), 1e-6);
+            assertEquals(4_000, overall.sum(), 1e-6);
+            assertEquals(accounts.stream().mapToDouble(Account::getAccountBalance).max().orElseThrow(), overall.max());
+        }
+
+        @Test
+        @DisplayName("Should keep the leaderboard ordered and agree with a bounded-heap selection")
+        void maintainsLeaderboard() throws Exception {
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Account account = new SavingsAccount(i % 2 == 0 ? customer : premiumCustomer);
+                account.deposit(100 + i * 10);
+                accounts.add(account);
+            }
+            AccountManager manager = new AccountManager(accounts.toArray(new Account[0]));
+
+            accounts.get(0).deposit(10_000);
+            accounts.get(19).setAccountBalance(10);
+
+            List<Account> top = manager.getTopAccounts(3);
+            assertEquals(List.of(accounts.get(0), accounts.get(18), accounts.get(17)), top);
+            assertEquals(FunctionalUtils.topAccountsByBalance(accounts, 3), top);
+            assertEquals(accounts.get(19), manager.getBottomAccounts(1).get(0));
+            assertEquals(FunctionalUtils.bottomAccountsByBalance(accounts, 2), manager.getBottomAccounts(2));
+            assertEquals(20, manager.getBalanceStatistics().top(50).size());
+            assertTrue(manager.getTopAccounts(0).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should keep the balance column in step with the incremental statistics")
+        void scansBalanceColumn() throws Exception {
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                Account account = i % 2 == 0 ? new SavingsAccount(customer) : new CheckingAccount(premiumCustomer);
+                account.deposit(1000 + i * 100);
+                accounts.add(account);
+            }
+            AccountManager manager = new AccountManager(accounts.toArray(new Account[0]));
+            accounts.get(3).withdrawal(1500);
+            manager.addAccount(new SavingsAccount(customer));
+
+            BalanceStatistics statistics = manager.getBalanceStatistics();
+            BalanceStatistics.BalanceSummary scanned = statistics.scanAll();
+            BalanceStatistics.BalanceSummary maintained = statistics.overall();
+            assertEquals(maintained.count(), scanned.count());
+            assertEquals(maintained.sum(), scanned.sum(), 1e-6);
+            assertEquals(maintained.min(), scanned.min());
+            assertEquals(maintained.max(), scanned.max());
+            assertEquals(manager.findAccountsWithMinBalance(3000).size(), manager.countAccountsWithMinBalance(3000));
+            assertTrue(manager.verifyBalanceStatistics());
+        }
+
+        @Test
+        @DisplayName("Should answer type and balance range queries from the indexes")
+        void answersIndexedQueries() throws Exception {
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                Customer owner = i % 3 == 0 ? premiumCustomer : customer;
+                Account account = i % 2 == 0 ? new SavingsAccount(owner) : new CheckingAccount(owner);
+                account.deposit(600 + i * 100);
+                accounts.add(account);
+            }
+            AccountManager manager = new AccountManager(accounts.toArray(new Account[0]));
+            accounts.get(1).withdrawal(1000);
+            accounts.get(3).withdrawal(950);
+
+            assertEquals(List.of(accounts.get(3), accounts.get(1)), manager.findOverdrawnAccounts());
+            assertEquals(FunctionalUtils.sortByBalanceDescending(FunctionalUtils.filterByMinBalance(accounts, 1000)),
+                manager.findAccountsWithMinBalance(1000));
+            assertEquals(6, manager.findAccountsByType(AccountType.SAVINGS).size());
+            assertEquals(FunctionalUtils.sortByBalanceDescending(accounts.stream()
+                    .filter(a -> a.getType() == AccountType.CHECKING && a.getCustomer().getType() == CustomerType.PREMIUM)
+                    .filter(a -> a.getAccountBalance() >= 0 && a.getAccountBalance() <= 1500)
+                    .toList()),
+                manager.findAccounts(AccountType.CHECKING, CustomerType.PREMIUM, 0, 1500));
+            assertEquals(4, manager.findAccountsByCustomerType(CustomerType.PREMIUM).size());
+            assertTrue(manager.findAccounts(null, null, 10, 5).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should never duplicate or misplace accounts in range queries while balances move")
+        void consistentRangeQueriesUnderConcurrentUpdates() throws Exception {
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Account account = new SavingsAccount(customer);
+                account.deposit(1000);
+                accounts.add(account);
+            }
+            AccountManager manager = new AccountManager(accounts.toArray(new Account[0]));
+
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    Account account = accounts.get(i % accounts.size());
+                    account.setAccountBalance(i % 2 == 0 ? 2000 + i : 1000 + i % 7);
+                }
+            });
+            writer.start();
+            while (writer.isAlive()) {
+                // Lock-free reads may miss an account that is moving, but never report one twice or out of range
+                BalanceStatistics statistics = manager.getBalanceStatistics();
+                List<BalanceStatistics.RankedBalance> matches = statistics.inRange(AccountType.SAVINGS, null, 1000, Double.POSITIVE_INFINITY);
+                assertTrue(matches.size() <= 8);
+                assertEquals(matches.size(), matches.stream().map(BalanceStatistics.RankedBalance::accountNumber).distinct().count());
+                assertTrue(matches.stream().allMatch(match -> match.balance() >= 1000));
+            }
+            writer.join();
+            assertEquals(8, manager.getBalanceStatistics().inRange(AccountType.SAVINGS, null, 1000, Double.POSITIVE_INFINITY).size());
+            assertTrue(manager.verifyBalanceStatistics());
+        }
+    }
+
+    // ==================== CUSTOMER SEARCH TESTS ====================
+
+    @Nested
+    @DisplayName("Customer Search Tests")
+    class CustomerSearchTests {
+
+        @Test
+        @DisplayName("Should find customers by name, surname or email prefix, case-insensitively")
+        void searchesByPrefix() {
+            SavingsAccount savings = new SavingsAccount(customer);
+            CheckingAccount checking = new CheckingAccount(premiumCustomer);
+            CheckingAccount second = new CheckingAccount(customer);
+            AccountManager manager = new AccountManager(new Account[]{savings, checking});
+            manager.addAccount(second);
+
+            assertEquals(List.of(checking.getAccountNumber()), accountNumbers(manager.searchCustomers("jA", 10)));
+            assertEquals(List.of(checking.getAccountNumber()), accountNumbers(manager.searchCustomers("smi", 10)));
+            assertEquals(List.of(checking.getAccountNumber()), accountNumbers(manager.searchCustomers("jansmith@", 10)));
+            assertEquals(List.of(savings.getAccountNumber(), second.getAccountNumber()),
+                accountNumbers(manager.searchCustomers("  Gideon D", 10)));
+            assertEquals(1, manager.searchCustomers("dakore", 1).size());
+            assertEquals("Gideon Dakore", manager.searchCustomers("doe", 10).get(0).name());
+            assertTrue(manager.searchCustomers("x", 10).isEmpty());
+            assertTrue(manager.searchCustomers(" ", 10).isEmpty());
+        }
+
+        private List<String> accountNumbers(List<CustomerSearchIndex.SearchHit> hits) {
+            return hits.stream().map(CustomerSearchIndex.SearchHit::accountNumber).toList();
+        }
+    }
+}
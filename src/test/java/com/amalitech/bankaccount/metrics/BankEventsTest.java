@@ -0,0 +1,83 @@
+package com.amalitech.bankaccount.metrics;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.SavingsAccount;
+import com.amalitech.bankaccount.customer.RegularCustomer;
+import com.amalitech.bankaccount.exceptions.InsufficientFundsException;
+import com.amalitech.bankaccount.services.FilePersistenceService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankEventsTest {
+
+    @TempDir
+    Path dataDir;
+
+    private List<RecordedEvent> record(Runnable operations) throws Exception {
+        Path file = dataDir.resolve("test.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(DepositEvent.class);
+            recording.enable(WithdrawalEvent.class);
+            recording.enable(SaveEvent.class);
+            recording.start();
+            operations.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    // ==================== EVENT TESTS ====================
+
+    @Nested
+    @DisplayName("Event Tests")
+    class EventTests {
+
+        @Test
+        @DisplayName("Should record deposits and rejected withdrawals with account, amount and outcome")
+        void recordsAccountOperations() throws Exception {
+            Account account = new SavingsAccount(new RegularCustomer("Kofi Mensah", 30, "+233-559-123456", "12 Main Street", "kofi@example.com"));
+
+            List<RecordedEvent> events = record(() -> {
+                try {
+                    account.deposit(600);
+                    assertThrows(InsufficientFundsException.class, () -> account.withdrawal(500));
+                } catch (Exception e) {
+                    fail(e);
+                }
+            });
+
+            RecordedEvent deposit = events.stream().filter(e -> e.getEventType().getName().equals("com.amalitech.bank.Deposit")).findFirst().orElseThrow();
+            assertEquals(account.getAccountNumber(), deposit.getString("accountNumber"));
+            assertEquals(600.0, deposit.getDouble("amount"));
+            assertEquals(AccountOperationEvent.SUCCESS, deposit.getString("outcome"));
+
+            RecordedEvent withdrawal = events.stream().filter(e -> e.getEventType().getName().equals("com.amalitech.bank.Withdrawal")).findFirst().orElseThrow();
+            assertEquals("InsufficientFundsException", withdrawal.getString("outcome"));
+        }
+
+        @Test
+        @DisplayName("Should record a save with the file and number of records written")
+        void recordsSave() throws Exception {
+            Account account = new SavingsAccount(new RegularCustomer("Ama Owusu", 41, "+233-244-987654", "12 Main Street", "ama@example.com"));
+            FilePersistenceService persistence = new FilePersistenceService(dataDir);
+
+            List<RecordedEvent> events = record(() -> persistence.saveAccounts(List.of(account)));
+
+            RecordedEvent save = events.stream().filter(e -> e.getEventType().getName().equals("com.amalitech.bank.Save")).findFirst().orElseThrow();
+            assertEquals("accounts", save.getString("file"));
+            assertEquals(1, save.getLong("records"));
+            assertEquals(PersistenceEvent.SUCCESS, save.getString("outcome"));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.amalitech.bankaccount.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @TempDir
+    Path dataDir;
+
+    // ==================== RECORDING TESTS ====================
+
+    @Nested
+    @DisplayName("Recording Tests")
+    class RecordingTests {
+
+        @Test
+        @DisplayName("Should count increments from many threads without losing any")
+        void countsConcurrentIncrements() throws InterruptedException {
+            Counter counter = new MetricsRegistry().counter("test_total", "Test counter");
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        counter.increment();
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(40_000, counter.sum());
+        }
+
+        @Test
+        @DisplayName("Should estimate quantiles within one power-of-two bucket")
+        void estimatesQuantiles() {
+            LatencyHistogram histogram = new MetricsRegistry().histogram("test_seconds", "Test histogram");
+            for (int i = 0; i < 99; i++) {
+                histogram.record(1_000);
+            }
+            histogram.record(1_000_000);
+
+            assertEquals(100, histogram.getCount());
+            assertEquals(1_024, histogram.quantileNanos(0.5));
+            assertEquals(1_024, histogram.quantileNanos(0.99));
+            assertEquals(1_000_000, histogram.quantileNanos(1.0));
+            assertEquals(1_000_000, histogram.getMaxNanos());
+        }
+
+        @Test
+        @DisplayName("Should estimate quantiles within a few percent with a log-linear recorder")
+        void recordsFineGrainedQuantiles() {
+            LatencyRecorder recorder = new LatencyRecorder();
+            LatencyRecorder other = new LatencyRecorder();
+            for (int i = 1; i <= 1_000; i++) {
+                (i % 2 == 0 ? recorder : other).record(i * 1_000L);
+            }
+            recorder.merge(other);
+
+            assertEquals(1_000, recorder.getCount());
+            assertEquals(500_000, recorder.quantileNanos(0.5), 500_000 * 0.035);
+            assertEquals(990_000, recorder.quantileNanos(0.99), 990_000 * 0.035);
+            assertEquals(1_000_000, recorder.quantileNanos(1.0));
+            assertEquals(500_500, recorder.getMeanNanos(), 0.001);
+        }
+
+        @Test
+        @DisplayName("Should place every value in an ordered log-linear bucket bounded within its precision")
+        void logLinearBucketLayout() {
+            LogLinearBuckets layout = new LogLinearBuckets(5);
+            long[] values = {0, 1, 63, 64, 65, 1_000, 999_999, 1L << 40, Long.MAX_VALUE};
+            int previous = -1;
+            for (long value : values) {
+                int index = layout.index(value);
+                assertTrue(index >= previous && index < layout.count());
+                assertTrue(layout.upperBound(index) >= value);
+                assertTrue(layout.upperBound(index) - value <= value / 32, "Bucket for " + value + " is too wide");
+                previous = index;
+            }
+            // Without sub-buckets the layout is powers of two
+            assertEquals(1_023, new LogLinearBuckets(0).upperBound(new LogLinearBuckets(0).index(600)));
+        }
+
+        @Test
+        @DisplayName("Should return the same metric for the same name and labels")
+        void reusesRegisteredMetrics() {
+            MetricsRegistry registry = new MetricsRegistry();
+
+            assertSame(registry.counter("test_total", "Test", "kind", "a"), registry.counter("test_total", "Test", "kind", "a"));
+            assertNotSame(registry.counter("test_total", "Test", "kind", "a"), registry.counter("test_total", "Test", "kind", "b"));
+            assertThrows(IllegalArgumentException.class, () -> registry.histogram("test_total", "Test"));
+        }
+    }
+
+    // ==================== EXPOSITION TESTS ====================
+
+    @Nested
+    @DisplayName("Exposition Tests")
+    class ExpositionTests {
+
+        @Test
+        @DisplayName("Should dump counters, gauges and cumulative histogram buckets in Prometheus format")
+        void dumpsPrometheusText() throws Exception {
+            MetricsRegistry registry = new MetricsRegistry();
+            registry.counter("test_requests_total", "Requests", "file", "accounts").add(3);
+            registry.gauge("test_accounts", "Accounts", () -> 5);
+            LatencyHistogram histogram = registry.histogram("test_duration_seconds", "Duration");
+            histogram.record(200);
+            histogram.record(2_000);
+
+            Path target = dataDir.resolve(MetricsRegistry.METRICS_FILE);
+            registry.dumpTo(target);
+            List<String> lines = Files.readAllLines(target);
+
+            assertTrue(lines.contains("# TYPE test_requests_total counter"));
+            assertTrue(lines.contains("test_requests_total{file=\"accounts\"} 3"));
+            assertTrue(lines.contains("test_accounts 5.0"));
+            assertTrue(lines.contains("# TYPE test_duration_seconds histogram"));
+            assertTrue(lines.contains("test_duration_seconds_bucket{le=\"2.56E-7\"} 1"));
+            assertTrue(lines.contains("test_duration_seconds_bucket{le=\"+Inf\"} 2"));
+            assertTrue(lines.contains("test_duration_seconds_count 2"));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.amalitech.bankaccount.query;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.AccountManager;
+import com.amalitech.bankaccount.account.CheckingAccount;
+import com.amalitech.bankaccount.account.SavingsAccount;
+import com.amalitech.bankaccount.customer.PremiumCustomer;
+import com.amalitech.bankaccount.customer.RegularCustomer;
+import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.enums.CustomerType;
+import com.amalitech.bankaccount.enums.TransactionType;
+import com.amalitech.bankaccount.interfaces.TransactionHistorySource;
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryTest {
+
+    private final List<Account> accounts = new ArrayList<>();
+    private AccountManager accountManager;
+    private TransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RegularCustomer regular = new RegularCustomer("Kofi Mensah", 30, "+233-559-123456", "12 Main Street, Accra", "kofi@example.com");
+        PremiumCustomer premium = new PremiumCustomer("Ama Owusu", 41, "+233-244-987654", "45 Oak Ave., Accra", "ama@example.com");
+        transactionManager = new TransactionManager();
+        for (int i = 0; i < 10; i++) {
+            Account account = i % 2 == 0 ? new SavingsAccount(i < 5 ? regular : premium) : new CheckingAccount(i < 5 ? regular : premium);
+            account.deposit(1000 + i * 500);
+            accounts.add(account);
+
+            Transaction transaction = new Transaction(account.getAccountNumber(), 1000 + i * 500, account.getAccountBalance());
+            transaction.setType(TransactionType.DEPOSIT.getDescription());
+            transactionManager.addTransaction(transaction);
+        }
+        accounts.get(1).withdrawal(2000);
+        Transaction withdrawal = new Transaction(accounts.get(1).getAccountNumber(), 2000, accounts.get(1).getAccountBalance());
+        withdrawal.setType(TransactionType.WITHDRAWAL.getDescription());
+        transactionManager.addTransaction(withdrawal);
+        accountManager = new AccountManager(accounts.toArray(new Account[0]));
+    }
+
+    // ==================== ACCOUNT QUERY TESTS ====================
+
+    @Nested
+    @DisplayName("Account Query Tests")
+    class AccountQueryTests {
+
+        @Test
+        @DisplayName("Should answer type and balance filters from the index with a stopped scan")
+        void pushesFiltersIntoIndex() {
+            AccountQuery query = AccountQuery.over(accountManager)
+                .whereAccountType(AccountType.CHECKING)
+                .whereBalanceBetween(2000, Double.POSITIVE_INFINITY)
+                .orderByBalance(true)
+                .limit(2);
+
+            assertEquals(List.of(accounts.get(9), accounts.get(7)), query.list());
+            String plan = query.explain().toString();
+            assertTrue(plan.startsWith("Source: balance index range scan (type CHECKING"));
+            assertTrue(plan.contains("(index order, no sort)"));
+            assertTrue(plan.contains("limit 2 (stops the index scan)"));
+            assertEquals(List.of(accounts.get(3), accounts.get(5)), AccountQuery.over(accountManager)
+                .whereAccountType(AccountType.CHECKING)
+                .whereBalanceBetween(2000, Double.POSITIVE_INFINITY)
+                .orderByBalance(false)
+                .limit(2)
+                .list());
+        }
+
+        @Test
+        @DisplayName("Should match a full scan with residual predicates, sort and limit")
+        void matchesFullScan() {
+            AccountQuery query = AccountQuery.over(accountManager)
+                .where(account -> account.getAccountNumber().endsWith("1") || account.getAccountBalance() > 3000)
+                .orderBy(Comparator.comparing(Account::getAccountNumber))
+                .limit(3);
+
+            List<Account> expected = accounts.stream()
+                .filter(account -> account.getAccountNumber().endsWith("1") || account.getAccountBalance() > 3000)
+                .sorted(Comparator.comparing(Account::getAccountNumber))
+                .limit(3)
+                .toList();
+            assertEquals(expected, query.list());
+            assertTrue(query.explain().source().startsWith("full scan"));
+            assertEquals(List.of(accounts.get(1)), AccountQuery.over(accountManager)
+                .whereAccountNumber(accounts.get(1).getAccountNumber()).whereAccountType(AccountType.CHECKING).list());
+        }
+
+        @Test
+        @DisplayName("Should read type-only aggregations from the statistics without touching accounts")
+        void aggregatesFromStatistics() {
+            AccountQuery query = AccountQuery.over(accountManager).whereCustomerType(CustomerType.PREMIUM);
+
+            DoubleSummaryStatistics summary = query.summarize();
+            DoubleSummaryStatistics expected = accounts.subList(5, 10).stream().mapToDouble(Account::getAccountBalance).summaryStatistics();
+            assertEquals(expected.getCount(), summary.getCount());
+            assertEquals(expected.getSum(), summary.getSum(), 1e-9);
+            assertEquals(expected.getMax(), summary.getMax());
+            assertTrue(query.explainSummary().source().startsWith("maintained balance statistics"));
+            assertEquals(5, query.summarizeBy(Account::getType).values().stream().mapToLong(DoubleSummaryStatistics::getCount).sum());
+        }
+    }
+
+    // ==================== TRANSACTION QUERY TESTS ====================
+
+    @Nested
+    @DisplayName("Transaction Query Tests")
+    class TransactionQueryTests {
+
+        @Test
+        @DisplayName("Should select the largest amounts with a bounded heap")
+        void selectsTopAmounts() {
+            TransactionQuery query = TransactionQuery.over(transactionManager)
+                .whereType(TransactionType.DEPOSIT)
+                .orderByAmount(true)
+                .limit(3);
+
+            assertEquals(List.of(5500.0, 5000.0, 4500.0), query.list().stream().map(Transaction::getAmount).toList());
+            assertTrue(query.explain().toString().contains("top 3 by amount with a bounded heap"));
+        }
+
+        @Test
+        @DisplayName("Should push account number and time range down and aggregate in one pass")
+        void pushesAccountAndTimeRange() {
+            String accountNumber = accounts.get(1).getAccountNumber();
+            TransactionQuery byAccount = TransactionQuery.over(transactionManager).whereAccountNumber(accountNumber);
+            assertEquals(2, byAccount.list().size());
+            assertTrue(byAccount.explain().source().startsWith("history of account"));
+
+            TransactionQuery recent = TransactionQuery.over(transactionManager)
+                .whereTimeBetween(LocalDateTime.now().minusMinutes(5), null);
+            assertEquals(11, recent.summarize().getCount());
+            assertEquals(2, recent.summarizeBy(Transaction::getType).size());
+            assertTrue(recent.explain().source().contains("binary search"));
+
+            assertTrue(TransactionQuery.over(transactionManager)
+                .whereTimeBetween(LocalDateTime.now().plusHours(1), null).list().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should stop reading the persisted history at the limit and past the time range")
+        void stopsHistoryScan() {
+            LocalDateTime start = LocalDateTime.of(2020, 1, 1, 9, 0);
+            DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss a");
+            List<Transaction> history = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                history.add(Transaction.restore("TXN" + i, "ACC001", TransactionType.DEPOSIT.getDescription(),
+                    i, i, start.plusMinutes(i).format(format), null));
+            }
+            AtomicInteger read = new AtomicInteger();
+            transactionManager.attachHistory(new TransactionHistorySource() {
+                @Override
+                public long size() {
+                    return history.size();
+                }
+
+                @Override
+                public List<Transaction> loadHistory(String accountNumber) {
+                    return List.of();
+                }
+
+                @Override
+                public List<Transaction> loadAll() {
+                    return history;
+                }
+
+                @Override
+                public void forEachWhile(Predicate<Transaction> action) {
+                    for (Transaction transaction : history) {
+                        read.incrementAndGet();
+                        if (!action.test(transaction)) return;
+                    }
+                }
+            });
+
+            TransactionQuery range = TransactionQuery.over(transactionManager).whereTimeBetween(start, start.plusMinutes(10));
+            assertEquals(11, range.summarize().getCount());
+            assertTrue(read.get() <= 13, "read " + read.get() + " history rows");
+            assertTrue(range.explainSummary().source().contains("until past"));
+
+            read.set(0);
+            TransactionQuery firstFive = TransactionQuery.over(transactionManager).limit(5);
+            assertEquals(List.of(0.0, 1.0, 2.0, 3.0, 4.0), firstFive.list().stream().map(Transaction::getAmount).toList());
+            assertEquals(5, firstFive.summarize().getCount());
+            assertEquals(10, read.get());
+        }
+    }
+}
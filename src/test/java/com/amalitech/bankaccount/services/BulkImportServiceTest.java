@@ -0,0 +1,119 @@
+package com.amalitech.bankaccount.services;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.AccountManager;
+import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.enums.CustomerType;
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkImportServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private AccountManager accountManager;
+    private TransactionManager transactionManager;
+    private BulkImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        accountManager = new AccountManager();
+        transactionManager = new TransactionManager();
+        // Tiny batches and two workers so even small files cross batch boundaries
+        importService = new BulkImportService(accountManager, transactionManager, 2, 2);
+    }
+
+    // ==================== IMPORT TESTS ====================
+
+    @Nested
+    @DisplayName("Import Tests")
+    class ImportTests {
+
+        @Test
+        @DisplayName("Should import valid CSV rows with opening deposits and reject the rest")
+        void importsCsvAndWritesRejects() throws Exception {
+            Path source = dataDir.resolve("customers.csv");
+            Files.write(source, List.of(
+                "name,age,contact,address,email,customerType,accountType,initialDeposit",
+                "Kofi Mensah,30,+233-559-123456,\"45 Oak Ave., Apt. 2B\",kofi@example.com,Regular,Savings,750",
+                "Ama Owusu,41,+233-244-987654,12 Main Street,ama@example.com,PREMIUM,CHECKING,25000",
+                "bad name,30,+233-559-123456,12 Main Street,bad@example.com,REGULAR,SAVINGS,750",
+                "Yaw Boateng,30,+233-559-123456,12 Main Street,yaw@example.com,REGULAR,SAVINGS,100",
+                "",
+                "Esi Asante,25,0559123456,12 Main Street,esi@example.com,REGULAR,CHECKING,50"
+            ));
+
+            BulkImportService.ImportReport report = importService.importFile(source);
+
+            assertEquals(5, report.rows());
+            assertEquals(2, report.imported());
+            assertEquals(3, report.rejected());
+            assertEquals(25750.0, report.deposited());
+            assertEquals(2, accountManager.getAccountCount());
+
+            List<Transaction> deposits = transactionManager.getTransactions();
+            assertEquals(2, deposits.size());
+            Account first = accountManager.findAccount(deposits.get(0).getAccountNumber());
+            assertEquals("Kofi Mensah", first.getAccountCustomer().getName());
+            assertEquals("45 Oak Ave., Apt. 2B", first.getAccountCustomer().getAddress());
+            assertEquals(AccountType.SAVINGS, first.getType());
+            assertEquals(750.0, first.getAccountBalance());
+            assertEquals(CustomerType.PREMIUM, accountManager.findAccount(deposits.get(1).getAccountNumber()).getAccountCustomer().getType());
+
+            List<String> rejects = Files.readAllLines(report.rejectsFile());
+            assertEquals(3, rejects.size());
+            assertTrue(rejects.get(0).startsWith("4|Invalid name|"));
+            assertTrue(rejects.get(1).startsWith("5|Initial deposit below minimum"));
+            assertTrue(rejects.get(2).startsWith("7|Invalid phone number|"));
+        }
+
+        @Test
+        @DisplayName("Should import JSON Lines and reject malformed records")
+        void importsJsonLines() throws Exception {
+            Path source = dataDir.resolve("customers.jsonl");
+            Files.write(source, List.of(
+                "{\"customerType\":\"REGULAR\",\"name\":\"Kofi Mensah\",\"age\":30,\"contact\":\"+233-559-123456\","
+                    + "\"address\":\"12 Main Street\",\"email\":\"kofi@example.com\",\"accountType\":\"CHECKING\",\"initialDeposit\":120.5}",
+                "{\"customerType\":\"REGULAR\",\"name\":\"Ama Owusu\"",
+                "{\"customerType\":\"REGULAR\",\"name\":\"Ama Owusu\",\"age\":30}"
+            ));
+
+            BulkImportService.ImportReport report = importService.importFile(source);
+
+            assertEquals(1, report.imported());
+            assertEquals(2, report.rejected());
+            assertEquals(120.5, accountManager.getAccounts().get(0).getAccountBalance());
+            List<String> rejects = Files.readAllLines(report.rejectsFile());
+            assertTrue(rejects.get(0).startsWith("2|Malformed JSON"));
+            assertTrue(rejects.get(1).startsWith("3|Missing contact|"));
+        }
+
+        @Test
+        @DisplayName("Should leave no rejects file when every row is valid")
+        void noRejectsFile() throws Exception {
+            Path source = dataDir.resolve("customers.csv");
+            Files.write(source, List.of(
+                "customerType,name,age,contact,address,email,accountType,initialDeposit",
+                "REGULAR,Kofi Mensah,30,+233-559-123456,12 Main Street,kofi@example.com,CHECKING,10"
+            ));
+
+            BulkImportService.ImportReport report = importService.importFile(source);
+
+            assertEquals(1, report.imported());
+            assertNull(report.rejectsFile());
+            assertFalse(Files.exists(dataDir.resolve("customers.csv" + BulkImportService.REJECTS_SUFFIX)));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.amalitech.bankaccount.services;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.AccountManager;
+import com.amalitech.bankaccount.account.CheckingAccount;
+import com.amalitech.bankaccount.account.SavingsAccount;
+import com.amalitech.bankaccount.customer.PremiumCustomer;
+import com.amalitech.bankaccount.customer.RegularCustomer;
+import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.enums.CustomerType;
+import com.amalitech.bankaccount.enums.FileFormat;
+import com.amalitech.bankaccount.enums.TransactionType;
+import com.amalitech.bankaccount.interfaces.TransactionHistorySource;
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private AccountManager accountManager;
+    private TransactionManager transactionManager;
+    private ExportService exportService;
+    private Account savings;
+    private Account checking;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        savings = new SavingsAccount(new RegularCustomer("Kofi Mensah", 30, "+233-559-123456", "12 Main Street, Accra", "kofi@example.com"));
+        checking = new CheckingAccount(new PremiumCustomer("Ama Owusu", 41, "+233-244-987654", "45 Oak Ave., Apt. 2B", "ama@example.com"));
+        accountManager = new AccountManager(new Account[]{savings, checking});
+        transactionManager = new TransactionManager();
+        exportService = new ExportService(dataDir.resolve(ExportService.EXPORT_DIRECTORY));
+
+        deposit(savings, 1000);
+        deposit(checking, 20000);
+    }
+
+    private void deposit(Account account, double amount) throws Exception {
+        account.deposit(amount);
+        Transaction transaction = new Transaction(account.getAccountNumber(), amount, account.getAccountBalance());
+        transaction.setType(TransactionType.DEPOSIT.getDescription());
+        transactionManager.addTransaction(transaction);
+    }
+
+    // ==================== EXPORT TESTS ====================
+
+    @Nested
+    @DisplayName("Export Tests")
+    class ExportTests {
+
+        @Test
+        @DisplayName("Should export filtered accounts as CSV with quoted fields")
+        void exportsFilteredAccountsAsCsv() throws Exception {
+            Path target = dataDir.resolve("accounts.csv");
+            ExportService.ExportView view = ExportService.ExportView.capture(accountManager, transactionManager);
+
+            ExportService.ExportReport report = exportService.exportAccounts(view, FileFormat.CSV,
+                ExportService.ExportFilter.all().withCustomerType(CustomerType.PREMIUM), target);
+
+            List<String> lines = Files.readAllLines(target);
+            assertEquals(1, report.rows());
+            assertEquals(2, lines.size());
+            assertTrue(lines.get(0).startsWith("accountNumber,customerId,name"));
+            assertTrue(lines.get(1).startsWith(checking.getAccountNumber() + ","));
+            assertTrue(lines.get(1).contains("\"45 Oak Ave., Apt. 2B\""));
+            assertTrue(lines.get(1).contains(",CHECKING,20000.0,Active"));
+            assertFalse(Files.exists(dataDir.resolve("accounts.csv.part")));
+        }
+
+        @Test
+        @DisplayName("Should stream persisted history and in-memory transactions as JSON Lines")
+        void exportsHistoryAndRecentAsJsonLines() throws Exception {
+            FilePersistenceService persistence = new FilePersistenceService(dataDir);
+            persistence.saveTransactions(transactionManager.getTransactions());
+            TransactionManager restored = new TransactionManager();
+            restored.attachHistory(persistence.openTransactionHistory());
+            Transaction recent = new Transaction(savings.getAccountNumber(), 50, 1050);
+            recent.setType(TransactionType.DEPOSIT.getDescription());
+            restored.addTransaction(recent);
+
+            Path target = dataDir.resolve("transactions.jsonl");
+            ExportService.ExportView view = ExportService.ExportView.capture(accountManager, restored);
+            ExportService.ExportReport report = exportService.exportTransactions(view, FileFormat.JSON_LINES,
+                ExportService.ExportFilter.all().withAccountType(AccountType.SAVINGS), target);
+
+            List<String> lines = Files.readAllLines(target);
+            assertEquals(2, report.rows());
+            assertTrue(lines.get(0).startsWith("{\"transactionId\":"));
+            assertTrue(lines.get(0).contains("\"amount\":1000.0,"));
+            assertTrue(lines.get(1).contains("\"balanceAfter\":1050.0,"));
+            assertTrue(lines.get(1).endsWith("\"transferDirection\":null}"));
+        }
+
+        @Test
+        @DisplayName("Should export the view as captured while transactions keep flowing")
+        void exportsPointInTimeView() throws Exception {
+            ExportService.ExportView view = ExportService.ExportView.capture(accountManager, transactionManager);
+            deposit(savings, 500);
+
+            Path accounts = dataDir.resolve("accounts.csv");
+            Path transactions = dataDir.resolve("transactions.csv");
+            exportService.exportAccounts(view, FileFormat.CSV, ExportService.ExportFilter.all(), accounts);
+            ExportService.ExportReport report = exportService.exportTransactions(view, FileFormat.CSV, ExportService.ExportFilter.all(), transactions);
+
+            assertEquals(2, view.getTransactionCount());
+            assertEquals(2, report.rows());
+            assertTrue(Files.readAllLines(accounts).get(1).contains(",SAVINGS,1000.0,Active"));
+        }
+
+        @Test
+        @DisplayName("Should roll every account forward to the cut while deposits keep being journaled")
+        void rollsForwardToCutUnderConcurrentDeposits() throws Exception {
+            List<Thread> writers = new ArrayList<>();
+            // Two writers per account, so its deposits race each other for the journal
+            for (Account account : List.of(savings, checking, savings, checking)) {
+                Thread writer = new Thread(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        synchronized (account) {
+                            try {
+                                deposit(account, 1);
+                            } catch (Exception e) {
+                                fail(e);
+                            }
+                        }
+                    }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+
+            Pattern balance = Pattern.compile("\"accountNumber\":\"([^\"]+)\".*\"balance\":([-0-9.E]+),");
+            Path target = dataDir.resolve("accounts.jsonl");
+            while (writers.stream().anyMatch(Thread::isAlive)) {
+                ExportService.ExportView view = ExportService.ExportView.capture(accountManager, transactionManager);
+                // Every row is a deposit, so an account's balance at the cut is the sum of its rows in the cut
+                Map<String, Double> expected = transactionManager.getTransactions().subList(0, (int) view.getTransactionCount()).stream()
+                    .collect(Collectors.groupingBy(Transaction::getAccountNumber, Collectors.summingDouble(Transaction::getAmount)));
+
+                exportService.exportAccounts(view, FileFormat.JSON_LINES, ExportService.ExportFilter.all(), target);
+                for (String line : Files.readAllLines(target)) {
+                    Matcher matcher = balance.matcher(line);
+                    assertTrue(matcher.find());
+                    assertEquals(expected.get(matcher.group(1)), Double.parseDouble(matcher.group(2)), 1e-6);
+                }
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+
+        @Test
+        @DisplayName("Should fail the export and leave no file when a write fails partway through the history")
+        void failsWhenWriteFailsMidHistory() throws Exception {
+            FilePersistenceService persistence = new FilePersistenceService(dataDir);
+            persistence.saveTransactions(transactionManager.getTransactions());
+            TransactionHistorySource persisted = persistence.openTransactionHistory();
+            // The second history row cannot be encoded (lone surrogate), so writing it throws
+            TransactionHistorySource failing = new TransactionHistorySource() {
+                @Override public long size() { return persisted.size(); }
+                @Override public List<Transaction> loadHistory(String accountNumber) { return persisted.loadHistory(accountNumber); }
+                @Override public List<Transaction> loadAll() { return persisted.loadAll(); }
+                @Override public void forEach(Consumer<Transaction> action) {
+                    int[] seen = {0};
+                    persisted.forEach(transaction -> {
+                        if (seen[0]++ == 1) transaction.setType("Deposit\uD800");
+                        action.accept(transaction);
+                    });
+                }
+            };
+            TransactionManager restored = new TransactionManager();
+            restored.attachHistory(failing);
+            Path target = dataDir.resolve("transactions.csv");
+
+            ExportService.ExportView view = ExportService.ExportView.capture(accountManager, restored);
+            IOException e = assertThrows(IOException.class, () ->
+                exportService.exportTransactions(view, FileFormat.CSV, ExportService.ExportFilter.all(), target));
+
+            assertTrue(e.getMessage().startsWith("Cannot encode export record"));
+            assertFalse(Files.exists(target));
+            assertFalse(Files.exists(dataDir.resolve("transactions.csv.part")));
+        }
+
+        @Test
+        @DisplayName("Should filter transactions by date range")
+        void filtersByDateRange() throws Exception {
+            Path target = dataDir.resolve("transactions.csv");
+            ExportService.ExportView view = ExportService.ExportView.capture(accountManager, transactionManager);
+
+            ExportService.ExportReport report = exportService.exportTransactions(view, FileFormat.CSV,
+                ExportService.ExportFilter.all().withDateRange(LocalDateTime.now().plusDays(1), null), target);
+
+            assertEquals(0, report.rows());
+            assertEquals(1, Files.readAllLines(target).size());
+        }
+    }
+}
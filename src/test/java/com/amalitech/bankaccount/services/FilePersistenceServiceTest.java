@@ -0,0 +1,403 @@
+package com.amalitech.bankaccount.services;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.customer.Customer;
+import com.amalitech.bankaccount.enums.TransactionType;
+import com.amalitech.bankaccount.interfaces.TransactionHistorySource;
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilePersistenceServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private FilePersistenceService persistenceService;
+    private List<Transaction> transactions;
+
+    @BeforeEach
+    void setUp() {
+        persistenceService = new FilePersistenceService(dataDir);
+        transactions = new ArrayList<>();
+        transactions.add(transaction("ACC001", 1000.0, 1000.0, TransactionType.DEPOSIT));
+        transactions.add(transaction("ACC002", 500.0, 500.0, TransactionType.DEPOSIT));
+        transactions.add(transaction("ACC001", 200.0, 800.0, TransactionType.WITHDRAWAL));
+    }
+
+    private static Transaction transaction(String accNumber, double amount, double balanceAfter, TransactionType type) {
+        Transaction transaction = new Transaction(accNumber, amount, balanceAfter);
+        transaction.setType(type.getDescription());
+        return transaction;
+    }
+
+    // ==================== JOURNAL TESTS ====================
+
+    @Nested
+    @DisplayName("Append-only Journal Tests")
+    class JournalTests {
+
+        @Test
+        @DisplayName("Should only append transactions recorded since the last save")
+        void appendsOnlyNewTransactions() throws Exception {
+            persistenceService.saveTransactions(transactions);
+            transactions.add(transaction("ACC002", 50.0, 550.0, TransactionType.DEPOSIT));
+            persistenceService.saveTransactions(transactions);
+
+            assertEquals(4, Files.readAllLines(persistenceService.getTransactionsPath()).size());
+            assertEquals(4, new FilePersistenceService(dataDir).loadTransactions().size());
+        }
+    }
+
+    // ==================== LAZY HISTORY TESTS ====================
+
+    @Nested
+    @DisplayName("Lazy History Tests")
+    class LazyHistoryTests {
+
+        @Test
+        @DisplayName("Should fault in a single account's history through the offset index")
+        void loadHistoryForAccount() {
+            persistenceService.saveTransactions(transactions);
+
+            TransactionHistorySource history = new FilePersistenceService(dataDir).openTransactionHistory();
+            List<Transaction> acc1 = history.loadHistory("ACC001");
+
+            assertEquals(3, history.size());
+            assertEquals(2, acc1.size());
+            assertEquals(800.0, acc1.get(1).getBalanceAfter());
+            assertTrue(history.loadHistory("ACC999").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should rebuild a missing index from the journal")
+        void rebuildMissingIndex() throws Exception {
+            persistenceService.saveTransactions(transactions);
+            Files.delete(dataDir.resolve(TransactionIndex.INDEX_FILE));
+
+            TransactionHistorySource history = new FilePersistenceService(dataDir).openTransactionHistory();
+
+            assertEquals(1, history.loadHistory("ACC002").size());
+        }
+
+        @Test
+        @DisplayName("Should append new positions to the index and ignore a save cut short")
+        void appendsToIndex() throws Exception {
+            Path indexPath = dataDir.resolve(TransactionIndex.INDEX_FILE);
+            persistenceService.saveTransactions(transactions);
+            String rewritten = Files.readString(indexPath);
+            transactions.add(transaction("ACC002", 50.0, 550.0, TransactionType.DEPOSIT));
+            persistenceService.saveTransactions(transactions);
+
+            List<String> lines = Files.readAllLines(indexPath);
+            assertTrue(Files.readString(indexPath).startsWith(rewritten));
+            assertEquals(6, lines.size());
+            assertTrue(lines.get(4).startsWith("ACC002|3@"));
+            assertTrue(lines.get(5).startsWith("#COMMIT|4|"));
+
+            // A save that stopped before its commit line leaves the committed index usable
+            Files.writeString(indexPath, "ACC001|9@999", StandardOpenOption.APPEND);
+            TransactionHistorySource history = new FilePersistenceService(dataDir).openTransactionHistory();
+            assertEquals(4, history.size());
+            assertEquals(2, history.loadHistory("ACC001").size());
+            assertEquals(2, history.loadHistory("ACC002").size());
+        }
+
+        @Test
+        @DisplayName("Should fault in offsets spread over appended lines and keep them after merging the index")
+        void faultsAcrossAppendedAndMergedLines() throws Exception {
+            Path indexPath = dataDir.resolve(TransactionIndex.INDEX_FILE);
+            persistenceService.saveTransactions(transactions);
+            for (int i = 0; i < 80; i++) {
+                transactions.add(transaction(i % 2 == 0 ? "ACC001" : "ACC002", 1.0, 1000.0 + i, TransactionType.DEPOSIT));
+                persistenceService.saveTransactions(transactions);
+                if (i == 40) {
+                    TransactionHistorySource history = new FilePersistenceService(dataDir).openTransactionHistory();
+                    assertEquals(23, history.loadHistory("ACC001").size());
+                    assertEquals(21, history.loadHistory("ACC002").size());
+                }
+            }
+
+            // Appended lines went past the bound, so the index was rewritten with one line per account
+            assertTrue(Files.readAllLines(indexPath).size() < 80);
+            TransactionHistorySource history = new FilePersistenceService(dataDir).openTransactionHistory();
+            List<Transaction> acc1 = history.loadHistory("ACC001");
+            assertEquals(42, acc1.size());
+            assertEquals(1078.0, acc1.getLast().getBalanceAfter());
+            assertEquals(41, history.loadHistory("ACC002").size());
+        }
+
+        @Test
+        @DisplayName("Should combine faulted-in history with new in-memory transactions")
+        void transactionManagerCombinesHistory() {
+            persistenceService.saveTransactions(transactions);
+            FilePersistenceService reopened = new FilePersistenceService(dataDir);
+            TransactionManager manager = new TransactionManager();
+            manager.attachHistory(reopened.openTransactionHistory());
+
+            manager.addTransaction(transaction("ACC001", 100.0, 900.0, TransactionType.DEPOSIT));
+            reopened.saveTransactions(manager.getTransactions(), manager.getHistoryOffset());
+
+            assertEquals(3, manager.getTransactionsForAccount("ACC001").size());
+            assertEquals(4, manager.getAllTransactions().size());
+            assertEquals(4, reopened.loadTransactions().size());
+        }
+    }
+
+    // ==================== COMPRESSED ARCHIVE TESTS ====================
+
+    @Nested
+    @DisplayName("Compressed Archive Tests")
+    class CompressedArchiveTests {
+
+        private static final int ENTRIES = TransactionArchive.BLOCK_ENTRIES * 2 + 10;
+
+        @BeforeEach
+        void fillJournal() {
+            transactions.clear();
+            for (int i = 0; i < ENTRIES; i++) {
+                transactions.add(transaction(i % 2 == 0 ? "ACC001" : "ACC002", i, i, TransactionType.DEPOSIT));
+            }
+            persistenceService.saveTransactions(transactions);
+        }
+
+        @Test
+        @DisplayName("Should compact the journal into a smaller compressed segment")
+        void compactsIntoCompressedSegment() throws Exception {
+            long journalBytes = Files.size(persistenceService.getTransactionsPath());
+
+            persistenceService.compactTransactions(ENTRIES);
+
+            List<Path> segments = persistenceService.listArchiveSegments();
+            assertEquals(1, segments.size());
+            assertTrue(segments.getFirst().toString().endsWith(TransactionArchive.EXTENSION));
+            assertTrue(Files.size(segments.getFirst()) < journalBytes / 2);
+            assertEquals(ENTRIES, new FilePersistenceService(dataDir).loadTransactions().size());
+        }
+
+        @Test
+        @DisplayName("Should read a sequence range spanning two blocks")
+        void readRangeAcrossBlocks() {
+            persistenceService.compactTransactions(ENTRIES - 5);
+            int from = TransactionArchive.BLOCK_ENTRIES - 2;
+
+            List<Transaction> range = new FilePersistenceService(dataDir).loadTransactionRange(from, from + 4);
+            List<Transaction> tail = persistenceService.loadTransactionRange(ENTRIES - 7, ENTRIES);
+
+            assertEquals(4, range.size());
+            assertEquals(from, range.getFirst().getAmount());
+            assertEquals(7, tail.size());
+            assertEquals(ENTRIES - 1, tail.getLast().getAmount());
+        }
+
+        @Test
+        @DisplayName("Should fault in history from compressed segments through the index")
+        void lazyHistoryFromArchive() {
+            persistenceService.compactTransactions(ENTRIES);
+
+            List<Transaction> acc2 = new FilePersistenceService(dataDir).openTransactionHistory().loadHistory("ACC002");
+
+            assertEquals(ENTRIES / 2, acc2.size());
+            assertEquals(ENTRIES - 1, acc2.getLast().getAmount());
+        }
+
+        @Test
+        @DisplayName("Should seek the history to a start time through archive blocks and the journal tail")
+        void seeksHistoryToStartTime() {
+            LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+            transactions.clear();
+            for (int i = 0; i < ENTRIES; i++) {
+                transactions.add(Transaction.restore("TXN" + i, "ACC001", "Deposit", i, i,
+                    base.plusMinutes(i).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss a")), null));
+            }
+            // Its own directory, the journal filled before each test has the same length
+            Path stampedDir = dataDir.resolve("stamped");
+            FilePersistenceService stamped = new FilePersistenceService(stampedDir);
+            stamped.saveTransactions(transactions);
+            stamped.compactTransactions(ENTRIES - 20);
+            TransactionHistorySource history = new FilePersistenceService(stampedDir).openTransactionHistory();
+
+            // One start in the second archive block, one in the journal tail
+            for (int start : new int[]{TransactionArchive.BLOCK_ENTRIES + 100, ENTRIES - 10}) {
+                LocalDateTime from = base.plusMinutes(start);
+                List<Transaction> full = new ArrayList<>();
+                history.forEachWhile(transaction -> {
+                    if (!transaction.parseTimeStamp().isBefore(from)) full.add(transaction);
+                    return true;
+                });
+                AtomicInteger visited = new AtomicInteger();
+                List<Transaction> sought = new ArrayList<>();
+                history.forEachFromWhile(from, transaction -> {
+                    visited.incrementAndGet();
+                    if (!transaction.parseTimeStamp().isBefore(from)) sought.add(transaction);
+                    return true;
+                });
+
+                assertEquals(ENTRIES - start, sought.size());
+                assertEquals(full.stream().map(Transaction::getTransactionId).toList(),
+                    sought.stream().map(Transaction::getTransactionId).toList());
+                assertTrue(visited.get() < ENTRIES - start + TransactionArchive.BLOCK_ENTRIES, "visited " + visited.get());
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject a truncated block or an overstated raw length instead of looping")
+        void rejectsCorruptBlock() throws Exception {
+            Path archive = dataDir.resolve("corrupt" + TransactionArchive.EXTENSION);
+            // Block index entry 0: firstSequence(8) entries(4) offset(8) compressedLength(4) rawLength(4)
+            for (int field : new int[]{20, 24}) {
+                try (TransactionArchive.Writer writer = TransactionArchive.create(archive, 0)) {
+                    for (int i = 0; i < 10; i++) {
+                        writer.append("line " + i);
+                    }
+                }
+                try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES);
+                    channel.read(trailer, channel.size() - 16);
+                    long entry = trailer.flip().getLong();
+                    ByteBuffer value = ByteBuffer.allocate(Integer.BYTES);
+                    channel.read(value, entry + field);
+                    int original = value.flip().getInt();
+                    // Half the compressed bytes, or twice the raw bytes the block really holds
+                    channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(field == 20 ? original / 2 : original * 2).flip(), entry + field);
+                }
+
+                assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                    try (TransactionArchive corrupt = TransactionArchive.open(archive)) {
+                        IOException e = assertThrows(IOException.class, () -> corrupt.readEntry(0));
+                        assertTrue(e.getMessage().startsWith("Corrupt block"));
+                    }
+                });
+            }
+        }
+    }
+
+    // ==================== WRITE-BEHIND TESTS ====================
+
+    @Nested
+    @DisplayName("Write-behind Tests")
+    class WriteBehindTests {
+
+        @Test
+        @DisplayName("Should write the unsaved backlog and new transactions before flush completes")
+        void flushWritesEverything() {
+            TransactionManager manager = new TransactionManager();
+            manager.addTransaction(transaction("ACC001", 1000.0, 1000.0, TransactionType.DEPOSIT));
+
+            WriteBehindPersistence writeBehind = new WriteBehindPersistence(persistenceService, 16);
+            writeBehind.attach(manager);
+            manager.addTransaction(transaction("ACC002", 500.0, 500.0, TransactionType.DEPOSIT));
+            writeBehind.flush().join();
+
+            assertEquals(2, writeBehind.getWrittenCount());
+            assertEquals(2, new FilePersistenceService(dataDir).loadTransactions().size());
+            assertEquals(1, new FilePersistenceService(dataDir).openTransactionHistory().loadHistory("ACC002").size());
+            writeBehind.close();
+        }
+
+        @Test
+        @DisplayName("Should write concurrent recordings in small batches without losing or reordering any, within the backlog bound")
+        void concurrentRecordingKeepsOrder() throws Exception {
+            TransactionManager manager = new TransactionManager();
+            int maxPending = 8;
+            WriteBehindPersistence writeBehind = new WriteBehindPersistence(persistenceService, 1, maxPending);
+            writeBehind.attach(manager);
+
+            Thread[] producers = new Thread[4];
+            AtomicInteger largestBacklog = new AtomicInteger();
+            for (int p = 0; p < producers.length; p++) {
+                String accNumber = "ACC00" + (p + 1);
+                producers[p] = new Thread(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        manager.addTransaction(transaction(accNumber, i, i, TransactionType.DEPOSIT));
+                        largestBacklog.accumulateAndGet(writeBehind.getPendingCount(), Math::max);
+                    }
+                });
+                producers[p].start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            writeBehind.close();
+
+            // Each producer can pass the bound check just before the others append
+            assertTrue(largestBacklog.get() <= maxPending + producers.length, "Backlog reached " + largestBacklog.get());
+            List<Transaction> loaded = new FilePersistenceService(dataDir).loadTransactions();
+            assertEquals(1000, loaded.size());
+            for (int i = 0; i < loaded.size(); i++) {
+                assertEquals(manager.getTransactions().get(i).getAccountNumber(), loaded.get(i).getAccountNumber());
+                assertEquals(manager.getTransactions().get(i).getAmount(), loaded.get(i).getAmount());
+            }
+        }
+
+        @Test
+        @DisplayName("Should leave nothing for the synchronous save after a flush")
+        void synchronousSaveAfterFlush() throws Exception {
+            TransactionManager manager = new TransactionManager();
+            WriteBehindPersistence writeBehind = new WriteBehindPersistence(persistenceService, 16);
+            writeBehind.attach(manager);
+            transactions.forEach(manager::addTransaction);
+            writeBehind.flush().join();
+
+            persistenceService.saveTransactions(manager.getTransactions());
+            writeBehind.close();
+
+            assertEquals(3, Files.readAllLines(persistenceService.getTransactionsPath()).size());
+        }
+    }
+
+    // ==================== TRUSTED RESTORE TESTS ====================
+
+    @Nested
+    @DisplayName("Trusted Restore Tests")
+    class TrustedRestoreTests {
+
+        @Test
+        @DisplayName("Should keep stored account numbers, customer ids and move the counters past them")
+        void accountsKeepTheirIds() {
+            String line = "ACC0950|PREMIUM|Ama Owusu|41|+233-559-654321|Kumasi, Ghana|CHECKING|20000.0|Active|ama@example.com|CUS0977";
+            persistenceService.saveAccounts(List.of(persistenceService.lineToAccount(line)));
+
+            Account restored = new FilePersistenceService(dataDir).loadAccounts().getFirst();
+
+            assertEquals("ACC0950", restored.getAccountNumber());
+            assertEquals("CUS0977", restored.getCustomer().getCustomerId());
+            assertEquals(20000.0, restored.getAccountBalance());
+            assertTrue(Account.getAccountCounter() >= 950);
+            assertTrue(Customer.getCustomerCounter() >= 977);
+        }
+
+        @Test
+        @DisplayName("Should keep stored transaction ids and timestamps")
+        void transactionsKeepIdsAndTimestamps() {
+            Transaction original = transactions.getFirst();
+            original.generateTransactionId(42);
+            persistenceService.saveTransactions(transactions);
+
+            Transaction restored = new FilePersistenceService(dataDir).loadTransactions().getFirst();
+
+            assertEquals("TXN0042", restored.getTransactionId());
+            assertEquals(original.getTimestamp(), restored.getTimestamp());
+            assertEquals(original.getType(), restored.getType());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.amalitech.bankaccount.services;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.AccountManager;
+import com.amalitech.bankaccount.account.SavingsAccount;
+import com.amalitech.bankaccount.customer.RegularCustomer;
+import com.amalitech.bankaccount.exceptions.InputMismatchException;
+import com.amalitech.bankaccount.interfaces.AccountStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogStructuredStoreTest {
+
+    @TempDir
+    Path dataDir;
+
+    private LogStructuredStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Tiny memtable so a handful of writes already produces several tables
+        store = LogStructuredStore.open(dataDir.resolve("lsm"), 4, 3);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    private static String key(int i) {
+        return "ACC%06d".formatted(i);
+    }
+
+    // ==================== STORE TESTS ====================
+
+    @Nested
+    @DisplayName("Store Tests")
+    class StoreTests {
+
+        @Test
+        @DisplayName("Should return the newest value across memtable and tables")
+        void newestValueWins() throws Exception {
+            for (int i = 0; i < 10; i++) {
+                store.put(key(i), "v1-" + i);
+            }
+            store.put(key(3), "v2-3");
+
+            assertEquals("v2-3", store.get(key(3)));
+            assertEquals("v1-9", store.get(key(9)));
+            assertNull(store.get(key(42)));
+            assertTrue(store.getTableCount() >= 1);
+        }
+
+        @Test
+        @DisplayName("Should hide deleted keys from lookups and scans")
+        void deleteHidesKey() throws Exception {
+            for (int i = 0; i < 6; i++) {
+                store.put(key(i), "v" + i);
+            }
+            store.delete(key(2));
+
+            List<String> keys = new ArrayList<>();
+            store.forEach((key, value) -> keys.add(key));
+
+            assertNull(store.get(key(2)));
+            assertEquals(5, keys.size());
+            assertFalse(keys.contains(key(2)));
+        }
+
+        @Test
+        @DisplayName("Should recover unflushed writes from the write-ahead log")
+        void replaysWriteAheadLog() throws Exception {
+            store.put(key(1), "only-in-wal");
+
+            // Reopen without closing, as after a crash
+            LogStructuredStore reopened = LogStructuredStore.open(dataDir.resolve("lsm"), 4, 3);
+
+            assertEquals("only-in-wal", reopened.get(key(1)));
+            reopened.close();
+        }
+
+        @Test
+        @DisplayName("Should compact tables in the background and keep every live key")
+        void compactsTables() throws Exception {
+            for (int i = 0; i < 40; i++) {
+                store.put(key(i % 20), "v" + i);
+            }
+            store.delete(key(0));
+            store.flush();
+            store.awaitCompaction();
+
+            assertTrue(store.getTableCount() < 3);
+            assertEquals("v39", store.get(key(19)));
+            assertNull(store.get(key(0)));
+
+            int[] count = {0};
+            store.forEach((key, value) -> count[0]++);
+            assertEquals(19, count[0]);
+        }
+    }
+
+    // ==================== ACCOUNT STORAGE TESTS ====================
+
+    @Nested
+    @DisplayName("Account Storage Tests")
+    class AccountStorageTests {
+
+        @Test
+        @DisplayName("Should look accounts up from disk with their stored account numbers")
+        void accountManagerFaultsInFromStorage() throws InputMismatchException {
+            AccountStorage storage = new FilePersistenceService(dataDir).openAccountStore();
+            AccountManager manager = new AccountManager();
+            manager.attachStorage(storage);
+
+            Account account = new SavingsAccount(new RegularCustomer("Kofi Mensah", 30, "+233-559-123456", "Accra, Ghana", "kofi@example.com"));
+            account.setAccountBalance(1500);
+            manager.addAccount(account);
+            manager.releaseWorkingSet();
+
+            Account loaded = manager.findAccount(account.getAccountNumber());
+
+            assertNotSame(account, loaded);
+            assertEquals(account.getAccountNumber(), loaded.getAccountNumber());
+            assertEquals(1500.0, loaded.getAccountBalance());
+            assertSame(loaded, manager.findAccount(account.getAccountNumber()));
+            assertEquals(1, manager.getAccountCount());
+            storage.close();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.amalitech.bankaccount.services;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.AccountManager;
+import com.amalitech.bankaccount.account.CheckingAccount;
+import com.amalitech.bankaccount.account.SavingsAccount;
+import com.amalitech.bankaccount.customer.PremiumCustomer;
+import com.amalitech.bankaccount.customer.RegularCustomer;
+import com.amalitech.bankaccount.enums.TransactionType;
+import com.amalitech.bankaccount.exceptions.InputMismatchException;
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private FilePersistenceService persistenceService;
+    private SnapshotService snapshotService;
+    private AccountManager accountManager;
+    private TransactionManager transactionManager;
+    private Account savings;
+    private Account checking;
+
+    @BeforeEach
+    void setUp() throws InputMismatchException {
+        persistenceService = new FilePersistenceService(dataDir);
+        snapshotService = new SnapshotService(persistenceService);
+        transactionManager = new TransactionManager();
+
+        savings = new SavingsAccount(new RegularCustomer("Kofi Mensah", 30, "+233-559-123456", "Accra, Ghana", "kofi@example.com"));
+        checking = new CheckingAccount(new PremiumCustomer("Ama Owusu", 41, "+233-559-654321", "Kumasi, Ghana", "ama@example.com"));
+        accountManager = new AccountManager(new Account[]{savings, checking});
+
+        record(savings, 1000);
+        record(checking, 20000);
+    }
+
+    private void record(Account account, double amount) {
+        account.deposit(amount);
+        Transaction transaction = new Transaction(account.getAccountNumber(), amount, account.getAccountBalance());
+        transaction.setType(TransactionType.DEPOSIT.getDescription());
+        transactionManager.addTransaction(transaction);
+    }
+
+    // ==================== SNAPSHOT TESTS ====================
+
+    @Nested
+    @DisplayName("Snapshot Tests")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("Should write snapshot covering the current journal position")
+        void takeSnapshot() {
+            persistenceService.saveTransactions(transactionManager.getTransactions());
+
+            long covered = snapshotService.takeSnapshot(accountManager, transactionManager);
+
+            assertEquals(2, covered);
+            assertTrue(snapshotService.snapshotExists());
+        }
+
+        @Test
+        @DisplayName("Should restore balances and replay only the journal tail")
+        void restoreReplaysTail() {
+            persistenceService.saveTransactions(transactionManager.getTransactions());
+            snapshotService.takeSnapshot(accountManager, transactionManager);
+
+            // Written after the snapshot: only reachable through the journal tail
+            record(savings, 250);
+            persistenceService.saveTransactions(transactionManager.getTransactions());
+
+            List<Account> restored = new SnapshotService(new FilePersistenceService(dataDir)).restore();
+
+            assertEquals(2, restored.size());
+            assertEquals(1250.0, restored.get(0).getAccountBalance(), 0.001);
+            assertEquals(20000.0, restored.get(1).getAccountBalance(), 0.001);
+        }
+
+        @Test
+        @DisplayName("Should restore accounts created after the snapshot from the accounts file")
+        void restoreAccountsCreatedAfterSnapshot() throws InputMismatchException {
+            persistenceService.saveTransactions(transactionManager.getTransactions());
+            snapshotService.takeSnapshot(accountManager, transactionManager);
+
+            Account late = new SavingsAccount(new RegularCustomer("Yaw Boateng", 35, "+233-559-111222", "Tamale, Ghana", "yaw@example.com"));
+            accountManager.addAccount(late);
+            record(late, 800);
+            persistenceService.saveAccounts(accountManager.getAccounts());
+            record(late, 200);
+            persistenceService.saveTransactions(transactionManager.getTransactions());
+
+            List<Account> restored = new SnapshotService(new FilePersistenceService(dataDir)).restore();
+
+            assertEquals(3, restored.size());
+            assertEquals(late.getAccountNumber(), restored.get(2).getAccountNumber());
+            assertEquals(1000.0, restored.get(2).getAccountBalance(), 0.001);
+        }
+
+        @Test
+        @DisplayName("Should return empty list when no snapshot exists")
+        void restoreWithoutSnapshot() {
+            assertTrue(snapshotService.restore().isEmpty());
+        }
+    }
+
+    // ==================== COMPACTION TESTS ====================
+
+    @Nested
+    @DisplayName("Journal Compaction Tests")
+    class CompactionTests {
+
+        @Test
+        @DisplayName("Should move the snapshotted prefix into an archive segment")
+        void compactMovesPrefix() throws IOException {
+            persistenceService.saveTransactions(transactionManager.getTransactions());
+            snapshotService.takeSnapshot(accountManager, transactionManager);
+            record(savings, 100);
+            persistenceService.saveTransactions(transactionManager.getTransactions());
+
+            assertEquals(2, persistenceService.getArchivedTransactionCount());
+            assertEquals(1, Files.readAllLines(persistenceService.getTransactionsPath()).size());
+        }
+
+        @Test
+        @DisplayName("Should still load the full history after compaction")
+        void loadAfterCompaction() {
+            persistenceService.saveTransactions(transactionManager.getTransactions());
+            snapshotService.takeSnapshot(accountManager, transactionManager);
+            record(checking, 500);
+            persistenceService.saveTransactions(transactionManager.getTransactions());
+
+            List<Transaction> loaded = new FilePersistenceService(dataDir).loadTransactions();
+
+            assertEquals(3, loaded.size());
+            assertEquals(500.0, loaded.get(2).getAmount());
+        }
+    }
+}
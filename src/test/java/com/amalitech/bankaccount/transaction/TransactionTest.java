@@ -3,20 +3,34 @@ package com.amalitech.bankaccount.transaction;
 import com.amalitech.bankaccount.account.CheckingAccount;
 import com.amalitech.bankaccount.account.SavingsAccount;
 import com.amalitech.bankaccount.customer.Customer;
+import com.amalitech.bankaccount.customer.PremiumCustomer;
 import com.amalitech.bankaccount.customer.RegularCustomer;
 import com.amalitech.bankaccount.enums.TransactionType;
 import com.amalitech.bankaccount.enums.TransferToOrFromType;
 import com.amalitech.bankaccount.exceptions.InputMismatchException;
+import com.amalitech.bankaccount.exceptions.InsufficientFundsException;
 import com.amalitech.bankaccount.exceptions.InvalidAmountException;
+import com.amalitech.bankaccount.exceptions.VelocityLimitExceededException;
+import com.amalitech.bankaccount.utils.FunctionalUtils;
 import com.amalitech.bankaccount.utils.IO;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,7 +44,7 @@ class TransactionTest {
     @BeforeEach
     void setUp() {
         try {
-            customer = new RegularCustomer("John Doe", 30, "+233-559-123456", "Accra, Ghana");
+            customer = new RegularCustomer("John Doe", 30, "+233-559-123456", "Accra, Ghana", "jdoe@example.com");
             savingsAccount = new SavingsAccount(customer);
             checkingAccount = new CheckingAccount(customer);
             transactionManager = new TransactionManager();
@@ -44,6 +58,37 @@ class TransactionTest {
         IO.println("Transaction test completed.");
     }
 
+    /**
+     * Clock the test moves by hand
+     */
+    private static final class ManualClock extends Clock {
+        private long millis = 1_700_000_000_000L;
+
+        void advance(Duration duration) {
+            millis += duration.toMillis();
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
     // ==================== TRANSACTION CREATION TESTS ====================
 
     @Nested
@@ -485,4 +530,326 @@ class TransactionTest {
                 ));
         }
     }
+
+    // ==================== AMOUNT STATISTICS TESTS ====================
+
+    @Nested
+    @DisplayName("Amount Statistics Tests")
+    class AmountStatisticsTests {
+
+        @Test
+        @DisplayName("Should report per-type and per-account percentiles within sketch accuracy")
+        void tracksAmountPercentiles() {
+            for (int i = 1; i <= 1000; i++) {
+                Transaction transaction = new Transaction(i % 2 == 0 ? "ACC001" : "ACC002", i, 0);
+                transaction.setType((i % 4 == 0 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT).getDescription());
+                transactionManager.addTransaction(transaction);
+            }
+
+            TransactionAmountStatistics statistics = transactionManager.getAmountStatistics();
+            AmountSketch overall = statistics.overall();
+            assertEquals(1000, overall.getCount());
+            assertEquals(500_500.0, overall.getSum(), 1e-6);
+            assertEquals(1.0, overall.getMin());
+            assertEquals(1000.0, overall.getMax());
+            assertEquals(500.0, overall.quantile(0.5), 500 * 0.035);
+            assertEquals(990.0, overall.quantile(0.99), 990 * 0.035);
+
+            assertEquals(250, statistics.byType(TransactionType.WITHDRAWAL).getCount());
+            assertEquals(0, statistics.byType(TransactionType.TRANSFER).getCount());
+            assertEquals(500, statistics.forAccount("ACC001").getCount());
+            assertEquals(2.0, statistics.forAccount("ACC001").getMin());
+            assertEquals(0, statistics.forAccount("ACC999").getCount());
+        }
+
+        @Test
+        @DisplayName("Should merge sketches without losing counts or bounds")
+        void mergesSketches() {
+            AmountSketch small = new AmountSketch();
+            AmountSketch large = new AmountSketch();
+            small.record(0.25);
+            small.record(12.5);
+            large.record(1_000_000);
+
+            AmountSketch merged = small.copy();
+            merged.merge(large);
+
+            assertEquals(3, merged.getCount());
+            assertEquals(0.25, merged.getMin());
+            assertEquals(1_000_000.0, merged.getMax());
+            assertEquals(0.25, merged.quantile(0.1));
+            assertEquals(1_000_000.0, merged.quantile(1.0));
+            assertEquals(2, small.getCount());
+        }
+
+        @Test
+        @DisplayName("Should summarise every type in one pass, in parallel and from the sketches alike")
+        void summarisesInOnePass() {
+            for (int i = 1; i <= 1000; i++) {
+                Transaction transaction = new Transaction("ACC00" + (i % 3), i, 0);
+                TransactionType type = i % 5 == 0 ? TransactionType.TRANSFER : i % 2 == 0 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT;
+                transaction.setType(type.getDescription());
+                transactionManager.addTransaction(transaction);
+            }
+            List<Transaction> transactions = transactionManager.getTransactions();
+
+            TransactionSummary summary = FunctionalUtils.summarizeTransactions(transactions);
+            assertEquals(1000, summary.getCount());
+            assertEquals(500_500.0, summary.getSum(), 1e-6);
+            assertEquals(1.0, summary.getMin());
+            assertEquals(1000.0, summary.getMax());
+            assertEquals(FunctionalUtils.calculateTotalDeposits(transactions), summary.getSum(TransactionType.DEPOSIT), 1e-6);
+            assertEquals(FunctionalUtils.calculateTotalWithdrawals(transactions), summary.getSum(TransactionType.WITHDRAWAL), 1e-6);
+            assertEquals(FunctionalUtils.calculateTotalTransfers(transactions), summary.getSum(TransactionType.TRANSFER), 1e-6);
+            assertEquals(200, summary.getCount(TransactionType.TRANSFER));
+            assertEquals(5.0, summary.getMin(TransactionType.TRANSFER));
+            assertEquals(998.0, summary.getMax(TransactionType.WITHDRAWAL));
+
+            TransactionSummary parallel = transactions.parallelStream().collect(TransactionSummary.collector());
+            TransactionSummary maintained = transactionManager.getAmountStatistics().summary();
+            for (TransactionType type : TransactionType.values()) {
+                assertEquals(summary.getCount(type), parallel.getCount(type));
+                assertEquals(summary.getSum(type), parallel.getSum(type), 1e-6);
+                assertEquals(summary.getMin(type), parallel.getMin(type));
+                assertEquals(summary.getCount(type), maintained.getCount(type));
+                assertEquals(summary.getSum(type), maintained.getSum(type), 1e-6);
+                assertEquals(summary.getMax(type), maintained.getMax(type));
+            }
+
+            Transaction legacy = new Transaction("ACC001", 42, 0);
+            legacy.setType("Interest");
+            summary.accept(legacy);
+            assertEquals(1, summary.getCount(null));
+            assertEquals(42.0, summary.getSum(null));
+            assertEquals(1001, summary.getCount());
+        }
+    }
+
+    // ==================== VOLUME WINDOW TESTS ====================
+
+    @Nested
+    @DisplayName("Volume Window Tests")
+    class VolumeWindowTests {
+
+        private void add(TransactionManager manager, String accountNumber, TransactionType type, double amount) {
+            Transaction transaction = new Transaction(accountNumber, amount, 0);
+            transaction.setType(type.getDescription());
+            manager.addTransaction(transaction);
+        }
+
+        @Test
+        @DisplayName("Should count transactions per account and bank-wide over sliding windows")
+        void countsOverSlidingWindows() {
+            ManualClock clock = new ManualClock();
+            TransactionManager manager = new TransactionManager(clock);
+            TransactionVolume volume = manager.getVolume();
+
+            add(manager, "ACC001", TransactionType.DEPOSIT, 100);
+            add(manager, "ACC002", TransactionType.DEPOSIT, 50);
+            clock.advance(Duration.ofMinutes(10));
+            add(manager, "ACC001", TransactionType.DEPOSIT, 25);
+            add(manager, "ACC001", TransactionType.WITHDRAWAL, 10);
+
+            assertEquals(new SlidingWindowCounter.WindowTotals(1, 25), volume.forAccount("ACC001", TransactionType.DEPOSIT, Duration.ofMinutes(1)));
+            assertEquals(new SlidingWindowCounter.WindowTotals(2, 125), volume.forAccount("ACC001", TransactionType.DEPOSIT, Duration.ofHours(1)));
+            assertEquals(3, volume.forAccount("ACC001", null, Duration.ofHours(1)).count());
+            assertEquals(new SlidingWindowCounter.WindowTotals(3, 175), volume.bankWide(TransactionType.DEPOSIT, Duration.ofDays(1)));
+
+            clock.advance(Duration.ofHours(2));
+            assertEquals(0, volume.bankWide(null, Duration.ofHours(1)).count());
+            assertEquals(4, volume.bankWide(null, Duration.ofDays(1)).count());
+
+            clock.advance(Duration.ofDays(1));
+            assertEquals(SlidingWindowCounter.WindowTotals.EMPTY, volume.forAccount("ACC001", null, Duration.ofDays(1)));
+            assertThrows(IllegalArgumentException.class, () -> volume.bankWide(null, Duration.ofDays(2)));
+        }
+
+        @Test
+        @DisplayName("Should evict accounts idle for longer than the longest window")
+        void evictsIdleAccounts() {
+            ManualClock clock = new ManualClock();
+            TransactionManager manager = new TransactionManager(clock);
+            TransactionVolume volume = manager.getVolume();
+
+            add(manager, "ACC001", TransactionType.DEPOSIT, 100);
+            assertEquals(1, volume.getTrackedAccounts());
+
+            clock.advance(Duration.ofDays(1).plusHours(1));
+            add(manager, "ACC002", TransactionType.DEPOSIT, 50);
+            assertEquals(1, volume.getTrackedAccounts());
+            assertEquals(SlidingWindowCounter.WindowTotals.EMPTY, volume.forAccount("ACC001", null, Duration.ofDays(1)));
+
+            add(manager, "ACC001", TransactionType.DEPOSIT, 25);
+            assertEquals(new SlidingWindowCounter.WindowTotals(1, 25), volume.forAccount("ACC001", null, Duration.ofDays(1)));
+        }
+    }
+
+    // ==================== VELOCITY LIMIT TESTS ====================
+
+    @Nested
+    @DisplayName("Velocity Limit Tests")
+    class VelocityLimitTests {
+
+        @Test
+        @DisplayName("Should reject debits over the hourly withdrawal count and daily transfer amount")
+        void enforcesVelocityLimits() throws Exception {
+            ManualClock clock = new ManualClock();
+            VelocityLimits limits = new VelocityLimits(VelocityLimits.defaultRules(), clock);
+            checkingAccount.deposit(20_000);
+
+            for (int i = 0; i < 10; i++) {
+                limits.debit(checkingAccount, TransactionType.WITHDRAWAL, 10, () -> checkingAccount.withdrawal(10));
+            }
+            VelocityLimitExceededException rejected = assertThrows(VelocityLimitExceededException.class,
+                () -> limits.debit(checkingAccount, TransactionType.WITHDRAWAL, 10, () -> checkingAccount.withdrawal(10)));
+            assertEquals("regular-withdrawals-per-hour", rejected.getRule());
+            assertEquals(19_900.0, checkingAccount.getAccountBalance());
+
+            limits.debit(checkingAccount, TransactionType.TRANSFER, 4_000, () -> checkingAccount.withdrawal(4_000));
+            assertThrows(VelocityLimitExceededException.class,
+                () -> limits.debit(checkingAccount, TransactionType.TRANSFER, 1_500, () -> checkingAccount.withdrawal(1_500)));
+            limits.debit(checkingAccount, TransactionType.TRANSFER, 1_000, () -> checkingAccount.withdrawal(1_000));
+
+            clock.advance(Duration.ofMinutes(65));
+            limits.debit(checkingAccount, TransactionType.WITHDRAWAL, 10, () -> checkingAccount.withdrawal(10));
+            assertThrows(VelocityLimitExceededException.class,
+                () -> limits.debit(checkingAccount, TransactionType.TRANSFER, 1, () -> checkingAccount.withdrawal(1)));
+            assertEquals(14_890.0, checkingAccount.getAccountBalance());
+            assertTrue(limits.getLatency(limits.getRules().get(0)).getCount() >= 12);
+        }
+
+        @Test
+        @DisplayName("Should give premium customers a higher cap and not count failed debits")
+        void premiumCapAndFailedDebits() throws Exception {
+            ManualClock clock = new ManualClock();
+            VelocityLimits limits = new VelocityLimits(VelocityLimits.defaultRules(), clock);
+            CheckingAccount premium = new CheckingAccount(new PremiumCustomer("Ama Owusu", 41, "+233-244-987654", "Accra, Ghana", "ama@example.com"));
+            premium.deposit(20_000);
+            for (int i = 0; i < 20; i++) {
+                limits.debit(premium, TransactionType.WITHDRAWAL, 10, () -> premium.withdrawal(10));
+            }
+
+            for (int i = 0; i < 10; i++) {
+                assertThrows(InsufficientFundsException.class,
+                    () -> limits.debit(savingsAccount, TransactionType.WITHDRAWAL, 10, () -> savingsAccount.withdrawal(10)));
+            }
+            savingsAccount.deposit(1_000);
+            assertDoesNotThrow(() -> limits.debit(savingsAccount, TransactionType.WITHDRAWAL, 10, () -> savingsAccount.withdrawal(10)));
+            assertEquals(19_800.0, premium.getAccountBalance());
+        }
+
+        @Test
+        @DisplayName("Should drop the counters of accounts idle for the longest rule window")
+        void evictsIdleAccounts() throws Exception {
+            ManualClock clock = new ManualClock();
+            VelocityLimits limits = new VelocityLimits(VelocityLimits.defaultRules(), clock);
+            checkingAccount.deposit(1_000);
+            savingsAccount.deposit(1_000);
+
+            limits.debit(checkingAccount, TransactionType.WITHDRAWAL, 10, () -> checkingAccount.withdrawal(10));
+            assertEquals(1, limits.getTrackedAccounts());
+
+            clock.advance(Duration.ofDays(1).plusMinutes(1));
+            limits.debit(savingsAccount, TransactionType.WITHDRAWAL, 10, () -> savingsAccount.withdrawal(10));
+            assertEquals(1, limits.getTrackedAccounts());
+
+            for (int i = 0; i < 10; i++) {
+                limits.debit(checkingAccount, TransactionType.WITHDRAWAL, 10, () -> checkingAccount.withdrawal(10));
+            }
+            assertThrows(VelocityLimitExceededException.class,
+                () -> limits.debit(checkingAccount, TransactionType.WITHDRAWAL, 10, () -> checkingAccount.withdrawal(10)));
+            assertEquals(2, limits.getTrackedAccounts());
+        }
+    }
+
+    // ==================== APPEND LOG TESTS ====================
+
+    @Nested
+    @DisplayName("Append Log Tests")
+    class AppendLogTests {
+
+        @Test
+        @DisplayName("Should keep every concurrent append and serve stable snapshots while appending")
+        void concurrentAppendsAndSnapshots() throws Exception {
+            AppendLog<Integer> log = new AppendLog<>();
+            int writers = 4;
+            int perWriter = 5_000;
+            Thread[] threads = new Thread[writers];
+            for (int w = 0; w < writers; w++) {
+                int base = w * perWriter;
+                threads[w] = new Thread(() -> {
+                    for (int i = 0; i < perWriter; i++) {
+                        if (i % 100 == 0) {
+                            log.appendAll(List.of(base + i, base + i + 1));
+                            i++;
+                        } else {
+                            log.append(base + i);
+                        }
+                    }
+                });
+                threads[w].start();
+            }
+
+            List<Integer> snapshot = log.snapshot();
+            while (log.size() < writers * perWriter) {
+                List<Integer> next = log.snapshot();
+                assertTrue(next.size() >= snapshot.size());
+                next.forEach(Assertions::assertNotNull);
+                snapshot = next;
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            List<Integer> all = log.snapshot();
+            assertEquals(writers * perWriter, all.size());
+            assertEquals(writers * perWriter, new HashSet<>(all).size());
+            assertThrows(UnsupportedOperationException.class, () -> all.add(0));
+            assertThrows(IndexOutOfBoundsException.class, () -> all.get(all.size()));
+        }
+
+        @Test
+        @DisplayName("Should let a reader follow the log by index, waking it as appends are published")
+        void readerFollowsLog() throws Exception {
+            AppendLog<Integer> log = new AppendLog<>();
+            for (int i = 0; i < 100; i++) {
+                log.append(i);
+            }
+            Thread[] writers = new Thread[2];
+            for (int w = 0; w < writers.length; w++) {
+                writers[w] = new Thread(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        log.append(i);
+                    }
+                });
+                writers[w].start();
+            }
+
+            List<Integer> read = new ArrayList<>();
+            int next = 40;
+            while (next < 20_100) {
+                int size = log.awaitSize(next, TimeUnit.SECONDS.toNanos(1));
+                for (; next < size; next++) {
+                    read.add(log.get(next));
+                }
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+
+            List<Integer> all = log.snapshot();
+            assertEquals(all.subList(40, all.size()), read);
+        }
+
+        @Test
+        @DisplayName("Should reject null elements without claiming a slot")
+        void rejectsNull() {
+            AppendLog<Integer> log = new AppendLog<>();
+            log.append(1);
+            assertThrows(NullPointerException.class, () -> log.append(null));
+            assertThrows(NullPointerException.class, () -> log.appendAll(Arrays.asList(2, null)));
+            assertEquals(1, log.append(3));
+            assertEquals(List.of(1, 3), log.snapshot());
+        }
+    }
 }
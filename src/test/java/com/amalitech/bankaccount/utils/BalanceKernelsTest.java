@@ -0,0 +1,44 @@
+package com.amalitech.bankaccount.utils;
+
+import com.amalitech.bankaccount.interfaces.BalanceKernels;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class BalanceKernelsTest {
+
+    // ==================== KERNEL TESTS ====================
+
+    @Nested
+    @DisplayName("Kernel Tests")
+    class KernelTests {
+
+        @Test
+        @DisplayName("Should give the same results from the vector and scalar kernels, tails included")
+        void vectorMatchesScalar() {
+            BalanceKernels vector = BalanceKernels.vectorized();
+            // Surefire runs with --add-modules jdk.incubator.vector, the in-app test runner may not
+            assumeTrue(vector != null, "jdk.incubator.vector is not enabled");
+            assertTrue(vector.name().startsWith("vector"));
+            BalanceKernels scalar = ScalarBalanceKernels.INSTANCE;
+
+            SplittableRandom random = new SplittableRandom(7);
+            double[] balances = new double[10_003];
+            for (int i = 0; i < balances.length; i++) {
+                balances[i] = random.nextInt(-100_000, 1_000_000) / 100.0;
+            }
+            for (int length : new int[]{0, 1, 7, 10_003}) {
+                assertEquals(scalar.sum(balances, length), vector.sum(balances, length), 1e-6);
+                assertEquals(scalar.min(balances, length), vector.min(balances, length));
+                assertEquals(scalar.max(balances, length), vector.max(balances, length));
+                assertEquals(scalar.countAtLeast(balances, length, 2_500), vector.countAtLeast(balances, length, 2_500));
+            }
+            assertEquals(Double.POSITIVE_INFINITY, scalar.min(balances, 0));
+        }
+    }
+}
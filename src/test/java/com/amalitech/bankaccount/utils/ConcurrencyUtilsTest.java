@@ -0,0 +1,73 @@
+package com.amalitech.bankaccount.utils;
+
+import com.amalitech.bankaccount.enums.AccountSkew;
+import com.amalitech.bankaccount.metrics.BankMetrics;
+import com.amalitech.bankaccount.transaction.TransactionManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyUtilsTest {
+
+    // ==================== LOAD TEST TESTS ====================
+
+    @Nested
+    @DisplayName("Load Test Tests")
+    class LoadTestTests {
+
+        @Test
+        @DisplayName("Should run exactly the requested operations split across threads")
+        void runsOperationCount() {
+            ConcurrencyUtils.LoadProfile profile = ConcurrencyUtils.LoadProfile.ofOperations(10_001)
+                .withThreads(4)
+                .withMix(40, 40, 20)
+                .withAccountPopulation(50);
+            int sessionCounter = TransactionManager.getTransactionCounter();
+            long sessionRecorded = BankMetrics.TRANSACTIONS_RECORDED.sum();
+
+            ConcurrencyUtils.LoadReport report = ConcurrencyUtils.runLoadTest(profile);
+
+            // The load test records into its own counter and metrics, not the session's
+            assertEquals(sessionCounter, TransactionManager.getTransactionCounter());
+            assertEquals(sessionRecorded, BankMetrics.TRANSACTIONS_RECORDED.sum());
+            assertEquals(10_001, report.operations());
+            assertEquals(10_001, report.byOperation().stream().mapToLong(ConcurrencyUtils.OperationStats::attempted).sum());
+            // Every accepted operation records one transaction, transfers record two
+            long transfers = report.byOperation().get(2).attempted() - report.byOperation().get(2).rejected();
+            assertEquals(report.operations() - report.rejected() + transfers, report.transactionsRecorded());
+            assertTrue(report.p50Nanos() <= report.p99Nanos() && report.p99Nanos() <= report.p999Nanos());
+            assertTrue(report.p999Nanos() <= report.maxNanos());
+            assertTrue(report.opsPerSecond() > 0);
+            // 40% of 10,001 operations on 50 regular accounts is far over 10 withdrawals per hour each
+            assertTrue(report.byOperation().get(1).rejected() > 0);
+        }
+
+        @Test
+        @DisplayName("Should run for a duration on a Zipf-skewed population and report rejections")
+        void runsForDurationWithZipfSkew() {
+            ConcurrencyUtils.LoadProfile profile = ConcurrencyUtils.LoadProfile.ofDuration(Duration.ofMillis(200))
+                .withThreads(2)
+                .withMix(0, 100, 0)
+                .withSkew(AccountSkew.ZIPF, 1.2)
+                .withAccountPopulation(1_000);
+
+            ConcurrencyUtils.LoadReport report = ConcurrencyUtils.runLoadTest(profile);
+
+            assertTrue(report.operations() > 0);
+            // Withdrawals only: the hottest accounts run dry, so some are rejected
+            assertTrue(report.rejected() > 0);
+            assertEquals(report.rejected(), report.byOperation().get(1).rejected());
+        }
+
+        @Test
+        @DisplayName("Should reject a mix that does not add up to 100%")
+        void rejectsInvalidMix() {
+            assertThrows(IllegalArgumentException.class,
+                () -> ConcurrencyUtils.LoadProfile.ofOperations(10).withMix(50, 30, 30));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.amalitech.bankaccount.utils;
+
+import com.amalitech.bankaccount.account.Account;
+import com.amalitech.bankaccount.account.CheckingAccount;
+import com.amalitech.bankaccount.account.SavingsAccount;
+import com.amalitech.bankaccount.customer.RegularCustomer;
+import com.amalitech.bankaccount.enums.AccountType;
+import com.amalitech.bankaccount.enums.TransactionType;
+import com.amalitech.bankaccount.transaction.Transaction;
+import com.amalitech.bankaccount.transaction.TransactionSummary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FunctionalUtilsTest {
+
+    private static List<Account> accounts(int count) throws Exception {
+        RegularCustomer customer = new RegularCustomer("Kofi Mensah", 30, "+233-559-123456", "12 Main Street, Accra", "kofi@example.com");
+        SplittableRandom random = new SplittableRandom(11);
+        List<Account> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Account account = i % 3 == 0 ? new CheckingAccount(customer) : new SavingsAccount(customer);
+            account.deposit(600 + random.nextInt(1_000_000) / 100.0);
+            accounts.add(account);
+        }
+        return accounts;
+    }
+
+    private static List<Transaction> transactions(int count) {
+        SplittableRandom random = new SplittableRandom(13);
+        TransactionType[] types = TransactionType.values();
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction("ACC00" + (i % 7), random.nextInt(1, 100_000) / 100.0, 0);
+            transaction.setType(types[i % types.length].getDescription());
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    // ==================== PARALLEL TESTS ====================
+
+    @Nested
+    @DisplayName("Parallel Tests")
+    class ParallelTests {
+
+        @Test
+        @DisplayName("Should give the same account results below and above the parallel threshold")
+        void accountsMatchSequential() throws Exception {
+            // Surefire lowers the threshold and fixes the pool size, the in-app test runner may not
+            assumeTrue(FunctionalUtils.runsInParallel(FunctionalUtils.PARALLEL_THRESHOLD), "parallel branch disabled");
+            for (int size : new int[]{FunctionalUtils.PARALLEL_THRESHOLD - 1, FunctionalUtils.PARALLEL_THRESHOLD * 2}) {
+                List<Account> accounts = accounts(size);
+
+                assertEquals(FunctionalUtils.filterAccounts(accounts, a -> a.getAccountBalance() > 5_000),
+                    FunctionalUtils.filterAccountsParallel(accounts, a -> a.getAccountBalance() > 5_000));
+                assertEquals(FunctionalUtils.sortByBalanceDescending(accounts).stream().map(Account::getAccountBalance).toList(),
+                    FunctionalUtils.sortByBalanceDescendingParallel(accounts).stream().map(Account::getAccountBalance).toList());
+                assertEquals(FunctionalUtils.calculateTotalBalance(accounts), FunctionalUtils.calculateTotalBalanceParallel(accounts), 1e-6);
+
+                DoubleSummaryStatistics expected = FunctionalUtils.getBalanceStatistics(accounts);
+                DoubleSummaryStatistics actual = FunctionalUtils.getBalanceStatisticsParallel(accounts);
+                assertEquals(expected.getCount(), actual.getCount());
+                assertEquals(expected.getSum(), actual.getSum(), 1e-6);
+                assertEquals(expected.getMin(), actual.getMin());
+                assertEquals(expected.getMax(), actual.getMax());
+
+                Map<AccountType, List<Account>> groups = FunctionalUtils.groupByAccountTypeParallel(accounts);
+                assertInstanceOf(EnumMap.class, groups);
+                FunctionalUtils.groupByAccountType(accounts).forEach((type, members) ->
+                    assertEquals(new HashSet<>(members), new HashSet<>(groups.get(type))));
+            }
+        }
+
+        @Test
+        @DisplayName("Should give the same transaction results below and above the parallel threshold")
+        void transactionsMatchSequential() {
+            assumeTrue(FunctionalUtils.runsInParallel(FunctionalUtils.PARALLEL_THRESHOLD), "parallel branch disabled");
+            for (int size : new int[]{FunctionalUtils.PARALLEL_THRESHOLD - 1, FunctionalUtils.PARALLEL_THRESHOLD * 2}) {
+                List<Transaction> transactions = transactions(size);
+
+                assertEquals(FunctionalUtils.calculateTotalDeposits(transactions), FunctionalUtils.calculateTotalDepositsParallel(transactions), 1e-6);
+                assertEquals(FunctionalUtils.filterByAccountNumber(transactions, "ACC003"),
+                    FunctionalUtils.filterByAccountNumberParallel(transactions, "ACC003"));
+                assertEquals(FunctionalUtils.countByTransactionType(transactions), FunctionalUtils.countByTransactionTypeParallel(transactions));
+
+                DoubleSummaryStatistics expected = FunctionalUtils.getTransactionStatistics(transactions);
+                DoubleSummaryStatistics actual = FunctionalUtils.getTransactionStatisticsParallel(transactions);
+                assertEquals(expected.getCount(), actual.getCount());
+                assertEquals(expected.getSum(), actual.getSum(), 1e-6);
+
+                TransactionSummary sequential = FunctionalUtils.summarizeTransactions(transactions);
+                TransactionSummary parallel = FunctionalUtils.summarizeTransactionsParallel(transactions);
+                assertEquals(sequential.getCount(), parallel.getCount());
+                for (TransactionType type : TransactionType.values()) {
+                    assertEquals(sequential.getCount(type), parallel.getCount(type));
+                    assertEquals(sequential.getSum(type), parallel.getSum(type), 1e-6);
+                    assertEquals(sequential.getMax(type), parallel.getMax(type));
+                }
+            }
+        }
+    }
+
+    // ==================== TOP-K TESTS ====================
+
+    @Nested
+    @DisplayName("Top-K Tests")
+    class TopKTests {
+
+        @Test
+        @DisplayName("Should keep k elements with the greatest values, ties included, greatest first")
+        void selectsWithTies() {
+            List<Integer> items = List.of(5, 1, 9, 5, 7, 9, 3, 5);
+
+            assertEquals(List.of(9, 9, 7, 5), FunctionalUtils.topK(items, 4, Comparator.naturalOrder()));
+            assertEquals(List.of(1, 3, 5), FunctionalUtils.bottomK(items, 3, Comparator.naturalOrder()));
+
+            // Tied elements are distinct objects: the kept ones must come from the input, each once
+            List<int[]> pairs = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                pairs.add(new int[]{i % 4, i});
+            }
+            List<int[]> top = FunctionalUtils.topK(pairs, 6, Comparator.comparingInt(pair -> pair[0]));
+            assertEquals(List.of(3, 3, 3, 3, 3, 2), top.stream().map(pair -> pair[0]).toList());
+            assertEquals(6, new HashSet<>(top).size());
+            assertTrue(pairs.containsAll(top));
+        }
+
+        @Test
+        @DisplayName("Should return everything sorted when k covers the list, and nothing for k = 0")
+        void handlesBoundaries() {
+            List<Integer> items = List.of(4, 2, 8, 6);
+
+            assertEquals(List.of(8, 6, 4, 2), FunctionalUtils.topK(items, 4, Comparator.naturalOrder()));
+            assertEquals(List.of(8, 6, 4, 2), FunctionalUtils.topK(items, 100, Comparator.naturalOrder()));
+            assertEquals(List.of(), FunctionalUtils.topK(items, 0, Comparator.naturalOrder()));
+            assertEquals(List.of(), FunctionalUtils.topK(items, -1, Comparator.naturalOrder()));
+            assertEquals(List.of(), FunctionalUtils.topK(List.<Integer>of(), 3, Comparator.naturalOrder()));
+        }
+
+        @Test
+        @DisplayName("Should match a full sort when the heaps are built in parallel and merged")
+        void matchesSortAboveThreshold() {
+            int size = FunctionalUtils.PARALLEL_THRESHOLD * 3;
+            SplittableRandom random = new SplittableRandom(17);
+            List<Integer> items = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                // Narrow range, so many values tie across the workers' heaps
+                items.add(random.nextInt(5_000));
+            }
+            List<Integer> sorted = items.stream().sorted(Comparator.reverseOrder()).toList();
+
+            for (int k : new int[]{1, 50, 1_000}) {
+                assertEquals(sorted.subList(0, k), FunctionalUtils.topK(items, k, Comparator.naturalOrder()));
+                assertEquals(sorted.reversed().subList(0, k), FunctionalUtils.bottomK(items, k, Comparator.naturalOrder()));
+            }
+            assertEquals(sorted, FunctionalUtils.topK(items, size + 1, Comparator.naturalOrder()));
+        }
+    }
+}